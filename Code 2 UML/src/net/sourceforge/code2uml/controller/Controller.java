@@ -26,6 +26,7 @@ import java.util.Collection;
 import java.util.Observer;
 import javax.swing.JProgressBar;
 import net.sourceforge.code2uml.graph.ConstructionHints;
+import net.sourceforge.code2uml.unitdata.ParseOptions;
 import net.sourceforge.code2uml.unitdata.UnitInfo;
 
 /**
@@ -95,6 +96,29 @@ public interface Controller {
                              Collection<String> namesFilter,
                              JProgressBar progress);
     
+    /**
+     * Gets definitions of classes/interfaces/enums from given files, as 
+     * processFiles(Collection, Collection, JProgressBar) does, reading only
+     * those of their parts which are needed according to <code>options</code>.
+     * If <code>options</code> skip anything, returned definitions should be
+     * used only to create a diagram with hints whose options they cover
+     * (see ConstructionHints.getParseOptions() and ParseOptions.covers());
+     * options which only defer members may be used for any diagram.
+     *
+     * @param filePaths files to read from
+     * @param namesFilter qualified names of classes/interfaces/enums that can
+     *        be returned; if this argument is null all classes/interfaces/enums
+     *        will be returned
+     * @param options tells which parts of classes/interfaces/enums should be
+     *        read; if this argument is null everything is read
+     * @param progress progress bar to show progress on; this argument is 
+     *        optional and may be null
+     */
+    public void processFiles(Collection<String> filePaths, 
+                             Collection<String> namesFilter,
+                             ParseOptions options,
+                             JProgressBar progress);
+    
     /**
      * Creates a graph of classes/interfaces/enums and their relationships from
      * information about them. Performs that operation in a background thread so
@@ -112,6 +136,33 @@ public interface Controller {
     public void processUnits(Collection<UnitInfo> units, JProgressBar progress, 
             ConstructionHints hints, Graphics g);
     
+    /**
+     * Creates a graph of classes/interfaces/enums defined in given files and
+     * their relationships. Files are read and nodes of the graph are created 
+     * at the same time, so the diagram is ready sooner than when calling
+     * processFiles() and then processUnits(). Performs that operation in 
+     * background threads so the caller doesn't need to do so. The Controller 
+     * notifies its observers when it is done: if all files have been read,
+     * first with an array of two Objects, Controller.UNITS_RESULT and a 
+     * collection of read UnitInfos, which may be used to construct the 
+     * diagram again (see processUnits()); then with an array of two Obejcts,
+     * first of them is Controller.GRAPH_RESULT, the second is the 
+     * constructed graph.
+     *
+     * @param filePaths files to read from
+     * @param namesFilter qualified names of classes/interfaces/enums that can
+     *        be included in the graph
+     * @param hints hints about what and how should be shown on the diagram;
+     *        only parts of classes/interfaces/enums needed by them are read
+     * @param g graphics object (needed to measure Strings)
+     * @param progress progress bar to show progress on; this argument is 
+     *        optional and may be null
+     */
+    public void processFiles(Collection<String> filePaths, 
+                             Collection<String> namesFilter,
+                             ConstructionHints hints, Graphics g,
+                             JProgressBar progress);
+    
     /**
      * Saves contents of Component comp to file filePath. Performs that 
      * operation in a background thread so the caller doesn't need to do so. The 
@@ -24,6 +24,7 @@ import java.awt.Component;
 import java.awt.Graphics;
 import java.beans.PropertyChangeEvent;
 import java.beans.PropertyChangeListener;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Observable;
 import java.util.concurrent.ExecutionException;
@@ -35,7 +36,10 @@ import net.sourceforge.code2uml.graph.Graph;
 import net.sourceforge.code2uml.graph.GraphWorker;
 import net.sourceforge.code2uml.image.ImageWorker;
 import net.sourceforge.code2uml.unitdata.NamesWorker;
+import net.sourceforge.code2uml.unitdata.ParseOptions;
 import net.sourceforge.code2uml.unitdata.UnitInfo;
+import net.sourceforge.code2uml.unitdata.UnitQueue;
+import net.sourceforge.code2uml.unitdata.UnitSink;
 import net.sourceforge.code2uml.unitdata.UnitsWorker;
 import net.sourceforge.code2uml.util.ProgressData;
 
@@ -82,8 +86,27 @@ class ControllerImpl extends Observable implements Controller {
      */
     public void processFiles(Collection<String> filePaths, 
                   Collection<String> namesFilter, final JProgressBar progress) {
+        processFiles(filePaths, namesFilter, null, progress);
+    }
+    
+    /**
+     * Gets definitions of classes/interfaces/enums from given files, as 
+     * processFiles(Collection, Collection, JProgressBar) does, reading only
+     * those of their parts which are needed according to <code>options</code>.
+     *
+     * @param filePaths files to read from
+     * @param namesFilter qualified names of classes/interfaces/enums that can
+     *        be returned; if this argument is null all classes/interfaces/enums
+     *        will be returned
+     * @param options tells which parts of classes/interfaces/enums should be
+     *        read; if this argument is null everything is read
+     * @param progress progress bar to show progress on; this argument is 
+     *        optional and may be null
+     */
+    public void processFiles(Collection<String> filePaths, Collection<String> namesFilter,
+                  ParseOptions options, final JProgressBar progress) {
         
-        final UnitsWorker worker = new UnitsWorker(filePaths, namesFilter);
+        final UnitsWorker worker = new UnitsWorker(filePaths, namesFilter, options);
         worker.addPropertyChangeListener(new PropertyChangeListener() {
             public void propertyChange(PropertyChangeEvent evt) {
                 String name = evt.getPropertyName();
@@ -146,6 +169,87 @@ class ControllerImpl extends Observable implements Controller {
         worker.execute();
     }
     
+    /**
+     * Creates a graph of classes/interfaces/enums defined in given files and
+     * their relationships. Runs a UnitsWorker and a GraphWorker at the same
+     * time, the first one puts units to a UnitQueue as soon as they are read 
+     * and the second one creates nodes from them. Progress bar shows progress 
+     * of reading files and then of spacing nodes. Units which are read are 
+     * also collected. When it is done, the Controller notifies its observers 
+     * first with an array of Controller.UNITS_RESULT and those units, if all 
+     * of them have been read, then with an array of Controller.GRAPH_RESULT
+     * and the constructed graph.
+     *
+     * @param filePaths files to read from
+     * @param namesFilter qualified names of classes/interfaces/enums that can
+     *        be included in the graph
+     * @param hints hints about what and how should be shown on the diagram;
+     *        only parts of classes/interfaces/enums needed by them are read
+     * @param g graphics object (needed to measure Strings)
+     * @param progress progress bar to show progress on; this argument is 
+     *        optional and may be null
+     */
+    public void processFiles(Collection<String> filePaths, Collection<String> namesFilter,
+                  ConstructionHints hints, Graphics g, final JProgressBar progress) {
+        
+        final UnitQueue queue = new UnitQueue();
+        final Collection<UnitInfo> units = new ArrayList<UnitInfo>();
+        final boolean[] closed = new boolean[1];
+        // passes units to the queue and keeps them, so that observers may
+        // construct the diagram again without reading files
+        UnitSink sink = new UnitSink() {
+            public boolean put(UnitInfo unit) throws InterruptedException {
+                units.add(unit);
+                return queue.put(unit);
+            }
+            
+            public void close() {
+                // seen by the graph worker after it takes the end marker
+                closed[0] = !queue.isCancelled();
+                queue.close();
+            }
+        };
+        final UnitsWorker unitsWorker = new UnitsWorker(filePaths, namesFilter, 
+                                                        hints.getParseOptions(), sink);
+        final GraphWorker graphWorker = new GraphWorker(queue, g, hints);
+        unitsWorker.addPropertyChangeListener(new PropertyChangeListener() {
+            public void propertyChange(PropertyChangeEvent evt) {
+                String name = evt.getPropertyName();
+                if(name.equals("progress") && progress != null && !graphWorker.isDone()) {
+                    ProgressData data = (ProgressData) evt.getNewValue();
+                    setProgress(progress, (int) data.getProgress() / 2, data.getMessage());
+                }
+            }
+        });
+        graphWorker.addPropertyChangeListener(new PropertyChangeListener() {
+            public void propertyChange(PropertyChangeEvent evt) {
+                String name = evt.getPropertyName();
+                if(name.equals("progress") && progress != null) {
+                    ProgressData data = (ProgressData) evt.getNewValue();
+                    setProgress(progress, (int) data.getProgress(), data.getMessage());
+                } else if(name.equals("state") && evt.getNewValue().equals(StateValue.DONE)) {
+                    try {
+                        Graph g = graphWorker.get();
+                        if(closed[0]) {
+                            setChanged();
+                            notifyObservers(new Object[]{Controller.UNITS_RESULT, units});
+                            clearChanged();
+                        }
+                        setChanged();
+                        notifyObservers(new Object[]{Controller.GRAPH_RESULT, g});
+                        clearChanged();
+                    } catch (InterruptedException ex) {
+                        ex.printStackTrace();
+                    } catch (ExecutionException ex) {
+                        ex.printStackTrace();
+                    }
+                }
+            }
+        });
+        graphWorker.execute();
+        unitsWorker.execute();
+    }
+    
     /**
      * Saves contents of Component comp to file filePath. The Controller notifies
      * its observers when it is done, setting norification argument to 
@@ -23,6 +23,8 @@ package net.sourceforge.code2uml.graph;
 import java.awt.Color;
 import java.awt.Font;
 import java.io.Serializable;
+import net.sourceforge.code2uml.unitdata.AccessType;
+import net.sourceforge.code2uml.unitdata.ParseOptions;
 
 /**
  * This class stores various information about how a graph (mainly its nodes)
@@ -416,4 +418,34 @@ public class ConstructionHints implements Serializable {
         this.hasAType = hasAType;
     }
     
+    /**
+     * Returns options telling a FileInspector to read only those parts of
+     * classes/interfaces/enums which are needed to create UML diagram with
+     * these hints. Units read with these options may be used only with
+     * hints whose options they cover (see ParseOptions.covers()). <br/><br/>
+     *
+     * The GUI reads units with them when a diagram is drawn, so members
+     * which are hidden are not decoded, and draws the same units again
+     * only with hints which need no more.
+     *
+     * @return options of reading classes/interfaces/enums derived from 
+     *         these hints
+     */
+    public ParseOptions getParseOptions() {
+        ParseOptions options = new ParseOptions();
+        options.setNonpublicUnitsRead(nonpublicUnitsVisible);
+        options.setFieldsRead(fieldsVisible);
+        options.setAssociationsRead(hasADrawn);
+        options.setEnumValuesRead(enumsVisible);
+        options.setMethodsRead(methodsVisible);
+        options.setArgumentsRead(argumentsVisible);
+        options.setStaticRead(staticVisible);
+        options.setFinalRead(finalVisible);
+        options.setAccessTypeRead(AccessType.PRIVATE, privateVisible);
+        options.setAccessTypeRead(AccessType.PACKAGE, packageVisible);
+        options.setAccessTypeRead(AccessType.PROTECTED, protectedVisible);
+        options.setAccessTypeRead(AccessType.PUBLIC, publicVisible);
+        return options;
+    }
+    
 }
@@ -24,6 +24,7 @@ import java.awt.Graphics;
 import java.util.Collection;
 import java.util.Observer;
 import net.sourceforge.code2uml.unitdata.UnitInfo;
+import net.sourceforge.code2uml.unitdata.UnitQueue;
 
 /**
  * Defines methods used to create a graph of classes/interfaces/enums and 
@@ -51,6 +52,22 @@ public interface GraphConstructor {
      */
     public Graph construct(Collection<UnitInfo> units, Graphics g, ConstructionHints hints);
     
+    /**
+     * Constructs a graph of classes/interfaces/enums and their relationships 
+     * from information about them which is still being read. A node is
+     * created for each unit as soon as it is taken from <code>units</code>,
+     * so node creation overlaps with reading files; relationships are added
+     * and nodes are spaced once the queue is closed. Since number of units is
+     * not known in advance, Observers are notified only about spacing of 
+     * nodes.
+     *
+     * @param units queue to which read classes/interfaces/enums are put
+     * @param g graphics of container on which graph will be drawn
+     * @param hints hints about how graph should be created
+     * @return fully constructed graph
+     */
+    public Graph construct(UnitQueue units, Graphics g, ConstructionHints hints);
+    
     /**
      * Adds an Observer to this object.
      *
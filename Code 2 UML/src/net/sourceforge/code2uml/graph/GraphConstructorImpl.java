@@ -21,8 +21,10 @@
 package net.sourceforge.code2uml.graph;
 
 import java.awt.Graphics;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Observable;
 import java.util.Observer;
@@ -31,6 +33,7 @@ import net.sourceforge.code2uml.graph.layouts.GraphLayoutFactory;
 import net.sourceforge.code2uml.graph.layouts.GraphLayoutFactoryImpl;
 import net.sourceforge.code2uml.unitdata.FieldInfo;
 import net.sourceforge.code2uml.unitdata.UnitInfo;
+import net.sourceforge.code2uml.unitdata.UnitQueue;
 import net.sourceforge.code2uml.util.GenericNameConverter;
 import net.sourceforge.code2uml.util.ProgressData;
 
@@ -57,7 +60,9 @@ public class GraphConstructorImpl extends Observable implements GraphConstructor
      * it processes a UnitInfo and creates a graph node from it <br/>
      * it chooses coordinates for a node <br/>
      * Observers should assume that notifications number 1 to units.size() are
-     * about node creation, the rest about their layout.
+     * about node creation, the rest about their layout. A unit whose members
+     * can't be read is left out of the graph, and the last notification
+     * tells how many units were left out.
      *
      * @param units information about classes/interfaces/emums to include
      * @param g graphics of container on which graph will be drawn
@@ -66,18 +71,16 @@ public class GraphConstructorImpl extends Observable implements GraphConstructor
      *         a Container and will be correctly displayed
      */
     public Graph construct(final Collection<UnitInfo> units, Graphics g, ConstructionHints hints) {
-        Graph graph = new GraphImpl();
         NodeConstructor constructor = new NodeConstructorImpl();
-        GenericNameConverter converter = new GenericNameConverter();
         Map<String, NodeComponent> nodes = new HashMap<String, NodeComponent>();
         Map<String, UnitInfo> unitsMap = new HashMap<String, UnitInfo>();
+        List<String> unreadable = new ArrayList<String>();
         
         boolean showNonpublic = hints.isNonpublicUnitsVisible();
         int unitCount = 0;
         for(UnitInfo unit : units) {
             if(showNonpublic || unit.isPublic()) {
-                unitsMap.put(unit.getName(), unit);
-                nodes.put(unit.getName(), constructor.construct(unit, g, hints));
+                addNode(constructor, unit, g, hints, nodes, unitsMap, unreadable);
                 unitCount++;
             }
             setChanged();
@@ -85,41 +88,123 @@ public class GraphConstructorImpl extends Observable implements GraphConstructor
             clearChanged();
         }
         
+        return complete(nodes, unitsMap, unreadable, hints);
+    }
+    
+    /**
+     * Constructs a graph of classes/interfaces/enums and their relationships 
+     * from information about them which is still being read. Nodes are
+     * created as units are taken from <code>units</code>; relationships are
+     * added and nodes are spaced after the queue is closed. Observers are
+     * notified only when coordinates for a node are chosen, with progress
+     * between 50 and 100.
+     *
+     * @param units queue to which read classes/interfaces/enums are put
+     * @param g graphics of container on which graph will be drawn
+     * @param hints hints about how graph should be created
+     * @return fully constructed graph; its nodes and edges can be added to
+     *         a Container and will be correctly displayed
+     */
+    public Graph construct(UnitQueue units, Graphics g, ConstructionHints hints) {
+        NodeConstructor constructor = new NodeConstructorImpl();
+        Map<String, NodeComponent> nodes = new HashMap<String, NodeComponent>();
+        Map<String, UnitInfo> unitsMap = new HashMap<String, UnitInfo>();
+        List<String> unreadable = new ArrayList<String>();
+        
+        boolean showNonpublic = hints.isNonpublicUnitsVisible();
         for(UnitInfo unit : units) {
-            if(showNonpublic || unit.isPublic()) {
-                for(String name : unit.getSupertypes()) {
-                    if(nodes.containsKey(name)) {
-                        UnitInfo target = unitsMap.get(name);
-                        if(target.isClass() && hints.isGeneralizationDrawn() ||
-                                target.isInterface() && hints.isRealizationDrawn()) {
+            if(showNonpublic || unit.isPublic())
+                addNode(constructor, unit, g, hints, nodes, unitsMap, unreadable);
+        }
+        
+        return complete(nodes, unitsMap, unreadable, hints);
+    }
+    
+    /**
+     * Creates a node from a unit and adds both to maps by the unit's name.
+     * If members of the unit can't be read (see LazyUnitInfo), nothing is
+     * added and the unit's name is added to <code>unreadable</code>.
+     *
+     * @param constructor constructor of nodes
+     * @param unit class/interface/enum to create a node from
+     * @param g graphics of container on which graph will be drawn
+     * @param hints hints about how graph should be created
+     * @param nodes nodes mapped by qualified names of units they represent
+     * @param unitsMap units from which nodes were created mapped by their
+     *        qualified names
+     * @param unreadable names of units whose members can't be read
+     */
+    private void addNode(NodeConstructor constructor, UnitInfo unit, Graphics g, 
+                         ConstructionHints hints, Map<String, NodeComponent> nodes,
+                         Map<String, UnitInfo> unitsMap, List<String> unreadable) {
+        try {
+            nodes.put(unit.getName(), constructor.construct(unit, g, hints));
+            unitsMap.put(unit.getName(), unit);
+        } catch(IllegalStateException ex) {
+            ex.printStackTrace();
+            unreadable.add(unit.getName());
+        }
+    }
+    
+    /**
+     * Adds edges between already created nodes and spaces them. A unit whose
+     * fields can't be read gets no "has a" edges and its name is added to
+     * <code>unreadable</code>. If members of any units can't be read, the
+     * last notification tells how many of them there are.
+     *
+     * @param nodes nodes mapped by qualified names of units they represent
+     * @param unitsMap units from which nodes were created mapped by their
+     *        qualified names
+     * @param unreadable names of units whose members can't be read
+     * @param hints hints about how graph should be created
+     * @return fully constructed graph
+     */
+    private Graph complete(Map<String, NodeComponent> nodes, Map<String, UnitInfo> unitsMap,
+                           List<String> unreadable, ConstructionHints hints) {
+        Graph graph = new GraphImpl();
+        GenericNameConverter converter = new GenericNameConverter();
+        
+        for(UnitInfo unit : unitsMap.values()) {
+            for(String name : unit.getSupertypes()) {
+                if(nodes.containsKey(name)) {
+                    UnitInfo target = unitsMap.get(name);
+                    if(target.isClass() && hints.isGeneralizationDrawn() ||
+                            target.isInterface() && hints.isRealizationDrawn()) {
+                        EdgeComponent edge = new EdgeComponent();
+                        edge.setFrom(nodes.get(unit.getName()));
+                        edge.setTo(nodes.get(name));
+                        if(target.isInterface())
+                            edge.setType(EdgeType.REALIZATION);
+                        else
+                            edge.setType(EdgeType.GENERALIZATION);
+                        nodes.get(unit.getName()).addEdge(edge);
+                    }
+                }
+            }
+            
+            if(hints.isHasADrawn()) {
+                Collection<FieldInfo> fields;
+                try {
+                    fields = unit.getFields();
+                } catch(IllegalStateException ex) {
+                    ex.printStackTrace();
+                    unreadable.add(unit.getName());
+                    continue;
+                }
+                for(FieldInfo field : fields) {
+                    if(field.isStatic())
+                        continue;
+                    
+                    for(String type : converter.getTypeNames(field.getTypeName())) {
+                        if(nodes.containsKey(type)) {
                             EdgeComponent edge = new EdgeComponent();
                             edge.setFrom(nodes.get(unit.getName()));
-                            edge.setTo(nodes.get(name));
-                            if(target.isInterface())
-                                edge.setType(EdgeType.REALIZATION);
-                            else
-                                edge.setType(EdgeType.GENERALIZATION);
+                            edge.setTo(nodes.get(type));
+                            edge.setType(hints.getHasAType());
                             nodes.get(unit.getName()).addEdge(edge);
                         }
                     }
                 }
-                
-                if(hints.isHasADrawn()) {
-                    for(FieldInfo field : unit.getFields()) {
-                        if(field.isStatic())
-                            continue;
-                        
-                        for(String type : converter.getTypeNames(field.getTypeName())) {
-                            if(nodes.containsKey(type)) {
-                                EdgeComponent edge = new EdgeComponent();
-                                edge.setFrom(nodes.get(unit.getName()));
-                                edge.setTo(nodes.get(type));
-                                edge.setType(hints.getHasAType());
-                                nodes.get(unit.getName()).addEdge(edge);
-                            }
-                        }
-                    }
-                }
             }
         }
         
@@ -135,6 +220,12 @@ public class GraphConstructorImpl extends Observable implements GraphConstructor
         });
         layout.layout(graph);
         
+        if(!unreadable.isEmpty()) {
+            setChanged();
+            notifyObservers(new ProgressData(100.0, "members of " + unreadable.size() + 
+                    " units can't be read, e.g. of " + unreadable.get(0)));
+            clearChanged();
+        }
         return graph;
     }
     
@@ -26,6 +26,7 @@ import java.util.Observable;
 import java.util.Observer;
 import javax.swing.SwingWorker;
 import net.sourceforge.code2uml.unitdata.UnitInfo;
+import net.sourceforge.code2uml.unitdata.UnitQueue;
 
 /**
  * Represents a background thread which constructs a graph of classes/interfaces/emums
@@ -46,6 +47,7 @@ public class GraphWorker extends SwingWorker<Graph, Object> implements Observer
     private GraphConstructor constructor = new GraphConstructorImpl();
     //private int notifyCount = 0;
     private Collection<UnitInfo> units;
+    private UnitQueue queue;
     private Graphics g;
     private ConstructionHints hints;
     
@@ -62,6 +64,22 @@ public class GraphWorker extends SwingWorker<Graph, Object> implements Observer
         this.g = g;
         this.hints = hints;
     }
+    
+    /** 
+     * Creates a new instance of GraphWorker which creates nodes of graph
+     * while definitions of classes/interfaces/enums are still being read 
+     * and put to <code>queue</code>.
+     *
+     * @param queue queue to which definitions of classes/interfaces/enums 
+     *        from which graph should be created are put
+     * @param g graphics object of Container on which graph will be drawn
+     * @param hints hints about how graph should be created
+     */
+    public GraphWorker(UnitQueue queue, Graphics g, ConstructionHints hints) {
+        this.queue = queue;
+        this.g = g;
+        this.hints = hints;
+    }
 
     /**
      * Creates a graph f classes/interfaces/emums and relationships between them
@@ -72,6 +90,13 @@ public class GraphWorker extends SwingWorker<Graph, Object> implements Observer
      */
     protected Graph doInBackground() throws Exception {
         constructor.addObserver(this);
+        if(queue != null) {
+            try {
+                return constructor.construct(queue, g, hints);
+            } finally {
+                queue.cancel();
+            }
+        }
         return constructor.construct(units, g, hints);
     }
 
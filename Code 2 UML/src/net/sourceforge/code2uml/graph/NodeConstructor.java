@@ -39,6 +39,8 @@ public interface NodeConstructor {
      * @param g graphics object of Container to ehich this node will be added
      * @param hints hints about how node should be created
      * @return a node constructed from inforamtion in <code>unit</code>
+     * @throws IllegalStateException if members of <code>unit</code> which
+     *         should be shown can't be read (see LazyUnitInfo)
      */
     public NodeComponent construct(UnitInfo unit, Graphics g, ConstructionHints hints);
 }
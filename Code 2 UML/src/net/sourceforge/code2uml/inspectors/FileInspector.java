@@ -21,7 +21,9 @@
 package net.sourceforge.code2uml.inspectors;
 
 import java.util.Collection;
+import net.sourceforge.code2uml.unitdata.ParseOptions;
 import net.sourceforge.code2uml.unitdata.UnitInfo;
+import net.sourceforge.code2uml.util.NamesFilter;
 
 /**
  * Defines methods used to get definitions of classes/interfaces/enums from
@@ -67,6 +69,28 @@ public interface FileInspector {
      */
     public Collection<UnitInfo> inspect(String filePath, Collection<String> namesFilter);
     
+    /**
+     * Returns from specified file definitions of those classes/interfaces/enums
+     * which have qualified names belonging to <code>namesFilter</code>, 
+     * reading only those of their parts which are needed according to <code>
+     * options</code>. Units which are not needed at all (for example 
+     * nonpublic ones, if options say so) are not returned. <br/>
+     * <code>inspect(filePath, namesFilter, null)</code> is equivalent to 
+     * <code>inspect(filePath, namesFilter)</code>
+     *
+     * @param filePath path to the file to read from
+     * @param namesFilter qualified names and rules (see NamesFilter) of
+     *        classes/interfaces/enums which are allowed to be returned; if
+     *        this parameter is null all definitions will be returned
+     * @param options tells which parts of classes/interfaces/enums should be
+     *        read; if this parameter is null everything is read
+     * @return collection of objects representing classes/interfaces/enums
+     *         defined in file <code>filePath</code> which names are in <code>
+     *         namesFiler</code> or null
+     */
+    public Collection<UnitInfo> inspect(String filePath, NamesFilter namesFilter,
+                                        ParseOptions options);
+    
     /**
      * Returns qualified names of classes/interfaces/enums defined in specified 
      * file.
@@ -38,4 +38,15 @@ public interface InspectorsFactory {
      */
     public FileInspector getInspector(String fileExtension);
     
+    /**
+     * Get a FileInspector for given path of a file or a directory or for a
+     * jrt:/ path (classes of the JDK). A file is recognized by its extension,
+     * as in getInspector(String). This method never returns null.
+     *
+     * @param path path of a file or a directory or a jrt:/ path
+     * @return FileInspector for given path or NullFileInspector if it is not
+     *         recognized
+     */
+    public FileInspector getInspectorForPath(String path);
+    
 }
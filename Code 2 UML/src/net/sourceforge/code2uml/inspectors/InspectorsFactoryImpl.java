@@ -20,10 +20,13 @@
 
 package net.sourceforge.code2uml.inspectors;
 
+import java.io.File;
 import java.util.HashMap;
 import java.util.Map;
 import net.sourceforge.code2uml.inspectors.java.ClassFileInspector;
+import net.sourceforge.code2uml.inspectors.java.DirectoryInspector;
 import net.sourceforge.code2uml.inspectors.java.JarFileInspector;
+import net.sourceforge.code2uml.inspectors.java.JrtInspector;
 
 /**
  * This class is responsible for selecting the right FileInspector for given
@@ -35,13 +38,17 @@ public class InspectorsFactoryImpl implements InspectorsFactory {
     
     Map<String, FileInspector> inspectors = new HashMap<String, FileInspector>();
     FileInspector nullInspector = new NullFileInspector();
+    FileInspector directoryInspector = new DirectoryInspector();
+    FileInspector jrtInspector = new JrtInspector();
     
     /**
      * Creates a new instance of InspectorsFactoryImpl.
      */
     public InspectorsFactoryImpl() {
         inspectors.put("class", new ClassFileInspector());
-        inspectors.put("jar", new JarFileInspector());
+        JarFileInspector jarInspector = new JarFileInspector();
+        inspectors.put("jar", jarInspector);
+        inspectors.put("war", jarInspector);
     }
     
     /**
@@ -58,4 +65,23 @@ public class InspectorsFactoryImpl implements InspectorsFactory {
         return inspector != null? inspector : nullInspector;
     }
     
+    /**
+     * Get a FileInspector for given path. jrt:/ paths are read by a
+     * JrtInspector, directories by a DirectoryInspector, files are recognized
+     * by their extension. This method never returns null.
+     *
+     * @param path path of a file or a directory or a jrt:/ path
+     * @return FileInspector for given path or NullFileInspector if it is not
+     *         recognized
+     */
+    public FileInspector getInspectorForPath(String path) {
+        if(JrtInspector.isJrtPath(path))
+            return jrtInspector;
+        File file = new File(path);
+        if(file.isDirectory())
+            return directoryInspector;
+        String name = file.getName();
+        return getInspector(name.substring(name.lastIndexOf('.') + 1));
+    }
+    
 }
@@ -21,7 +21,9 @@
 package net.sourceforge.code2uml.inspectors;
 
 import java.util.Collection;
+import net.sourceforge.code2uml.unitdata.ParseOptions;
 import net.sourceforge.code2uml.unitdata.UnitInfo;
+import net.sourceforge.code2uml.util.NamesFilter;
 
 /**
  * FileInspector intended for inspecting unrecognized files. Always returns null.
@@ -68,5 +70,21 @@ public class NullFileInspector implements FileInspector {
     public Collection<UnitInfo> inspect(String filePath, Collection<String> namesFilter) {
         return null;
     }
+
+    /**
+     * Returns null.
+     * 
+     * @param filePath path to the file to read from
+     * @param namesFilter qualified names and rules (see NamesFilter) of
+     *        classes/interfaces/enums which are allowed to be returned; if
+     *        this parameter is null all definitions will be returned
+     * @param options tells which parts of classes/interfaces/enums should be
+     *        read; if this parameter is null everything is read
+     * @return null
+     */
+    public Collection<UnitInfo> inspect(String filePath, NamesFilter namesFilter,
+                                        ParseOptions options) {
+        return null;
+    }
     
 }
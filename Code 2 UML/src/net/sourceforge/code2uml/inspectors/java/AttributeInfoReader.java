@@ -21,21 +21,61 @@
 package net.sourceforge.code2uml.inspectors.java;
 
 import java.io.DataInput;
+import java.io.EOFException;
 import java.io.IOException;
+import java.util.Arrays;
 
 /**
- * Reads attribute_info structure from a .class file.
+ * Reads attribute_info structures from a .class file. <br/><br/>
+ *
+ * Attributes are dispatched by their attribute_name_index: before attributes
+ * of a class are read, resolve() finds in its constant pool the indexes of
+ * names of attributes this reader is interested in. Reading an attribute then
+ * costs one array lookup and every other attribute (most notably Code, which
+ * makes up the bulk of a .class file) is skipped in one skipBytes() call.
+ * One AttributeInfoReader may be shared by readers of fields and methods of
+ * the same class.
  *
  * @author Mateusz Wenus
  */
 public class AttributeInfoReader {
     
+    private static final int OTHER = 0;
+    private static final int SIGNATURE = 1;
+    
+    private ConstantPool pool;
+    private byte[] kinds = new byte[0];
+    
     /** 
      * Creates a new instance of AttributeInfoReader. 
      */
     public AttributeInfoReader() {
     }
     
+    /**
+     * Finds in <code>pool</code> names of attributes which this reader 
+     * dispatches. Must be called before attributes of a class using that 
+     * constant pool are read; readSignatureIndex() calls it if it is given
+     * a different pool than the last one. A pool which is reset and refilled
+     * for another class is the same object, so it must be resolved again
+     * explicitly (ClassFileReader does it for every class).
+     *
+     * @param pool constant pool of the .class file whose attributes will be read
+     */
+    void resolve(ConstantPool pool) {
+        int count = pool.getCount();
+        if(kinds.length < count)
+            kinds = new byte[count];
+        else
+            Arrays.fill(kinds, 0, count, (byte) OTHER);
+        for(int i = 1; i < count; i++) {
+            if(pool.getTag(i) == ConstantPoolReader.CONSTANT_Utf8 && 
+               pool.utf8Equals(i, "Signature"))
+                kinds[i] = SIGNATURE;
+        }
+        this.pool = pool;
+    }
+    
     /**
      * Reads through attribute_info structures, ignoring them. The only purpose
      * of this method is to make the next call of in.readX() return data right
@@ -48,40 +88,70 @@ public class AttributeInfoReader {
         int attributesCount = in.readUnsignedShort();
         for(int i = 0; i < attributesCount; i++) {
             in.readUnsignedShort();
-            int max = in.readInt();
-            for(int j = 0; j < max; j++)
-                in.readByte();
+            skipFully(in, in.readInt());
         }
     }
     
     /**
      * Reads attributes_info and returns an index into the constant pool at 
      * which a signature is stored. The <code>pool</code> parameter stores 
-     * contents of .class file's constant pool in format returned by
-     * ConstantPoolReader.
+     * contents of .class file's constant pool.
      *
      * @param in DataInput to read from
      * @param pool constant_pool
      * @throws IOException if an I/O error occurs
      * @return the index into the constant pool at which a signature is stored.
      */
-    public int readSignatureIndex(DataInput in, Object[] pool) throws IOException {
+    int readSignatureIndex(DataInput in, ConstantPool pool) throws IOException {
+        if(pool != this.pool)
+            resolve(pool);
         int signatureIndex = -1;
         int attributesCount = in.readUnsignedShort();
         for(int i = 0; i < attributesCount; i++) {
             int idx = in.readUnsignedShort();
-            boolean signature = pool[idx] != null &&
-                                pool[idx] instanceof String &&
-                                pool[idx].equals("Signature");
-            if(signature) {
-                in.readInt();
+            int length = in.readInt();
+            if(kind(idx) == SIGNATURE) {
                 signatureIndex = in.readUnsignedShort();
+                skipFully(in, length - 2);
             } else {
-                int max = in.readInt();
-                for(int j = 0; j < max; j++)
-                    in.readByte();
+                skipFully(in, length);
             }
         }
         return signatureIndex;
     }
+    
+    /**
+     * Returns kind of the attribute whose attribute_name_index is <code>idx
+     * </code>.
+     *
+     * @param idx attribute_name_index of an attribute
+     * @return kind of that attribute, OTHER if it is not dispatched
+     */
+    private int kind(int idx) {
+        return idx < pool.getCount()? kinds[idx] : OTHER;
+    }
+    
+    /**
+     * Skips exactly <code>n</code> bytes of <code>in</code>. 
+     *
+     * @param in DataInput to read from
+     * @param n number of bytes to skip; unsigned attribute_length is treated
+     *        as a signed int, just like in.readInt() returns it, so negative
+     *        values mean more data than a .class file may have
+     * @throws IOException if there is less than <code>n</code> bytes left or
+     *         an I/O error occurs
+     */
+    static void skipFully(DataInput in, int n) throws IOException {
+        if(n < 0)
+            throw new EOFException();
+        while(n > 0) {
+            int skipped = in.skipBytes(n);
+            if(skipped <= 0) {
+                // throws EOFException at the end of data
+                in.readByte();
+                skipped = 1;
+            }
+            n -= skipped;
+        }
+    }
 }
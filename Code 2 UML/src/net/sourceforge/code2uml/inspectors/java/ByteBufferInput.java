@@ -0,0 +1,330 @@
+/*
+ * ByteBufferInput.java
+ *
+ * Created on 17 October 2026, 10:12
+ *
+ * Copyright 2026 Code2Uml contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.sourceforge.code2uml.inspectors.java;
+
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+/**
+ * DataInput reading from a ByteBuffer containing a whole .class file. Reads
+ * use absolute offsets (they never change buffer's position, limit or
+ * byte order), so many ByteBufferInputs may share one buffer. Offsets are
+ * relative to buffer's position at the time this object was created.
+ * <br/><br/>
+ * Skipping bytes is a simple change of current offset, which makes skipping
+ * uninteresting parts of a .class file (for example method bodies) cheap.
+ *
+ * @author Code2Uml contributors
+ */
+class ByteBufferInput implements DataInput {
+
+    private ByteBuffer buffer;
+    private int base;
+    private int limit;
+    private int offset;
+
+    /**
+     * Creates a new instance of ByteBufferInput reading bytes from <code>
+     * buffer</code>'s position to its limit.
+     *
+     * @param buffer buffer containing a .class file
+     */
+    public ByteBufferInput(ByteBuffer buffer) {
+        reset(buffer);
+    }
+
+    /**
+     * Makes this ByteBufferInput read bytes from <code>buffer</code>'s 
+     * position to its limit, as if it was just created for it. It is used
+     * to read many .class files with one instance.
+     *
+     * @param buffer buffer containing a .class file; null to forget the last
+     *        one
+     */
+    void reset(ByteBuffer buffer) {
+        if(buffer != null && buffer.order() != ByteOrder.BIG_ENDIAN)
+            buffer = buffer.duplicate().order(ByteOrder.BIG_ENDIAN);
+        this.buffer = buffer;
+        this.base = buffer != null? buffer.position() : 0;
+        this.limit = buffer != null? buffer.limit() : 0;
+        this.offset = base;
+    }
+
+    /**
+     * Returns the underlying buffer.
+     *
+     * @return the underlying buffer
+     */
+    public ByteBuffer getBuffer() {
+        return buffer;
+    }
+
+    /**
+     * Returns current offset, relative to the beginning of the .class file.
+     *
+     * @return current offset
+     */
+    public int getOffset() {
+        return offset - base;
+    }
+
+    /**
+     * Returns absolute index into the underlying buffer of the byte at current
+     * offset.
+     *
+     * @return absolute index into the buffer of the next byte to read
+     */
+    public int getIndex() {
+        return offset;
+    }
+    
+    /**
+     * Sets absolute index into the underlying buffer of the next byte to read.
+     *
+     * @param index new absolute index of the next byte to read
+     */
+    public void setIndex(int index) {
+        this.offset = index;
+    }
+    
+    /**
+     * Sets current offset, relative to the beginning of the .class file.
+     *
+     * @param offset new current offset
+     */
+    public void setOffset(int offset) {
+        this.offset = base + offset;
+    }
+
+    /**
+     * Returns number of bytes between current offset and the end of data.
+     *
+     * @return number of bytes that can still be read
+     */
+    public int remaining() {
+        return limit - offset;
+    }
+
+    /**
+     * Checks if <code>n</code> bytes can be read from current offset and
+     * returns current absolute index into the buffer.
+     *
+     * @param n number of bytes that will be read
+     * @return absolute index into the buffer of the first byte to read
+     * @throws EOFException if there are less than <code>n</code> bytes left
+     */
+    private int index(int n) throws EOFException {
+        int idx = offset;
+        if(n > limit - idx)
+            throw new EOFException();
+        offset = idx + n;
+        return idx;
+    }
+
+    /**
+     * Reads <code>b.length</code> bytes into <code>b</code>.
+     *
+     * @throws IOException if there is not enough data left
+     */
+    public void readFully(byte[] b) throws IOException {
+        readFully(b, 0, b.length);
+    }
+
+    /**
+     * Reads <code>len</code> bytes into <code>b</code>, starting at <code>off</code>.
+     *
+     * @throws IOException if there is not enough data left
+     */
+    public void readFully(byte[] b, int off, int len) throws IOException {
+        int idx = index(len);
+        for(int i = 0; i < len; i++)
+            b[off + i] = buffer.get(idx + i);
+    }
+
+    /**
+     * Skips <code>n</code> bytes (or less if the end of data is reached) by
+     * moving current offset.
+     *
+     * @param n number of bytes to skip
+     * @return number of bytes actually skipped
+     */
+    public int skipBytes(int n) {
+        if(n <= 0)
+            return 0;
+        n = Math.min(n, limit - offset);
+        offset += n;
+        return n;
+    }
+
+    /**
+     * Reads one byte and returns true if it is not zero.
+     *
+     * @throws IOException if there is not enough data left
+     */
+    public boolean readBoolean() throws IOException {
+        return buffer.get(index(1)) != 0;
+    }
+
+    /**
+     * Reads one byte.
+     *
+     * @throws IOException if there is not enough data left
+     */
+    public byte readByte() throws IOException {
+        return buffer.get(index(1));
+    }
+
+    /**
+     * Reads one unsigned byte.
+     *
+     * @throws IOException if there is not enough data left
+     */
+    public int readUnsignedByte() throws IOException {
+        return buffer.get(index(1)) & 0xFF;
+    }
+
+    /**
+     * Reads a big-endian short.
+     *
+     * @throws IOException if there is not enough data left
+     */
+    public short readShort() throws IOException {
+        return buffer.getShort(index(2));
+    }
+
+    /**
+     * Reads a big-endian unsigned short.
+     *
+     * @throws IOException if there is not enough data left
+     */
+    public int readUnsignedShort() throws IOException {
+        return buffer.getShort(index(2)) & 0xFFFF;
+    }
+
+    /**
+     * Reads a big-endian char.
+     *
+     * @throws IOException if there is not enough data left
+     */
+    public char readChar() throws IOException {
+        return buffer.getChar(index(2));
+    }
+
+    /**
+     * Reads a big-endian int.
+     *
+     * @throws IOException if there is not enough data left
+     */
+    public int readInt() throws IOException {
+        return buffer.getInt(index(4));
+    }
+
+    /**
+     * Reads a big-endian long.
+     *
+     * @throws IOException if there is not enough data left
+     */
+    public long readLong() throws IOException {
+        return buffer.getLong(index(8));
+    }
+
+    /**
+     * Reads a big-endian float.
+     *
+     * @throws IOException if there is not enough data left
+     */
+    public float readFloat() throws IOException {
+        return buffer.getFloat(index(4));
+    }
+
+    /**
+     * Reads a big-endian double.
+     *
+     * @throws IOException if there is not enough data left
+     */
+    public double readDouble() throws IOException {
+        return buffer.getDouble(index(8));
+    }
+
+    /**
+     * Reads a line of text, as DataInputStream.readLine() does: each byte is
+     * one char and the line ends with '\n', '\r', "\r\n" or the end of data.
+     *
+     * @return the line without its terminator or null if there is no data
+     *         left
+     */
+    public String readLine() {
+        if(offset >= limit)
+            return null;
+        StringBuilder line = new StringBuilder();
+        while(offset < limit) {
+            int c = buffer.get(offset++) & 0xFF;
+            if(c == '\n')
+                break;
+            if(c == '\r') {
+                if(offset < limit && buffer.get(offset) == '\n')
+                    offset++;
+                break;
+            }
+            line.append((char) c);
+        }
+        return line.toString();
+    }
+
+    /**
+     * Reads a String in modified UTF-8 format, preceded by its length.
+     *
+     * @throws IOException if there is not enough data left
+     */
+    public String readUTF() throws IOException {
+        return DataInputStream.readUTF(this);
+    }
+
+    /**
+     * Reads all bytes from <code>in</code> into a heap ByteBuffer. Does not
+     * close <code>in</code>.
+     *
+     * @param in stream to read from
+     * @param sizeHint expected number of bytes in that stream or a negative
+     *        value if it is not known
+     * @return buffer which contains all read bytes, its position is 0 and
+     *         limit is equal to the number of bytes read
+     * @throws IOException if an I/O error occurs
+     */
+    public static ByteBuffer readFully(InputStream in, long sizeHint) throws IOException {
+        byte[] data = new byte[sizeHint >= 0 && sizeHint < Integer.MAX_VALUE?
+                                   (int) sizeHint + 1 : 4096];
+        int length = 0;
+        int read;
+        while((read = in.read(data, length, data.length - length)) != -1) {
+            length += read;
+            if(length == data.length)
+                data = Arrays.copyOf(data, data.length * 2);
+        }
+        return ByteBuffer.wrap(data, 0, length);
+    }
+}
@@ -20,15 +20,19 @@
 
 package net.sourceforge.code2uml.inspectors.java;
 
-import java.io.DataInputStream;
+import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentMap;
 import net.sourceforge.code2uml.inspectors.FileInspector;
+import net.sourceforge.code2uml.unitdata.ContentIndex;
+import net.sourceforge.code2uml.unitdata.LazyUnitInfo;
+import net.sourceforge.code2uml.unitdata.ParseOptions;
 import net.sourceforge.code2uml.unitdata.UnitInfo;
+import net.sourceforge.code2uml.util.NamesFilter;
 
 /**
  * FileInspector responsible for dealing with java .class files. See .class file
@@ -40,10 +44,17 @@ public class ClassFileInspector implements FileInspector {
     
     /**
      * Contains pairs filepath - qualified name of class/interface/enum defined
-     * in that file. This cache is common for all ClassFileInspectors and is
-     * thread safe.
+     * in that file. This cache is common for all ClassFileInspectors and
+     * JarFileInspectors and is thread safe.
      */
-    private static ConcurrentMap<String, String> cache = new ConcurrentHashMap<String, String>();
+    private static NameCache cache = NameCache.getShared();
+    
+    /**
+     * .class files at least that large (in bytes) are memory-mapped, smaller
+     * ones are read into a heap buffer with a single read - mapping a file is
+     * more expensive than reading a few kilobytes.
+     */
+    private static final long mappingThreshold = 64 * 1024;
     
     /**
      * Creates a new instance of ClassFileInspector
@@ -61,8 +72,25 @@ public class ClassFileInspector implements FileInspector {
      *         defined in file <code>filePath</code> or null
      */
     public Collection<UnitInfo> inspect(String filePath) {
+        return inspectUnit(filePath, null, null);
+    }
+    
+    /**
+     * Returns definition of the class/interface/enum from specified file in
+     * a collection, if it is in <code>namesFilter</code>.
+     *
+     * @param filePath path to the file to read from
+     * @param namesFilter qualified names of classes/interfaces/enums which
+     *        are allowed to be returned or null
+     * @param options tells which parts of the class/interface/enum should be
+     *        read or null
+     * @return collection containing the object representing class/interface/enum
+     *         defined in file <code>filePath</code> or null
+     */
+    private Collection<UnitInfo> inspectUnit(String filePath, NamesFilter namesFilter,
+                                             ParseOptions options) {
         ArrayList<UnitInfo> al = null;
-        UnitInfo unit = processClassFile(filePath, UnitInfo.class);
+        UnitInfo unit = processClassFile(filePath, UnitInfo.class, namesFilter, options);
         if(unit != null) {
             al = new ArrayList<UnitInfo>(1);
             al.add(unit);
@@ -86,29 +114,42 @@ public class ClassFileInspector implements FileInspector {
      *         namesFiler</code> or null
      */
     public Collection<UnitInfo> inspect(String filePath, Collection<String> namesFilter) {
+        return inspect(filePath, NamesFilter.of(namesFilter), null);
+    }
+    
+    /**
+     * Returns from specified file definitions of those classes/interfaces/enums
+     * which have qualified names belonging to <code>namesFilter</code>, reading
+     * only those of their parts which are needed according to <code>options
+     * </code>.
+     *
+     * @param filePath path to the file to read from
+     * @param namesFilter qualified names and rules (see NamesFilter) of
+     *        classes/interfaces/enums which are allowed to be returned; if
+     *        this parameter is null all definitions will be returned
+     * @param options tells which parts of classes/interfaces/enums should be
+     *        read; if this parameter is null everything is read
+     * @return collection of objects representing classes/interfaces/enums
+     *         defined in file <code>filePath</code> which names are in <code>
+     *         namesFiler</code> or null
+     */
+    public Collection<UnitInfo> inspect(String filePath, NamesFilter namesFilter,
+                                        ParseOptions options) {
+        if(namesFilter != null) {
+            /*
+             * if you know what class is defined is filePath and that class is
+             * not in namesFilter, then there's no need to read this file
+             */
+            String name = getCachedName(filePath);
+            if(name != null && !namesFilter.accepts(name))
+                return null;
+        }
         
         /*
-         * if you know what class is defined is filePath and that class is
-         * not in namesFilter, then there's no need to read this file
-         */
-        if(cache.containsKey(filePath) && !namesFilter.contains(cache.get(filePath)))
-            return null;
-        
-        /*
-         * Note that cache is automatically updated.
-         */
-        Collection<UnitInfo> units = inspect(filePath);
-        
-        /*
-         * units is either null (so return null) or contains one element (so
-         * check if that element is in namesFilter)
+         * Note that cache is automatically updated. A class which is not in
+         * namesFilter is rejected right after this_class is read.
          */
-        if(units == null)
-            return null;
-        if(namesFilter.contains(units.iterator().next().getName()))
-            return units;
-        else
-            return null;
+        return inspectUnit(filePath, namesFilter, options);
     }
     
     /**
@@ -120,10 +161,10 @@ public class ClassFileInspector implements FileInspector {
      *         file
      */
     public Collection<String> glance(String filePath) {
-        String name = cache.get(filePath);
+        String name = getCachedName(filePath);
         Collection<String> result = null;
         if(name == null) {
-            name = processClassFile(filePath, String.class);
+            name = processClassFile(filePath, String.class, null, null);
         }
         if(name != null) {
             result = new ArrayList<String>(1);
@@ -133,14 +174,29 @@ public class ClassFileInspector implements FileInspector {
     }
     
     /**
-     * Utility method which updates files-names cache if this is necessary.
+     * Returns qualified name of class/interface/enum defined in given file if
+     * it is cached and the file has not changed since it was read.
+     *
+     * @param filePath path to a .class file
+     * @return cached qualified name or null
+     */
+    private String getCachedName(String filePath) {
+        File file = new File(filePath);
+        return cache.get(filePath, file.length(), file.lastModified());
+    }
+    
+    /**
+     * Utility method which updates files-names cache.
      *
      * @param filePath path to a .class file
+     * @param size size of that file at the time it was read
+     * @param modified time of last modification of that file at the time it
+     *        was read
      * @param qualifiedName qualified name of a class/interface/enum defined
      *        in file <code>filePath</code>
      */
-    private void updateCache(String filePath, String qualifiedName) {
-        cache.putIfAbsent(filePath, qualifiedName);
+    private void updateCache(String filePath, long size, long modified, String qualifiedName) {
+        cache.put(filePath, size, modified, qualifiedName);
     }
     
     /**
@@ -154,20 +210,62 @@ public class ClassFileInspector implements FileInspector {
      *
      * @param filePath .class file to process
      * @param resultType either String.class or UnitInfo.class
+     * @param namesFilter qualified names of classes/interfaces/enums which
+     *        are allowed to be returned (if resultType is UnitInfo.class) or
+     *        null
+     * @param options tells which parts of the class/interface/enum should be
+     *        read (if resultType is UnitInfo.class) or null; if members are
+     *        deferred, a LazyUnitInfo is returned
      */
-    private <T> T processClassFile(String filePath, Class<T> resultType) {
-        DataInputStream in = null;
+    private <T> T processClassFile(String filePath, Class<T> resultType, 
+                                   NamesFilter namesFilter, ParseOptions options) {
+        FileInputStream in = null;
         try {
-            in = new DataInputStream(new FileInputStream(filePath));
-            ClassFileReader reader = new ClassFileReader();
+            // stamps are taken before reading, so a change made during reading
+            // makes the cached name stale rather than wrongly valid
+            long modified = new File(filePath).lastModified();
+            in = new FileInputStream(filePath);
+            long size = in.getChannel().size();
+            ByteBuffer buffer = readClassFile(in.getChannel());
+            ClassFileReader reader = ClassFileReader.forThread();
+            reader.setOptions(options);
             
             if(resultType.equals(String.class)) {
-                String name = reader.readUnitName(in);
-                updateCache(filePath, name);
+                String name = reader.readUnitName(buffer);
+                if(name != null)
+                    updateCache(filePath, size, modified, name);
                 return (T) name;
             } else if (resultType.equals(UnitInfo.class)) {
-                UnitInfo unit = reader.read(in);
-                updateCache(filePath, unit.getName());
+                ContentIndex index = (options != null)? options.getContentIndex() : null;
+                String key = null;
+                if(index != null) {
+                    key = ContentIndex.key(null, filePath, size, ContentIndex.checksum(buffer));
+                    UnitInfo unit = index.get(key);
+                    if(unit != null && !unit.getName().equals(reader.readUnitName(buffer))) {
+                        // different content with the same key is not shared
+                        unit = null;
+                        key = null;
+                    }
+                    if(unit != null) {
+                        updateCache(filePath, size, modified, unit.getName());
+                        if(namesFilter != null && !namesFilter.accepts(unit.getName()))
+                            return null;
+                        return (T) unit;
+                    }
+                }
+                UnitInfo unit;
+                if(options != null && options.isMembersDeferred()) {
+                    unit = reader.readHeader(buffer, namesFilter);
+                    if(unit != null)
+                        unit = new LazyUnitInfo(unit, new ClassFileSource.FileSource(
+                                unit.getName(), null, options, new File(filePath), size, modified));
+                } else {
+                    unit = reader.read(buffer, namesFilter);
+                }
+                if(reader.getUnitName() != null)
+                    updateCache(filePath, size, modified, reader.getUnitName());
+                if(key != null)
+                    unit = index.put(key, unit);
                 return (T) unit;
             }
             return null;
@@ -183,4 +281,24 @@ public class ClassFileInspector implements FileInspector {
                 }
         }
     }
+    
+    /**
+     * Returns a buffer containing whole contents of a .class file. Large
+     * files are memory-mapped, small ones are read into a heap buffer.
+     *
+     * @param channel channel of a .class file
+     * @return buffer containing whole contents of that file
+     * @throws IOException if an I/O error occurs
+     */
+    private ByteBuffer readClassFile(FileChannel channel) throws IOException {
+        long size = channel.size();
+        if(size >= mappingThreshold)
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        
+        ByteBuffer buffer = ByteBuffer.allocate((int) size);
+        while(buffer.hasRemaining() && channel.read(buffer) != -1)
+            ;
+        buffer.flip();
+        return buffer;
+    }
 }
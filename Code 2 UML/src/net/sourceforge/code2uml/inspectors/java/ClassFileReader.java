@@ -22,13 +22,23 @@ package net.sourceforge.code2uml.inspectors.java;
 
 import java.io.DataInput;
 import java.io.IOException;
-import net.sourceforge.code2uml.unitdata.FieldInfo;
-import net.sourceforge.code2uml.unitdata.MethodInfo;
+import java.nio.ByteBuffer;
+import net.sourceforge.code2uml.unitdata.CompactUnitBuilder;
+import net.sourceforge.code2uml.unitdata.ParseOptions;
+import net.sourceforge.code2uml.unitdata.SymbolTable;
 import net.sourceforge.code2uml.unitdata.UnitInfo;
-import net.sourceforge.code2uml.unitdata.UnitInfoImpl;
+import net.sourceforge.code2uml.util.NamesFilter;
 
 /**
- * This class is responsible for reading .class file's contents.
+ * This class is responsible for reading .class file's contents. <br/><br/>
+ *
+ * A ClassFileReader owns everything needed to parse a class: readers of
+ * members and attributes, the type decoder, a constant pool whose arrays
+ * grow to the largest pool seen, the input wrapping the parsed buffer and
+ * a CompactUnitBuilder whose arrays of members are reused as well. All of
+ * them are reset for each class, so a reader used for many classes 
+ * allocates little more than the units it returns. It is not thread-safe;
+ * inspectors use the reader confined to the current thread (see forThread()).
  *
  * @author Mateusz Wenus
  */
@@ -43,8 +53,29 @@ class ClassFileReader {
     private static final int ACC_ANNOTATION = 0x2000;
     private static final int ACC_ENUM = 0x4000;
     
-    private FieldInfoReader fieldReader = new FieldInfoReader();
-    private MethodInfoReader methodReader = new MethodInfoReader();
+    private AttributeInfoReader attributeReader = new AttributeInfoReader();
+    private TypeDecoder typeDecoder = new TypeDecoder();
+    private FieldInfoReader fieldReader = new FieldInfoReader(attributeReader, typeDecoder);
+    private MethodInfoReader methodReader = new MethodInfoReader(attributeReader, typeDecoder);
+    private ConstantPoolReader poolReader = new ConstantPoolReader();
+    private ConstantPool pool = new ConstantPool();
+    private ByteBufferInput input = new ByteBufferInput(null);
+    private CompactUnitBuilder builder = new CompactUnitBuilder();
+    private SymbolTable symbols = new SymbolTable();
+    private int[] nameOffsets = new int[0];
+    private String origin;
+    private ParseOptions options;
+    private String unitName;
+    
+    /**
+     * ClassFileReader of each thread which parses classes.
+     */
+    private static final ThreadLocal<ClassFileReader> readers = new ThreadLocal<ClassFileReader>() {
+        @Override
+        protected ClassFileReader initialValue() {
+            return new ClassFileReader();
+        }
+    };
     
     /**
      * Creates a new instance of ClassFileReader.
@@ -52,6 +83,96 @@ class ClassFileReader {
     public ClassFileReader() {
     }
     
+    /**
+     * Returns ClassFileReader of the calling thread, with origin and options
+     * set to null. The same instance is returned each time this method is 
+     * called by that thread, so it must not be shared with other threads and
+     * it must not be used after this method is called again.
+     *
+     * @return ClassFileReader confined to the calling thread
+     */
+    public static ClassFileReader forThread() {
+        ClassFileReader reader = readers.get();
+        reader.origin = null;
+        reader.options = null;
+        reader.unitName = null;
+        return reader;
+    }
+    
+    /**
+     * Sets the library assigned as origin to units read by this reader (see
+     * UnitInfo.getOrigin()).
+     *
+     * @param origin path of a library within the inspected file or null
+     */
+    public void setOrigin(String origin) {
+        this.origin = origin;
+    }
+    
+    /**
+     * Sets options telling which parts of classes/interfaces/enums are read
+     * by this reader. A class/interface/enum which is not needed according
+     * to them is rejected right after this_class, so read() returns null
+     * (and getUnitName() returns its name).
+     *
+     * @param options options of reading classes/interfaces/enums; if it is 
+     *        null everything is read
+     */
+    public void setOptions(ParseOptions options) {
+        this.options = options;
+    }
+    
+    /**
+     * Returns class/interface/enum defined in given .class file. Reads
+     * contents of that file directly from <code>buffer</code> (from its 
+     * position to its limit) using absolute offsets, so state of <code>
+     * buffer</code> is not changed.
+     *
+     * @param buffer buffer containing the whole .class file
+     * @return class/interface/enum defined in that .class file
+     * @throws IOException if the .class file is truncated
+     */
+    public UnitInfo read(ByteBuffer buffer) throws IOException {
+        return read(buffer, null, false);
+    }
+    
+    /**
+     * Returns class/interface/enum defined in given .class file if its
+     * qualified name is in <code>namesFilter</code>. The name is checked
+     * right after this_class is read, so fields and methods of a class which
+     * is not in the filter are not parsed. Reads contents of the file
+     * directly from <code>buffer</code>, as read(ByteBuffer) does.
+     *
+     * @param buffer buffer containing the whole .class file
+     * @param namesFilter qualified names of classes/interfaces/enums that
+     *        may be returned; if it is null any class may be returned
+     * @return class/interface/enum defined in that .class file or null if
+     *         it is not in <code>namesFilter</code>
+     * @throws IOException if the .class file is truncated
+     */
+    public UnitInfo read(ByteBuffer buffer, NamesFilter namesFilter) throws IOException {
+        return read(buffer, namesFilter, false);
+    }
+    
+    /**
+     * Returns class/interface/enum defined in given .class file if its
+     * qualified name is in <code>namesFilter</code>, without its fields,
+     * methods and enum values. Nothing is read after the interfaces, so 
+     * the returned unit has only name, flags and supertypes; it is used to
+     * create a LazyUnitInfo. Reads contents of the file directly from 
+     * <code>buffer</code>, as read(ByteBuffer) does.
+     *
+     * @param buffer buffer containing the whole .class file
+     * @param namesFilter qualified names of classes/interfaces/enums that
+     *        may be returned; if it is null any class may be returned
+     * @return class/interface/enum defined in that .class file (without
+     *         members) or null if it is not in <code>namesFilter</code>
+     * @throws IOException if the .class file is truncated
+     */
+    public UnitInfo readHeader(ByteBuffer buffer, NamesFilter namesFilter) throws IOException {
+        return read(buffer, namesFilter, true);
+    }
+    
     /**
      * Returns class/interface/enum defined in given .class file.
      *
@@ -60,8 +181,91 @@ class ClassFileReader {
      * @throws IOException if an I/O error occurs
      */
     public UnitInfo read(DataInput in) throws IOException {
+        return read(in, null, false);
+    }
+    
+    /**
+     * Returns qualified name of the class/interface/enum whose this_class
+     * was read by the last call of read(), even if that call returned null
+     * because the name was not in the filter.
+     *
+     * @return qualified name of the last read class/interface/enum or null
+     *         if none was read
+     */
+    public String getUnitName() {
+        return unitName;
+    }
+    
+    /**
+     * Returns class/interface/enum defined in the .class file contained in 
+     * <code>buffer</code> if its qualified name is in <code>namesFilter
+     * </code>. The buffer is read by this reader's input, which forgets it
+     * afterwards.
+     *
+     * @param buffer buffer containing the whole .class file
+     * @param namesFilter qualified names of classes/interfaces/enums that
+     *        may be returned or null
+     * @param headerOnly true if reading should stop after the interfaces
+     * @return class/interface/enum defined in that .class file or null
+     * @throws IOException if the .class file is truncated
+     */
+    private UnitInfo read(ByteBuffer buffer, NamesFilter namesFilter, boolean headerOnly) throws IOException {
+        input.reset(buffer);
+        try {
+            return read(input, namesFilter, headerOnly);
+        } finally {
+            input.reset(null);
+        }
+    }
+    
+    /**
+     * Returns class/interface/enum defined in given .class file if its
+     * qualified name is in <code>namesFilter</code>. Constant pool of the
+     * file is read into this reader's pool, which is released afterwards
+     * (as are the builder and the SymbolTable of options) so that it does 
+     * not keep the file's data or names of the retrieval reachable. If 
+     * options have no SymbolTable, names are interned in a table of this 
+     * reader, which is cleared after each class.
+     *
+     * @param in DataInput to read contents of .class file from
+     * @param namesFilter qualified names of classes/interfaces/enums that
+     *        may be returned or null
+     * @param headerOnly true if reading should stop after the interfaces
+     * @return class/interface/enum defined in that .class file or null
+     * @throws IOException if an I/O error occurs
+     */
+    private UnitInfo read(DataInput in, NamesFilter namesFilter, boolean headerOnly) throws IOException {
+        try {
+            return readUnit(in, namesFilter, headerOnly);
+        } finally {
+            pool.release();
+            typeDecoder.setSymbols(null);
+            builder.reset(null, null);
+            symbols.clear();
+        }
+    }
+    
+    /**
+     * Reads class/interface/enum as read(DataInput, NamesFilter, boolean) 
+     * describes.
+     *
+     * @param in DataInput to read contents of .class file from
+     * @param namesFilter qualified names of classes/interfaces/enums that
+     *        may be returned or null
+     * @param headerOnly true if reading should stop after the interfaces
+     * @return class/interface/enum defined in that .class file or null
+     * @throws IOException if an I/O error occurs
+     */
+    private UnitInfo readUnit(DataInput in, NamesFilter namesFilter, boolean headerOnly) throws IOException {
+        
+        unitName = null;
         
-        UnitInfoImpl unit = new UnitInfoImpl();
+        // names are shared by units of one retrieval
+        SymbolTable unitSymbols = (options != null)? options.getSymbolTable() : null;
+        if(unitSymbols == null)
+            unitSymbols = symbols;
+        typeDecoder.setSymbols(unitSymbols);
+        builder.reset(unitSymbols, origin);
         
         // magic number identifying .class file
         if(in.readInt() != 0xCAFEBABE)
@@ -73,85 +277,91 @@ class ClassFileReader {
         // constant_pool_count
         int data = in.readUnsignedShort();
         
-        // read constant_pool
-        Object[] pool = new ConstantPoolReader().read(in, data);
+        // read constant_pool into the pool reused for every class
+        poolReader.read(in, data, pool);
+        attributeReader.resolve(pool);
         
         // access_flags
         data = in.readUnsignedShort();
-        if((data & ACC_INTERFACE) != 0)
-            unit.setIsInterface(true);
-        else if((data & ACC_ENUM) != 0)
-            unit.setIsEnum(true);
-        else {
-            unit.setIsClass(true);
-            if((data & ACC_ABSTRACT) != 0)
-                unit.setIsAbstract(true);
-        }
-        if((data & ACC_PUBLIC) != 0) 
-            unit.setIsPublic(true);
+        boolean isInterface = (data & ACC_INTERFACE) != 0;
+        boolean isEnum = !isInterface && (data & ACC_ENUM) != 0;
+        boolean isClass = !isInterface && !isEnum;
+        boolean isPublic = (data & ACC_PUBLIC) != 0;
+        builder.setFlags(isPublic, isClass, isInterface, isEnum, 
+                         isClass && (data & ACC_ABSTRACT) != 0);
         
         // this class - index into constant_pool
         data = in.readUnsignedShort();
-        String name = (String) pool[(Integer) pool[data]];
-        unit.setName(name.replace('/', '.'));
-        unit.setSimpleName(unit.getName().substring(unit.getName().lastIndexOf('.') + 1));
+        unitName = typeDecoder.readClassName(pool, data);
+        if(namesFilter != null && !namesFilter.accepts(unitName))
+            return null;
+        if(options != null && !options.isUnitRead(isPublic))
+            return null;
+        builder.setName(unitName);
         
         // super class - index into constant_pool
         data = in.readUnsignedShort();
-        if(data > 0) {
-            name = (String) pool[(Integer) pool[data]];
-            unit.addSupertype(name.replace('/', '.'));
-        }
+        if(data > 0)
+            builder.addSupertype(typeDecoder.readClassName(pool, data));
         
         // interfaces count
         data = in.readUnsignedShort();
         for(int i = 0; i < data; i++) {
             int idx = in.readUnsignedShort();
-            name = (String) pool[(Integer) pool[idx]];
-            unit.addSupertype(name.replace('/', '.'));
+            builder.addSupertype(typeDecoder.readClassName(pool, idx));
         }
+        if(headerOnly)
+            return builder.build();
         
-        // fields count
+        // fields count (enum values are fields as well)
         data = in.readUnsignedShort();
-        for(int i = 0; i < data; i++) {
-            FieldInfo field = fieldReader.read(in, pool);
-            if(field != null) {
-                if(field.getTypeName().equals("enum")) {
-                    unit.addEnumValue(field.getName());
-                } else {
-                    unit.addField(field);
-                }
-            }
-        }
+        for(int i = 0; i < data; i++)
+            fieldReader.read(in, pool, options, builder);
         
         // methods count
         data = in.readUnsignedShort();
-        for(int i = 0; i < data; i++) {
-            MethodInfo method = methodReader.readMethod(in, pool);
-            if(method != null) {
-                unit.addMethod(method);
-            }
-        }
+        for(int i = 0; i < data; i++)
+            methodReader.readMethod(in, pool, options, builder);
         
         /*
          * There is attributes data at the end of .class file but I don't read
          * it because I don't use it.
          */
         
-        return unit;
+        // members were collected in the builder's arrays, only the unit is new
+        return builder.build();
     }
 
     /**
      * Returns qualified name of a class/interface/enum defined in a .class 
-     * file.
+     * file. Reads contents of that file directly from <code>buffer</code> 
+     * (from its position to its limit) using absolute offsets, so state of 
+     * <code>buffer</code> is not changed. Nothing is read after this_class 
+     * and no constant_pool entry is decoded apart from those describing 
+     * this_class.
      *
-     * @param in DataInput to read contents of .class file from
+     * @param buffer buffer containing the whole .class file
      * @return qualified name of a class/interafce/enum defined in given file
-     * @throws IOException if I/O error occurs
+     * @throws IOException if the .class file is truncated
      */
-    public String readUnitName(DataInput in) throws IOException {
-        ConstantPoolReader reader = new ConstantPoolReader();
-        
+    public String readUnitName(ByteBuffer buffer) throws IOException {
+        input.reset(buffer);
+        try {
+            return skimUnitName(input);
+        } finally {
+            input.reset(null);
+        }
+    }
+    
+    /**
+     * Returns qualified name of a class/interface/enum defined in a .class
+     * file, as readUnitName(ByteBuffer) does.
+     *
+     * @param in ByteBufferInput reading the .class file
+     * @return qualified name of a class/interafce/enum defined in given file
+     * @throws IOException if the .class file is truncated
+     */
+    private String skimUnitName(ByteBufferInput in) throws IOException {
         if(in.readInt() != 0xCAFEBABE)
             return null;
         
@@ -161,8 +371,14 @@ class ClassFileReader {
         // constant_pool_count
         int data = in.readUnsignedShort();
         
-        // read constant_pool
-        Object[] pool = new ConstantPoolReader().read(in, data);
+        /*
+         * Only offsets of constant_pool entries are remembered; just two of
+         * them will be decoded: this_class's CONSTANT_Class_info and
+         * CONSTANT_Utf8_info containing its name.
+         */
+        nameOffsets = poolReader.skim(in, data, nameOffsets);
+        int[] offsets = nameOffsets;
+        int count = data;
         
         // access_flags
         in.readUnsignedShort();
@@ -170,10 +386,52 @@ class ClassFileReader {
         // this class - index into constant_pool
         data = in.readUnsignedShort();
         
-        /*
-         * pool[data] contains an index into pool at which is qualified
-         * name of the class in internal form (having '/' instead of '.')
-         */
-        return ((String) pool[(Integer) pool[data]]).replace('/', '.');
+        ByteBuffer bytes = in.getBuffer();
+        if(data <= 0 || data >= count || offsets[data] == 0 ||
+                bytes.get(offsets[data] - 1) != ConstantPoolReader.CONSTANT_Class)
+            throw new IOException("this_class is not a CONSTANT_Class_info");
+        data = bytes.getShort(offsets[data]) & 0xFFFF;
+        if(data <= 0 || data >= count || offsets[data] == 0 ||
+                bytes.get(offsets[data] - 1) != ConstantPoolReader.CONSTANT_Utf8)
+            throw new IOException("name of this_class is not a CONSTANT_Utf8_info");
+        return ConstantPool.decodeUtf8(bytes, offsets[data]).replace('/', '.');
+    }
+    
+    /**
+     * Returns qualified name of a class/interface/enum defined in a .class 
+     * file.
+     *
+     * @param in DataInput to read contents of .class file from
+     * @return qualified name of a class/interafce/enum defined in given file
+     * @throws IOException if I/O error occurs
+     */
+    public String readUnitName(DataInput in) throws IOException {
+        if(in.readInt() != 0xCAFEBABE)
+            return null;
+        
+        // major and minor version
+        in.readInt();
+        
+        // constant_pool_count
+        int data = in.readUnsignedShort();
+        
+        // read constant_pool
+        try {
+            poolReader.read(in, data, pool);
+            
+            // access_flags
+            in.readUnsignedShort();
+            
+            // this class - index into constant_pool
+            data = in.readUnsignedShort();
+            
+            /*
+             * pool entry at data is a CONSTANT_Class_info referring to qualified
+             * name of the class in internal form (having '/' instead of '.')
+             */
+            return pool.getClassName(data).replace('/', '.');
+        } finally {
+            pool.release();
+        }
     }
 }
@@ -0,0 +1,215 @@
+/*
+ * ClassFileSource.java
+ *
+ * Created on 17 October 2026, 20:55
+ *
+ * Copyright 2026 Code2Uml contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.sourceforge.code2uml.inspectors.java;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.ZipEntry;
+import net.sourceforge.code2uml.unitdata.ParseOptions;
+import net.sourceforge.code2uml.unitdata.UnitInfo;
+import net.sourceforge.code2uml.unitdata.UnitSource;
+
+/**
+ * UnitSource reading a class/interface/enum again from its .class file. 
+ * It keeps only the location of the .class file, not its contents, so that
+ * a LazyUnitInfo using it is small. Subclasses tell where the .class file 
+ * is: an entry of a memory-mapped .jar, a file or a jrt:/ path. 
+ * <br/><br/>
+ *
+ * A file is read again only if its size and modification time have not 
+ * changed since it was inspected; otherwise read() returns null.
+ *
+ * @author Code2Uml contributors
+ */
+abstract class ClassFileSource implements UnitSource {
+    
+    private String name;
+    private String origin;
+    private ParseOptions options;
+    
+    /**
+     * Creates a new instance of ClassFileSource.
+     *
+     * @param name qualified name of the class/interface/enum
+     * @param origin origin of the class/interface/enum (see 
+     *        UnitInfo.getOrigin()) or null
+     * @param options options with which the class/interface/enum was read
+     *        or null; only what they ask for is kept, not their ContentIndex
+     *        and SymbolTable (see ParseOptions.getMemberOptions())
+     */
+    ClassFileSource(String name, String origin, ParseOptions options) {
+        this.name = name;
+        this.origin = origin;
+        this.options = (options != null)? options.getMemberOptions() : null;
+    }
+    
+    /**
+     * Reads the class/interface/enum with its members.
+     *
+     * @return the class/interface/enum or null if its .class file can't be
+     *         read any more or it defines another class
+     */
+    public UnitInfo read() {
+        try {
+            ByteBuffer buffer = open();
+            if(buffer == null)
+                return null;
+            ClassFileReader reader = ClassFileReader.forThread();
+            reader.setOrigin(origin);
+            reader.setOptions(options);
+            UnitInfo unit = reader.read(buffer, null);
+            if(unit == null || !name.equals(unit.getName()))
+                return null;
+            return unit;
+        } catch(IOException ex) {
+            ex.printStackTrace();
+            return null;
+        }
+    }
+    
+    /**
+     * Returns contents of the .class file.
+     *
+     * @return buffer containing the whole .class file or null if it has
+     *         changed
+     * @throws IOException if an I/O error occurs
+     */
+    protected abstract ByteBuffer open() throws IOException;
+    
+    /**
+     * Returns true if a file still has given size and modification time.
+     */
+    private static boolean isUnchanged(File file, long size, long modified) {
+        return file.length() == size && file.lastModified() == modified;
+    }
+    
+    /**
+     * Source of an entry of a memory-mapped .jar file. It keeps only where
+     * the entry's data is in the file (see MappedJarFile.getStoredPosition())
+     * and reads it again from there, so neither the mapping nor the file is
+     * kept open while the source exists.
+     */
+    static class EntrySource extends ClassFileSource {
+        
+        private File file;
+        private long size;
+        private long modified;
+        private long position;
+        private ZipEntry entry;
+        
+        /**
+         * Creates a new instance of EntrySource.
+         *
+         * @param name qualified name of the class/interface/enum
+         * @param origin origin of the class/interface/enum or null
+         * @param options options with which it was read or null
+         * @param jar archive containing the entry; it must be a part of a
+         *        mapped file
+         * @param position position of entry's data in the mapped file, as
+         *        returned by jar.getStoredPosition()
+         * @param entry the entry
+         */
+        EntrySource(String name, String origin, ParseOptions options, 
+                    MappedJarFile jar, long position, ZipEntry entry) {
+            super(name, origin, options);
+            this.file = jar.getFile();
+            this.size = jar.getFileSize();
+            this.modified = jar.getFileModified();
+            this.position = position;
+            this.entry = entry;
+        }
+        
+        protected ByteBuffer open() throws IOException {
+            if(!isUnchanged(file, size, modified))
+                return null;
+            return MappedJarFile.readStored(file, position, entry);
+        }
+    }
+    
+    /**
+     * Source of a .class file.
+     */
+    static class FileSource extends ClassFileSource {
+        
+        private File file;
+        private long size;
+        private long modified;
+        
+        /**
+         * Creates a new instance of FileSource.
+         *
+         * @param name qualified name of the class/interface/enum
+         * @param origin origin of the class/interface/enum or null
+         * @param options options with which it was read or null
+         * @param file the .class file
+         * @param size size of the file when it was inspected
+         * @param modified modification time of the file when it was inspected
+         */
+        FileSource(String name, String origin, ParseOptions options, 
+                   File file, long size, long modified) {
+            super(name, origin, options);
+            this.file = file;
+            this.size = size;
+            this.modified = modified;
+        }
+        
+        protected ByteBuffer open() throws IOException {
+            if(!isUnchanged(file, size, modified))
+                return null;
+            FileInputStream in = new FileInputStream(file);
+            try {
+                return ByteBufferInput.readFully(in, size);
+            } finally {
+                in.close();
+            }
+        }
+    }
+    
+    /**
+     * Source of a .class file in the JDK runtime image (or any other 
+     * read-only file system).
+     */
+    static class PathSource extends ClassFileSource {
+        
+        private Path path;
+        
+        /**
+         * Creates a new instance of PathSource.
+         *
+         * @param name qualified name of the class/interface/enum
+         * @param origin origin of the class/interface/enum or null
+         * @param options options with which it was read or null
+         * @param path path of the .class file
+         */
+        PathSource(String name, String origin, ParseOptions options, Path path) {
+            super(name, origin, options);
+            this.path = path;
+        }
+        
+        protected ByteBuffer open() throws IOException {
+            return ByteBuffer.wrap(Files.readAllBytes(path));
+        }
+    }
+}
@@ -0,0 +1,323 @@
+/*
+ * ConstantPool.java
+ *
+ * Created on 17 October 2026, 11:05
+ *
+ * Copyright 2026 Code2Uml contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.sourceforge.code2uml.inspectors.java;
+
+import java.io.UTFDataFormatException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Contents of .class file's constant pool. Entries are not decoded when the
+ * pool is read: only tag of each entry and offset of its data (the bytes
+ * following the tag) are stored. A CONSTANT_Utf8_info entry is decoded into
+ * a String the first time it is asked for and then remembered. Most of
+ * constant pool's strings (names and descriptors of referenced members,
+ * string literals) are never needed by ClassFileReader, so they are never
+ * decoded. <br/><br/>
+ *
+ * ConstantPool is created by ConstantPoolReader. Valid indexes are from 1 to
+ * getCount() - 1, just like in the .class file. A pool owned by a reused
+ * ClassFileReader is refilled for every class (see reset()); its arrays only
+ * grow, so after a few classes reading a pool allocates nothing.
+ *
+ * @author Code2Uml contributors
+ */
+class ConstantPool {
+
+    private ByteBuffer data;
+    private byte[] tags;
+    private int[] offsets;
+    private String[] strings;
+    private int count;
+
+    /**
+     * Creates a new, empty instance of ConstantPool. It must be filled using
+     * reset() and setData() before it is read.
+     */
+    ConstantPool() {
+        this.tags = new byte[0];
+        this.offsets = new int[0];
+        this.strings = new String[0];
+    }
+
+    /**
+     * Creates a new instance of ConstantPool.
+     *
+     * @param data buffer containing entries' data; it is read using absolute
+     *        big-endian reads
+     * @param tags tag of each entry
+     * @param offsets index into <code>data</code> of the first byte
+     *        following tag of each entry
+     */
+    ConstantPool(ByteBuffer data, byte[] tags, int[] offsets) {
+        this.data = data;
+        this.tags = tags;
+        this.offsets = offsets;
+        this.strings = new String[tags.length];
+        this.count = tags.length;
+    }
+
+    /**
+     * Prepares this pool to hold <code>count - 1</code> entries of another 
+     * .class file. Arrays are grown if they are too small, tags and strings 
+     * of the previous file are cleared. Tags and offsets of new entries must
+     * then be stored in arrays returned by getTags() and getOffsets() and the
+     * buffer containing their data set by setData().
+     *
+     * @param count constant_pool_count of the .class file
+     */
+    void reset(int count) {
+        if(tags.length < count) {
+            int capacity = Math.max(count, 2 * tags.length);
+            tags = new byte[capacity];
+            offsets = new int[capacity];
+            strings = new String[capacity];
+        } else {
+            Arrays.fill(tags, 0, this.count, (byte) 0);
+            Arrays.fill(strings, 0, this.count, null);
+        }
+        this.count = count;
+        this.data = null;
+    }
+
+    /**
+     * Forgets the buffer and strings of the last .class file, so that they
+     * are not kept reachable by a pool waiting to be reused.
+     */
+    void release() {
+        Arrays.fill(strings, 0, count, null);
+        data = null;
+    }
+
+    /**
+     * Returns array in which tag of each entry is stored; it has at least
+     * getCount() elements.
+     *
+     * @return tags of entries
+     */
+    byte[] getTags() {
+        return tags;
+    }
+
+    /**
+     * Returns array in which offset of each entry's data is stored; it has
+     * at least getCount() elements.
+     *
+     * @return offsets of entries' data
+     */
+    int[] getOffsets() {
+        return offsets;
+    }
+
+    /**
+     * Sets buffer containing entries' data.
+     *
+     * @param data buffer containing entries' data; it is read using absolute
+     *        big-endian reads
+     */
+    void setData(ByteBuffer data) {
+        this.data = data;
+    }
+
+    /**
+     * Returns constant_pool_count of the .class file, which is greater by one
+     * than the number of entries.
+     *
+     * @return constant_pool_count of the .class file
+     */
+    public int getCount() {
+        return count;
+    }
+
+    /**
+     * Returns tag of the entry at given index or 0 if <code>index</code> is
+     * not a valid index of an entry (for example it is the second slot of a
+     * CONSTANT_Long_info).
+     *
+     * @param index index into the constant pool
+     * @return tag of the entry at that index
+     */
+    public int getTag(int index) {
+        if(index <= 0 || index >= count)
+            return 0;
+        return tags[index] & 0xFF;
+    }
+
+    /**
+     * Returns unsigned short which is the first element of data of the entry
+     * at given index (for example name_index of a CONSTANT_Class_info).
+     *
+     * @param index index into the constant pool
+     * @return the first two bytes of data of the entry at that index
+     */
+    public int getShort(int index) {
+        return data.getShort(offsets[index]) & 0xFFFF;
+    }
+
+    /**
+     * Returns String value of the CONSTANT_Utf8_info at given index.
+     *
+     * @param index index of a CONSTANT_Utf8_info
+     * @return String value of that entry or null if the entry at <code>index
+     *         </code> is not a CONSTANT_Utf8_info
+     * @throws UTFDataFormatException if the entry is not a valid modified
+     *         UTF-8 string
+     */
+    public String getUtf8(int index) throws UTFDataFormatException {
+        if(getTag(index) != ConstantPoolReader.CONSTANT_Utf8)
+            return null;
+        String str = strings[index];
+        if(str == null) {
+            str = decodeUtf8(data, offsets[index]);
+            strings[index] = str;
+        }
+        return str;
+    }
+
+    /**
+     * Returns length in bytes of the CONSTANT_Utf8_info at given index, 
+     * which is not less than number of chars it decodes to.
+     *
+     * @param index index of a CONSTANT_Utf8_info
+     * @return length of that entry or -1 if the entry at <code>index</code>
+     *         is not a CONSTANT_Utf8_info
+     */
+    int getUtf8Length(int index) {
+        if(getTag(index) != ConstantPoolReader.CONSTANT_Utf8)
+            return -1;
+        return data.getShort(offsets[index]) & 0xFFFF;
+    }
+
+    /**
+     * Decodes the CONSTANT_Utf8_info at given index into <code>chars</code>,
+     * without creating a String.
+     *
+     * @param index index of a CONSTANT_Utf8_info
+     * @param chars array to decode to; it must have at least 
+     *        getUtf8Length(index) elements
+     * @return number of decoded chars
+     * @throws UTFDataFormatException if the entry is not a valid modified
+     *         UTF-8 string
+     */
+    int getUtf8Chars(int index, char[] chars) throws UTFDataFormatException {
+        return decodeUtf8(data, offsets[index], chars);
+    }
+
+    /**
+     * Checks if the CONSTANT_Utf8_info at given index is equal to <code>value
+     * </code>, which must contain only ASCII characters (like names of
+     * attributes do). Bytes of the entry are compared directly, without
+     * decoding it.
+     *
+     * @param index index of a CONSTANT_Utf8_info
+     * @param value ASCII String to compare with
+     * @return true if the entry at <code>index</code> is a CONSTANT_Utf8_info
+     *         equal to <code>value</code>
+     */
+    public boolean utf8Equals(int index, String value) {
+        if(getTag(index) != ConstantPoolReader.CONSTANT_Utf8)
+            return false;
+        int offset = offsets[index];
+        int length = value.length();
+        if((data.getShort(offset) & 0xFFFF) != length)
+            return false;
+        offset += 2;
+        for(int i = 0; i < length; i++) {
+            if(data.get(offset + i) != value.charAt(i))
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * Returns name of the class referenced by the CONSTANT_Class_info at
+     * given index, in internal form (having '/' instead of '.').
+     *
+     * @param index index of a CONSTANT_Class_info
+     * @return name of the class in internal form or null if the entry at
+     *         <code>index</code> is not a CONSTANT_Class_info
+     * @throws UTFDataFormatException if the name is not a valid modified
+     *         UTF-8 string
+     */
+    public String getClassName(int index) throws UTFDataFormatException {
+        if(getTag(index) != ConstantPoolReader.CONSTANT_Class)
+            return null;
+        return getUtf8(getShort(index));
+    }
+
+    /**
+     * Decodes a modified UTF-8 string (as defined in "The class File Format",
+     * 4.4.7 The CONSTANT_Utf8_info Structure) whose length is stored at
+     * <code>offset</code>.
+     *
+     * @param data buffer to read from using absolute big-endian reads
+     * @param offset index into data of string's length
+     * @return decoded String
+     * @throws UTFDataFormatException if the string is malformed
+     */
+    static String decodeUtf8(ByteBuffer data, int offset) throws UTFDataFormatException {
+        char[] chars = new char[data.getShort(offset) & 0xFFFF];
+        int count = decodeUtf8(data, offset, chars);
+        return new String(chars, 0, count);
+    }
+
+    /**
+     * Decodes a modified UTF-8 string whose length is stored at <code>offset
+     * </code> into <code>chars</code>.
+     *
+     * @param data buffer to read from using absolute big-endian reads
+     * @param offset index into data of string's length
+     * @param chars array to decode to; it must be at least as long as the
+     *        string in bytes
+     * @return number of decoded chars
+     * @throws UTFDataFormatException if the string is malformed
+     */
+    static int decodeUtf8(ByteBuffer data, int offset, char[] chars) throws UTFDataFormatException {
+        int length = data.getShort(offset) & 0xFFFF;
+        int idx = offset + 2;
+        int end = idx + length;
+        int count = 0;
+        while(idx < end) {
+            int b = data.get(idx++) & 0xFF;
+            if(b < 0x80) {
+                chars[count++] = (char) b;
+            } else if((b & 0xE0) == 0xC0) {
+                if(idx >= end)
+                    throw new UTFDataFormatException();
+                int b2 = data.get(idx++);
+                if((b2 & 0xC0) != 0x80)
+                    throw new UTFDataFormatException();
+                chars[count++] = (char) (((b & 0x1F) << 6) | (b2 & 0x3F));
+            } else if((b & 0xF0) == 0xE0) {
+                if(idx + 1 >= end)
+                    throw new UTFDataFormatException();
+                int b2 = data.get(idx++);
+                int b3 = data.get(idx++);
+                if((b2 & 0xC0) != 0x80 || (b3 & 0xC0) != 0x80)
+                    throw new UTFDataFormatException();
+                chars[count++] = (char) (((b & 0x0F) << 12) | ((b2 & 0x3F) << 6) | (b3 & 0x3F));
+            } else {
+                throw new UTFDataFormatException();
+            }
+        }
+        return count;
+    }
+}
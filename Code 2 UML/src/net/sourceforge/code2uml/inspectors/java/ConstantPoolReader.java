@@ -21,28 +21,78 @@
 package net.sourceforge.code2uml.inspectors.java;
 
 import java.io.DataInput;
+import java.io.EOFException;
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.util.Arrays;
 
 /**
  * Reads data from .class file's contant pool. See .class file format specification
- * before analyzing ConstantPoolReader's source.
+ * before analyzing ConstantPoolReader's source. <br/><br/>
+ *
+ * Entries are skipped using two tables indexed by tag: width of an entry 
+ * (including its tag) and number of constant_pool slots it occupies. All tags
+ * defined by "The Java Virtual Machine Specification, Java SE 21 Edition" are
+ * known.
  *
  * @author Mateusz Wenus
  */
 public class ConstantPoolReader {
     
-    private static final int CONSTANT_Class = 7;
-    private static final int CONSTANT_Fieldref = 9;
-    private static final int CONSTANT_Methodref = 10;
-    private static final int CONSTANT_InterfaceMethodref = 11;
-    private static final int CONSTANT_String = 8;
-    private static final int CONSTANT_Integer = 3;
-    private static final int CONSTANT_Float = 4;
-    private static final int CONSTANT_Long = 5;
-    private static final int CONSTANT_Double = 6;
-    private static final int CONSTANT_NameAndType = 12;
-    private static final int CONSTANT_Utf8 = 1;
+    static final int CONSTANT_Class = 7;
+    static final int CONSTANT_Fieldref = 9;
+    static final int CONSTANT_Methodref = 10;
+    static final int CONSTANT_InterfaceMethodref = 11;
+    static final int CONSTANT_String = 8;
+    static final int CONSTANT_Integer = 3;
+    static final int CONSTANT_Float = 4;
+    static final int CONSTANT_Long = 5;
+    static final int CONSTANT_Double = 6;
+    static final int CONSTANT_NameAndType = 12;
+    static final int CONSTANT_Utf8 = 1;
+    static final int CONSTANT_MethodHandle = 15;
+    static final int CONSTANT_MethodType = 16;
+    static final int CONSTANT_Dynamic = 17;
+    static final int CONSTANT_InvokeDynamic = 18;
+    static final int CONSTANT_Module = 19;
+    static final int CONSTANT_Package = 20;
+    
+    /**
+     * Width in bytes (tag included) of a cp_info with given tag. For 
+     * CONSTANT_Utf8_info it is the width of the tag and length field, bytes
+     * of the string must be added. Unknown tags have width 0.
+     */
+    private static final int[] widths = new int[CONSTANT_Package + 1];
+    
+    /**
+     * Number of constant_pool slots taken by a cp_info with given tag: 2 for
+     * CONSTANT_Long_info and CONSTANT_Double_info, 1 for other known tags.
+     */
+    private static final int[] slots = new int[CONSTANT_Package + 1];
+    static {
+        widths[CONSTANT_Utf8] = 3;
+        widths[CONSTANT_Integer] = 5;
+        widths[CONSTANT_Float] = 5;
+        widths[CONSTANT_Long] = 9;
+        widths[CONSTANT_Double] = 9;
+        widths[CONSTANT_Class] = 3;
+        widths[CONSTANT_String] = 3;
+        widths[CONSTANT_Fieldref] = 5;
+        widths[CONSTANT_Methodref] = 5;
+        widths[CONSTANT_InterfaceMethodref] = 5;
+        widths[CONSTANT_NameAndType] = 5;
+        widths[CONSTANT_MethodHandle] = 4;
+        widths[CONSTANT_MethodType] = 3;
+        widths[CONSTANT_Dynamic] = 5;
+        widths[CONSTANT_InvokeDynamic] = 5;
+        widths[CONSTANT_Module] = 3;
+        widths[CONSTANT_Package] = 3;
+        
+        for(int tag = 0; tag < slots.length; tag++)
+            slots[tag] = widths[tag] > 0? 1 : 0;
+        slots[CONSTANT_Long] = 2;
+        slots[CONSTANT_Double] = 2;
+    }
     
     /**
      * Creates a new instance of ConstantPoolReader
@@ -51,89 +101,182 @@ public class ConstantPoolReader {
     }
     
     /**
-     * Reads <code>constantPoolCount - 1</code> cp_info structs from given buffer.
-     * For each of read cp_infos: <br/>
-     * if it is a CONSTANT_Class_info struct its name_index (as an Integer) is
-     * put into returned array at current position <br/>
-     * if it is a CONSTANT_Utf8_info struct its String value is put into returned
-     * array at current position <br/>
-     * otherwise the cp_info is ignored and null is put into returned array. It
-     * works this way because ClassFileInspector is interested only in names of
-     * fields, methods, supertypes etc. and extra information included in other
-     * cp_infos is not useless.
+     * Reads <code>constantPoolCount - 1</code> cp_info structs from given 
+     * DataInput and returns them as a ConstantPool. None of the entries is
+     * decoded, only their tags and offsets of their data are remembered. <br/>
+     * If <code>in</code> reads from a ByteBuffer (it is a ByteBufferInput), 
+     * returned ConstantPool refers to that buffer and entries' data is skipped
+     * by moving input's offset. Otherwise data of entries is copied into an
+     * array owned by returned ConstantPool.
      *
      * @param in DataInput to read constant_pool's data from
      * @param constantPoolCount number of cp_infos to read + 1
-     * @return array containing at each position Integer, String or null
-     * @throws IOException if an I/O error occurs
+     * @return ConstantPool describing read entries
+     * @throws IOException if an I/O error occurs or the constant_pool 
+     *         contains an entry with unknown tag
      */
-    public Object[] read(DataInput in, int constantPoolCount) throws IOException {
+    ConstantPool read(DataInput in, int constantPoolCount) throws IOException {
+        return read(in, constantPoolCount, new ConstantPool());
+    }
+    
+    /**
+     * Reads <code>constantPoolCount - 1</code> cp_info structs from given
+     * DataInput into <code>pool</code>, as read(DataInput, int) does. The
+     * pool is reset first, so entries of the .class file it described before
+     * are forgotten and its arrays are reused.
+     *
+     * @param in DataInput to read constant_pool's data from
+     * @param constantPoolCount number of cp_infos to read + 1
+     * @param pool ConstantPool to fill
+     * @return <code>pool</code>
+     * @throws IOException if an I/O error occurs or the constant_pool 
+     *         contains an entry with unknown tag
+     */
+    ConstantPool read(DataInput in, int constantPoolCount, ConstantPool pool) throws IOException {
         
-        // Although constantPoolCount - 1 objects will be read, they are indexed from 1
-        // so array must have constantPoolCount size
-        Object[] result = new Object[constantPoolCount];
+        // Although constantPoolCount - 1 entries will be read, they are indexed from 1
+        // so arrays must have constantPoolCount size
+        pool.reset(constantPoolCount);
+        byte[] tags = pool.getTags();
+        int[] offsets = pool.getOffsets();
         
-        int tag;
-        //short length;
-        for(int i = 1; i < constantPoolCount; i++) {
-            tag = in.readUnsignedByte();
-            switch(tag) {
-                case CONSTANT_Utf8:
-                    //length = in.readUnsignedShort();
-                    //byte[] tab = new byte[length];
-                    //for(int j = 0; j < length; j++)
-                    //    tab[j] = buffer.get();
-                    result[i] = in.readUTF();
-                    break;
-                case CONSTANT_Class:
-                    result[i] = in.readUnsignedShort();
-                    break;
-                default:
-                    if(readTrash(in, tag))
-                        i++;
-                    break;
-            }
+        if(in instanceof ByteBufferInput) {
+            ByteBufferInput bufferIn = (ByteBufferInput) in;
+            walk(bufferIn, constantPoolCount, tags, offsets);
+            pool.setData(bufferIn.getBuffer());
+        } else {
+            pool.setData(copy(in, constantPoolCount, tags, offsets));
         }
+        return pool;
+    }
+    
+    /**
+     * Reads constant_pool from a ByteBufferInput, remembering only offsets
+     * of entries. This is the cheapest way to get through constant_pool
+     * when only one or two of its entries will be needed; see
+     * ClassFileReader.readUnitName().
+     *
+     * @param in ByteBufferInput to read constant_pool's data from
+     * @param constantPoolCount number of cp_infos to read + 1
+     * @return array containing, at index of each entry, absolute index into
+     *         buffer of <code>in</code> of the first byte following entry's
+     *         tag
+     * @throws IOException if the constant_pool is truncated or contains an 
+     *         entry with unknown tag
+     */
+    int[] skim(ByteBufferInput in, int constantPoolCount) throws IOException {
+        return skim(in, constantPoolCount, new int[constantPoolCount]);
+    }
+    
+    /**
+     * Reads constant_pool from a ByteBufferInput, remembering only offsets
+     * of entries in <code>offsets</code> if it is big enough. Slots of the
+     * returned array not occupied by an entry (the second slots of 
+     * CONSTANT_Long_info and CONSTANT_Double_info) are 0.
+     *
+     * @param in ByteBufferInput to read constant_pool's data from
+     * @param constantPoolCount number of cp_infos to read + 1
+     * @param offsets array to reuse; if it has less than <code>
+     *        constantPoolCount</code> elements a new one is created
+     * @return array containing, at index of each entry, absolute index into
+     *         buffer of <code>in</code> of the first byte following entry's
+     *         tag; it may be longer than <code>constantPoolCount</code>
+     * @throws IOException if the constant_pool is truncated or contains an 
+     *         entry with unknown tag
+     */
+    int[] skim(ByteBufferInput in, int constantPoolCount, int[] offsets) throws IOException {
+        if(offsets.length < constantPoolCount)
+            offsets = new int[Math.max(constantPoolCount, 2 * offsets.length)];
+        else
+            Arrays.fill(offsets, 0, constantPoolCount, 0);
+        walk(in, constantPoolCount, null, offsets);
+        return offsets;
+    }
+    
+    /**
+     * Walks through constant_pool stored in buffer of a ByteBufferInput. Each
+     * entry is skipped with a single advance of current index, by width taken
+     * from the widths table (plus string's length for CONSTANT_Utf8_info).
+     * When done, sets input's current offset to the first byte after 
+     * constant_pool.
+     *
+     * @param in ByteBufferInput to read constant_pool's data from
+     * @param constantPoolCount number of cp_infos to read + 1
+     * @param tags array to store tag of each entry in; may be null
+     * @param offsets array to store, for each entry, absolute index into
+     *        buffer of the first byte following its tag
+     * @throws IOException if the constant_pool is truncated or contains an 
+     *         entry with unknown tag
+     */
+    private void walk(ByteBufferInput in, int constantPoolCount, byte[] tags, 
+            int[] offsets) throws IOException {
+        ByteBuffer buffer = in.getBuffer();
+        int limit = buffer.limit();
+        int idx = in.getIndex();
+        
+        for(int i = 1; i < constantPoolCount; ) {
+            if(idx + 3 > limit)
+                throw new EOFException();
+            int tag = buffer.get(idx) & 0xFF;
+            int width = tag < widths.length? widths[tag] : 0;
+            if(width == 0)
+                throw new IOException("unknown constant pool tag: " + tag);
+            if(tags != null)
+                tags[i] = (byte) tag;
+            offsets[i] = idx + 1;
+            if(tag == CONSTANT_Utf8)
+                width += buffer.getShort(idx + 1) & 0xFFFF;
+            idx += width;
+            i += slots[tag];
+        }
+        if(idx > limit)
+            throw new EOFException();
         
-        return result;
+        in.setIndex(idx);
     }
     
     /**
-     * Helper function which reads uninteresting data from constant_pool. It 
-     * reads the next entry from the constant_pool.
+     * Reads constant_pool from a DataInput, copying entries' data into a
+     * new buffer, which will be data of the constant pool.
      *
      * @param in DataInput to read constant_pool's data from
-     * @param tag tag of read cp_info
-     * @return true if and only if CONSTANT_Long_info or CONSTANT_Double_info has
-     *         been read which means that the next constant_pool usable entry is
-     *         at current position + 2 and entry at current_position + 1 should be
-     *         omitted
-     * @throws IOException if an I/O error occurs
+     * @param constantPoolCount number of cp_infos to read + 1
+     * @param tags array to store tag of each entry in
+     * @param offsets array to store offset of each entry's data in
+     * @return buffer containing a copy of entries' data
+     * @throws IOException if an I/O error occurs or the constant_pool 
+     *         contains an entry with unknown tag
      */
-    private boolean readTrash(DataInput in, int tag) throws IOException {
-        switch(tag) {
-            case CONSTANT_Fieldref:
-            case CONSTANT_Methodref:
-            case CONSTANT_InterfaceMethodref:
-            case CONSTANT_Integer:
-            case CONSTANT_Float:
-            case CONSTANT_NameAndType:
-                in.readInt();
-                break;
-            case CONSTANT_Class:
-            case CONSTANT_String:
-                in.readShort();
-                break;
-            case CONSTANT_Long:
-            case CONSTANT_Double:
-                in.readLong();
-                return true;
-            case CONSTANT_Utf8:
-                in.readUTF();
-                break;
-            default:
-                break;
+    private ByteBuffer copy(DataInput in, int constantPoolCount, byte[] tags,
+            int[] offsets) throws IOException {
+        byte[] data = new byte[constantPoolCount * 8];
+        int length = 0;
+        
+        for(int i = 1; i < constantPoolCount; ) {
+            int tag = in.readUnsignedByte();
+            int width = tag < widths.length? widths[tag] : 0;
+            if(width == 0)
+                throw new IOException("unknown constant pool tag: " + tag);
+            tags[i] = (byte) tag;
+            offsets[i] = length;
+            
+            // data of the entry, without the tag
+            int n = width - 1;
+            if(tag == CONSTANT_Utf8) {
+                int utfLength = in.readUnsignedShort();
+                if(data.length < length + 2)
+                    data = Arrays.copyOf(data, 2 * data.length + 2);
+                data[length++] = (byte) (utfLength >> 8);
+                data[length++] = (byte) utfLength;
+                n = utfLength;
+            }
+            if(data.length < length + n)
+                data = Arrays.copyOf(data, Math.max(2 * data.length, length + n));
+            in.readFully(data, length, n);
+            length += n;
+            i += slots[tag];
         }
-        return false;
+        
+        return ByteBuffer.wrap(data, 0, length);
     }
 }
@@ -0,0 +1,67 @@
+/*
+ * DecodedType.java
+ *
+ * Created on 17 October 2026, 23:40
+ *
+ * Copyright 2026 Code2Uml contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.sourceforge.code2uml.inspectors.java;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Decoded descriptor or signature of a field or a method. Instances are 
+ * immutable, so they can be shared by all readers through a DescriptorCache.
+ *
+ * @author Code2Uml contributors
+ */
+class DecodedType {
+    
+    private String typeName;
+    private List<String> arguments;
+    
+    /**
+     * Creates a new instance of DecodedType.
+     *
+     * @param typeName type of a field or return type of a method
+     * @param arguments types of method's arguments or null for a field
+     */
+    public DecodedType(String typeName, List<String> arguments) {
+        this.typeName = typeName;
+        if(arguments != null)
+            this.arguments = Collections.unmodifiableList(arguments);
+    }
+    
+    /**
+     * Returns type of the field or return type of the method.
+     *
+     * @return String representation of the type
+     */
+    public String getTypeName() {
+        return typeName;
+    }
+    
+    /**
+     * Returns types of method's arguments.
+     *
+     * @return unmodifiable list of String representations of arguments' 
+     *         types or null if this is type of a field
+     */
+    public List<String> getArguments() {
+        return arguments;
+    }
+}
@@ -0,0 +1,110 @@
+/*
+ * DescriptorCache.java
+ *
+ * Created on 17 October 2026, 23:45
+ *
+ * Copyright 2026 Code2Uml contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.sourceforge.code2uml.inspectors.java;
+
+import net.sourceforge.code2uml.util.CacheStatistics;
+import net.sourceforge.code2uml.util.SegmentedLruCache;
+
+/**
+ * Remembers decoded descriptors and signatures of fields and methods by
+ * their raw form, for example "(Ljava/lang/String;)V". Descriptors like that
+ * one and signatures of common generic types occur in a great many classes,
+ * so most of them need to be decoded only once. A descriptor and a signature
+ * which are equal Strings decode to the same type, so they share entries.
+ * <br/><br/>
+ *
+ * The cache is bounded: entries are kept in a SegmentedLruCache, which
+ * removes the least recently used ones when it is full. All methods are
+ * thread safe.
+ *
+ * @author Code2Uml contributors
+ */
+public class DescriptorCache {
+
+    /**
+     * Maximal number of entries of the shared cache.
+     */
+    private static final int sharedCapacity = 16384;
+
+    private static final DescriptorCache shared = new DescriptorCache(sharedCapacity);
+
+    private SegmentedLruCache<String, DecodedType> types;
+
+    /**
+     * Creates a new instance of DescriptorCache which remembers at most 
+     * (roughly) <code>capacity</code> decoded descriptors and signatures.
+     *
+     * @param capacity maximal number of entries
+     */
+    public DescriptorCache(int capacity) {
+        types = new SegmentedLruCache<String, DecodedType>(capacity);
+    }
+
+    /**
+     * Returns the cache shared by all readers of .class files.
+     *
+     * @return the shared cache
+     */
+    public static DescriptorCache getShared() {
+        return shared;
+    }
+
+    /**
+     * Returns hit, miss and eviction counters of this cache.
+     *
+     * @return statistics of this cache
+     */
+    public CacheStatistics getStatistics() {
+        return types.getStatistics();
+    }
+
+    /**
+     * Returns decoded form of given descriptor or signature.
+     *
+     * @param raw descriptor or signature as stored in a .class file
+     * @return its decoded form or null if it is not in the cache
+     */
+    DecodedType get(String raw) {
+        DecodedType type = types.get(raw);
+        if(type == null)
+            types.getStatistics().recordMiss();
+        else
+            types.getStatistics().recordHit();
+        return type;
+    }
+
+    /**
+     * Remembers decoded form of a descriptor or signature.
+     *
+     * @param raw descriptor or signature as stored in a .class file
+     * @param type its decoded form
+     */
+    void put(String raw, DecodedType type) {
+        types.put(raw, type);
+    }
+
+    /**
+     * Removes all entries from this cache. Does not reset statistics.
+     */
+    public void clear() {
+        types.clear();
+    }
+}
@@ -0,0 +1,507 @@
+/*
+ * DirectoryInspector.java
+ *
+ * Created on 17 October 2026, 16:45
+ *
+ * Copyright 2026 Code2Uml contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.sourceforge.code2uml.inspectors.java;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Observable;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import net.sourceforge.code2uml.inspectors.FileInspector;
+import net.sourceforge.code2uml.unitdata.ContentIndex;
+import net.sourceforge.code2uml.unitdata.LazyUnitInfo;
+import net.sourceforge.code2uml.unitdata.ParseOptions;
+import net.sourceforge.code2uml.unitdata.UnitInfo;
+import net.sourceforge.code2uml.util.NamesFilter;
+
+/**
+ * FileInspector responsible for reading directories of .class files, such as
+ * exploded build output (target/classes) or an unpacked classpath. All .class
+ * files in the directory and its subdirectories are read. Extends
+ * java.util.Observable and notifies its observers after reading each batch
+ * of .class files (during execution of both inspect() and glance() methods),
+ * so that progress is reported while the tree is still being walked.
+ * <br/><br/>
+ *
+ * If it is created with parallelism greater than 1, the tree is walked by
+ * threads of a work-stealing ForkJoinPool: each directory is listed by a
+ * task, which forks a task for each subdirectory and splits .class files
+ * into batches read and parsed by other tasks. A batch reuses one buffer for
+ * all its (usually small) files. Observers are then notified from pool
+ * threads, but notifications are never delivered concurrently. <br/><br/>
+ *
+ * Symbolic links to directories are not followed.
+ *
+ * @author Code2Uml contributors
+ */
+public class DirectoryInspector extends Observable implements FileInspector {
+
+    /*
+     * Contains pairs filepath - qualified name of class/interface/enum defined
+     * in that file. This cache is common for all inspectors and is thread
+     * safe.
+     */
+    private static NameCache cache = NameCache.getShared();
+
+    /**
+     * Maximal number of .class files read by one task.
+     */
+    private static final int filesPerTask = 64;
+
+    /**
+     * .class files at least that large (in bytes) are memory-mapped instead
+     * of being read into the buffer of a batch.
+     */
+    private static final int mappingThreshold = 64 * 1024;
+
+    private int parallelism;
+    private ForkJoinPool pool;
+
+    /**
+     * Creates a new instance of DirectoryInspector which reads .class files
+     * using as many threads as there are available processors.
+     */
+    public DirectoryInspector() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Creates a new instance of DirectoryInspector which reads .class files
+     * using <code>parallelism</code> threads. If <code>parallelism</code> is
+     * less than 2, files are read sequentially by the calling thread.
+     * Threads are shared with other inspectors (see InspectorPools).
+     *
+     * @param parallelism number of threads used to read .class files
+     */
+    public DirectoryInspector(int parallelism) {
+        this.parallelism = parallelism;
+        if(parallelism > 1)
+            pool = InspectorPools.get(parallelism);
+    }
+
+    /**
+     * Returns number of threads used to read .class files.
+     *
+     * @return number of threads used to read .class files; 1 if they are
+     *         read sequentially
+     */
+    public int getParallelism() {
+        return pool != null? parallelism : 1;
+    }
+
+    /**
+     * Returns definitions of all classes/interfaces/enums from .class files
+     * in specified directory and its subdirectories. Notifies its observers
+     * after reading each batch of files. Sets notification argument to
+     * Integer value equal to the number of units found so far.
+     *
+     * @param filePath path to the directory
+     * @return collection of objects representing classes/interfaces/enums
+     *         defined in that directory or null
+     */
+    public Collection<UnitInfo> inspect(String filePath) {
+        return processDirectory(filePath, null, null, UnitInfo.class);
+    }
+
+    /**
+     * Returns from .class files in specified directory and its
+     * subdirectories definitions of those classes/interfaces/enums which have
+     * qualified names belonging to <code>namesFilter</code>. If <code>
+     * namesFilter</code> is null, all definitions are returned. Notifies its
+     * observers after reading each batch of files. Sets notification argument
+     * to Integer value equal to the number of units found so far. <br/>
+     * <code>inspect(filePath, null)</code> is equivalent to
+     * <code>inspect(filePath)</code>
+     *
+     * @param filePath path to the directory
+     * @param namesFilter collection of qualified names of classes/interfaces/enums
+     *        which are allowed to be returned; if this parameter is null all
+     *        definitions will be returned
+     * @return collection of objects representing classes/interfaces/enums
+     *         defined in that directory which names are in <code>namesFiler
+     *         </code> or null
+     */
+    public Collection<UnitInfo> inspect(String filePath, Collection<String> namesFilter) {
+        return processDirectory(filePath, NamesFilter.of(namesFilter), null, UnitInfo.class);
+    }
+
+    /**
+     * Returns from .class files in specified directory and its
+     * subdirectories definitions of those classes/interfaces/enums which have
+     * qualified names belonging to <code>namesFilter</code>, reading only
+     * those of their parts which are needed according to <code>options</code>.
+     * Notifies its observers as inspect(String, Collection) does.
+     *
+     * @param filePath path to the directory
+     * @param namesFilter qualified names and rules (see NamesFilter) of
+     *        classes/interfaces/enums which are allowed to be returned; if
+     *        this parameter is null all definitions will be returned
+     * @param options tells which parts of classes/interfaces/enums should be
+     *        read; if this parameter is null everything is read
+     * @return collection of objects representing classes/interfaces/enums
+     *         defined in that directory which names are in <code>namesFiler
+     *         </code> or null
+     */
+    public Collection<UnitInfo> inspect(String filePath, NamesFilter namesFilter,
+                                        ParseOptions options) {
+        return processDirectory(filePath, namesFilter, options, UnitInfo.class);
+    }
+
+    /**
+     * Returns qualified names of classes/interfaces/enums defined in .class
+     * files in specified directory and its subdirectories. Notifies its
+     * observers after reading each batch of files. Sets notification argument
+     * to Integer value equal to the number of names found so far.
+     *
+     * @param filePath path to the directory
+     * @return qualified names of classes/interfaces/enums defined in that
+     *         directory or null
+     */
+    public Collection<String> glance(String filePath) {
+        return processDirectory(filePath, null, null, String.class);
+    }
+
+    /**
+     * Processes all .class files in a directory and its subdirectories and
+     * returns result of that processing. Actual behaviour depends on <code>
+     * resultType</code>: <br/>
+     * - if it is String.class this method returns qualified names of all
+     *   classes/interfaces/enums defined in those files<br/>
+     * - if it is UnitInfo.class this method returns definitions of those
+     *   classes/interfaces/enums defined in those files which qualified names
+     *   are in <code>namesFilter</code><br/>
+     * Order of returned elements is unspecified.
+     *
+     * @param filePath path to a directory to process
+     * @param namesFilter qualified names of classes/interfaces/enums that are
+     *        allowed to be returned; if this parameter is null then all
+     *        classes/interfaces/enums will be returned
+     * @param options tells which parts of classes/interfaces/enums should be
+     *        read or null
+     * @param resultType either String.class or UnitInfo.class
+     */
+    private <T> Collection<T> processDirectory(String filePath, NamesFilter namesFilter,
+            ParseOptions options, Class<T> resultType) {
+        File directory;
+        try {
+            directory = new File(filePath).getCanonicalFile();
+        } catch (IOException ex) {
+            ex.printStackTrace();
+            return null;
+        }
+        if(!directory.isDirectory())
+            return null;
+
+        Queue<T> result = new ConcurrentLinkedQueue<T>();
+        AtomicInteger found = new AtomicInteger();
+        DirectoryTask<T> task = new DirectoryTask<T>(directory, resultType,
+                namesFilter, options, result, found);
+        if(pool != null)
+            pool.invoke(task);
+        else
+            task.process(false);
+        return result.isEmpty()? null : new ArrayList<T>(result);
+    }
+
+    /**
+     * Notifies observers that <code>count</code> results have been found so
+     * far. Called from pool threads, so notifications are serialized.
+     *
+     * @param count number of results found so far
+     */
+    private synchronized void notifyFound(int count) {
+        setChanged();
+        notifyObservers(count);
+        clearChanged();
+    }
+
+    /**
+     * Task processing a directory: lists it, processes its subdirectories by
+     * other DirectoryTasks and its .class files in batches by FilesTasks.
+     */
+    private class DirectoryTask<T> extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private File directory;
+        private Class<T> resultType;
+        private NamesFilter namesFilter;
+        private ParseOptions options;
+        private Queue<T> result;
+        private AtomicInteger found;
+
+        /**
+         * Creates a task which processes <code>directory</code>.
+         *
+         * @param directory canonical path of the directory to process
+         * @param resultType either String.class or UnitInfo.class
+         * @param namesFilter qualified names of classes/interfaces/enums that
+         *        are allowed to be returned or null
+         * @param options tells which parts of classes/interfaces/enums should
+         *        be read or null
+         * @param result queue to add results to
+         * @param found counter of results found so far
+         */
+        DirectoryTask(File directory, Class<T> resultType, NamesFilter namesFilter,
+                ParseOptions options, Queue<T> result, AtomicInteger found) {
+            this.directory = directory;
+            this.resultType = resultType;
+            this.namesFilter = namesFilter;
+            this.options = options;
+            this.result = result;
+            this.found = found;
+        }
+
+        /**
+         * Processes the directory in pool's threads.
+         */
+        protected void compute() {
+            process(true);
+        }
+
+        /**
+         * Processes the directory.
+         *
+         * @param parallel true if this is called from a pool thread and the
+         *        work should be split between pool's threads, false if it
+         *        should be done in the calling thread
+         */
+        void process(boolean parallel) {
+            File[] files = directory.listFiles();
+            if(files == null)
+                return;
+
+            List<RecursiveAction> tasks = new ArrayList<RecursiveAction>();
+            List<File> batch = new ArrayList<File>(filesPerTask);
+            for(File file : files) {
+                if(file.isDirectory()) {
+                    if(!isLink(file))
+                        tasks.add(new DirectoryTask<T>(file, resultType, namesFilter, options, result, found));
+                } else if(file.getName().endsWith(".class")) {
+                    batch.add(file);
+                    if(batch.size() == filesPerTask) {
+                        tasks.add(new FilesTask<T>(batch, resultType, namesFilter, options, result, found));
+                        batch = new ArrayList<File>(filesPerTask);
+                    }
+                }
+            }
+            if(!batch.isEmpty())
+                tasks.add(new FilesTask<T>(batch, resultType, namesFilter, options, result, found));
+
+            if(parallel) {
+                invokeAll(tasks);
+            } else {
+                for(RecursiveAction task : tasks) {
+                    if(task instanceof DirectoryTask)
+                        ((DirectoryTask<?>) task).process(false);
+                    else
+                        ((FilesTask<?>) task).processFiles();
+                }
+            }
+        }
+
+        /**
+         * Checks if a subdirectory of the processed directory is a symbolic
+         * link (its canonical path is not its path; the processed directory
+         * has canonical path, so its subdirectories have too).
+         */
+        private boolean isLink(File file) {
+            try {
+                return !file.getCanonicalFile().equals(file);
+            } catch (IOException ex) {
+                ex.printStackTrace();
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Task reading and parsing a batch of .class files. All files are read
+     * into the same buffer, which grows when a larger file is read.
+     */
+    private class FilesTask<T> extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private List<File> files;
+        private Class<T> resultType;
+        private NamesFilter namesFilter;
+        private ParseOptions options;
+        private Queue<T> result;
+        private AtomicInteger found;
+        private ByteBuffer buffer;
+
+        /**
+         * Creates a task which processes <code>files</code>.
+         *
+         * @param files .class files to process
+         * @param resultType either String.class or UnitInfo.class
+         * @param namesFilter qualified names of classes/interfaces/enums that
+         *        are allowed to be returned or null
+         * @param options tells which parts of classes/interfaces/enums should
+         *        be read or null
+         * @param result queue to add results to
+         * @param found counter of results found so far
+         */
+        FilesTask(List<File> files, Class<T> resultType, NamesFilter namesFilter,
+                ParseOptions options, Queue<T> result, AtomicInteger found) {
+            this.files = files;
+            this.resultType = resultType;
+            this.namesFilter = namesFilter;
+            this.options = options;
+            this.result = result;
+            this.found = found;
+        }
+
+        /**
+         * Processes the files in pool's threads.
+         */
+        protected void compute() {
+            processFiles();
+        }
+
+        /**
+         * Processes the files in the calling thread and notifies observers
+         * once for the whole batch.
+         */
+        void processFiles() {
+            int count = 0;
+            for(File file : files) {
+                T t = processClassFile(file);
+                if(t != null) {
+                    result.add(t);
+                    count++;
+                }
+            }
+            buffer = null;
+            if(count > 0)
+                notifyFound(found.addAndGet(count));
+        }
+
+        /**
+         * Processes a .class file; see ClassFileInspector. Uses and updates
+         * names cache: a name is returned without reading the file if it is
+         * cached. If <code>namesFilter</code> is not null and the class
+         * defined in the file is not in it, the file is not parsed and null
+         * is returned. If members are deferred, a LazyUnitInfo is returned.
+         *
+         * @param file .class file to process
+         */
+        private T processClassFile(File file) {
+            String filePath = file.getPath();
+            // stamps are taken before reading, see ClassFileInspector
+            long modified = file.lastModified();
+            long length = file.length();
+            boolean names = resultType.equals(String.class);
+            if(names || namesFilter != null) {
+                String name = cache.get(filePath, length, modified);
+                if(name != null && names)
+                    return resultType.cast(name);
+                if(name != null && !namesFilter.accepts(name))
+                    return null;
+            }
+
+            FileInputStream in = null;
+            try {
+                in = new FileInputStream(file);
+                FileChannel channel = in.getChannel();
+                long size = channel.size();
+                ByteBuffer data = read(channel, size);
+                ClassFileReader reader = ClassFileReader.forThread();
+                reader.setOptions(options);
+                if(names) {
+                    String name = reader.readUnitName(data);
+                    if(name != null)
+                        cache.put(filePath, size, modified, name);
+                    return resultType.cast(name);
+                }
+                ContentIndex index = (options != null)? options.getContentIndex() : null;
+                String key = null;
+                if(index != null) {
+                    key = ContentIndex.key(null, filePath, size, ContentIndex.checksum(data));
+                    UnitInfo unit = index.get(key);
+                    if(unit != null && !unit.getName().equals(reader.readUnitName(data))) {
+                        // different content with the same key is not shared
+                        unit = null;
+                        key = null;
+                    }
+                    if(unit != null) {
+                        cache.put(filePath, size, modified, unit.getName());
+                        if(namesFilter != null && !namesFilter.accepts(unit.getName()))
+                            return null;
+                        return resultType.cast(unit);
+                    }
+                }
+                UnitInfo unit;
+                if(options != null && options.isMembersDeferred()) {
+                    unit = reader.readHeader(data, namesFilter);
+                    if(unit != null)
+                        unit = new LazyUnitInfo(unit, new ClassFileSource.FileSource(
+                                unit.getName(), null, options, file, size, modified));
+                } else {
+                    unit = reader.read(data, namesFilter);
+                }
+                if(reader.getUnitName() != null)
+                    cache.put(filePath, size, modified, reader.getUnitName());
+                if(key != null)
+                    unit = index.put(key, unit);
+                return resultType.cast(unit);
+            } catch(IOException ex) {
+                ex.printStackTrace();
+                return null;
+            } finally {
+                if(in != null)
+                    try {
+                        in.close();
+                    } catch(IOException ex) {
+                        ex.printStackTrace();
+                    }
+            }
+        }
+
+        /**
+         * Returns a buffer containing whole contents of a .class file: the
+         * buffer of this task or, for a large file, the mapped file.
+         */
+        private ByteBuffer read(FileChannel channel, long size) throws IOException {
+            if(size >= mappingThreshold)
+                return channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+
+            if(buffer == null || buffer.capacity() < size)
+                buffer = ByteBuffer.allocate(Math.max((int) size, 16 * 1024));
+            buffer.clear();
+            buffer.limit((int) size);
+            while(buffer.hasRemaining() && channel.read(buffer) != -1)
+                ;
+            buffer.flip();
+            return buffer;
+        }
+    }
+}
@@ -22,10 +22,9 @@ package net.sourceforge.code2uml.inspectors.java;
 
 import java.io.DataInput;
 import java.io.IOException;
-import java.nio.CharBuffer;
 import net.sourceforge.code2uml.unitdata.AccessType;
-import net.sourceforge.code2uml.unitdata.FieldInfo;
-import net.sourceforge.code2uml.unitdata.FieldInfoImpl;
+import net.sourceforge.code2uml.unitdata.CompactUnitBuilder;
+import net.sourceforge.code2uml.unitdata.ParseOptions;
 
 /**
  * Reads field_info structures from a .class file.
@@ -44,77 +43,96 @@ class FieldInfoReader {
     private static final int ACC_SYNTHETIC = 0x1000;
     private static final int ACC_ENUM = 0x4000;
     
-    private DescriptorReader descriptorReader = new DescriptorReader();
-    private SignatureReader signatureReader = new SignatureReader();
-    private AttributeInfoReader attributeReader = new AttributeInfoReader();
+    private TypeDecoder typeDecoder;
+    private AttributeInfoReader attributeReader;
     
     /**
      * Creates a new instance of FieldInfoReader.
      */
     public FieldInfoReader() {
+        this(new AttributeInfoReader(), new TypeDecoder());
     }
     
     /**
-     * Reads a field_info structure from <code>in</code> and return FieldInfo
-     * containing read information. The <code>pool</code> parameter stores 
-     * contents of .class file's constant pool in format returned by
-     * ConstantPoolReader. <br/>
+     * Creates a new instance of FieldInfoReader which reads attributes using
+     * <code>attributeReader</code> and decodes descriptors and signatures
+     * using <code>typeDecoder</code> (both may be shared with other readers).
+     *
+     * @param attributeReader reader of attribute_info structures
+     * @param typeDecoder decoder of descriptors and signatures
+     */
+    FieldInfoReader(AttributeInfoReader attributeReader, TypeDecoder typeDecoder) {
+        this.attributeReader = attributeReader;
+        this.typeDecoder = typeDecoder;
+    }
+    
+    /**
+     * Reads a field_info structure from <code>in</code> and adds what it
+     * defines to <code>unit</code>. The <code>pool</code> parameter stores 
+     * contents of .class file's constant pool. <br/>
      * If the field_info which this method reads: <br/>
-     * - represents an enum value -> this method returns a FieldInfo whose
-     *   getTypeName() method returns "enum" and getName() method returns
-     *   the name of that enum value <br/>
-     * - represents synthetic (not present in the source code) field -> this
-     *   method returns null
-     * - otherwise it return a FieldInfo which contains read information about
-     *   a field
+     * - represents an enum value -> the name of that enum value is added to
+     *   enum values of the unit <br/>
+     * - represents synthetic (not present in the source code) field or a 
+     *   field which is not needed according to <code>options</code> -> 
+     *   nothing is added; such field is rejected right after its 
+     *   access_flags are read, so its type is not decoded <br/>
+     * - otherwise the field is added to fields of the unit
      *
      * @param in DataInput to read from
      * @param pool constant pool
+     * @param options tells which fields should be read; if it is null all
+     *        fields are read
+     * @param unit builder of the unit defining the field
      * @throws IOException if an I/O error occurs
-     * @return FieldInfo containing read information or null
      */
-    public FieldInfo read(DataInput in, Object[] pool) throws IOException {
+    public void read(DataInput in, ConstantPool pool, ParseOptions options, 
+                     CompactUnitBuilder unit) throws IOException {
         int temp = in.readUnsignedShort();
         if((temp & ACC_SYNTHETIC) != 0) {
             ignoreField(in);
-            return null;
+            return;
         }
         
-        FieldInfoImpl field = new FieldInfoImpl();
-        
         if((temp & ACC_ENUM) != 0) {
+            if(options != null && !options.isEnumValuesRead()) {
+                ignoreField(in);
+                return;
+            }
             temp = in.readUnsignedShort();
-            field.setTypeName("enum");
-            field.setName((String) pool[temp]);
+            unit.addEnumValue(pool.getUtf8(temp));
             in.readUnsignedShort();
             attributeReader.ignoreAttributes(in);
         } else {
+            AccessType accessType;
             if((temp & ACC_PUBLIC) != 0)
-                field.setAccessType(AccessType.PUBLIC);
+                accessType = AccessType.PUBLIC;
             else if((temp & ACC_PRIVATE) != 0)
-                field.setAccessType(AccessType.PRIVATE);
+                accessType = AccessType.PRIVATE;
             else if((temp & ACC_PROTECTED) != 0)
-                field.setAccessType(AccessType.PROTECTED);
+                accessType = AccessType.PROTECTED;
             else
-                field.setAccessType(AccessType.PACKAGE);
-            field.setStatic((temp & ACC_STATIC) != 0);
-            field.setIsFinal((temp & ACC_FINAL) != 0);
+                accessType = AccessType.PACKAGE;
+            boolean isStatic = (temp & ACC_STATIC) != 0;
+            boolean isFinal = (temp & ACC_FINAL) != 0;
+            if(options != null && !options.isFieldRead(accessType, isStatic, isFinal)) {
+                ignoreField(in);
+                return;
+            }
             
             // name index
             temp = in.readUnsignedShort();
-            field.setName((String) pool[temp]);
+            String name = pool.getUtf8(temp);
             
             // descriptor index
             temp = in.readUnsignedShort();
-            field.setTypeName(descriptorReader.readFieldDescriptor(CharBuffer.wrap((CharSequence) pool[temp])));
             
+            // a signature (if there is one) replaces the descriptor
             int signatureIdx = attributeReader.readSignatureIndex(in, pool);
-            if(signatureIdx != -1) {
-                CharBuffer charBuffer = CharBuffer.wrap((CharSequence) pool[signatureIdx]);
-                field.setTypeName(signatureReader.readFieldTypeSignature(charBuffer));
-            }
+            String typeName = (signatureIdx != -1)? typeDecoder.readFieldSignature(pool, signatureIdx) :
+                                                    typeDecoder.readFieldDescriptor(pool, temp);
+            unit.addField(name, typeName, accessType, isStatic, isFinal);
         }
-        return field;
     }
     
     /**
@@ -0,0 +1,66 @@
+/*
+ * InspectorPools.java
+ *
+ * Created on 17 October 2026, 09:40
+ *
+ * Copyright 2026 Code2Uml contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.sourceforge.code2uml.inspectors.java;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Gives inspectors ForkJoinPools shared by all of them, so that creating an
+ * inspector (each UnitsRetriever creates its own) doesn't start threads
+ * which are never stopped. There is one pool for each parallelism, usually
+ * only the one with as many threads as there are available processors.
+ * Threads of these pools are daemons, so they don't keep the program
+ * running. <br/><br/>
+ *
+ * When a UnitsRetriever reads files concurrently, threads of its executor
+ * invoke tasks of all files in the same pool and wait for them. Classes are
+ * then parsed only by the pool's threads, so no more of them are parsed at
+ * the same time than the pool's parallelism, however many files are read
+ * at once.
+ *
+ * @author Code2Uml contributors
+ */
+final class InspectorPools {
+
+    private static final Map<Integer, ForkJoinPool> pools = new HashMap<Integer, ForkJoinPool>();
+
+    private InspectorPools() {
+    }
+
+    /**
+     * Returns the pool with given parallelism, creating it if it doesn't
+     * exist yet.
+     *
+     * @param parallelism number of threads of the pool
+     * @return pool shared by inspectors which use <code>parallelism</code>
+     *         threads
+     */
+    static synchronized ForkJoinPool get(int parallelism) {
+        ForkJoinPool pool = pools.get(parallelism);
+        if(pool == null) {
+            pool = new ForkJoinPool(parallelism);
+            pools.put(parallelism, pool);
+        }
+        return pool;
+    }
+}
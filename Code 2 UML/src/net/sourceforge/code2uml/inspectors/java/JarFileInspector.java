@@ -20,45 +20,139 @@
 
 package net.sourceforge.code2uml.inspectors.java;
 
-import java.io.ByteArrayOutputStream;
-import java.io.DataInputStream;
-import java.io.FileInputStream;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
-import java.util.LinkedList;
+import java.util.List;
 import java.util.Map;
 import java.util.Observable;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentMap;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.zip.ZipEntry;
-import java.util.zip.ZipInputStream;
 import net.sourceforge.code2uml.inspectors.FileInspector;
+import net.sourceforge.code2uml.unitdata.ContentIndex;
+import net.sourceforge.code2uml.unitdata.LazyUnitInfo;
+import net.sourceforge.code2uml.unitdata.ParseOptions;
 import net.sourceforge.code2uml.unitdata.UnitInfo;
+import net.sourceforge.code2uml.util.NamesFilter;
 
 /**
  * FleInspector responsible for reading java .jar files. Extends
  * java.util.Observable and notifies its observers after reading each .class
  * file from given jar (during execution of both inspect() and glance() 
- * methods).
+ * methods). <br/><br/>
+ *
+ * A jar is memory-mapped and its entries are located using its central 
+ * directory (see MappedJarFile): STORED entries are parsed in place and
+ * DEFLATED ones are inflated into reused buffers. If the inspector is created
+ * with parallelism greater than 1, inflating and parsing of .class entries is
+ * split between threads of a work-stealing ForkJoinPool. <br/><br/>
+ *
+ * Jars nested in the inspected one as libraries, in BOOT-INF/lib of a Spring
+ * Boot fat jar or in WEB-INF/lib of a .war, are read directly from the outer
+ * archive (nothing is extracted to disk) and in parallel with each other.
+ * Units read from a nested jar have its path as their origin (see
+ * UnitInfo.getOrigin()). Other .jar entries, such as test data or jars
+ * bundled as resources, are not read. <br/><br/>
+ *
+ * In parallel mode observers are notified from pool threads, but
+ * notifications are never delivered concurrently.
  *
  * @author Mateusz Wenus
  */
 public class JarFileInspector extends Observable implements FileInspector {
     
     /*
-     * Contains pairs: .jar file path <-> x, where x is another map containing
-     * pairs: zip entry name from taht jar <-> qualified name of a
-     * class/interface/enum defined in that entry.
-     * This cache is common for all JarFileInspectors and is thread safe.
+     * Contains pairs: .jar file path and zip entry name from that jar <->
+     * qualified name of a class/interface/enum defined in that entry.
+     * This cache is common for all ClassFileInspectors and JarFileInspectors
+     * and is thread safe.
+     */
+    private static NameCache cache = NameCache.getShared();
+    
+    /**
+     * Maximal number of .class entries processed by one task in parallel mode;
+     * larger ranges of entries are split in halves.
+     */
+    private static final int entriesPerTask = 32;
+    
+    /**
+     * Directories of fat jars and .wars which contain classes placed
+     * according to their packages.
      */
-    private static ConcurrentMap<String, ConcurrentMap<String, String>> cache = 
-                 new ConcurrentHashMap<String, ConcurrentMap<String, String>>();
+    private static final String[] classRoots = {"BOOT-INF/classes/", "WEB-INF/classes/"};
     
     /**
-     * Creates a new instance of JarFileInspector.
+     * Directories of fat jars and .wars which contain libraries (nested
+     * .jar files) whose classes are read.
+     */
+    private static final String[] libraryDirectories = {
+        "BOOT-INF/lib/", "BOOT-INF/lib-provided/", "WEB-INF/lib/", "WEB-INF/lib-provided/"
+    };
+    
+    private int parallelism;
+    private ForkJoinPool pool;
+    private boolean trustEntryPaths = true;
+    
+    /**
+     * Creates a new instance of JarFileInspector which reads entries of a
+     * jar using as many threads as there are available processors.
      */
     public JarFileInspector() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+    
+    /**
+     * Creates a new instance of JarFileInspector which reads entries of a 
+     * jar using <code>parallelism</code> threads. If <code>parallelism</code>
+     * is less than 2, entries are read sequentially by the calling thread.
+     * Threads are shared with other inspectors (see InspectorPools).
+     *
+     * @param parallelism number of threads used to read entries of a jar
+     */
+    public JarFileInspector(int parallelism) {
+        this.parallelism = parallelism;
+        if(parallelism > 1)
+            pool = InspectorPools.get(parallelism);
+    }
+    
+    /**
+     * Returns number of threads used to read entries of a jar.
+     *
+     * @return number of threads used to read entries of a jar; 1 if they are
+     *         read sequentially
+     */
+    public int getParallelism() {
+        return pool != null? parallelism : 1;
+    }
+    
+    /**
+     * Sets whether glance() may derive qualified names of classes from paths
+     * of .jar entries. If it may (which is the default), glance() reads only 
+     * the central directory of a .jar and one entry of each directory, apart
+     * from entries whose paths can't be trusted (see nameFromEntryPath() and
+     * nameFromTrustedPath()). Otherwise it parses the beginning of each 
+     * .class entry.
+     *
+     * @param trustEntryPaths true if names may be derived from entries' paths
+     */
+    public void setTrustEntryPaths(boolean trustEntryPaths) {
+        this.trustEntryPaths = trustEntryPaths;
+    }
+    
+    /**
+     * Returns true if glance() derives qualified names of classes from paths
+     * of .jar entries.
+     *
+     * @return true if names are derived from entries' paths
+     */
+    public boolean getTrustEntryPaths() {
+        return trustEntryPaths;
     }
     
     /**
@@ -72,7 +166,7 @@ public class JarFileInspector extends Observable implements FileInspector {
      *         defined in file <code>filePath</code>
      */
     public Collection<UnitInfo> inspect(String filePath) {
-        return processJarFile(filePath, null, UnitInfo.class);
+        return processJarFile(filePath, null, null, UnitInfo.class);
     }
     
     /**
@@ -94,7 +188,28 @@ public class JarFileInspector extends Observable implements FileInspector {
      *         namesFiler</code> or null
      */
     public Collection<UnitInfo> inspect(String filePath, Collection<String> namesFilter) {
-        return processJarFile(filePath, namesFilter, UnitInfo.class);
+        return processJarFile(filePath, NamesFilter.of(namesFilter), null, UnitInfo.class);
+    }
+    
+    /**
+     * Returns from specified file definitions of those classes/interfaces/enums
+     * which have qualified names belonging to <code>namesFilter</code>, reading
+     * only those of their parts which are needed according to <code>options
+     * </code>. Notifies its observers as inspect(String, Collection) does.
+     *
+     * @param filePath path to the file to read from
+     * @param namesFilter qualified names and rules (see NamesFilter) of
+     *        classes/interfaces/enums which are allowed to be returned; if
+     *        this parameter is null all definitions will be returned
+     * @param options tells which parts of classes/interfaces/enums should be
+     *        read; if this parameter is null everything is read
+     * @return collection of objects representing classes/interfaces/enums
+     *         defined in file <code>filePath</code> which names are in <code>
+     *         namesFiler</code> or null
+     */
+    public Collection<UnitInfo> inspect(String filePath, NamesFilter namesFilter,
+                                        ParseOptions options) {
+        return processJarFile(filePath, namesFilter, options, UnitInfo.class);
     }
     
     /**
@@ -108,7 +223,7 @@ public class JarFileInspector extends Observable implements FileInspector {
      *         file
      */
     public Collection<String> glance(String filePath) {
-        return processJarFile(filePath, null, String.class);
+        return processJarFile(filePath, null, null, String.class);
     }
     
     /**
@@ -118,60 +233,55 @@ public class JarFileInspector extends Observable implements FileInspector {
      *   classes/interfaces/enums contained in file <code>filePath</code><br/>
      * - if it is UnitInfo.class this method returns definitions of those
      *   classes/interfaces/enums contained in file <code>filePath</code> 
-     *   which qualified names are in <code>namesFilter</code>
+     *   which qualified names are in <code>namesFilter</code><br/>
+     * Order of returned elements is unspecified. <br/><br/>
+     *
+     * Reads central directory of the .jar file (which is memory-mapped, see
+     * MappedJarFile), chooses entries which have to be processed and 
+     * processes them in pool's threads (or in the calling thread, if there is
+     * no pool). Nested .jar files in library directories of a fat jar or a
+     * .war (see isLibrary()) are processed the same way, in parallel with 
+     * each other and with .class entries; units read from them are tagged
+     * with their path (see UnitInfo.getOrigin()). <br/>
+     * If there is a filter, entries are chosen using their paths and names
+     * cache: only entries whose classes are in namesFilter or are not known
+     * are read.
+     * Names of the latter are read first and they are parsed only if they
+     * are in namesFilter. <br/>
+     * If names are to be returned and entries' paths are trusted, names are
+     * derived from paths where possible and only the remaining entries are
+     * read. A path is used only if names derived from paths in its directory
+     * have been checked (see nameFromTrustedPath()).
      *
      * @param filePath path to a .jar file to process
      * @param namesFilter qualified names of classes/interfaces/enums that are
      *        allowed to be returned; if this parameter is null then all
      *        classes/interfaces/enums will be returned
+     * @param options tells which parts of classes/interfaces/enums should be
+     *        read or null
      * @param resultType either String.class or UnitInfo.class
      */
-    private <T> Collection<T> processJarFile(String filePath, Collection<String> namesFilter, Class<T> resultType) {
-        ZipInputStream in = null;
-        ConcurrentMap<String, String> jarCache = cache.get(filePath);
-        if(jarCache == null) {
-            jarCache = new ConcurrentHashMap<String, String>();
-            cache.put(filePath, jarCache);
-        }
-        
+    private <T> Collection<T> processJarFile(String filePath, NamesFilter namesFilter,
+            ParseOptions options, Class<T> resultType) {
+        MappedJarFile jar = null;
         try {
-            in = new ZipInputStream(new FileInputStream(filePath));
-            Collection<T> result = new LinkedList<T>();
-            ZipEntry entry;
-            while((entry = in.getNextEntry()) != null) {
-                /*
-                 * if there is a filter and you know what class is defined in 
-                 * current ZipEntry and that class'es qualified name is not in 
-                 * namesFilter, then there's no need to read this entry
-                 */
-                if(namesFilter != null && jarCache.containsKey(entry.getName())
-                && !namesFilter.contains(jarCache.get(entry.getName()))) {
-                    continue;
-                }
-                
-                T t = processZipEntry(in, entry, resultType);
-                if(t != null) {
-                    result.add(t);
-                    if(!jarCache.containsKey(entry.getName())) {
-                        if(t instanceof String) {
-                            jarCache.putIfAbsent(entry.getName(), (String) t);
-                        } else {
-                            jarCache.putIfAbsent(entry.getName(), ((UnitInfo) t).getName());
-                        }
-                    }
-                    setChanged();
-                    notifyObservers(result.size());
-                    clearChanged();
-                }
-            }
-            return result.isEmpty()? null : result;
+            jar = new MappedJarFile(filePath);
+            Queue<T> result = new ConcurrentLinkedQueue<T>();
+            AtomicInteger found = new AtomicInteger();
+            ArchiveTask<T> task = new ArchiveTask<T>(jar, null, filePath, null, 
+                    resultType, namesFilter, options, result, found);
+            if(pool != null)
+                pool.invoke(task);
+            else
+                task.process(false);
+            return result.isEmpty()? null : new ArrayList<T>(result);
         } catch (IOException ex) {
             ex.printStackTrace();
             return null;
         } finally {
-            if(in != null) {
+            if(jar != null) {
                 try {
-                    in.close();
+                    jar.close();
                 } catch (IOException ex) {
                     ex.printStackTrace();
                 }
@@ -180,37 +290,467 @@ public class JarFileInspector extends Observable implements FileInspector {
     }
     
     /**
-     * Processes an entry of a zip file and returns the result of that 
+     * Tells if an entry is a library of a fat jar or a .war, which should be
+     * read as a nested archive: a .jar file directly in BOOT-INF/lib,
+     * WEB-INF/lib or their "lib-provided" counterparts. Jars placed
+     * elsewhere are resources of the application and are not read.
+     *
+     * @param entryName name of an entry
+     * @return true if the entry is a library to read
+     */
+    static boolean isLibrary(String entryName) {
+        if(!entryName.endsWith(".jar"))
+            return false;
+        for(String directory : libraryDirectories) {
+            if(entryName.startsWith(directory))
+                return entryName.indexOf('/', directory.length()) < 0;
+        }
+        return false;
+    }
+    
+    /**
+     * Derives qualified name of the class/interface/enum defined in a .class
+     * entry from entry's path, for example "java/util/Map$Entry.class" gives
+     * "java.util.Map$Entry". This is the name which would be read from the
+     * entry, as long as the entry is placed according to its package (which
+     * is checked by nameFromTrustedPath()). Path is not trusted (and null is
+     * returned) if any of its elements is not a Java identifier. That 
+     * excludes among others: <br/>
+     * - multi-release entries ("META-INF/versions/9/...") <br/>
+     * - module-info.class and package-info.class <br/>
+     * Classes of a fat jar or a .war ("BOOT-INF/classes/...", 
+     * "WEB-INF/classes/...") are placed according to their package relative
+     * to that directory, so it is skipped.
+     *
+     * @param entryName name of a .class entry
+     * @return qualified name of the class defined in that entry or null if
+     *         it can't be derived from entry's path
+     */
+    static String nameFromEntryPath(String entryName) {
+        int begin = 0;
+        for(String root : classRoots) {
+            if(entryName.startsWith(root)) {
+                begin = root.length();
+                break;
+            }
+        }
+        int end = entryName.length() - ".class".length();
+        if(end <= begin)
+            return null;
+        char[] chars = new char[end - begin];
+        boolean start = true;
+        for(int i = begin; i < end; i++) {
+            char c = entryName.charAt(i);
+            if(c == '/') {
+                if(start)
+                    return null;
+                chars[i - begin] = '.';
+                start = true;
+            } else {
+                if(start? !Character.isJavaIdentifierStart(c) : !Character.isJavaIdentifierPart(c))
+                    return null;
+                chars[i - begin] = c;
+                start = false;
+            }
+        }
+        if(start)
+            return null;
+        return new String(chars);
+    }
+    
+    /**
+     * Derives qualified name of the class/interface/enum defined in a .class
+     * entry from entry's path (see nameFromEntryPath()), if paths in entry's
+     * directory can be trusted. Whether they can is checked once for each
+     * directory, by reading the name of the class defined in its first 
+     * .class entry and comparing it with the name derived from the path of 
+     * that entry. Classes which are not placed according to their packages,
+     * for example "classes/com/acme/Foo.class", are found this way and 
+     * their names are not derived from paths.
+     *
+     * @param jar archive containing the entry
+     * @param filePath path to the archive; used as a key of names cache
+     * @param entry a .class entry of <code>jar</code>
+     * @param directories directories of <code>jar</code> which have been 
+     *        checked so far, mapped to true if their paths can be trusted
+     * @return qualified name of the class defined in that entry or null if
+     *         it can't be derived from entry's path
+     */
+    private String nameFromTrustedPath(MappedJarFile jar, String filePath, ZipEntry entry,
+                                       Map<String, Boolean> directories) {
+        String entryName = entry.getName();
+        String name = nameFromEntryPath(entryName);
+        if(name == null)
+            return null;
+        String directory = entryName.substring(0, entryName.lastIndexOf('/') + 1);
+        Boolean trusted = directories.get(directory);
+        if(trusted == null) {
+            String read = null;
+            try {
+                ByteBuffer buffer = jar.read(entry);
+                if(buffer != null)
+                    read = ClassFileReader.forThread().readUnitName(buffer);
+            } catch (IOException ex) {
+                ex.printStackTrace();
+            }
+            if(read != null)
+                updateCache(filePath, entry, read);
+            trusted = name.equals(read);
+            directories.put(directory, trusted);
+        }
+        return trusted? name : null;
+    }
+    
+    /**
+     * Checks if it is known that the class/interface/enum defined in given
+     * entry is not in <code>namesFilter</code>, so there's no need to read
+     * that entry. The name is derived from entry's path, if paths are 
+     * trusted (see nameFromTrustedPath()), or looked up in names cache.
+     *
+     * @param jar archive containing the entry
+     * @param filePath path to the archive
+     * @param entry entry of that archive
+     * @param namesFilter qualified names of classes/interfaces/enums that are
+     *        allowed to be returned
+     * @param directories directories of <code>jar</code> which have been 
+     *        checked so far (see nameFromTrustedPath())
+     * @return true if the entry need not be read
+     */
+    private boolean isFilteredOut(MappedJarFile jar, String filePath, ZipEntry entry, 
+                                  NamesFilter namesFilter, Map<String, Boolean> directories) {
+        if(trustEntryPaths) {
+            String name = nameFromTrustedPath(jar, filePath, entry, directories);
+            if(name != null)
+                return !namesFilter.accepts(name);
+        }
+        String name = cache.get(NameCache.entryKey(filePath, entry.getName()), 
+                                entry.getCrc(), entry.getSize());
+        return name != null && !namesFilter.accepts(name);
+    }
+    
+    /**
+     * Remembers qualified name of the class/interface/enum defined in given
+     * entry.
+     *
+     * @param filePath path to a .jar file
+     * @param entry entry of that file
+     * @param t result of processing that entry, a String or a UnitInfo
+     */
+    private void updateCache(String filePath, ZipEntry entry, Object t) {
+        String name = (t instanceof String)? (String) t : ((UnitInfo) t).getName();
+        cache.put(NameCache.entryKey(filePath, entry.getName()), 
+                  entry.getCrc(), entry.getSize(), name);
+    }
+    
+    /**
+     * Notifies observers that <code>count</code> results have been found so
+     * far. Called from pool threads, so notifications are serialized.
+     *
+     * @param count number of results found so far
+     */
+    private synchronized void notifyFound(int count) {
+        setChanged();
+        notifyObservers(count);
+        clearChanged();
+    }
+    
+    /**
+     * Task processing an archive: the inspected .jar file or a .jar nested in
+     * it. Chooses .class entries which have to be processed and processes
+     * them together with nested .jar files, each of which is processed by
+     * another ArchiveTask.
+     */
+    private class ArchiveTask<T> extends RecursiveAction {
+        
+        private static final long serialVersionUID = 1L;
+        
+        private MappedJarFile jar;
+        private ZipEntry entry;
+        private String path;
+        private String origin;
+        private Class<T> resultType;
+        private NamesFilter namesFilter;
+        private ParseOptions options;
+        private Queue<T> result;
+        private AtomicInteger found;
+        
+        /**
+         * Creates a task which processes <code>jar</code> (if <code>entry
+         * </code> is null) or a .jar contained in its entry <code>entry
+         * </code>.
+         *
+         * @param jar archive to process or an archive containing it
+         * @param entry entry of <code>jar</code> containing archive to process
+         *        or null
+         * @param path path of the archive to process; used as a key of names
+         *        cache (see NameCache.entryKey())
+         * @param origin origin of units read from the archive to process
+         * @param resultType either String.class or UnitInfo.class
+         * @param namesFilter qualified names of classes/interfaces/enums that
+         *        are allowed to be returned or null
+         * @param options tells which parts of classes/interfaces/enums should
+         *        be read or null
+         * @param result queue to add results to
+         * @param found counter of results found so far
+         */
+        ArchiveTask(MappedJarFile jar, ZipEntry entry, String path, String origin,
+                Class<T> resultType, NamesFilter namesFilter, 
+                ParseOptions options, Queue<T> result, AtomicInteger found) {
+            this.jar = jar;
+            this.entry = entry;
+            this.path = path;
+            this.origin = origin;
+            this.resultType = resultType;
+            this.namesFilter = namesFilter;
+            this.options = options;
+            this.result = result;
+            this.found = found;
+        }
+        
+        /**
+         * Processes the archive in pool's threads.
+         */
+        protected void compute() {
+            process(true);
+        }
+        
+        /**
+         * Processes the archive.
+         *
+         * @param parallel true if this is called from a pool thread and the
+         *        work should be split between pool's threads, false if it
+         *        should be done in the calling thread
+         */
+        void process(boolean parallel) {
+            MappedJarFile archive = null;
+            try {
+                archive = (entry == null)? jar : jar.openNested(entry);
+                boolean derive = trustEntryPaths && resultType.equals(String.class);
+                List<ZipEntry> entries = new ArrayList<ZipEntry>();
+                List<ArchiveTask<T>> nested = new ArrayList<ArchiveTask<T>>();
+                Map<String, Boolean> directories = new HashMap<String, Boolean>();
+                int derived = 0;
+                for(ZipEntry e : archive.getEntries()) {
+                    String entryName = e.getName();
+                    if(isLibrary(entryName)) {
+                        nested.add(new ArchiveTask<T>(archive, e, 
+                                NameCache.entryKey(path, entryName),
+                                origin == null? entryName : origin + "!/" + entryName,
+                                resultType, namesFilter, options, result, found));
+                        continue;
+                    }
+                    if(!entryName.endsWith(".class"))
+                        continue;
+                    
+                    if(namesFilter != null && isFilteredOut(archive, path, e, namesFilter, directories))
+                        continue;
+                    
+                    String name = derive? nameFromTrustedPath(archive, path, e, directories) : null;
+                    if(name != null) {
+                        result.add((T) name);
+                        derived++;
+                    } else {
+                        entries.add(e);
+                    }
+                }
+                
+                if(derived > 0)
+                    notifyFound(found.addAndGet(derived));
+                EntriesTask<T> entriesTask = new EntriesTask<T>(archive, entries, 0, entries.size(), 
+                        resultType, path, origin, namesFilter, options, result, found);
+                if(parallel) {
+                    List<RecursiveAction> tasks = new ArrayList<RecursiveAction>(nested);
+                    tasks.add(entriesTask);
+                    invokeAll(tasks);
+                } else {
+                    entriesTask.processRange();
+                    for(ArchiveTask<T> task : nested)
+                        task.process(false);
+                }
+            } catch (IOException ex) {
+                ex.printStackTrace();
+            } finally {
+                if(archive != null && archive != jar) {
+                    try {
+                        archive.close();
+                    } catch (IOException ex) {
+                        ex.printStackTrace();
+                    }
+                }
+            }
+        }
+    }
+    
+    /**
+     * Task processing a range of .class entries of a .jar file. Ranges longer
+     * than entriesPerTask are split in halves, so idle threads of the pool 
+     * can steal them.
+     */
+    private class EntriesTask<T> extends RecursiveAction {
+        
+        private static final long serialVersionUID = 1L;
+        
+        private MappedJarFile jar;
+        private List<ZipEntry> entries;
+        private int from;
+        private int to;
+        private Class<T> resultType;
+        private String filePath;
+        private String origin;
+        private NamesFilter namesFilter;
+        private ParseOptions options;
+        private Queue<T> result;
+        private AtomicInteger found;
+        
+        /**
+         * Creates a task which processes entries with indexes from <code>from
+         * </code> (inclusive) to <code>to</code> (exclusive).
+         *
+         * @param jar .jar file to read entries from
+         * @param entries .class entries of that file
+         * @param from index of the first entry to process
+         * @param to index following the last entry to process
+         * @param resultType either String.class or UnitInfo.class
+         * @param filePath path to the .jar file
+         * @param origin origin of units read from the .jar file
+         * @param namesFilter qualified names of classes/interfaces/enums that
+         *        are allowed to be returned or null
+         * @param options tells which parts of classes/interfaces/enums should
+         *        be read or null
+         * @param result queue to add results to
+         * @param found counter of results found so far
+         */
+        EntriesTask(MappedJarFile jar, List<ZipEntry> entries, int from, int to, 
+                Class<T> resultType, String filePath, String origin, 
+                NamesFilter namesFilter, ParseOptions options, 
+                Queue<T> result, AtomicInteger found) {
+            this.jar = jar;
+            this.entries = entries;
+            this.from = from;
+            this.to = to;
+            this.resultType = resultType;
+            this.filePath = filePath;
+            this.origin = origin;
+            this.namesFilter = namesFilter;
+            this.options = options;
+            this.result = result;
+            this.found = found;
+        }
+        
+        /**
+         * Processes assigned entries or splits them between two subtasks.
+         */
+        protected void compute() {
+            if(to - from > entriesPerTask) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new EntriesTask<T>(jar, entries, from, middle, 
+                                             resultType, filePath, origin, namesFilter, options, result, found),
+                          new EntriesTask<T>(jar, entries, middle, to, 
+                                             resultType, filePath, origin, namesFilter, options, result, found));
+                return;
+            }
+            processRange();
+        }
+        
+        /**
+         * Processes assigned entries in the calling thread.
+         */
+        void processRange() {
+            for(int i = from; i < to; i++) {
+                ZipEntry entry = entries.get(i);
+                T t = processJarEntry(jar, entry, resultType, filePath, origin, namesFilter, options);
+                if(t != null) {
+                    result.add(t);
+                    notifyFound(found.incrementAndGet());
+                }
+            }
+        }
+    }
+    
+    /**
+     * Processes an entry of a .jar file and returns the result of that 
      * processing. Actual behaviour depends on <code>resultType</code>:<br/>
      * - if it is String.class this method returns a qualified name of a
      *   class/interface/enum defined in entry <code>entry</code><br/>
      * - if it is UnitInfo.class this method returns a UnitInfo representing
      *   a class/interface/enum defined in entry <code>entry</code><br/>
-     * If entry <code>entry</code> is not a .class file this method returns 
-     * null.
+     * May be called by many threads at the same time. Updates names cache.
+     * If <code>namesFilter</code> is not null and the class defined in the
+     * entry is not in it, the entry is not parsed and null is returned.
      *
-     * @param zipIn ZipInputStream to read ZipEntry data from
-     * @param entry ZipEntry taht will be processed
+     * @param jar .jar file containing the entry
+     * @param entry ZipEntry that will be processed
      * @param resultType either String.class or UnitInfo.class
+     * @param filePath path to the .jar file
+     * @param origin origin of units read from the .jar file
+     * @param namesFilter qualified names of classes/interfaces/enums that are
+     *        allowed to be returned or null
+     * @param options tells which parts of classes/interfaces/enums should be
+     *        read or null; if members are deferred and the .jar is mapped,
+     *        LazyUnitInfos are returned
      */
-    private <T> T processZipEntry(ZipInputStream zipIn, ZipEntry entry, Class<T> resultType) {
-        if(!entry.getName().endsWith(".class"))
-            return null;
-        
-        int compression = entry.getMethod();
-        if(compression != ZipEntry.STORED && compression != ZipEntry.DEFLATED)
-            return null;
-        
-        ByteArrayOutputStream bos = new ByteArrayOutputStream();
-        byte[] buffer = new byte[1024];
-        
+    private <T> T processJarEntry(MappedJarFile jar, ZipEntry entry, Class<T> resultType,
+            String filePath, String origin, NamesFilter namesFilter, 
+            ParseOptions options) {
         try {
-            DataInputStream in = new DataInputStream(zipIn);
-            ClassFileReader reader = new ClassFileReader();
-            if(resultType.equals(String.class))
-                return (T) reader.readUnitName(in);
-            else if(resultType.equals(UnitInfo.class))
-                return (T) reader.read(in);
+            /*
+             * the buffer is a slice of the mapped .jar or, if the entry is
+             * compressed, a buffer of this thread which is reused for the
+             * next entry, so it must not be referenced after parsing
+             */
+            ContentIndex index = (options != null && resultType.equals(UnitInfo.class))?
+                                 options.getContentIndex() : null;
+            String key = null;
+            UnitInfo known = null;
+            if(index != null && entry.getCrc() != -1 && entry.getSize() != -1) {
+                // the same class in another .jar is not parsed again
+                key = ContentIndex.key(origin, entry.getName(), entry.getSize(), entry.getCrc());
+                known = index.get(key);
+            }
+            
+            ByteBuffer buffer = jar.read(entry);
+            if(buffer == null)
+                return null;
+            ClassFileReader reader = ClassFileReader.forThread();
+            reader.setOrigin(origin);
+            reader.setOptions(options);
+            if(resultType.equals(String.class)) {
+                String name = reader.readUnitName(buffer);
+                if(name != null)
+                    updateCache(filePath, entry, name);
+                return (T) name;
+            } else if(resultType.equals(UnitInfo.class)) {
+                if(known != null) {
+                    // only this_class is read to make sure it is the same class
+                    if(known.getName().equals(reader.readUnitName(buffer))) {
+                        updateCache(filePath, entry, known);
+                        if(namesFilter != null && !namesFilter.accepts(known.getName()))
+                            return null;
+                        return (T) known;
+                    }
+                    // different content with the same key is not shared
+                    key = null;
+                }
+                // a class which is not in namesFilter is rejected right
+                // after this_class, before its members are parsed
+                UnitInfo unit;
+                long position = (options != null && options.isMembersDeferred())?
+                                jar.getStoredPosition(entry) : -1;
+                if(position != -1) {
+                    // members are read from the .jar file again when needed
+                    unit = reader.readHeader(buffer, namesFilter);
+                    if(unit != null)
+                        unit = new LazyUnitInfo(unit, new ClassFileSource.EntrySource(
+                                unit.getName(), origin, options, jar, position, entry));
+                } else {
+                    unit = reader.read(buffer, namesFilter);
+                }
+                if(reader.getUnitName() != null)
+                    updateCache(filePath, entry, reader.getUnitName());
+                if(key != null)
+                    unit = index.put(key, unit);
+                return (T) unit;
+            }
             return null;
         } catch (IOException ex) {
             ex.printStackTrace();
@@ -0,0 +1,528 @@
+/*
+ * JrtInspector.java
+ *
+ * Created on 17 October 2026, 17:40
+ *
+ * Copyright 2026 Code2Uml contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.sourceforge.code2uml.inspectors.java;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Observable;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import net.sourceforge.code2uml.inspectors.FileInspector;
+import net.sourceforge.code2uml.unitdata.LazyUnitInfo;
+import net.sourceforge.code2uml.unitdata.ParseOptions;
+import net.sourceforge.code2uml.unitdata.UnitInfo;
+import net.sourceforge.code2uml.util.NamesFilter;
+
+/**
+ * FileInspector reading classes of the runtime image of the JDK which runs
+ * the program, through the jrt:/ file system. Instead of a file path it
+ * accepts a jrt:/ path: <br/>
+ * - "jrt:/" - all modules <br/>
+ * - "jrt:/java.base" - a module <br/>
+ * - "jrt:/java.base/java/util" - a directory of a module and its
+ *   subdirectories <br/>
+ * - "jrt:/java.util" - a package (without subpackages), in whichever module
+ *   it is <br/><br/>
+ *
+ * Classes in a runtime image are always placed according to their packages,
+ * so their names are derived from their paths: glance() reads nothing but
+ * directories, and inspect() with a names filter parses only classes in the
+ * filter. That keeps including a few JDK classes in a diagram cheap, even
+ * though java.base alone has thousands of them. module-info.class files are
+ * skipped. Units are tagged with their module as origin (see
+ * UnitInfo.getOrigin()). <br/><br/>
+ *
+ * Like DirectoryInspector, it walks directories in a ForkJoinPool (if it is
+ * created with parallelism greater than 1), so selected modules are read in
+ * parallel, and notifies its observers after each batch of classes.
+ *
+ * @author Code2Uml contributors
+ */
+public class JrtInspector extends Observable implements FileInspector {
+
+    /**
+     * Prefix of paths accepted by this inspector.
+     */
+    public static final String prefix = "jrt:/";
+
+    /**
+     * Maximal number of classes read by one task.
+     */
+    private static final int filesPerTask = 64;
+
+    private int parallelism;
+    private ForkJoinPool pool;
+
+    /**
+     * Creates a new instance of JrtInspector which reads classes using as
+     * many threads as there are available processors.
+     */
+    public JrtInspector() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Creates a new instance of JrtInspector which reads classes using
+     * <code>parallelism</code> threads. If <code>parallelism</code> is less
+     * than 2, classes are read sequentially by the calling thread.
+     * Threads are shared with other inspectors (see InspectorPools).
+     *
+     * @param parallelism number of threads used to read classes
+     */
+    public JrtInspector(int parallelism) {
+        this.parallelism = parallelism;
+        if(parallelism > 1)
+            pool = InspectorPools.get(parallelism);
+    }
+
+    /**
+     * Returns number of threads used to read classes.
+     *
+     * @return number of threads used to read classes; 1 if they are read
+     *         sequentially
+     */
+    public int getParallelism() {
+        return pool != null? parallelism : 1;
+    }
+
+    /**
+     * Checks if <code>path</code> is a jrt:/ path.
+     *
+     * @param path a path
+     * @return true if this inspector should be used to read <code>path</code>
+     */
+    public static boolean isJrtPath(String path) {
+        return path.startsWith(prefix);
+    }
+
+    /**
+     * Returns definitions of all classes/interfaces/enums in specified part
+     * of the runtime image. Notifies its observers after reading each batch
+     * of classes. Sets notification argument to Integer value equal to the
+     * number of units found so far.
+     *
+     * @param filePath a jrt:/ path
+     * @return collection of objects representing classes/interfaces/enums
+     *         defined in that part of the runtime image or null
+     */
+    public Collection<UnitInfo> inspect(String filePath) {
+        return processPath(filePath, null, null, UnitInfo.class);
+    }
+
+    /**
+     * Returns from specified part of the runtime image definitions of those
+     * classes/interfaces/enums which have qualified names belonging to
+     * <code>namesFilter</code>. If <code>namesFilter</code> is null, all
+     * definitions are returned. Notifies its observers after reading each
+     * batch of classes. Sets notification argument to Integer value equal to
+     * the number of units found so far. <br/>
+     * <code>inspect(filePath, null)</code> is equivalent to
+     * <code>inspect(filePath)</code>
+     *
+     * @param filePath a jrt:/ path
+     * @param namesFilter collection of qualified names of classes/interfaces/enums
+     *        which are allowed to be returned; if this parameter is null all
+     *        definitions will be returned
+     * @return collection of objects representing classes/interfaces/enums
+     *         defined in that part of the runtime image which names are in
+     *         <code>namesFiler</code> or null
+     */
+    public Collection<UnitInfo> inspect(String filePath, Collection<String> namesFilter) {
+        return processPath(filePath, NamesFilter.of(namesFilter), null, UnitInfo.class);
+    }
+
+    /**
+     * Returns from specified part of the runtime image definitions of those
+     * classes/interfaces/enums which have qualified names belonging to
+     * <code>namesFilter</code>, reading only those of their parts which are
+     * needed according to <code>options</code>. Notifies its observers as
+     * inspect(String, Collection) does.
+     *
+     * @param filePath a jrt:/ path
+     * @param namesFilter qualified names and rules (see NamesFilter) of
+     *        classes/interfaces/enums which are allowed to be returned; if
+     *        this parameter is null all definitions will be returned
+     * @param options tells which parts of classes/interfaces/enums should be
+     *        read; if this parameter is null everything is read
+     * @return collection of objects representing classes/interfaces/enums
+     *         defined in that part of the runtime image which names are in
+     *         <code>namesFiler</code> or null
+     */
+    public Collection<UnitInfo> inspect(String filePath, NamesFilter namesFilter,
+                                        ParseOptions options) {
+        return processPath(filePath, namesFilter, options, UnitInfo.class);
+    }
+
+    /**
+     * Returns qualified names of classes/interfaces/enums in specified part
+     * of the runtime image. No class is read. Notifies its observers after
+     * each batch of names. Sets notification argument to Integer value equal
+     * to the number of names found so far.
+     *
+     * @param filePath a jrt:/ path
+     * @return qualified names of classes/interfaces/enums defined in that
+     *         part of the runtime image or null
+     */
+    public Collection<String> glance(String filePath) {
+        return processPath(filePath, null, null, String.class);
+    }
+
+    /**
+     * Processes all classes in specified part of the runtime image and
+     * returns result of that processing. Actual behaviour depends on <code>
+     * resultType</code>: <br/>
+     * - if it is String.class this method returns qualified names of all
+     *   classes/interfaces/enums <br/>
+     * - if it is UnitInfo.class this method returns definitions of those
+     *   classes/interfaces/enums which qualified names are in <code>
+     *   namesFilter</code><br/>
+     * Order of returned elements is unspecified.
+     *
+     * @param filePath a jrt:/ path
+     * @param namesFilter qualified names of classes/interfaces/enums that are
+     *        allowed to be returned; if this parameter is null then all
+     *        classes/interfaces/enums will be returned
+     * @param options tells which parts of classes/interfaces/enums should be
+     *        read or null
+     * @param resultType either String.class or UnitInfo.class
+     */
+    private <T> Collection<T> processPath(String filePath, NamesFilter namesFilter,
+            ParseOptions options, Class<T> resultType) {
+        if(!isJrtPath(filePath))
+            return null;
+        try {
+            FileSystem jrt = FileSystems.getFileSystem(URI.create(prefix));
+            Queue<T> result = new ConcurrentLinkedQueue<T>();
+            AtomicInteger found = new AtomicInteger();
+            final List<DirectoryTask<T>> tasks = createTasks(jrt, 
+                    filePath.substring(prefix.length()), resultType, namesFilter, options, result, found);
+            if(pool != null) {
+                pool.invoke(new RecursiveAction() {
+                    protected void compute() {
+                        invokeAll(tasks);
+                    }
+                });
+            } else {
+                for(DirectoryTask<T> task : tasks)
+                    task.process(false);
+            }
+            return result.isEmpty()? null : new ArrayList<T>(result);
+        } catch(IOException ex) {
+            ex.printStackTrace();
+            return null;
+        } catch(RuntimeException ex) {
+            // there is no jrt:/ file system before Java 9
+            ex.printStackTrace();
+            return null;
+        }
+    }
+
+    /**
+     * Creates tasks processing directories of the runtime image which
+     * correspond to a jrt:/ path (without the prefix). A module or a
+     * directory of a module is a single directory in /modules, processed
+     * with its subdirectories. A package is a directory in each module
+     * listed in /packages/&lt;package&gt;, processed without subdirectories.
+     *
+     * @param jrt the jrt:/ file system
+     * @param path jrt:/ path without the prefix
+     * @param resultType either String.class or UnitInfo.class
+     * @param namesFilter qualified names of classes/interfaces/enums that
+     *        are allowed to be returned or null
+     * @param options tells which parts of classes/interfaces/enums should be
+     *        read or null
+     * @param result queue to add results to
+     * @param found counter of results found so far
+     * @return tasks processing the directories; empty if the path does not
+     *         exist
+     * @throws IOException if an I/O error occurs
+     */
+    private <T> List<DirectoryTask<T>> createTasks(FileSystem jrt, String path, Class<T> resultType,
+            NamesFilter namesFilter, ParseOptions options, Queue<T> result, 
+            AtomicInteger found) throws IOException {
+        List<DirectoryTask<T>> tasks = new ArrayList<DirectoryTask<T>>();
+        Path modules = jrt.getPath("/modules");
+        if(path.length() == 0) {
+            for(Path module : list(modules))
+                tasks.add(new DirectoryTask<T>(module, module, true, resultType, namesFilter, options, result, found));
+            return tasks;
+        }
+
+        Path directory = modules.resolve(path);
+        if(Files.isDirectory(directory)) {
+            Path module = modules.resolve(directory.getName(1).toString());
+            tasks.add(new DirectoryTask<T>(module, directory, true, resultType, namesFilter, options, result, found));
+            return tasks;
+        }
+
+        Path packageLinks = jrt.getPath("/packages").resolve(path);
+        if(Files.isDirectory(packageLinks)) {
+            for(Path link : list(packageLinks)) {
+                Path module = modules.resolve(link.getFileName().toString());
+                tasks.add(new DirectoryTask<T>(module, module.resolve(path.replace('.', '/')), false,
+                                               resultType, namesFilter, options, result, found));
+            }
+        }
+        return tasks;
+    }
+
+    /**
+     * Returns contents of a directory.
+     */
+    private static List<Path> list(Path directory) throws IOException {
+        List<Path> paths = new ArrayList<Path>();
+        DirectoryStream<Path> stream = Files.newDirectoryStream(directory);
+        try {
+            for(Path path : stream)
+                paths.add(path);
+        } finally {
+            stream.close();
+        }
+        return paths;
+    }
+
+    /**
+     * Derives qualified name of a class from its path in the runtime image.
+     *
+     * @param module directory of the module containing the class
+     * @param file .class file
+     * @return qualified name of the class or null if it is a module-info
+     *         or the name can't be derived
+     */
+    private static String nameFromPath(Path module, Path file) {
+        return JarFileInspector.nameFromEntryPath(module.relativize(file).toString());
+    }
+
+    /**
+     * Notifies observers that <code>count</code> results have been found so
+     * far. Called from pool threads, so notifications are serialized.
+     *
+     * @param count number of results found so far
+     */
+    private synchronized void notifyFound(int count) {
+        setChanged();
+        notifyObservers(count);
+        clearChanged();
+    }
+
+    /**
+     * Task processing a directory of a module: processes its subdirectories
+     * (if it is recursive) by other DirectoryTasks and its classes in batches
+     * by ClassesTasks.
+     */
+    private class DirectoryTask<T> extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private Path module;
+        private Path directory;
+        private boolean recursive;
+        private Class<T> resultType;
+        private NamesFilter namesFilter;
+        private ParseOptions options;
+        private Queue<T> result;
+        private AtomicInteger found;
+
+        /**
+         * Creates a task which processes <code>directory</code>.
+         *
+         * @param module directory of the module (in /modules)
+         * @param directory directory of that module to process
+         * @param recursive true if subdirectories should be processed too
+         * @param resultType either String.class or UnitInfo.class
+         * @param namesFilter qualified names of classes/interfaces/enums that
+         *        are allowed to be returned or null
+         * @param options tells which parts of classes/interfaces/enums should
+         *        be read or null
+         * @param result queue to add results to
+         * @param found counter of results found so far
+         */
+        DirectoryTask(Path module, Path directory, boolean recursive, Class<T> resultType,
+                NamesFilter namesFilter, ParseOptions options, 
+                Queue<T> result, AtomicInteger found) {
+            this.module = module;
+            this.directory = directory;
+            this.recursive = recursive;
+            this.resultType = resultType;
+            this.namesFilter = namesFilter;
+            this.options = options;
+            this.result = result;
+            this.found = found;
+        }
+
+        /**
+         * Processes the directory in pool's threads.
+         */
+        protected void compute() {
+            process(true);
+        }
+
+        /**
+         * Processes the directory. Names are derived from paths here, so
+         * ClassesTasks get only classes which have to be parsed.
+         *
+         * @param parallel true if this is called from a pool thread and the
+         *        work should be split between pool's threads, false if it
+         *        should be done in the calling thread
+         */
+        void process(boolean parallel) {
+            List<RecursiveAction> tasks = new ArrayList<RecursiveAction>();
+            List<Path> batch = new ArrayList<Path>(filesPerTask);
+            int derived = 0;
+            try {
+                DirectoryStream<Path> stream = Files.newDirectoryStream(directory);
+                try {
+                    for(Path file : stream) {
+                        if(Files.isDirectory(file)) {
+                            if(recursive)
+                                tasks.add(new DirectoryTask<T>(module, file, true, resultType,
+                                        namesFilter, options, result, found));
+                            continue;
+                        }
+                        String name = file.getFileName().toString().endsWith(".class")?
+                                nameFromPath(module, file) : null;
+                        if(name == null || (namesFilter != null && !namesFilter.accepts(name)))
+                            continue;
+                        if(resultType.equals(String.class)) {
+                            result.add(resultType.cast(name));
+                            derived++;
+                            continue;
+                        }
+                        batch.add(file);
+                        if(batch.size() == filesPerTask) {
+                            tasks.add(new ClassesTask<T>(module, batch, resultType, options, result, found));
+                            batch = new ArrayList<Path>(filesPerTask);
+                        }
+                    }
+                } finally {
+                    stream.close();
+                }
+            } catch(IOException ex) {
+                ex.printStackTrace();
+                return;
+            }
+            if(!batch.isEmpty())
+                tasks.add(new ClassesTask<T>(module, batch, resultType, options, result, found));
+            if(derived > 0)
+                notifyFound(found.addAndGet(derived));
+
+            if(parallel) {
+                invokeAll(tasks);
+            } else {
+                for(RecursiveAction task : tasks) {
+                    if(task instanceof DirectoryTask)
+                        ((DirectoryTask<?>) task).process(false);
+                    else
+                        ((ClassesTask<?>) task).processClasses();
+                }
+            }
+        }
+    }
+
+    /**
+     * Task reading and parsing a batch of classes of a module.
+     */
+    private class ClassesTask<T> extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private Path module;
+        private List<Path> files;
+        private Class<T> resultType;
+        private ParseOptions options;
+        private Queue<T> result;
+        private AtomicInteger found;
+
+        /**
+         * Creates a task which parses <code>files</code>.
+         *
+         * @param module directory of the module containing the files
+         * @param files .class files to parse
+         * @param resultType UnitInfo.class
+         * @param options tells which parts of classes/interfaces/enums should
+         *        be read or null
+         * @param result queue to add results to
+         * @param found counter of results found so far
+         */
+        ClassesTask(Path module, List<Path> files, Class<T> resultType, 
+                ParseOptions options, Queue<T> result, AtomicInteger found) {
+            this.module = module;
+            this.files = files;
+            this.resultType = resultType;
+            this.options = options;
+            this.result = result;
+            this.found = found;
+        }
+
+        /**
+         * Parses the classes in pool's threads.
+         */
+        protected void compute() {
+            processClasses();
+        }
+
+        /**
+         * Parses the classes in the calling thread and notifies observers
+         * once for the whole batch.
+         */
+        void processClasses() {
+            String origin = module.getFileName().toString();
+            int count = 0;
+            for(Path file : files) {
+                try {
+                    ClassFileReader reader = ClassFileReader.forThread();
+                    reader.setOrigin(origin);
+                    reader.setOptions(options);
+                    ByteBuffer data = ByteBuffer.wrap(Files.readAllBytes(file));
+                    UnitInfo unit;
+                    if(options != null && options.isMembersDeferred()) {
+                        unit = reader.readHeader(data, null);
+                        if(unit != null)
+                            unit = new LazyUnitInfo(unit, new ClassFileSource.PathSource(
+                                    unit.getName(), origin, options, file));
+                    } else {
+                        unit = reader.read(data);
+                    }
+                    if(unit != null) {
+                        result.add(resultType.cast(unit));
+                        count++;
+                    }
+                } catch(IOException ex) {
+                    ex.printStackTrace();
+                }
+            }
+            if(count > 0)
+                notifyFound(found.addAndGet(count));
+        }
+    }
+}
@@ -0,0 +1,543 @@
+/*
+ * MappedJarFile.java
+ *
+ * Created on 17 October 2026, 15:30
+ *
+ * Copyright 2026 Code2Uml contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.sourceforge.code2uml.inspectors.java;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
+import java.util.zip.ZipFile;
+
+/**
+ * Random access reader of a .jar (zip) file which memory-maps the whole
+ * archive and reads its central directory itself. <br/><br/>
+ *
+ * Data of a STORED entry is returned as a slice of the mapped archive,
+ * without copying. A DEFLATED entry is inflated into a direct buffer which
+ * belongs to the calling thread and is reused for all entries read by that
+ * thread, so reading an entry allocates (almost) nothing. <br/><br/>
+ *
+ * Archives which can't be mapped or read this way (larger than 2 GB, ZIP64,
+ * having a malformed central directory) are read using java.util.zip.ZipFile
+ * instead; entries are then read into heap buffers. <br/><br/>
+ *
+ * A .jar nested in another one (for example a library in BOOT-INF/lib of a
+ * fat jar or in WEB-INF/lib of a .war) is opened directly from the data of
+ * its entry, see openNested(). <br/><br/>
+ *
+ * Methods of this class may be called by many threads at the same time.
+ *
+ * @author Code2Uml contributors
+ */
+class MappedJarFile {
+
+    private static final int LOCAL_HEADER = 0x04034b50;
+    private static final int CENTRAL_HEADER = 0x02014b50;
+    private static final int END_HEADER = 0x06054b50;
+    private static final int END_LENGTH = 22;
+    private static final int LOCAL_LENGTH = 30;
+    private static final int CENTRAL_LENGTH = 46;
+
+    private static final Charset utf8 = Charset.forName("UTF-8");
+
+    /**
+     * Inflater of the current thread; DEFLATED entries are raw deflate
+     * streams, without zlib header.
+     */
+    private static final ThreadLocal<Inflater> inflaters = new ThreadLocal<Inflater>() {
+        protected Inflater initialValue() {
+            return new Inflater(true);
+        }
+    };
+
+    /**
+     * Direct buffer of the current thread into which entries are inflated.
+     * Grows when a larger entry is read.
+     */
+    private static final ThreadLocal<ByteBuffer> buffers = new ThreadLocal<ByteBuffer>();
+
+    private ByteBuffer data;
+    private ZipFile zipFile;
+    private List<ZipEntry> entries;
+
+    /**
+     * The mapped file and its size and modification time when it was
+     * mapped; file is null if data is not a part of a mapped file.
+     * fileOffset is the position in that file at which data begins (it is
+     * not 0 for a STORED nested archive).
+     */
+    private File file;
+    private long fileSize;
+    private long fileModified;
+    private long fileOffset;
+
+    /**
+     * Opens a .jar file.
+     *
+     * @param filePath path to the .jar file
+     * @throws IOException if the file can't be read or it is not a zip file
+     */
+    public MappedJarFile(String filePath) throws IOException {
+        FileInputStream in = new FileInputStream(filePath);
+        try {
+            FileChannel channel = in.getChannel();
+            long size = channel.size();
+            if(size <= Integer.MAX_VALUE) {
+                ByteBuffer map = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+                map.order(ByteOrder.LITTLE_ENDIAN);
+                try {
+                    entries = readCentralDirectory(map);
+                    data = map;
+                    file = new File(filePath);
+                    fileSize = size;
+                    fileModified = file.lastModified();
+                } catch(ZipException ex) {
+                    // not supported here, ZipFile will read it
+                }
+            }
+        } finally {
+            in.close();
+        }
+        if(data == null) {
+            zipFile = new ZipFile(filePath);
+            List<ZipEntry> list = new ArrayList<ZipEntry>();
+            Enumeration<? extends ZipEntry> en = zipFile.entries();
+            while(en.hasMoreElements())
+                list.add(en.nextElement());
+            entries = list;
+        }
+    }
+
+    /**
+     * Creates a new instance of MappedJarFile reading an archive held in
+     * memory.
+     *
+     * @param data the whole archive, in little-endian order
+     * @throws ZipException if the archive is not a valid zip file or it uses
+     *         features not supported here (ZIP64)
+     */
+    private MappedJarFile(ByteBuffer data) throws ZipException {
+        this.entries = readCentralDirectory(data);
+        this.data = data;
+    }
+    
+    /**
+     * Returns all entries of this archive, in the order of its central
+     * directory.
+     *
+     * @return unmodifiable list of entries
+     */
+    public List<ZipEntry> getEntries() {
+        return Collections.unmodifiableList(entries);
+    }
+
+    /**
+     * Returns true if the archive is memory-mapped, false if it is read using
+     * ZipFile.
+     *
+     * @return true if the archive is memory-mapped
+     */
+    public boolean isMapped() {
+        return data != null;
+    }
+
+    /**
+     * Returns uncompressed data of an entry, from buffer's position to its
+     * limit. The buffer is read-only; data of an inflated entry is valid only
+     * until the calling thread reads another entry.
+     *
+     * @param entry entry of this archive
+     * @return data of the entry or null if it is compressed with a method
+     *         other than STORED or DEFLATED or it is encrypted
+     * @throws IOException if entry's data is malformed or an I/O error occurs
+     */
+    public ByteBuffer read(ZipEntry entry) throws IOException {
+        if(data == null)
+            return readFromZipFile(entry);
+        
+        int method = entry.getMethod();
+        if(method != ZipEntry.STORED && method != ZipEntry.DEFLATED)
+            return null;
+        ByteBuffer compressed = read(entry, method);
+        if(compressed == null || method == ZipEntry.STORED)
+            return compressed;
+        return inflate(compressed, entry, true);
+    }
+
+    /**
+     * Returns data of an entry of the mapped archive as it is stored in the
+     * archive, without inflating it.
+     *
+     * @param entry entry of this archive
+     * @param method method with which the entry is expected to be compressed
+     * @return read-only slice of the mapped archive or null if the entry is
+     *         compressed with another method or it is encrypted
+     * @throws ZipException if the local header of the entry is malformed
+     */
+    private ByteBuffer read(ZipEntry entry, int method) throws ZipException {
+        MappedEntry e = (MappedEntry) entry;
+        if(e.getMethod() != method || (e.flags & 1) != 0)
+            return null;
+
+        int start = getDataStart(e);
+        ByteBuffer slice = data.duplicate();
+        slice.limit(start + (int) e.getCompressedSize()).position(start);
+        return slice.slice().asReadOnlyBuffer();
+    }
+
+    /**
+     * Returns position in data of the mapped archive at which data of an 
+     * entry begins, after its local header.
+     *
+     * @param e entry of this archive
+     * @return position of entry's data
+     * @throws ZipException if the local header of the entry is malformed or
+     *         the entry doesn't fit in the archive
+     */
+    private int getDataStart(MappedEntry e) throws ZipException {
+        int header = e.offset;
+        if(header < 0 || header > data.limit() - LOCAL_LENGTH || data.getInt(header) != LOCAL_HEADER)
+            throw new ZipException("invalid local header of " + e.getName());
+        long start = (long) header + LOCAL_LENGTH + (data.getShort(header + 26) & 0xFFFF) +
+                     (data.getShort(header + 28) & 0xFFFF);
+        if(start + e.getCompressedSize() > data.limit())
+            throw new ZipException("truncated entry " + e.getName());
+        return (int) start;
+    }
+
+    /**
+     * Opens an archive nested in this one. If the entry is STORED (as
+     * nested jars of Spring Boot fat jars are), the nested archive is a slice
+     * of this one. Otherwise the entry is inflated into a new heap buffer
+     * which is not shared with anything else. Either way nothing is
+     * extracted to disk.
+     *
+     * @param entry entry of this archive containing a .jar
+     * @return the nested archive
+     * @throws IOException if the entry can't be read or it is not a valid
+     *         zip file or it uses features not supported here (ZIP64)
+     */
+    public MappedJarFile openNested(ZipEntry entry) throws IOException {
+        ByteBuffer buffer;
+        if(data == null) {
+            buffer = readFromZipFile(entry);
+        } else if(entry.getMethod() == ZipEntry.DEFLATED) {
+            ByteBuffer compressed = read(entry, ZipEntry.DEFLATED);
+            buffer = (compressed != null)? inflate(compressed, entry, false) : null;
+        } else {
+            buffer = read(entry);
+        }
+        if(buffer == null)
+            throw new ZipException("unsupported compression of " + entry.getName());
+        MappedJarFile nested = new MappedJarFile(buffer.slice().order(ByteOrder.LITTLE_ENDIAN));
+        if(entry.getMethod() == ZipEntry.STORED && file != null) {
+            nested.file = file;
+            nested.fileSize = fileSize;
+            nested.fileModified = fileModified;
+            nested.fileOffset = fileOffset + getDataStart((MappedEntry) entry);
+        }
+        return nested;
+    }
+
+    /**
+     * Returns the file this archive is a part of, if it is memory-mapped
+     * (directly or as a STORED nested archive).
+     *
+     * @return the mapped file or null if data of this archive is not a part
+     *         of a mapped file
+     */
+    public File getFile() {
+        return file;
+    }
+
+    /**
+     * Returns size of the mapped file at the moment it was mapped.
+     *
+     * @return size of the mapped file
+     */
+    public long getFileSize() {
+        return fileSize;
+    }
+
+    /**
+     * Returns modification time of the mapped file at the moment it was
+     * mapped.
+     *
+     * @return modification time of the mapped file
+     */
+    public long getFileModified() {
+        return fileModified;
+    }
+
+    /**
+     * Returns position in the mapped file (see getFile()) at which data of
+     * an entry is stored, so that the entry can be read again later by
+     * readStored() without keeping this archive or its mapping reachable.
+     *
+     * @param entry entry of this archive
+     * @return position of entry's data in the mapped file or -1 if this 
+     *         archive is not a part of a mapped file or the entry is 
+     *         compressed with a method other than STORED or DEFLATED or it
+     *         is encrypted
+     * @throws ZipException if the local header of the entry is malformed
+     */
+    public long getStoredPosition(ZipEntry entry) throws ZipException {
+        if(data == null || file == null)
+            return -1;
+        MappedEntry e = (MappedEntry) entry;
+        int method = e.getMethod();
+        if((method != ZipEntry.STORED && method != ZipEntry.DEFLATED) || (e.flags & 1) != 0)
+            return -1;
+        return fileOffset + getDataStart(e);
+    }
+
+    /**
+     * Returns uncompressed data of an entry, reading it from a file at a 
+     * position returned by getStoredPosition(). The file is opened only for
+     * this read, into a heap buffer, so it is neither mapped nor locked 
+     * afterwards. Data of an inflated entry is valid only until the calling
+     * thread reads another entry.
+     *
+     * @param file the file containing the archive
+     * @param position position of entry's data in the file
+     * @param entry the entry
+     * @return uncompressed data of the entry
+     * @throws IOException if the file can't be read or entry's data is 
+     *         malformed
+     */
+    public static ByteBuffer readStored(File file, long position, ZipEntry entry) throws IOException {
+        ByteBuffer stored = ByteBuffer.allocate((int) entry.getCompressedSize());
+        FileInputStream in = new FileInputStream(file);
+        try {
+            FileChannel channel = in.getChannel();
+            while(stored.hasRemaining()) {
+                if(channel.read(stored, position + stored.position()) < 0)
+                    throw new ZipException("truncated entry " + entry.getName());
+            }
+        } finally {
+            in.close();
+        }
+        stored.flip();
+        if(entry.getMethod() == ZipEntry.STORED)
+            return stored.asReadOnlyBuffer();
+        return inflate(stored, entry, true);
+    }
+
+    /**
+     * Closes this archive. It doesn't unmap the file: the mapping is 
+     * released only when it is garbage collected, that is when neither this
+     * archive nor any buffer returned by read() or a nested archive is 
+     * reachable. Until then the file stays mapped and, on Windows, it can't
+     * be deleted or rewritten, so such buffers must not be kept after the 
+     * entries are parsed (see getStoredPosition()).
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    public void close() throws IOException {
+        data = null;
+        if(zipFile != null)
+            zipFile.close();
+    }
+
+    /**
+     * Inflates data of a DEFLATED entry into the buffer of the current thread
+     * (if <code>pooled</code> is true) or into a new heap buffer.
+     */
+    private static ByteBuffer inflate(ByteBuffer compressed, ZipEntry entry, boolean pooled) throws IOException {
+        long size = entry.getSize();
+        if(size > Integer.MAX_VALUE)
+            throw new ZipException("entry too large " + entry.getName());
+        ByteBuffer out = pooled? getBuffer((int) size) : ByteBuffer.allocate((int) size);
+        Inflater inflater = inflaters.get();
+        inflater.reset();
+        inflater.setInput(compressed);
+        try {
+            while(!inflater.finished()) {
+                if(inflater.inflate(out) == 0) {
+                    if(inflater.needsInput() || inflater.needsDictionary())
+                        throw new ZipException("truncated entry " + entry.getName());
+                    if(!out.hasRemaining())
+                        out = growBuffer(out, pooled);
+                }
+            }
+        } catch(DataFormatException ex) {
+            throw new ZipException(ex.getMessage());
+        }
+        out.flip();
+        return out.asReadOnlyBuffer();
+    }
+
+    /**
+     * Returns the (cleared) buffer of the current thread, large enough to
+     * hold <code>size</code> bytes.
+     */
+    private static ByteBuffer getBuffer(int size) {
+        ByteBuffer buffer = buffers.get();
+        if(buffer == null || buffer.capacity() < size) {
+            int capacity = 64 * 1024;
+            while(capacity < size && capacity > 0)
+                capacity <<= 1;
+            buffer = ByteBuffer.allocateDirect(capacity > 0? capacity : size);
+            buffers.set(buffer);
+        }
+        buffer.clear();
+        return buffer;
+    }
+
+    /**
+     * Returns a twice as large buffer containing the same data as <code>out
+     * </code>; if <code>pooled</code> is true it replaces the buffer of the
+     * current thread. Used when an entry is larger than declared.
+     */
+    private static ByteBuffer growBuffer(ByteBuffer out, boolean pooled) {
+        int capacity = Math.max(out.capacity() * 2, 1024);
+        ByteBuffer larger = pooled? ByteBuffer.allocateDirect(capacity) : ByteBuffer.allocate(capacity);
+        out.flip();
+        larger.put(out);
+        if(pooled)
+            buffers.set(larger);
+        return larger;
+    }
+
+    /**
+     * Reads an entry using ZipFile, into a heap buffer.
+     */
+    private ByteBuffer readFromZipFile(ZipEntry entry) throws IOException {
+        int method = entry.getMethod();
+        if(method != ZipEntry.STORED && method != ZipEntry.DEFLATED)
+            return null;
+        InputStream in = zipFile.getInputStream(entry);
+        try {
+            return ByteBufferInput.readFully(in, entry.getSize());
+        } finally {
+            in.close();
+        }
+    }
+
+    /**
+     * Reads the central directory of a mapped archive.
+     *
+     * @param map mapped archive, in little-endian order
+     * @return entries of the archive
+     * @throws ZipException if the archive is not a valid zip file or it uses
+     *         features not supported here (ZIP64)
+     */
+    private static List<ZipEntry> readCentralDirectory(ByteBuffer map) throws ZipException {
+        if(map.limit() < END_LENGTH)
+            throw new ZipException("end of central directory not found");
+        int end = findEnd(map);
+        int count = map.getShort(end + 10) & 0xFFFF;
+        long cdSize = map.getInt(end + 12) & 0xFFFFFFFFL;
+        long cdOffset = map.getInt(end + 16) & 0xFFFFFFFFL;
+        if(count == 0xFFFF || cdSize == 0xFFFFFFFFL || cdOffset == 0xFFFFFFFFL)
+            throw new ZipException("ZIP64");
+
+        /*
+         * offsets are relative to the beginning of the archive, which may be
+         * preceded by other data (for example a launcher script)
+         */
+        long prefix = end - cdSize - cdOffset;
+        if(prefix < 0)
+            throw new ZipException("invalid central directory");
+
+        List<ZipEntry> list = new ArrayList<ZipEntry>(count);
+        int pos = (int) (cdOffset + prefix);
+        for(int i = 0; i < count; i++) {
+            if(pos > end - CENTRAL_LENGTH || map.getInt(pos) != CENTRAL_HEADER)
+                throw new ZipException("invalid central directory");
+            int nameLength = map.getShort(pos + 28) & 0xFFFF;
+            int extraLength = map.getShort(pos + 30) & 0xFFFF;
+            int commentLength = map.getShort(pos + 32) & 0xFFFF;
+            if(pos + CENTRAL_LENGTH + nameLength > end)
+                throw new ZipException("invalid central directory");
+            long compressedSize = map.getInt(pos + 20) & 0xFFFFFFFFL;
+            long size = map.getInt(pos + 24) & 0xFFFFFFFFL;
+            long offset = map.getInt(pos + 42) & 0xFFFFFFFFL;
+            if(compressedSize == 0xFFFFFFFFL || size == 0xFFFFFFFFL || offset == 0xFFFFFFFFL)
+                throw new ZipException("ZIP64");
+
+            byte[] name = new byte[nameLength];
+            ByteBuffer b = map.duplicate();
+            b.position(pos + CENTRAL_LENGTH);
+            b.get(name);
+
+            MappedEntry entry = new MappedEntry(new String(name, utf8));
+            entry.flags = map.getShort(pos + 8) & 0xFFFF;
+            /*
+             * ZipEntry.setMethod() accepts only STORED and DEFLATED; entries
+             * compressed otherwise (bzip2, LZMA...) keep method -1, so they
+             * are skipped by read() instead of failing the whole archive
+             */
+            int method = map.getShort(pos + 10) & 0xFFFF;
+            if(method == ZipEntry.STORED || method == ZipEntry.DEFLATED)
+                entry.setMethod(method);
+            entry.setCrc(map.getInt(pos + 16) & 0xFFFFFFFFL);
+            entry.setCompressedSize(compressedSize);
+            entry.setSize(size);
+            entry.offset = (int) Math.min(Integer.MAX_VALUE, offset + prefix);
+            list.add(entry);
+
+            pos += CENTRAL_LENGTH + nameLength + extraLength + commentLength;
+        }
+        return list;
+    }
+
+    /**
+     * Finds the end of central directory record, which is at the end of the
+     * archive, possibly followed by a comment.
+     */
+    private static int findEnd(ByteBuffer map) throws ZipException {
+        int limit = map.limit();
+        int min = Math.max(0, limit - END_LENGTH - 0xFFFF);
+        for(int pos = limit - END_LENGTH; pos >= min; pos--) {
+            if(map.getInt(pos) == END_HEADER &&
+               pos + END_LENGTH + (map.getShort(pos + 20) & 0xFFFF) == limit)
+                return pos;
+        }
+        throw new ZipException("end of central directory not found");
+    }
+
+    /**
+     * ZipEntry of a mapped archive, knowing where its local header is and
+     * its general purpose flags.
+     */
+    private static class MappedEntry extends ZipEntry {
+
+        private int offset;
+        private int flags;
+
+        MappedEntry(String name) {
+            super(name);
+        }
+    }
+}
@@ -22,11 +22,9 @@ package net.sourceforge.code2uml.inspectors.java;
 
 import java.io.DataInput;
 import java.io.IOException;
-import java.nio.CharBuffer;
-import java.util.List;
 import net.sourceforge.code2uml.unitdata.AccessType;
-import net.sourceforge.code2uml.unitdata.MethodInfo;
-import net.sourceforge.code2uml.unitdata.MethodInfoImpl;
+import net.sourceforge.code2uml.unitdata.CompactUnitBuilder;
+import net.sourceforge.code2uml.unitdata.ParseOptions;
 
 /**
  * Reads method_info structures from a .class file.
@@ -48,73 +46,97 @@ class MethodInfoReader {
     private static final int ACC_STRICT = 0x0800;
     private static final int ACC_SYNTHETIC = 0x1000;
     
-    private DescriptorReader descriptorReader = new DescriptorReader();
-    private SignatureReader signatureReader = new SignatureReader();
-    private AttributeInfoReader attributeReader = new AttributeInfoReader();
+    private TypeDecoder typeDecoder;
+    private AttributeInfoReader attributeReader;
     
     /**
      * Creates a new instance of MethodInfoReader.
      */
     public MethodInfoReader() {
+        this(new AttributeInfoReader(), new TypeDecoder());
     }
     
     /**
-     * Reads a method_info structure from <code>in</code> and return MethodInfo
-     * containing read information. The <code>pool</code> parameter stores 
-     * contents of .class file's constant pool in format returned by
-     * ConstantPoolReader. 
+     * Creates a new instance of MethodInfoReader which reads attributes using
+     * <code>attributeReader</code> and decodes descriptors and signatures
+     * using <code>typeDecoder</code> (both may be shared with other readers).
+     *
+     * @param attributeReader reader of attribute_info structures
+     * @param typeDecoder decoder of descriptors and signatures
+     */
+    MethodInfoReader(AttributeInfoReader attributeReader, TypeDecoder typeDecoder) {
+        this.attributeReader = attributeReader;
+        this.typeDecoder = typeDecoder;
+    }
+    
+    /**
+     * Reads a method_info structure from <code>in</code> and adds the method
+     * it defines to <code>unit</code>. The <code>pool</code> parameter stores 
+     * contents of .class file's constant pool. Nothing is added if the
+     * method is synthetic (not present in the source code), is a constructor
+     * or a static initializer or is not needed according to <code>options
+     * </code>. Such method is rejected right after its access_flags (or its
+     * name) are read, so its descriptor and signature are not decoded. If
+     * <code>options</code> say that arguments are not needed, only the 
+     * return type is decoded and the added method has no arguments 
+     * (getArguments() returns null).
      * 
      * @param in DataInput to read from
      * @param pool constant pool 
+     * @param options tells which methods should be read; if it is null all
+     *        methods are read
+     * @param unit builder of the unit defining the method
      * @throws IOException if an I/O error occurs
-     * @return MethodInfo containing read information or null if this 
-     *         method_info defines a synthetic (not present in the source code)
-     *         method
      */
-    public MethodInfo readMethod(DataInput in, Object[] pool) throws IOException {
+    public void readMethod(DataInput in, ConstantPool pool, ParseOptions options, 
+                           CompactUnitBuilder unit) throws IOException {
         int temp = in.readUnsignedShort();
         
         if((temp & ACC_SYNTHETIC) != 0) {
             ignoreMethod(in);
-            return null;
+            return;
         }
         
-        MethodInfoImpl method = new MethodInfoImpl();
+        AccessType accessType;
         if((temp & ACC_PUBLIC) != 0)
-            method.setAccessType(AccessType.PUBLIC);
+            accessType = AccessType.PUBLIC;
         else if((temp & ACC_PRIVATE) != 0)
-            method.setAccessType(AccessType.PRIVATE);
+            accessType = AccessType.PRIVATE;
         else if((temp & ACC_PROTECTED) != 0)
-            method.setAccessType(AccessType.PROTECTED);
+            accessType = AccessType.PROTECTED;
         else
-            method.setAccessType(AccessType.PACKAGE);
-        method.setStatic((temp & ACC_STATIC) != 0);
-        method.setAbstract(((temp & ACC_ABSTRACT) != 0));
+            accessType = AccessType.PACKAGE;
+        boolean isStatic = (temp & ACC_STATIC) != 0;
+        boolean isAbstract = (temp & ACC_ABSTRACT) != 0;
+        if(options != null && !options.isMethodRead(accessType, isStatic)) {
+            ignoreMethod(in);
+            return;
+        }
         
         // name_index
         temp = in.readUnsignedShort();
-        method.setName((String) pool[temp]);
+        String name = pool.getUtf8(temp);
+        
+        /*
+         * methods which contain '<' are <init>() and <clinit>(); they are
+         * skipped before their descriptors are decoded
+         */
+        if(name.indexOf('<') >= 0) {
+            in.readUnsignedShort();
+            attributeReader.ignoreAttributes(in);
+            return;
+        }
         
         //descriptor_index
         temp = in.readUnsignedShort();
-        String methodDescriptor = (String) pool[temp];
-        List<String> methodInfo = descriptorReader.readMethodDescriptor(CharBuffer.wrap(methodDescriptor));
-        
-        method.setReturnTypeName(methodInfo.remove(0));
-        method.setArguments(methodInfo);
         
+        // a signature (if there is one) replaces the descriptor
         int signatureIdx = attributeReader.readSignatureIndex(in, pool);
-        if(signatureIdx != -1) {
-            CharBuffer charBuffer = CharBuffer.wrap((CharSequence) pool[signatureIdx]);
-                List<String> list = signatureReader.readMethodTypeSignature(charBuffer);
-                method.setReturnTypeName(list.remove(0));
-                method.setArguments(list);
-        }
-        
-        /*
-         * methods which contain '<' are <init>() and <clinit>()
-         */
-        return method.getName().contains("<")? null : method;
+        boolean argumentsRead = options == null || options.isArgumentsRead();
+        DecodedType type = (signatureIdx != -1)? typeDecoder.readMethodSignature(pool, signatureIdx) :
+                                                 typeDecoder.readMethodDescriptor(pool, temp);
+        unit.addMethod(name, type.getTypeName(), argumentsRead? type.getArguments() : null,
+                       accessType, isStatic, isAbstract);
     }
     
     /**
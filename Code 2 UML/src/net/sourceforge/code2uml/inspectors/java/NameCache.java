@@ -0,0 +1,156 @@
+/*
+ * NameCache.java
+ *
+ * Created on 17 October 2026, 14:25
+ *
+ * Copyright 2026 Code2Uml contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.sourceforge.code2uml.inspectors.java;
+
+import net.sourceforge.code2uml.util.CacheStatistics;
+import net.sourceforge.code2uml.util.SegmentedLruCache;
+
+/**
+ * Size-bounded cache of qualified names of classes/interfaces/enums defined
+ * in .class files and .jar entries, shared by ClassFileInspector and
+ * JarFileInspector. It lets an inspector skip reading a file whose class is
+ * not in the names filter. <br/><br/>
+ *
+ * Each name is stored together with two numbers describing the file it was
+ * read from (size and time of last modification of a .class file, CRC and
+ * size of a .jar entry). A lookup returns the name only if the numbers given
+ * by the caller are the same, otherwise the stale name is removed. <br/><br/>
+ *
+ * Names are kept in a SegmentedLruCache, which evicts the least recently
+ * used ones when it gets full and lets threads processing a .jar in parallel
+ * rarely wait for each other.
+ *
+ * @author Code2Uml contributors
+ */
+public class NameCache {
+
+    /**
+     * Maximal number of names remembered by the shared cache.
+     */
+    private static final int sharedCapacity = 100000;
+
+    private static final NameCache shared = new NameCache(sharedCapacity);
+
+    private SegmentedLruCache<String, Entry> entries;
+
+    /**
+     * Creates a new instance of NameCache which remembers at most (roughly)
+     * <code>capacity</code> names.
+     *
+     * @param capacity maximal number of remembered names
+     */
+    public NameCache(int capacity) {
+        entries = new SegmentedLruCache<String, Entry>(capacity);
+    }
+
+    /**
+     * Returns the cache shared by all ClassFileInspectors and JarFileInspectors.
+     *
+     * @return the shared cache
+     */
+    public static NameCache getShared() {
+        return shared;
+    }
+
+    /**
+     * Returns hit, miss, eviction and invalidation counters of this cache.
+     *
+     * @return statistics of this cache
+     */
+    public CacheStatistics getStatistics() {
+        return entries.getStatistics();
+    }
+
+    /**
+     * Returns remembered name for given key, if the key was stored with the
+     * same <code>stamp1</code> and <code>stamp2</code>.
+     *
+     * @param key path of a .class file or key of a .jar entry (see entryKey())
+     * @param stamp1 size of the .class file or CRC of the .jar entry
+     * @param stamp2 time of last modification of the .class file or size of
+     *        the .jar entry
+     * @return remembered qualified name or null if there is none or it is
+     *         no longer valid
+     */
+    public String get(String key, long stamp1, long stamp2) {
+        CacheStatistics statistics = entries.getStatistics();
+        Entry entry = entries.get(key);
+        if(entry != null && (entry.stamp1 != stamp1 || entry.stamp2 != stamp2)) {
+            if(entries.remove(key, entry))
+                statistics.recordInvalidation();
+            entry = null;
+        }
+        if(entry == null) {
+            statistics.recordMiss();
+            return null;
+        }
+        statistics.recordHit();
+        return entry.name;
+    }
+
+    /**
+     * Remembers name of a class/interface/enum defined in a file.
+     *
+     * @param key path of a .class file or key of a .jar entry (see entryKey())
+     * @param stamp1 size of the .class file or CRC of the .jar entry
+     * @param stamp2 time of last modification of the .class file or size of
+     *        the .jar entry
+     * @param name qualified name of the class/interface/enum
+     */
+    public void put(String key, long stamp1, long stamp2, String name) {
+        entries.put(key, new Entry(name, stamp1, stamp2));
+    }
+
+    /**
+     * Removes all names from this cache. Does not reset statistics.
+     */
+    public void clear() {
+        entries.clear();
+    }
+
+    /**
+     * Returns key under which name of a class defined in a .jar entry is
+     * stored.
+     *
+     * @param jarPath path of the .jar file
+     * @param entryName name of the entry
+     * @return key of that entry
+     */
+    public static String entryKey(String jarPath, String entryName) {
+        return jarPath + "!/" + entryName;
+    }
+
+    /**
+     * A remembered name with numbers describing the file it was read from.
+     */
+    private static class Entry {
+
+        private String name;
+        private long stamp1;
+        private long stamp2;
+
+        Entry(String name, long stamp1, long stamp2) {
+            this.name = name;
+            this.stamp1 = stamp1;
+            this.stamp2 = stamp2;
+        }
+    }
+}
@@ -21,10 +21,8 @@
 package net.sourceforge.code2uml.inspectors.java;
 
 import java.nio.CharBuffer;
-import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
-import java.util.Set;
 
 /**
  * Reads classes', fields' and methods' signatures (as defined in class file 
@@ -46,13 +44,13 @@ import java.util.Set;
 public class SignatureReader {
     
     private DescriptorReader descriptorReader = new DescriptorReader();
-    private static final Set<Character> identifierTerminatingChar = new HashSet<Character>();
+    private static final boolean[] identifierTerminatingChar = new boolean[128];
     static {
-        identifierTerminatingChar.add(';');
-        identifierTerminatingChar.add('<');
-        identifierTerminatingChar.add('.');
-        identifierTerminatingChar.add('/');
-        identifierTerminatingChar.add(':');
+        identifierTerminatingChar[';'] = true;
+        identifierTerminatingChar['<'] = true;
+        identifierTerminatingChar['.'] = true;
+        identifierTerminatingChar['/'] = true;
+        identifierTerminatingChar[':'] = true;
     }
     
     /**
@@ -217,13 +215,14 @@ public class SignatureReader {
     protected String readIdentifier(CharBuffer buffer) {
         
         int i = 0;
-        while(!identifierTerminatingChar.contains(buffer.charAt(i)))
+        char c;
+        while((c = buffer.charAt(i)) >= identifierTerminatingChar.length || 
+                !identifierTerminatingChar[c])
             i++;
         
-        char[] tab = new char[i];
-        buffer.get(tab);
-        
-        return new String(tab);
+        String result = buffer.subSequence(0, i).toString();
+        buffer.position(buffer.position() + i);
+        return result;
     }
     
     /**
@@ -0,0 +1,563 @@
+/*
+ * TypeDecoder.java
+ *
+ * Created on 17 October 2026, 23:10
+ *
+ * Copyright 2026 Code2Uml contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.sourceforge.code2uml.inspectors.java;
+
+import java.io.UTFDataFormatException;
+import java.util.ArrayList;
+import java.util.List;
+import net.sourceforge.code2uml.unitdata.SymbolTable;
+
+/**
+ * Decodes names of classes, descriptors and signatures of fields and methods
+ * from constant pool entries. It gives the same results as DescriptorReader
+ * and SignatureReader but does not wrap a String for each entry: the entry 
+ * is decoded from a char array which is reused for all entries, and type 
+ * names are built in another reused array. A built name is looked up in a 
+ * small table of recently built names first, so a String is created only
+ * for names which haven't been seen recently, and it is interned in the 
+ * SymbolTable of the current retrieval (see setSymbols()). <br/><br/>
+ *
+ * The same descriptors and signatures occur in many classes, so decoded ones
+ * are remembered in a DescriptorCache and decoded again only if they are not
+ * found there. Names of classes are decoded straight from bytes of the 
+ * constant pool. <br/><br/>
+ *
+ * TypeDecoder is not thread-safe; it is meant to be shared by readers of one
+ * .class file (see ClassFileReader).
+ *
+ * @author Code2Uml contributors
+ */
+class TypeDecoder {
+    
+    /**
+     * Number of recently built names remembered; must be a power of 2.
+     */
+    private static final int recentCount = 256;
+    
+    /**
+     * Names of base types by their characters in descriptors, null for
+     * other characters. Note that 'S' is decoded as "String", just like
+     * DescriptorReader does.
+     */
+    private static final String[] baseTypes = new String[128];
+    
+    /**
+     * Tells which characters end an Identifier in a signature.
+     */
+    private static final boolean[] identifierEnds = new boolean[128];
+    
+    static {
+        baseTypes['B'] = "byte";
+        baseTypes['C'] = "char";
+        baseTypes['D'] = "double";
+        baseTypes['F'] = "float";
+        baseTypes['I'] = "int";
+        baseTypes['J'] = "long";
+        baseTypes['S'] = "String";
+        baseTypes['Z'] = "boolean";
+        identifierEnds[';'] = true;
+        identifierEnds['<'] = true;
+        identifierEnds['.'] = true;
+        identifierEnds['/'] = true;
+        identifierEnds[':'] = true;
+    }
+    
+    private SymbolTable symbols;
+    private DescriptorCache cache;
+    private String[] recent = new String[recentCount];
+    
+    /** decoded entry */
+    private char[] in = new char[128];
+    private int inEnd;
+    private int pos;
+    
+    /** type name being built */
+    private char[] out = new char[128];
+    private int outEnd;
+    
+    /**
+     * Creates a new instance of TypeDecoder which remembers decoded 
+     * descriptors and signatures in the shared DescriptorCache. A SymbolTable
+     * must be set before anything is decoded.
+     */
+    public TypeDecoder() {
+        this(null, DescriptorCache.getShared());
+    }
+    
+    /**
+     * Creates a new instance of TypeDecoder which interns names in <code>
+     * symbols</code> and remembers decoded descriptors and signatures in
+     * <code>cache</code>.
+     *
+     * @param symbols table to intern names in
+     * @param cache cache of decoded descriptors and signatures
+     */
+    TypeDecoder(SymbolTable symbols, DescriptorCache cache) {
+        this.symbols = symbols;
+        this.cache = cache;
+    }
+    
+    /**
+     * Sets table in which decoded names are interned. Recently built names
+     * may come from a table set before, which doesn't matter: names of a 
+     * read unit are interned again when it is made compact.
+     *
+     * @param symbols table to intern names in or null if nothing will be
+     *        decoded until another table is set
+     */
+    void setSymbols(SymbolTable symbols) {
+        this.symbols = symbols;
+    }
+    
+    /**
+     * Returns qualified name of the class referenced by the 
+     * CONSTANT_Class_info at given index, with '.' instead of '/'.
+     *
+     * @param pool constant pool
+     * @param index index of a CONSTANT_Class_info
+     * @return qualified name of the class or null if the entry at <code>
+     *         index</code> is not a CONSTANT_Class_info
+     * @throws UTFDataFormatException if the name is not a valid modified 
+     *         UTF-8 string
+     */
+    public String readClassName(ConstantPool pool, int index) throws UTFDataFormatException {
+        if(pool.getTag(index) != ConstantPoolReader.CONSTANT_Class)
+            return null;
+        load(pool, pool.getShort(index));
+        outEnd = 0;
+        while(pos < inEnd) {
+            char c = in[pos++];
+            append(c == '/'? '.' : c);
+        }
+        return name();
+    }
+    
+    /**
+     * Decodes a FieldDescriptor, as DescriptorReader.readFieldDescriptor() 
+     * does.
+     *
+     * @param pool constant pool
+     * @param index index of the CONSTANT_Utf8_info holding the descriptor
+     * @return String representation of the descriptor
+     * @throws UTFDataFormatException if the descriptor is not a valid 
+     *         modified UTF-8 string
+     */
+    public String readFieldDescriptor(ConstantPool pool, int index) throws UTFDataFormatException {
+        String descriptor = pool.getUtf8(index);
+        DecodedType type = cache.get(descriptor);
+        if(type == null) {
+            load(descriptor);
+            outEnd = 0;
+            appendFieldType();
+            type = new DecodedType(name(), null);
+            cache.put(descriptor, type);
+        }
+        return type.getTypeName();
+    }
+    
+    /**
+     * Decodes a MethodDescriptor, as DescriptorReader.readMethodDescriptor()
+     * does.
+     *
+     * @param pool constant pool
+     * @param index index of the CONSTANT_Utf8_info holding the descriptor
+     * @return method's return type and arguments
+     * @throws UTFDataFormatException if the descriptor is not a valid 
+     *         modified UTF-8 string
+     */
+    public DecodedType readMethodDescriptor(ConstantPool pool, int index) throws UTFDataFormatException {
+        String descriptor = pool.getUtf8(index);
+        DecodedType type = cache.get(descriptor);
+        if(type == null) {
+            load(descriptor);
+            List<String> arguments = new ArrayList<String>();
+            String returnType = "?";
+            if(next() == '(') {
+                while(peek() != ')') {
+                    outEnd = 0;
+                    appendFieldType();
+                    arguments.add(name());
+                }
+                pos++; // ')'
+                returnType = readReturnType(false);
+            }
+            type = new DecodedType(returnType, arguments);
+            cache.put(descriptor, type);
+        }
+        return type;
+    }
+    
+    /**
+     * Decodes a FieldTypeSignature, as SignatureReader.readFieldTypeSignature()
+     * does.
+     *
+     * @param pool constant pool
+     * @param index index of the CONSTANT_Utf8_info holding the signature
+     * @return String representation of the signature
+     * @throws UTFDataFormatException if the signature is not a valid 
+     *         modified UTF-8 string
+     */
+    public String readFieldSignature(ConstantPool pool, int index) throws UTFDataFormatException {
+        String signature = pool.getUtf8(index);
+        DecodedType type = cache.get(signature);
+        if(type == null) {
+            load(signature);
+            outEnd = 0;
+            appendFieldTypeSignature();
+            type = new DecodedType(name(), null);
+            cache.put(signature, type);
+        }
+        return type.getTypeName();
+    }
+    
+    /**
+     * Decodes a MethodTypeSignature, as SignatureReader.readMethodTypeSignature()
+     * does. ThrowsSignatures are not decoded.
+     *
+     * @param pool constant pool
+     * @param index index of the CONSTANT_Utf8_info holding the signature
+     * @return method's return type and arguments
+     * @throws UTFDataFormatException if the signature is not a valid 
+     *         modified UTF-8 string
+     */
+    public DecodedType readMethodSignature(ConstantPool pool, int index) throws UTFDataFormatException {
+        String signature = pool.getUtf8(index);
+        DecodedType type = cache.get(signature);
+        if(type == null) {
+            load(signature);
+            List<String> arguments = new ArrayList<String>();
+            String returnType = "?";
+            if(peek() == '<') {
+                outEnd = 0;
+                appendFormalTypeParameters();
+            }
+            if(next() == '(') {
+                while(peek() != ')') {
+                    outEnd = 0;
+                    appendTypeSignature();
+                    arguments.add(name());
+                }
+                pos++; // ')'
+                returnType = readReturnType(true);
+            }
+            type = new DecodedType(returnType, arguments);
+            cache.put(signature, type);
+        }
+        return type;
+    }
+    
+    /**
+     * Reads a ReturnDescriptor or a ReturnType of a signature.
+     *
+     * @param signature true if a signature is read
+     * @return String representation of the return type
+     */
+    private String readReturnType(boolean signature) {
+        if(peek() == 'V') {
+            pos++;
+            return "void";
+        }
+        outEnd = 0;
+        if(signature)
+            appendTypeSignature();
+        else
+            appendFieldType();
+        return name();
+    }
+    
+    /**
+     * Copies <code>str</code> into <code>in</code> and sets position to its
+     * first char.
+     *
+     * @param str descriptor or signature to decode
+     */
+    private void load(String str) {
+        int length = str.length();
+        if(in.length < length)
+            in = new char[Math.max(length, 2 * in.length)];
+        str.getChars(0, length, in, 0);
+        inEnd = length;
+        pos = 0;
+    }
+    
+    /**
+     * Decodes the CONSTANT_Utf8_info at given index into <code>in</code> and
+     * sets position to its first char.
+     *
+     * @param pool constant pool
+     * @param index index of a CONSTANT_Utf8_info
+     * @throws UTFDataFormatException if the entry is not a valid modified 
+     *         UTF-8 string
+     */
+    private void load(ConstantPool pool, int index) throws UTFDataFormatException {
+        int length = pool.getUtf8Length(index);
+        if(length < 0)
+            throw new IllegalArgumentException("not a CONSTANT_Utf8_info: " + index);
+        if(in.length < length)
+            in = new char[Math.max(length, 2 * in.length)];
+        inEnd = pool.getUtf8Chars(index, in);
+        pos = 0;
+    }
+    
+    /**
+     * Returns the char at current position without moving it.
+     *
+     * @return char at current position
+     */
+    private char peek() {
+        if(pos >= inEnd)
+            throw new IndexOutOfBoundsException();
+        return in[pos];
+    }
+    
+    /**
+     * Returns the char at current position and moves to the next one.
+     *
+     * @return char at current position
+     */
+    private char next() {
+        if(pos >= inEnd)
+            throw new IndexOutOfBoundsException();
+        return in[pos++];
+    }
+    
+    private void append(char c) {
+        if(outEnd == out.length) {
+            char[] larger = new char[2 * out.length];
+            System.arraycopy(out, 0, larger, 0, outEnd);
+            out = larger;
+        }
+        out[outEnd++] = c;
+    }
+    
+    private void append(String str) {
+        for(int i = 0; i < str.length(); i++)
+            append(str.charAt(i));
+    }
+    
+    /**
+     * Returns the name built in <code>out</code>. If that name is among 
+     * recently returned ones, no String is created.
+     *
+     * @return interned name
+     */
+    private String name() {
+        int hash = 0;
+        for(int i = 0; i < outEnd; i++)
+            hash = 31 * hash + out[i];
+        int slot = (hash ^ (hash >>> 16)) & (recentCount - 1);
+        String name = recent[slot];
+        if(name != null && matches(name))
+            return name;
+        name = symbols.intern(new String(out, 0, outEnd));
+        recent[slot] = name;
+        return name;
+    }
+    
+    /**
+     * Checks if <code>name</code> is equal to the name built in <code>out
+     * </code>.
+     */
+    private boolean matches(String name) {
+        if(name.length() != outEnd)
+            return false;
+        for(int i = 0; i < outEnd; i++) {
+            if(name.charAt(i) != out[i])
+                return false;
+        }
+        return true;
+    }
+    
+    /*
+     * Following methods mirror those of DescriptorReader and SignatureReader,
+     * appending to out instead of returning Strings.
+     */
+    
+    /**
+     * FieldType: BaseType, ArrayType or ObjectType.
+     */
+    private void appendFieldType() {
+        switch(peek()) {
+            case 'L':
+                pos++;
+                char c;
+                while((c = next()) != ';')
+                    append(c == '/'? '.' : c);
+                break;
+            case '[':
+                pos++;
+                appendFieldType();
+                append("[]");
+                break;
+            default:
+                appendBaseType();
+        }
+    }
+    
+    private void appendBaseType() {
+        char c = next();
+        String name = (c < baseTypes.length)? baseTypes[c] : null;
+        append(name != null? name : "?");
+    }
+    
+    /**
+     * FieldTypeSignature: ClassTypeSignature, ArrayTypeSignature or 
+     * TypeVariableSignature.
+     */
+    private void appendFieldTypeSignature() {
+        switch(peek()) {
+            case 'L':
+                appendClassTypeSignature();
+                break;
+            case '[':
+                pos++;
+                appendTypeSignature();
+                append("[]");
+                break;
+            case 'T':
+                pos++;
+                appendIdentifier();
+                pos++; // ';'
+                break;
+            default:
+                append('?');
+        }
+    }
+    
+    /**
+     * TypeSignature: FieldTypeSignature or BaseType.
+     */
+    private void appendTypeSignature() {
+        char c = peek();
+        if(c == 'L' || c == '[' || c == 'T')
+            appendFieldTypeSignature();
+        else
+            appendBaseType();
+    }
+    
+    private void appendIdentifier() {
+        char c;
+        while((c = peek()) >= identifierEnds.length || !identifierEnds[c]) {
+            append(c);
+            pos++;
+        }
+    }
+    
+    /**
+     * ClassTypeSignature: 
+     * L PackageSpecifier* SimpleClassTypeSignature ClassTypeSignatureSuffix*;
+     */
+    private void appendClassTypeSignature() {
+        int start = outEnd;
+        pos++; // 'L'
+        appendIdentifier();
+        while(peek() == '/') {
+            pos++;
+            append('.');
+            appendIdentifier();
+        }
+        switch(peek()) {
+            case '<':
+                appendTypeArguments();
+                while(peek() == '.')
+                    appendClassTypeSignatureSuffix();
+                pos++; // ';'
+                break;
+            case '.':
+                do {
+                    appendClassTypeSignatureSuffix();
+                } while(peek() == '.');
+                pos++; // ';'
+                break;
+            case ';':
+                pos++;
+                break;
+            default:
+                outEnd = start;
+                append('?');
+        }
+    }
+    
+    /**
+     * ClassTypeSignatureSuffix: . SimpleClassTypeSignature, where '.' is 
+     * converted to '$'.
+     */
+    private void appendClassTypeSignatureSuffix() {
+        pos++; // '.'
+        append('$');
+        appendIdentifier();
+        if(peek() == '<')
+            appendTypeArguments();
+    }
+    
+    /**
+     * TypeArguments: &lt;TypeArgument+&gt;
+     */
+    private void appendTypeArguments() {
+        pos++; // '<'
+        append('<');
+        appendTypeArgument();
+        while(peek() != '>') {
+            append(", ");
+            appendTypeArgument();
+        }
+        pos++; // '>'
+        append('>');
+    }
+    
+    /**
+     * TypeArgument: WildcardIndicator(optional) FieldTypeSignature or '*'.
+     */
+    private void appendTypeArgument() {
+        switch(peek()) {
+            case '*':
+                pos++;
+                append('?');
+                return;
+            case '+':
+                pos++;
+                append("? extends ");
+                break;
+            case '-':
+                pos++;
+                append("? super ");
+                break;
+        }
+        appendFieldTypeSignature();
+    }
+    
+    /**
+     * FormalTypeParameters: &lt;FormalTypeParameter+&gt;, where 
+     * FormalTypeParameter is: Identifier ClassBound InterfaceBound*. They
+     * are read only to get past them, so what is appended doesn't matter.
+     */
+    private void appendFormalTypeParameters() {
+        pos++; // '<'
+        do {
+            appendIdentifier();
+            do {
+                pos++; // ':'
+                appendFieldTypeSignature();
+            } while(peek() == ':');
+        } while(peek() != '>');
+        pos++; // '>'
+    }
+}
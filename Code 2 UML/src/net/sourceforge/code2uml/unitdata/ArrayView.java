@@ -0,0 +1,64 @@
+/*
+ * ArrayView.java
+ *
+ * Created on 17 October 2026, 21:30
+ *
+ * Copyright 2026 Code2Uml contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.sourceforge.code2uml.unitdata;
+
+import java.util.AbstractList;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * Unmodifiable list backed by an array, returned by compact units and their
+ * members instead of collections kept for each of them.
+ *
+ * @author Code2Uml contributors
+ */
+class ArrayView<T> extends AbstractList<T> implements RandomAccess {
+    
+    private T[] elements;
+    
+    /**
+     * Creates a new instance of ArrayView.
+     *
+     * @param elements elements of the list; the array is not copied
+     */
+    ArrayView(T[] elements) {
+        this.elements = elements;
+    }
+    
+    /**
+     * Returns a list backed by <code>elements</code>.
+     *
+     * @param elements elements of the list or null
+     * @return unmodifiable list backed by <code>elements</code> or null if
+     *         it is null
+     */
+    static <T> List<T> of(T[] elements) {
+        return (elements != null)? new ArrayView<T>(elements) : null;
+    }
+    
+    public T get(int index) {
+        return elements[index];
+    }
+    
+    public int size() {
+        return elements.length;
+    }
+}
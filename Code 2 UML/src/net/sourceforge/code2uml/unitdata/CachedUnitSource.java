@@ -0,0 +1,165 @@
+/*
+ * CachedUnitSource.java
+ *
+ * Created on 18 October 2026, 10:40
+ *
+ * Copyright 2026 Code2Uml contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.sourceforge.code2uml.unitdata;
+
+import java.io.File;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import net.sourceforge.code2uml.inspectors.FileInspector;
+import net.sourceforge.code2uml.inspectors.InspectorsFactory;
+import net.sourceforge.code2uml.inspectors.InspectorsFactoryImpl;
+
+/**
+ * UnitSource of a unit which was read from a UnitCache without its members
+ * (see UnitCacheImpl). Members of such units are not in the cache, so they
+ * are read from the cached file again. <br/><br/>
+ *
+ * All deferred units of one cached file share a CachedFile, which inspects
+ * the file when members of any of them are needed for the first time. Units
+ * read then are stored in the cache in place of the deferred ones, so the
+ * file is not read again next time, and are kept until the other units of
+ * that file ask for their members.
+ *
+ * @author Code2Uml contributors
+ */
+class CachedUnitSource implements UnitSource {
+
+    private String name;
+    private String origin;
+    private CachedFile file;
+
+    /**
+     * Creates a new instance of CachedUnitSource.
+     *
+     * @param name qualified name of the class/interface/enum
+     * @param origin origin of the class/interface/enum (see
+     *        UnitInfo.getOrigin()) or null
+     * @param file cached file defining the class/interface/enum
+     */
+    CachedUnitSource(String name, String origin, CachedFile file) {
+        this.name = name;
+        this.origin = origin;
+        this.file = file;
+    }
+
+    /**
+     * Reads the class/interface/enum with all its members.
+     *
+     * @return the class/interface/enum or null if its file has changed
+     *         since it was cached or can't be read
+     */
+    public UnitInfo read() {
+        return file.read(name, origin);
+    }
+
+    /**
+     * A file whose units were read from a UnitCache, some of them without
+     * members. It is read again at most once for all of them, unless a unit
+     * asks for its members again (see LazyUnitInfo.decode()).
+     */
+    static class CachedFile {
+
+        private static final InspectorsFactory factory = new InspectorsFactoryImpl();
+
+        private UnitCache cache;
+        private String filePath;
+        private long length;
+        private long lastModified;
+        private ParseOptions options;
+
+        /**
+         * Units read from the file which have not been asked for yet, by
+         * their keys (see key()); null until the file is read.
+         */
+        private Map<String, UnitInfo> units;
+
+        /**
+         * Creates a new instance of CachedFile.
+         *
+         * @param cache cache from which units of the file were read; units
+         *        read from the file are stored there
+         * @param filePath path of the file
+         * @param length size of the file when its units were read from the
+         *        cache
+         * @param lastModified time of last modification of the file when its
+         *        units were read from the cache
+         * @param options options with which cached units were read or null
+         *        if they are complete
+         */
+        CachedFile(UnitCache cache, String filePath, long length, long lastModified,
+                   ParseOptions options) {
+            this.cache = cache;
+            this.filePath = filePath;
+            this.length = length;
+            this.lastModified = lastModified;
+            this.options = options;
+        }
+
+        /**
+         * Returns a unit read from the file, reading the file if it has not
+         * been read yet or the unit has already been taken.
+         *
+         * @param name qualified name of the unit
+         * @param origin origin of the unit or null
+         * @return the unit with its members or null if the file has changed
+         *         or can't be read
+         */
+        synchronized UnitInfo read(String name, String origin) {
+            String key = key(name, origin);
+            if(units == null || !units.containsKey(key)) {
+                if(!readFile())
+                    return null;
+            }
+            return units.remove(key);
+        }
+
+        /**
+         * Reads all units of the file and stores them in the cache.
+         *
+         * @return true if the file has been read
+         */
+        private boolean readFile() {
+            File file = new File(filePath);
+            if(file.length() != length || file.lastModified() != lastModified)
+                return false;
+            FileInspector inspector = factory.getInspectorForPath(filePath);
+            Collection<UnitInfo> read = (options == null)? inspector.inspect(filePath) :
+                                                           inspector.inspect(filePath, null, options);
+            if(read == null)
+                return false;
+            cache.put(filePath, length, lastModified, options, read);
+            units = new HashMap<String, UnitInfo>();
+            for(UnitInfo unit : read)
+                units.put(key(unit.getName(), unit.getOrigin()), unit);
+            return true;
+        }
+
+        /**
+         * Returns a key identifying a unit within a file: a file (for
+         * example a fat jar) may define classes with the same name in
+         * different libraries.
+         */
+        private static String key(String name, String origin) {
+            return (origin == null)? name : origin + "!/" + name;
+        }
+    }
+}
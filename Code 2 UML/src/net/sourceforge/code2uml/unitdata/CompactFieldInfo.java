@@ -0,0 +1,137 @@
+/*
+ * CompactFieldInfo.java
+ *
+ * Created on 17 October 2026, 21:35
+ *
+ * Copyright 2026 Code2Uml contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.sourceforge.code2uml.unitdata;
+
+/**
+ * Immutable field of a class/enum/interface. Its names are interned in a 
+ * SymbolTable and its modifiers are packed into one int, so it takes about
+ * half the memory of a FieldInfoImpl. See CompactUnitInfo.
+ *
+ * @author Code2Uml contributors
+ */
+public class CompactFieldInfo implements FieldInfo {
+    
+    static final int ACCESS = 0x03;
+    static final int STATIC = 0x04;
+    static final int FINAL = 0x08;
+    
+    private static final AccessType[] accessTypes = AccessType.values();
+    
+    private String name;
+    private String typeName;
+    private int flags;
+    
+    /**
+     * Creates a new instance of CompactFieldInfo which is a copy of <code>
+     * field</code>.
+     *
+     * @param field field to copy
+     * @param symbols table in which names are interned
+     */
+    public CompactFieldInfo(FieldInfo field, SymbolTable symbols) {
+        name = symbols.intern(field.getName());
+        typeName = symbols.intern(field.getTypeName());
+        flags = field.getAccessType().ordinal();
+        if(field.isStatic())
+            flags |= STATIC;
+        if(field.isFinal())
+            flags |= FINAL;
+    }
+    
+    /**
+     * Creates a new instance of CompactFieldInfo from its parts, which are
+     * not interned.
+     *
+     * @param name name of the field
+     * @param typeName qualified name of type of the field
+     * @param flags ordinal of access type with STATIC and FINAL bits
+     */
+    CompactFieldInfo(String name, String typeName, int flags) {
+        this.name = name;
+        this.typeName = typeName;
+        this.flags = flags;
+    }
+    
+    /**
+     * Returns access modifier of represented field.
+     *
+     * @return access modifier of represented field
+     */
+    public AccessType getAccessType() {
+        return accessTypes[flags & ACCESS];
+    }
+    
+    /**
+     * Returns qualified name of type of represented field.
+     *
+     * @return qualified name of type of represented field
+     */
+    public String getTypeName() {
+        return typeName;
+    }
+    
+    /**
+     * Returns name of represented field.
+     *
+     * @return name of represented field
+     */
+    public String getName() {
+        return name;
+    }
+    
+    /**
+     * Returns true if this represents a static field.
+     *
+     * @return true if this represents a static field
+     */
+    public boolean isStatic() {
+        return (flags & STATIC) != 0;
+    }
+    
+    /**
+     * Returns true if this represents a final field.
+     *
+     * @return true if this represents a final field
+     */
+    public boolean isFinal() {
+        return (flags & FINAL) != 0;
+    }
+    
+    /**
+     * Returns string representation if this field in form:<br/>
+     * <access type> <modifiers> <type name> <name>
+     *
+     * @return string representation if this field
+     */
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+        builder.append(getAccessType().toString());
+        if(isStatic())
+            builder.append(" static ");
+        else
+            builder.append(" ");
+        builder.append(typeName);
+        builder.append(" ");
+        builder.append(name);
+        return builder.toString().trim();
+    }
+}
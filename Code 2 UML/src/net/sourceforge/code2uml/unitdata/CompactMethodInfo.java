@@ -0,0 +1,169 @@
+/*
+ * CompactMethodInfo.java
+ *
+ * Created on 17 October 2026, 21:40
+ *
+ * Copyright 2026 Code2Uml contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.sourceforge.code2uml.unitdata;
+
+import java.util.List;
+
+/**
+ * Immutable method of a class/interface/enum. Its names are interned in a
+ * SymbolTable, its arguments are kept in an array and its modifiers are 
+ * packed into one int. See CompactUnitInfo.
+ *
+ * @author Code2Uml contributors
+ */
+public class CompactMethodInfo implements MethodInfo {
+    
+    static final int ACCESS = 0x03;
+    static final int STATIC = 0x04;
+    static final int ABSTRACT = 0x08;
+    
+    private static final AccessType[] accessTypes = AccessType.values();
+    private static final String[] noArguments = new String[0];
+    
+    private String name;
+    private String returnTypeName;
+    private String[] arguments;
+    private int flags;
+    
+    /**
+     * Creates a new instance of CompactMethodInfo which is a copy of <code>
+     * method</code>.
+     *
+     * @param method method to copy
+     * @param symbols table in which names are interned
+     */
+    public CompactMethodInfo(MethodInfo method, SymbolTable symbols) {
+        name = symbols.intern(method.getName());
+        returnTypeName = symbols.intern(method.getReturnTypeName());
+        List<String> args = method.getArguments();
+        if(args != null) {
+            arguments = args.isEmpty()? noArguments : new String[args.size()];
+            for(int i = 0; i < arguments.length; i++)
+                arguments[i] = symbols.intern(args.get(i));
+        }
+        flags = method.getAccessType().ordinal();
+        if(method.isStatic())
+            flags |= STATIC;
+        if(method.isAbstract())
+            flags |= ABSTRACT;
+    }
+    
+    /**
+     * Creates a new instance of CompactMethodInfo from its parts, which are
+     * not interned.
+     *
+     * @param name name of the method
+     * @param returnTypeName qualified name of return type of the method
+     * @param arguments qualified names of types of arguments or null
+     * @param flags ordinal of access type with STATIC and ABSTRACT bits
+     */
+    CompactMethodInfo(String name, String returnTypeName, String[] arguments, int flags) {
+        this.name = name;
+        this.returnTypeName = returnTypeName;
+        this.arguments = arguments;
+        this.flags = flags;
+    }
+    
+    /**
+     * Returns access modifier of represented method. 
+     *
+     * @return access modifier of represented method
+     */
+    public AccessType getAccessType() {
+        return accessTypes[flags & ACCESS];
+    }
+    
+    /**
+     * Returns true if this represent a static method. 
+     *
+     * @return true if this represent a static method
+     */
+    public boolean isStatic() {
+        return (flags & STATIC) != 0;
+    }
+    
+    /**
+     * Returns true if this represent an abstract method. 
+     *
+     * @return true if this represent an abstract method
+     */
+    public boolean isAbstract() {
+        return (flags & ABSTRACT) != 0;
+    }
+    
+    /**
+     * Returns qualified name of return type of represented method.
+     *
+     * @return qualified name of return type of represented method
+     */
+    public String getReturnTypeName() {
+        return returnTypeName;
+    }
+    
+    /**
+     * Returns name of represented method. 
+     *
+     * @return name of represented method
+     */
+    public String getName() {
+        return name;
+    }
+    
+    /**
+     * Returns unmodifiable list of qualified names of represented method's 
+     * arguments. 
+     *
+     * @return list of qualified names of represented method's arguments or
+     *         null if they were not read
+     */
+    public List<String> getArguments() {
+        return ArrayView.of(arguments);
+    }
+    
+    /**
+     * Returns string representation of represented method in form: <br/>
+     * <access type> <modifiers> <return type> <name>(<arguments' types>)
+     *
+     * @return string representation of represented method
+     */
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+        builder.append(getAccessType().toString());
+        if(isStatic())
+            builder.append(" static ");
+        else
+            builder.append(" ");
+        builder.append(returnTypeName);
+        builder.append(" ");
+        builder.append(name);
+        builder.append("(");
+        if(arguments != null) {
+            for(int i = 0; i < arguments.length; i++) {
+                if(i > 0)
+                    builder.append(", ");
+                builder.append(arguments[i]);
+            }
+        }
+        builder.append(")");
+        return builder.toString().trim();
+    }
+}
@@ -0,0 +1,221 @@
+/*
+ * CompactUnitBuilder.java
+ *
+ * Created on 17 October 2026, 23:10
+ *
+ * Copyright 2026 Code2Uml contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.sourceforge.code2uml.unitdata;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Builds CompactUnitInfos one after another. Parts of a unit are collected
+ * in arrays which grow to the largest unit built and are reused for the
+ * next one; build() copies them into arrays of the exact size, so the
+ * unit is created without a UnitInfoImpl, its HashSets and a copy of each
+ * member. Names are interned in the SymbolTable given to reset().
+ * <br/><br/>
+ *
+ * A builder is not thread-safe; a reader keeps one for the thread it is
+ * confined to.
+ *
+ * @author Code2Uml contributors
+ */
+public class CompactUnitBuilder {
+
+    private static final String[] noNames = new String[0];
+    private static final MethodInfo[] noMethods = new MethodInfo[0];
+    private static final FieldInfo[] noFields = new FieldInfo[0];
+
+    private SymbolTable symbols;
+    private String name;
+    private String origin;
+    private int flags;
+    private String[] superTypes = new String[8];
+    private int superTypesCount;
+    private String[] enumValues = new String[16];
+    private int enumValuesCount;
+    private FieldInfo[] fields = new FieldInfo[16];
+    private int fieldsCount;
+    private MethodInfo[] methods = new MethodInfo[32];
+    private int methodsCount;
+
+    /**
+     * Creates a new instance of CompactUnitBuilder.
+     */
+    public CompactUnitBuilder() {
+    }
+
+    /**
+     * Forgets the unit built before and starts a new one.
+     *
+     * @param symbols table in which names of the unit are interned or null
+     *        if nothing will be built until the builder is reset again
+     * @param origin origin of the unit (see UnitInfo.getOrigin()) or null
+     */
+    public void reset(SymbolTable symbols, String origin) {
+        this.symbols = symbols;
+        name = null;
+        this.origin = (symbols != null)? symbols.intern(origin) : null;
+        flags = 0;
+        // the previous unit must not stay reachable from here
+        Arrays.fill(superTypes, 0, superTypesCount, null);
+        superTypesCount = 0;
+        Arrays.fill(enumValues, 0, enumValuesCount, null);
+        enumValuesCount = 0;
+        Arrays.fill(fields, 0, fieldsCount, null);
+        fieldsCount = 0;
+        Arrays.fill(methods, 0, methodsCount, null);
+        methodsCount = 0;
+    }
+
+    /**
+     * Sets qualified name of the unit.
+     *
+     * @param name qualified name of the unit
+     */
+    public void setName(String name) {
+        this.name = symbols.intern(name);
+    }
+
+    /**
+     * Sets kind and modifiers of the unit. Exactly one of <code>isClass
+     * </code>, <code>isInterface</code> and <code>isEnum</code> should be
+     * true.
+     *
+     * @param isPublic true if the unit is public
+     * @param isClass true if the unit is a class
+     * @param isInterface true if the unit is an interface
+     * @param isEnum true if the unit is an enum
+     * @param isAbstract true if the unit is an abstract class
+     */
+    public void setFlags(boolean isPublic, boolean isClass, boolean isInterface,
+                         boolean isEnum, boolean isAbstract) {
+        flags = 0;
+        if(isPublic)
+            flags |= CompactUnitInfo.PUBLIC;
+        if(isClass)
+            flags |= CompactUnitInfo.CLASS;
+        if(isInterface)
+            flags |= CompactUnitInfo.INTERFACE;
+        if(isEnum)
+            flags |= CompactUnitInfo.ENUM;
+        if(isAbstract)
+            flags |= CompactUnitInfo.ABSTRACT;
+    }
+
+    /**
+     * Adds a supertype of the unit.
+     *
+     * @param superType qualified name of the supertype
+     */
+    public void addSupertype(String superType) {
+        if(superTypesCount == superTypes.length)
+            superTypes = grow(superTypes);
+        superTypes[superTypesCount++] = symbols.intern(superType);
+    }
+
+    /**
+     * Adds a value of the enum.
+     *
+     * @param enumValue name of the value
+     */
+    public void addEnumValue(String enumValue) {
+        if(enumValuesCount == enumValues.length)
+            enumValues = grow(enumValues);
+        enumValues[enumValuesCount++] = symbols.intern(enumValue);
+    }
+
+    /**
+     * Adds a field of the unit.
+     *
+     * @param name name of the field
+     * @param typeName qualified name of type of the field
+     * @param accessType access type of the field
+     * @param isStatic true if the field is static
+     * @param isFinal true if the field is final
+     */
+    public void addField(String name, String typeName, AccessType accessType,
+                         boolean isStatic, boolean isFinal) {
+        int fieldFlags = accessType.ordinal();
+        if(isStatic)
+            fieldFlags |= CompactFieldInfo.STATIC;
+        if(isFinal)
+            fieldFlags |= CompactFieldInfo.FINAL;
+        if(fieldsCount == fields.length)
+            fields = grow(fields);
+        fields[fieldsCount++] = new CompactFieldInfo(symbols.intern(name),
+                symbols.intern(typeName), fieldFlags);
+    }
+
+    /**
+     * Adds a method of the unit.
+     *
+     * @param name name of the method
+     * @param returnTypeName qualified name of return type of the method
+     * @param arguments qualified names of types of arguments or null if they
+     *        were not read
+     * @param accessType access type of the method
+     * @param isStatic true if the method is static
+     * @param isAbstract true if the method is abstract
+     */
+    public void addMethod(String name, String returnTypeName, List<String> arguments,
+                          AccessType accessType, boolean isStatic, boolean isAbstract) {
+        int methodFlags = accessType.ordinal();
+        if(isStatic)
+            methodFlags |= CompactMethodInfo.STATIC;
+        if(isAbstract)
+            methodFlags |= CompactMethodInfo.ABSTRACT;
+        String[] args = null;
+        if(arguments != null) {
+            args = arguments.isEmpty()? noNames : new String[arguments.size()];
+            for(int i = 0; i < args.length; i++)
+                args[i] = symbols.intern(arguments.get(i));
+        }
+        if(methodsCount == methods.length)
+            methods = grow(methods);
+        methods[methodsCount++] = new CompactMethodInfo(symbols.intern(name),
+                symbols.intern(returnTypeName), args, methodFlags);
+    }
+
+    /**
+     * Returns the unit built since the last reset(). The builder may be
+     * reset and used again afterwards.
+     *
+     * @return the built unit
+     */
+    public CompactUnitInfo build() {
+        String[] unitSuperTypes = (superTypesCount == 0)? noNames : new String[superTypesCount];
+        System.arraycopy(superTypes, 0, unitSuperTypes, 0, superTypesCount);
+        String[] unitEnumValues = (enumValuesCount == 0)? noNames : new String[enumValuesCount];
+        System.arraycopy(enumValues, 0, unitEnumValues, 0, enumValuesCount);
+        FieldInfo[] unitFields = (fieldsCount == 0)? noFields : new FieldInfo[fieldsCount];
+        System.arraycopy(fields, 0, unitFields, 0, fieldsCount);
+        MethodInfo[] unitMethods = (methodsCount == 0)? noMethods : new MethodInfo[methodsCount];
+        System.arraycopy(methods, 0, unitMethods, 0, methodsCount);
+        return new CompactUnitInfo(name, (name != null)? symbols.getSimpleName(name) : null,
+                origin, unitSuperTypes, unitEnumValues, unitMethods, unitFields, flags);
+    }
+
+    /**
+     * Returns a copy of <code>array</code> twice as long.
+     */
+    private static <T> T[] grow(T[] array) {
+        return Arrays.copyOf(array, 2 * array.length);
+    }
+}
@@ -0,0 +1,311 @@
+/*
+ * CompactUnitInfo.java
+ *
+ * Created on 17 October 2026, 21:45
+ *
+ * Copyright 2026 Code2Uml contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.sourceforge.code2uml.unitdata;
+
+import java.util.Collection;
+
+/**
+ * Immutable class, interface or enum. Its members are kept in arrays 
+ * instead of HashSets, all its names (and names of its members' types) are
+ * interned in a SymbolTable and its flags are packed into one int. Readers 
+ * of .class files build it directly (see CompactUnitBuilder); other units
+ * may be copied into a CompactUnitInfo, so only the compact copy stays in
+ * memory. <br/><br/>
+ *
+ * Collections returned by its methods are unmodifiable. A partial 
+ * definition of a class can't be compact, because it is merged with others.
+ *
+ * @author Code2Uml contributors
+ */
+public class CompactUnitInfo implements UnitInfo {
+    
+    static final int PUBLIC = 0x01;
+    static final int CLASS = 0x02;
+    static final int INTERFACE = 0x04;
+    static final int ENUM = 0x08;
+    static final int ABSTRACT = 0x10;
+    
+    private static final String[] noNames = new String[0];
+    private static final MethodInfo[] noMethods = new MethodInfo[0];
+    private static final FieldInfo[] noFields = new FieldInfo[0];
+    
+    private String name;
+    private String simpleName;
+    private String origin;
+    private String[] superTypes;
+    private String[] enumValues;
+    private MethodInfo[] methods;
+    private FieldInfo[] fields;
+    private int flags;
+    
+    /**
+     * Creates a new instance of CompactUnitInfo which is a copy of <code>
+     * unit</code>, interning its names in a SymbolTable of its own.
+     *
+     * @param unit class/interface/enum to copy; it must not be partial
+     * @throws IllegalArgumentException if <code>unit</code> is partial
+     */
+    public CompactUnitInfo(UnitInfo unit) throws IllegalArgumentException {
+        this(unit, new SymbolTable());
+    }
+    
+    /**
+     * Creates a new instance of CompactUnitInfo which is a copy of <code>
+     * unit</code>.
+     *
+     * @param unit class/interface/enum to copy; it must not be partial
+     * @param symbols table in which names are interned
+     * @throws IllegalArgumentException if <code>unit</code> is partial
+     */
+    public CompactUnitInfo(UnitInfo unit, SymbolTable symbols) throws IllegalArgumentException {
+        if(unit.isPartial())
+            throw new IllegalArgumentException();
+        name = symbols.intern(unit.getName());
+        simpleName = (name != null)? symbols.getSimpleName(name) : null;
+        origin = symbols.intern(unit.getOrigin());
+        superTypes = internAll(unit.getSupertypes(), symbols);
+        enumValues = internAll(unit.getEnumValues(), symbols);
+        
+        Collection<MethodInfo> unitMethods = unit.getMethods();
+        methods = unitMethods.isEmpty()? noMethods : new MethodInfo[unitMethods.size()];
+        int i = 0;
+        for(MethodInfo method : unitMethods)
+            methods[i++] = (method instanceof CompactMethodInfo)? method : 
+                           new CompactMethodInfo(method, symbols);
+        
+        Collection<FieldInfo> unitFields = unit.getFields();
+        fields = unitFields.isEmpty()? noFields : new FieldInfo[unitFields.size()];
+        i = 0;
+        for(FieldInfo field : unitFields)
+            fields[i++] = (field instanceof CompactFieldInfo)? field : 
+                          new CompactFieldInfo(field, symbols);
+        
+        if(unit.isPublic())
+            flags |= PUBLIC;
+        if(unit.isClass())
+            flags |= CLASS;
+        if(unit.isInterface())
+            flags |= INTERFACE;
+        if(unit.isEnum())
+            flags |= ENUM;
+        if(unit.isAbstract())
+            flags |= ABSTRACT;
+    }
+    
+    /**
+     * Creates a new instance of CompactUnitInfo from its parts, which must
+     * be interned already. Arrays are not copied.
+     *
+     * @param name qualified name of the unit
+     * @param simpleName unqualified name of the unit
+     * @param origin origin of the unit or null
+     * @param superTypes qualified names of supertypes
+     * @param enumValues values of the enum
+     * @param methods methods of the unit
+     * @param fields fields of the unit
+     * @param flags PUBLIC, CLASS, INTERFACE, ENUM and ABSTRACT bits
+     */
+    CompactUnitInfo(String name, String simpleName, String origin, String[] superTypes,
+                    String[] enumValues, MethodInfo[] methods, FieldInfo[] fields, int flags) {
+        this.name = name;
+        this.simpleName = simpleName;
+        this.origin = origin;
+        this.superTypes = superTypes;
+        this.enumValues = enumValues;
+        this.methods = methods;
+        this.fields = fields;
+        this.flags = flags;
+    }
+    
+    /**
+     * Returns <code>unit</code> if it can't be made compact (it is partial 
+     * or lazy) or is already compact, otherwise its compact copy.
+     *
+     * @param unit class/interface/enum or null
+     * @return compact copy of <code>unit</code> or <code>unit</code> itself
+     */
+    public static UnitInfo compact(UnitInfo unit) {
+        return compact(unit, null);
+    }
+    
+    /**
+     * Returns <code>unit</code> if it can't be made compact (it is partial 
+     * or lazy) or is already compact, otherwise its compact copy whose 
+     * names are interned in <code>symbols</code>.
+     *
+     * @param unit class/interface/enum or null
+     * @param symbols table in which names are interned; if it is null the
+     *        copy has a table of its own
+     * @return compact copy of <code>unit</code> or <code>unit</code> itself
+     */
+    public static UnitInfo compact(UnitInfo unit, SymbolTable symbols) {
+        if(unit == null || unit.isPartial() || unit instanceof CompactUnitInfo || 
+                unit instanceof LazyUnitInfo)
+            return unit;
+        return new CompactUnitInfo(unit, (symbols != null)? symbols : new SymbolTable());
+    }
+    
+    /**
+     * Returns unqualified name of represented class/interface/enum.
+     *
+     * @return unqualified name of represented class/interface/enum
+     */
+    public String getSimpleName() {
+        return simpleName;
+    }
+    
+    /**
+     * Returns qualified name of represented class/interface/enum.
+     *
+     * @return qualified name of represented class/interface/enum
+     */
+    public String getName() {
+        return name;
+    }
+    
+    /**
+     * Returns methods defined in represented class/interface/enum.
+     *
+     * @return methods defined in represented class/interface/enum
+     */
+    public Collection<MethodInfo> getMethods() {
+        return new ArrayView<MethodInfo>(methods);
+    }
+    
+    /**
+     * Returns fields defined in represented class/interface/enum.
+     *
+     * @return fields defined in represented class/interface/enum
+     */
+    public Collection<FieldInfo> getFields() {
+        return new ArrayView<FieldInfo>(fields);
+    }
+    
+    /**
+     * Returns enum values of represented enum.
+     *
+     * @return enum values of represented enum or an empty collection if 
+     *         this is not an enum
+     */
+    public Collection<String> getEnumValues() {
+        return new ArrayView<String>(enumValues);
+    }
+    
+    /**
+     * Returns qualified names of all superclasses and interfaces which 
+     * represented class/interface/enum extends (or implements).
+     *
+     * @return qualified names of supertypes, an empty collection if there 
+     *         are none
+     */
+    public Collection<String> getSupertypes() {
+        return new ArrayView<String>(superTypes);
+    }
+    
+    /**
+     * Returns true if represented class/interface/enum is visible outside of
+     * the package in which it is defined.
+     *
+     * @return true if represented class/interface/enum is public
+     */
+    public boolean isPublic() {
+        return (flags & PUBLIC) != 0;
+    }
+    
+    /**
+     * Returns true if this represents a class.
+     *
+     * @return true if this represents a class
+     */
+    public boolean isClass() {
+        return (flags & CLASS) != 0;
+    }
+    
+    /**
+     * Returns true if this represents an interface.
+     *
+     * @return true if this represents an interface
+     */
+    public boolean isInterface() {
+        return (flags & INTERFACE) != 0;
+    }
+    
+    /**
+     * Returns true if this represents an enum.
+     *
+     * @return true if this represents an enum
+     */
+    public boolean isEnum() {
+        return (flags & ENUM) != 0;
+    }
+    
+    /**
+     * Returns true if this represents an abstract class.
+     *
+     * @return true if this represents an abstract class
+     */
+    public boolean isAbstract() {
+        return (flags & ABSTRACT) != 0;
+    }
+    
+    /**
+     * Returns false; a partial definition of a class is never compact.
+     *
+     * @return false
+     */
+    public boolean isPartial() {
+        return false;
+    }
+    
+    /**
+     * Returns the library from which this class/interface/enum was read or
+     * null if it was read directly from the inspected file.
+     *
+     * @return path of the originating library within the inspected file
+     */
+    public String getOrigin() {
+        return origin;
+    }
+    
+    /**
+     * Throws UnsupportedOperationException, because this is not a partial
+     * definition of a class.
+     *
+     * @param arg partial class to be merged
+     * @throws UnsupportedOperationException always
+     */
+    public void merge(UnitInfo arg) throws IllegalArgumentException, UnsupportedOperationException {
+        throw new UnsupportedOperationException();
+    }
+    
+    /**
+     * Returns interned <code>names</code> in an array.
+     */
+    private static String[] internAll(Collection<String> names, SymbolTable symbols) {
+        if(names.isEmpty())
+            return noNames;
+        String[] result = new String[names.size()];
+        int i = 0;
+        for(String str : names)
+            result[i++] = symbols.intern(str);
+        return result;
+    }
+}
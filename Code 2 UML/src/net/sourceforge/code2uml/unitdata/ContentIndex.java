@@ -0,0 +1,164 @@
+/*
+ * ContentIndex.java
+ *
+ * Created on 17 October 2026, 23:55
+ *
+ * Copyright 2026 Code2Uml contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.sourceforge.code2uml.unitdata;
+
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.zip.CRC32;
+import net.sourceforge.code2uml.util.CacheStatistics;
+
+/**
+ * Remembers classes/interfaces/enums read during one retrieval by the 
+ * content they were read from, so that a class which is present in several
+ * files (a utility .jar copied into many directories, a library bundled in
+ * many fat jars) is parsed only once. Content is identified by a key made
+ * of its size and checksum - CRC of a .jar entry, which is stored in .jar's
+ * central directory, or CRC of a loose .class file - so it can be checked
+ * before the class is parsed, or for a .jar entry, even before it is 
+ * inflated. The key also holds the name of the file or entry without its
+ * directory, which is the same wherever the class is placed, so a class 
+ * from a directory (such as target/classes) matches the same class in a
+ * .jar. <br/><br/>
+ *
+ * Different content may have the same key (CRC-32 is not a cryptographic
+ * hash), so inspectors use a unit found in the index only if its name is
+ * this_class of the content, which they read without parsing the rest of
+ * it. Otherwise the content is parsed and its unit is not shared.
+ * <br/><br/>
+ *
+ * Units found in the index are shared by all files they were found in. An
+ * index is passed to inspectors through ParseOptions, so units are shared 
+ * only between files read with the same options. All methods are thread
+ * safe.
+ *
+ * @author Code2Uml contributors
+ */
+public class ContentIndex {
+    
+    private ConcurrentMap<String, UnitInfo> units = new ConcurrentHashMap<String, UnitInfo>();
+    private CacheStatistics statistics = new CacheStatistics();
+    private volatile boolean closed;
+    
+    /**
+     * Creates a new, empty instance of ContentIndex.
+     */
+    public ContentIndex() {
+    }
+    
+    /**
+     * Returns key identifying content of a .class file or a .jar entry. Only
+     * the last element of <code>path</code> is used, so the key doesn't 
+     * depend on where the content is placed. Units are assigned their origin
+     * when they are read, so content of a nested .jar matches only content 
+     * of a .jar nested at the same path.
+     *
+     * @param origin origin of units read from the content (see 
+     *        UnitInfo.getOrigin()) or null
+     * @param path path of the entry or the file; '/' and the platform's
+     *        separator both separate its elements
+     * @param size size of the entry or file
+     * @param checksum CRC of the entry or the file (see checksum())
+     * @return key of that content
+     */
+    public static String key(String origin, String path, long size, long checksum) {
+        int begin = Math.max(path.lastIndexOf('/'), path.lastIndexOf(File.separatorChar)) + 1;
+        String name = path.substring(begin);
+        if(origin != null)
+            name = origin + "!/" + name;
+        return name + ':' + size + ':' + Long.toHexString(checksum);
+    }
+    
+    /**
+     * Computes checksum of contents of a loose .class file, the same kind
+     * of checksum which .jar files store for their entries (CRC-32).
+     *
+     * @param data contents of the file, from its position to its limit;
+     *        the position is not changed
+     * @return CRC-32 of the contents
+     */
+    public static long checksum(ByteBuffer data) {
+        CRC32 crc = new CRC32();
+        crc.update(data.duplicate());
+        return crc.getValue();
+    }
+    
+    /**
+     * Returns unit read from content with given key.
+     *
+     * @param key key of the content (see key())
+     * @return unit read from that content or null if it hasn't been read yet
+     */
+    public UnitInfo get(String key) {
+        UnitInfo unit = units.get(key);
+        if(unit == null)
+            statistics.recordMiss();
+        else
+            statistics.recordHit();
+        return unit;
+    }
+    
+    /**
+     * Remembers unit read from content with given key, unless another 
+     * thread has remembered one before.
+     *
+     * @param key key of the content (see key())
+     * @param unit unit read from that content
+     * @return unit which should be used: <code>unit</code> or the one
+     *         remembered before
+     */
+    public UnitInfo put(String key, UnitInfo unit) {
+        if(closed || unit == null)
+            return unit;
+        UnitInfo existing = units.putIfAbsent(key, unit);
+        return existing != null? existing : unit;
+    }
+    
+    /**
+     * Forgets all units and stops remembering new ones, so that units which
+     * are no longer needed on the heap (for example after they are moved to
+     * a MappedUnitStore) are not kept by this index.
+     */
+    public void close() {
+        closed = true;
+        units.clear();
+    }
+    
+    /**
+     * Returns number of remembered units.
+     *
+     * @return number of remembered units
+     */
+    public int size() {
+        return units.size();
+    }
+    
+    /**
+     * Returns statistics of lookups; a hit means that a class has not been
+     * parsed because the same content had been parsed before.
+     *
+     * @return statistics of this index
+     */
+    public CacheStatistics getStatistics() {
+        return statistics;
+    }
+}
@@ -0,0 +1,260 @@
+/*
+ * LazyUnitInfo.java
+ *
+ * Created on 17 October 2026, 20:40
+ *
+ * Copyright 2026 Code2Uml contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.sourceforge.code2uml.unitdata;
+
+import java.util.Collection;
+
+/**
+ * Represents a class, an interface or an enum whose name, flags and
+ * supertypes are known but whose members (fields, methods and enum values)
+ * are read from a UnitSource only when one of getFields(), getMethods() or
+ * getEnumValues() is called for the first time. Until then it holds little
+ * more than its name, so diagrams which don't show members (or show them
+ * only for some units) don't keep members of all units in memory. 
+ * <br/><br/>
+ *
+ * Name, flags and supertypes are kept in a CompactUnitInfo. If the source 
+ * can't be read any more (its file has changed since it was inspected or 
+ * it can't be read or parsed), getFields(), getMethods() and 
+ * getEnumValues() throw an IllegalStateException rather than pretend that
+ * the unit has no members; they try to read the source again when they are
+ * called again. <br/><br/>
+ *
+ * The source keeps only where members can be read from, not the data 
+ * itself: a source of a .jar entry remembers the entry's position in the
+ * file and opens the file again when members are read, so the .jar is 
+ * neither mapped nor locked while such units (for example of an open 
+ * diagram) exist. <br/><br/>
+ *
+ * Methods of this class may be called by many threads at the same time.
+ *
+ * @author Code2Uml contributors
+ */
+public class LazyUnitInfo implements UnitInfo {
+    
+    /**
+     * Compact copy of the unit without members.
+     */
+    private UnitInfo header;
+    
+    /**
+     * Where members are read from; null once they are read.
+     */
+    private UnitSource source;
+    
+    /**
+     * The unit read from source, holding members; null until they are read.
+     */
+    private UnitInfo members;
+    
+    /**
+     * Creates a new instance of LazyUnitInfo.
+     *
+     * @param header class/interface/enum whose name, flags, supertypes and 
+     *        origin are copied; its members are ignored
+     * @param source source from which members will be read
+     */
+    public LazyUnitInfo(UnitInfo header, UnitSource source) {
+        this.header = CompactUnitInfo.compact(header);
+        this.source = source;
+    }
+    
+    /**
+     * Returns unqualified name of represented class/interface/enum.
+     *
+     * @return unqualified name of represented class/interface/enum
+     */
+    public String getSimpleName() {
+        return header.getSimpleName();
+    }
+    
+    /**
+     * Returns qualified name of represented class/interface/enum.
+     *
+     * @return qualified name of represented class/interface/enum
+     */
+    public String getName() {
+        return header.getName();
+    }
+    
+    /**
+     * Returns methods defined in represented class/interface/enum. Reads 
+     * members if they have not been read yet.
+     *
+     * @return methods defined in represented class/interface/enum
+     * @throws IllegalStateException if members can't be read
+     */
+    public Collection<MethodInfo> getMethods() throws IllegalStateException {
+        return load().getMethods();
+    }
+    
+    /**
+     * Returns fields defined in represented class/interface/enum. Reads 
+     * members if they have not been read yet.
+     *
+     * @return fields defined in represented class/interface/enum
+     * @throws IllegalStateException if members can't be read
+     */
+    public Collection<FieldInfo> getFields() throws IllegalStateException {
+        return load().getFields();
+    }
+    
+    /**
+     * Returns values of represented enum. Reads members if they have not 
+     * been read yet.
+     *
+     * @return values of represented enum
+     * @throws IllegalStateException if members can't be read
+     */
+    public Collection<String> getEnumValues() throws IllegalStateException {
+        return load().getEnumValues();
+    }
+    
+    /**
+     * Returns qualified names of represented class/interface/enum's
+     * supertypes.
+     *
+     * @return qualified names of supertypes
+     */
+    public Collection<String> getSupertypes() {
+        return header.getSupertypes();
+    }
+    
+    /**
+     * Returns true if represented class/interface/enum is public.
+     *
+     * @return true if represented class/interface/enum is public
+     */
+    public boolean isPublic() {
+        return header.isPublic();
+    }
+    
+    /**
+     * Returns true if this represents a class.
+     *
+     * @return true if this represents a class
+     */
+    public boolean isClass() {
+        return header.isClass();
+    }
+    
+    /**
+     * Returns true if this represents an interface.
+     *
+     * @return true if this represents an interface
+     */
+    public boolean isInterface() {
+        return header.isInterface();
+    }
+    
+    /**
+     * Returns true if this represents an enum.
+     *
+     * @return true if this represents an enum
+     */
+    public boolean isEnum() {
+        return header.isEnum();
+    }
+    
+    /**
+     * Returns true if this represents an abstract class.
+     *
+     * @return true if this represents an abstract class
+     */
+    public boolean isAbstract() {
+        return header.isAbstract();
+    }
+    
+    /**
+     * Returns false; a lazily read unit is never a partial definition.
+     *
+     * @return false
+     */
+    public boolean isPartial() {
+        return false;
+    }
+    
+    /**
+     * Returns the library from which this class/interface/enum was read (see
+     * UnitInfo.getOrigin()).
+     *
+     * @return path of the originating library within the inspected file
+     */
+    public String getOrigin() {
+        return header.getOrigin();
+    }
+    
+    /**
+     * Throws UnsupportedOperationException, because this is not a partial
+     * definition of a class.
+     *
+     * @param arg partial class to be merged
+     * @throws UnsupportedOperationException always
+     */
+    public void merge(UnitInfo arg) throws IllegalArgumentException, UnsupportedOperationException {
+        throw new UnsupportedOperationException();
+    }
+    
+    /**
+     * Returns true if members of this unit have been read.
+     *
+     * @return true if members have been read
+     */
+    public synchronized boolean isLoaded() {
+        return members != null;
+    }
+    
+    /**
+     * Returns the complete class/interface/enum. If members of this unit have
+     * not been read yet, they are read from the source but not kept, so this
+     * unit stays small. Used to write units somewhere else, for example to
+     * a MappedUnitStore.
+     *
+     * @return the complete class/interface/enum or null if the source can't
+     *         be read any more
+     */
+    public UnitInfo decode() {
+        UnitSource src;
+        synchronized(this) {
+            if(members != null)
+                return members;
+            src = source;
+        }
+        return src.read();
+    }
+    
+    /**
+     * Returns the unit holding members, reading it if necessary.
+     *
+     * @throws IllegalStateException if the source can't be read
+     */
+    private synchronized UnitInfo load() throws IllegalStateException {
+        if(members == null) {
+            UnitInfo unit = source.read();
+            if(unit == null)
+                throw new IllegalStateException("members of " + header.getName() + 
+                        " can't be read, its file may have changed since it was inspected");
+            members = unit;
+            source = null;
+        }
+        return members;
+    }
+}
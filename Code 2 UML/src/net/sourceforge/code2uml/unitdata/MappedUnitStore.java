@@ -0,0 +1,595 @@
+/*
+ * MappedUnitStore.java
+ *
+ * Created on 17 October 2026, 22:10
+ *
+ * Copyright 2026 Code2Uml contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.sourceforge.code2uml.unitdata;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.util.AbstractCollection;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * Collection of classes/interfaces/enums kept outside of the Java heap. 
+ * Units added to it are written to a temporary file; once the store is 
+ * sealed (which happens before it is first iterated) the file is 
+ * memory-mapped and iteration returns flyweight UnitInfos which read
+ * their names and members from the mapping each time they are asked for 
+ * them. Nothing read from the store is kept by it, so heap usage doesn't
+ * grow with number of stored units, apart from an index of 12 bytes per
+ * unit. <br/><br/>
+ *
+ * Like UnitsRetriever's result, a store contains at most one unit with
+ * each qualified name: add() ignores a unit whose name is already stored,
+ * but merges partial definitions of a class (which are kept on the heap,
+ * because they change). <br/><br/>
+ *
+ * The file is deleted as soon as it is mapped (or when JVM exits, if the
+ * system doesn't allow deleting a mapped file); the mapping is released 
+ * when the store and all units read from it are garbage collected. The 
+ * store holds at most 2 GB of units. It may be filled by one thread only, 
+ * but once sealed it may be read by many threads.
+ *
+ * @author Code2Uml contributors
+ */
+public class MappedUnitStore extends AbstractCollection<UnitInfo> {
+    
+    private static final int MAGIC = 0xC0DE2C53;
+    
+    private static final int PUBLIC = 0x01;
+    private static final int CLASS = 0x02;
+    private static final int INTERFACE = 0x04;
+    private static final int ENUM = 0x08;
+    private static final int ABSTRACT = 0x10;
+    
+    /**
+     * Number of strings whose offsets are remembered, so that they are not
+     * written again. Names of common types are repeated all the time, so a
+     * small cache of recently used strings finds most of them.
+     */
+    private static final int stringCacheSize = 16 * 1024;
+    
+    private static final AccessType[] accessTypes = AccessType.values();
+    
+    private File file;
+    private FileChannel channel;
+    private DataOutputStream out;
+    
+    /**
+     * Buffer in which a unit is written before it is appended to the file;
+     * strings it refers to are appended first.
+     */
+    private ByteArrayOutputStream recordBytes = new ByteArrayOutputStream(1024);
+    private DataOutputStream record = new DataOutputStream(recordBytes);
+    
+    /**
+     * Offsets of recently written strings.
+     */
+    private Map<String, Integer> strings = new LinkedHashMap<String, Integer>(stringCacheSize, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Integer> eldest) {
+            return size() > stringCacheSize;
+        }
+    };
+    
+    /**
+     * Offsets of stored units, in the order they were added.
+     */
+    private int[] records = new int[1024];
+    private int count;
+    
+    /**
+     * Open-addressing hash table of stored units' names: numbers of units
+     * (plus one, zero marks an empty slot) and hash codes of their names.
+     */
+    private int[] table = new int[2048];
+    private int[] hashes = new int[2048];
+    
+    /**
+     * Partial definitions of classes, by their names.
+     */
+    private Map<String, UnitInfo> partials = new HashMap<String, UnitInfo>();
+    private List<UnitInfo> partialList = new ArrayList<UnitInfo>();
+    
+    private ByteBuffer data;
+    
+    /**
+     * Creates a new, empty instance of MappedUnitStore which keeps units in
+     * a new temporary file.
+     *
+     * @throws IOException if the file can't be created
+     */
+    public MappedUnitStore() throws IOException {
+        file = File.createTempFile("code2uml", ".units");
+        file.deleteOnExit();
+        channel = new RandomAccessFile(file, "rw").getChannel();
+        out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel), 64 * 1024));
+        // offset 0 refers to null
+        out.writeInt(MAGIC);
+    }
+    
+    /**
+     * Adds a class/interface/enum to this store, unless a unit with the same
+     * name is already stored. If both units are partial, they are merged.
+     *
+     * @param unit class/interface/enum to add
+     * @return true if <code>unit</code> was added
+     * @throws IllegalStateException if this store has been sealed or if 
+     *         <code>unit</code> is a LazyUnitInfo whose members can't be read
+     * @throws UncheckedIOException if an I/O error occurs
+     */
+    public boolean add(UnitInfo unit) {
+        if(out == null)
+            throw new IllegalStateException("store is sealed");
+        try {
+            String name = unit.getName();
+            UnitInfo partial = partials.get(name);
+            if(partial != null) {
+                if(unit.isPartial())
+                    partial.merge(unit);
+                return false;
+            }
+            int hash = name.hashCode();
+            if(find(name, hash) >= 0)
+                return false;
+            if(unit.isPartial()) {
+                partials.put(name, unit);
+                partialList.add(unit);
+                return true;
+            }
+            if(unit instanceof LazyUnitInfo) {
+                // members are written without being kept by the lazy unit
+                UnitInfo decoded = ((LazyUnitInfo) unit).decode();
+                if(decoded == null)
+                    throw new IllegalStateException("members of " + name + " can't be read");
+                unit = decoded;
+            }
+            insert(hash, write(unit));
+            return true;
+        } catch(IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+    
+    /**
+     * Returns number of stored classes/interfaces/enums.
+     *
+     * @return number of stored classes/interfaces/enums
+     */
+    public int size() {
+        return count + partialList.size();
+    }
+    
+    /**
+     * Returns an iterator over stored classes/interfaces/enums, in the order
+     * they were added (partial definitions of classes last). Seals this 
+     * store if it is not sealed yet.
+     *
+     * @return an iterator over stored classes/interfaces/enums
+     * @throws UncheckedIOException if the store can't be sealed
+     */
+    public Iterator<UnitInfo> iterator() {
+        try {
+            seal();
+        } catch(IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        return new Iterator<UnitInfo>() {
+            private int next = 0;
+            
+            public boolean hasNext() {
+                return next < size();
+            }
+            
+            public UnitInfo next() {
+                if(!hasNext())
+                    throw new NoSuchElementException();
+                int i = next++;
+                if(i < count)
+                    return new MappedUnitInfo(data, records[i]);
+                return partialList.get(i - count);
+            }
+            
+            public void remove() {
+                throw new UnsupportedOperationException();
+            }
+        };
+    }
+    
+    /**
+     * Finishes writing this store and maps its file. Nothing can be added
+     * after that. Does nothing if the store is already sealed.
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    public void seal() throws IOException {
+        if(out == null)
+            return;
+        try {
+            out.flush();
+            data = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        } finally {
+            out = null;
+            strings = null;
+            table = null;
+            hashes = null;
+            channel.close();
+            if(!file.delete())
+                file.deleteOnExit();
+        }
+    }
+    
+    /**
+     * Writes a unit and strings it refers to.
+     *
+     * @return offset of the unit
+     */
+    private int write(UnitInfo unit) throws IOException {
+        recordBytes.reset();
+        record.writeInt(writeString(unit.getName()));
+        record.writeInt(writeString(unit.getSimpleName()));
+        record.writeInt(writeString(unit.getOrigin()));
+        int flags = 0;
+        if(unit.isPublic())
+            flags |= PUBLIC;
+        if(unit.isClass())
+            flags |= CLASS;
+        if(unit.isInterface())
+            flags |= INTERFACE;
+        if(unit.isEnum())
+            flags |= ENUM;
+        if(unit.isAbstract())
+            flags |= ABSTRACT;
+        record.writeByte(flags);
+        writeStrings(unit.getSupertypes());
+        writeStrings(unit.getEnumValues());
+        
+        Collection<FieldInfo> fields = unit.getFields();
+        record.writeShort(fields.size());
+        for(FieldInfo field : fields) {
+            record.writeInt(writeString(field.getName()));
+            record.writeInt(writeString(field.getTypeName()));
+            flags = field.getAccessType().ordinal();
+            if(field.isStatic())
+                flags |= CompactFieldInfo.STATIC;
+            if(field.isFinal())
+                flags |= CompactFieldInfo.FINAL;
+            record.writeByte(flags);
+        }
+        
+        Collection<MethodInfo> methods = unit.getMethods();
+        record.writeShort(methods.size());
+        for(MethodInfo method : methods) {
+            record.writeInt(writeString(method.getName()));
+            record.writeInt(writeString(method.getReturnTypeName()));
+            flags = method.getAccessType().ordinal();
+            if(method.isStatic())
+                flags |= CompactMethodInfo.STATIC;
+            if(method.isAbstract())
+                flags |= CompactMethodInfo.ABSTRACT;
+            record.writeByte(flags);
+            List<String> arguments = method.getArguments();
+            if(arguments == null) {
+                record.writeShort(0xFFFF);
+            } else {
+                record.writeShort(arguments.size());
+                for(String argument : arguments)
+                    record.writeInt(writeString(argument));
+            }
+        }
+        
+        int offset = position();
+        recordBytes.writeTo(out);
+        position();
+        return offset;
+    }
+    
+    /**
+     * Appends number and offsets of <code>strs</code> to the current record.
+     */
+    private void writeStrings(Collection<String> strs) throws IOException {
+        record.writeShort(strs.size());
+        for(String str : strs)
+            record.writeInt(writeString(str));
+    }
+    
+    /**
+     * Writes a String unless it was written recently.
+     *
+     * @return offset of the String or 0 if it is null
+     */
+    private int writeString(String str) throws IOException {
+        if(str == null)
+            return 0;
+        Integer offset = strings.get(str);
+        if(offset != null)
+            return offset;
+        offset = position();
+        out.writeUTF(str);
+        strings.put(str, offset);
+        return offset;
+    }
+    
+    /**
+     * Returns number of bytes written so far.
+     *
+     * @throws IOException if the store has reached its maximum size
+     */
+    private int position() throws IOException {
+        int size = out.size();
+        if(size == Integer.MAX_VALUE)
+            throw new IOException("unit store is full");
+        return size;
+    }
+    
+    /**
+     * Returns number of the stored unit having given name or -1 if there is
+     * none.
+     */
+    private int find(String name, int hash) throws IOException {
+        int mask = table.length - 1;
+        for(int i = hash & mask; table[i] != 0; i = (i + 1) & mask) {
+            if(hashes[i] == hash && name.equals(readName(records[table[i] - 1])))
+                return table[i] - 1;
+        }
+        return -1;
+    }
+    
+    /**
+     * Remembers a unit written at <code>offset</code>, whose name has hash
+     * code <code>hash</code>.
+     */
+    private void insert(int hash, int offset) {
+        if(count == records.length) {
+            int[] larger = new int[count * 2];
+            System.arraycopy(records, 0, larger, 0, count);
+            records = larger;
+        }
+        records[count++] = offset;
+        if(count * 2 > table.length)
+            rehash();
+        putInTable(hash, count);
+    }
+    
+    /**
+     * Puts number of a unit (plus one) in the hash table.
+     */
+    private void putInTable(int hash, int number) {
+        int mask = table.length - 1;
+        int i = hash & mask;
+        while(table[i] != 0)
+            i = (i + 1) & mask;
+        table[i] = number;
+        hashes[i] = hash;
+    }
+    
+    /**
+     * Doubles size of the hash table.
+     */
+    private void rehash() {
+        int[] oldTable = table;
+        int[] oldHashes = hashes;
+        table = new int[oldTable.length * 2];
+        hashes = new int[oldTable.length * 2];
+        for(int i = 0; i < oldTable.length; i++) {
+            if(oldTable[i] != 0)
+                putInTable(oldHashes[i], oldTable[i]);
+        }
+    }
+    
+    /**
+     * Reads name of a unit from the file while it is being written. Used
+     * only when hash codes of names are equal.
+     */
+    private String readName(int offset) throws IOException {
+        out.flush();
+        ByteBuffer buffer = ByteBuffer.allocate(4);
+        readFully(buffer, offset);
+        int nameOffset = buffer.getInt(0);
+        buffer = ByteBuffer.allocate(2);
+        readFully(buffer, nameOffset);
+        buffer = ByteBuffer.allocate(2 + (buffer.getShort(0) & 0xFFFF));
+        readFully(buffer, nameOffset);
+        return decodeString(buffer, 0);
+    }
+    
+    /**
+     * Fills <code>buffer</code> with data of the file starting at <code>
+     * offset</code>.
+     */
+    private void readFully(ByteBuffer buffer, int offset) throws IOException {
+        while(buffer.hasRemaining()) {
+            if(channel.read(buffer, offset + buffer.position()) < 0)
+                throw new IOException("unexpected end of unit store");
+        }
+    }
+    
+    /**
+     * Reads a String written by DataOutput.writeUTF() (in modified UTF-8).
+     *
+     * @param data buffer to read from
+     * @param offset offset of the String or 0 for null
+     * @return read String or null
+     */
+    private static String readString(ByteBuffer data, int offset) {
+        return (offset != 0)? decodeString(data, offset) : null;
+    }
+    
+    /**
+     * Decodes a String written by DataOutput.writeUTF() at <code>offset
+     * </code>.
+     */
+    private static String decodeString(ByteBuffer data, int offset) {
+        int length = data.getShort(offset) & 0xFFFF;
+        char[] chars = new char[length];
+        int n = 0;
+        int end = offset + 2 + length;
+        for(int i = offset + 2; i < end; ) {
+            int b = data.get(i++) & 0xFF;
+            if(b < 0x80) {
+                chars[n++] = (char) b;
+            } else if((b & 0xE0) == 0xC0) {
+                chars[n++] = (char) (((b & 0x1F) << 6) | (data.get(i++) & 0x3F));
+            } else {
+                int b2 = data.get(i++) & 0x3F;
+                chars[n++] = (char) (((b & 0x0F) << 12) | (b2 << 6) | (data.get(i++) & 0x3F));
+            }
+        }
+        return new String(chars, 0, n);
+    }
+    
+    /**
+     * Reads number of strings and their offsets written by writeStrings().
+     *
+     * @return read strings
+     */
+    private static String[] readStrings(ByteBuffer data, int offset) {
+        String[] result = new String[data.getShort(offset) & 0xFFFF];
+        for(int i = 0; i < result.length; i++)
+            result[i] = readString(data, data.getInt(offset + 2 + 4 * i));
+        return result;
+    }
+    
+    /**
+     * Class/interface/enum read from a sealed store. It keeps only offset of
+     * its record; everything else is read from the mapping when it is asked
+     * for, so it should not be queried repeatedly in a tight loop.
+     */
+    private static class MappedUnitInfo implements UnitInfo {
+        
+        private ByteBuffer data;
+        private int offset;
+        
+        MappedUnitInfo(ByteBuffer data, int offset) {
+            this.data = data;
+            this.offset = offset;
+        }
+        
+        public String getName() {
+            return readString(data, data.getInt(offset));
+        }
+        
+        public String getSimpleName() {
+            return readString(data, data.getInt(offset + 4));
+        }
+        
+        public String getOrigin() {
+            return readString(data, data.getInt(offset + 8));
+        }
+        
+        public boolean isPublic() {
+            return (data.get(offset + 12) & PUBLIC) != 0;
+        }
+        
+        public boolean isClass() {
+            return (data.get(offset + 12) & CLASS) != 0;
+        }
+        
+        public boolean isInterface() {
+            return (data.get(offset + 12) & INTERFACE) != 0;
+        }
+        
+        public boolean isEnum() {
+            return (data.get(offset + 12) & ENUM) != 0;
+        }
+        
+        public boolean isAbstract() {
+            return (data.get(offset + 12) & ABSTRACT) != 0;
+        }
+        
+        public boolean isPartial() {
+            return false;
+        }
+        
+        public Collection<String> getSupertypes() {
+            return new ArrayView<String>(readStrings(data, superTypesOffset()));
+        }
+        
+        public Collection<String> getEnumValues() {
+            return new ArrayView<String>(readStrings(data, enumValuesOffset()));
+        }
+        
+        public Collection<FieldInfo> getFields() {
+            int pos = fieldsOffset();
+            FieldInfo[] fields = new FieldInfo[data.getShort(pos) & 0xFFFF];
+            pos += 2;
+            for(int i = 0; i < fields.length; i++) {
+                fields[i] = new CompactFieldInfo(readString(data, data.getInt(pos)), 
+                        readString(data, data.getInt(pos + 4)), data.get(pos + 8) & 0xFF);
+                pos += 9;
+            }
+            return new ArrayView<FieldInfo>(fields);
+        }
+        
+        public Collection<MethodInfo> getMethods() {
+            int pos = fieldsOffset();
+            pos += 2 + 9 * (data.getShort(pos) & 0xFFFF);
+            MethodInfo[] methods = new MethodInfo[data.getShort(pos) & 0xFFFF];
+            pos += 2;
+            for(int i = 0; i < methods.length; i++) {
+                String name = readString(data, data.getInt(pos));
+                String returnTypeName = readString(data, data.getInt(pos + 4));
+                int flags = data.get(pos + 8) & 0xFF;
+                int n = data.getShort(pos + 9) & 0xFFFF;
+                pos += 11;
+                String[] arguments = null;
+                if(n != 0xFFFF) {
+                    arguments = new String[n];
+                    for(int j = 0; j < n; j++, pos += 4)
+                        arguments[j] = readString(data, data.getInt(pos));
+                }
+                methods[i] = new CompactMethodInfo(name, returnTypeName, arguments, flags);
+            }
+            return new ArrayView<MethodInfo>(methods);
+        }
+        
+        public void merge(UnitInfo arg) throws IllegalArgumentException, UnsupportedOperationException {
+            throw new UnsupportedOperationException();
+        }
+        
+        private int superTypesOffset() {
+            return offset + 13;
+        }
+        
+        private int enumValuesOffset() {
+            int pos = superTypesOffset();
+            return pos + 2 + 4 * (data.getShort(pos) & 0xFFFF);
+        }
+        
+        private int fieldsOffset() {
+            int pos = enumValuesOffset();
+            return pos + 2 + 4 * (data.getShort(pos) & 0xFFFF);
+        }
+    }
+}
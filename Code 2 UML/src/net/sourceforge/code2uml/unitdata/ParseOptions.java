@@ -0,0 +1,487 @@
+/*
+ * ParseOptions.java
+ *
+ * Created on 17 October 2026, 19:40
+ *
+ * Copyright 2026 Code2Uml contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.sourceforge.code2uml.unitdata;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Tells a FileInspector which parts of classes/interfaces/enums it has to
+ * read. An inspector given ParseOptions may skip classes/interfaces/enums,
+ * fields and methods which would not be shown on the diagram anyway, and
+ * it doesn't have to decode types of skipped members. <br/><br/>
+ *
+ * A newly created instance asks for everything (see isFull()). Units read
+ * with other options are incomplete: they may be used only to create a 
+ * diagram whose settings need no more than these options ask for (see 
+ * covers()), so a UnitCache remembers with which options it stored them.
+ * <br/><br/>
+ *
+ * Independently of what is read, members may be deferred: an inspector
+ * then reads only names, flags and supertypes and returns LazyUnitInfos,
+ * which read their members when they are first needed.
+ *
+ * @author Code2Uml contributors
+ */
+public class ParseOptions {
+
+    /**
+     * Number of boolean flags in a mask returned by getReadMask(); bits of
+     * access types follow them.
+     */
+    private static final int FLAG_COUNT = 8;
+
+    /**
+     * Mask of options which ask for everything.
+     */
+    static final int FULL_MASK = (1 << (FLAG_COUNT + AccessType.values().length)) - 1;
+
+    private boolean nonpublicUnitsRead = true;
+    private boolean fieldsRead = true;
+    private boolean associationsRead = true;
+    private boolean enumValuesRead = true;
+    private boolean methodsRead = true;
+    private boolean argumentsRead = true;
+    private boolean staticRead = true;
+    private boolean finalRead = true;
+    private Set<AccessType> accessTypesRead = EnumSet.allOf(AccessType.class);
+    private boolean membersDeferred;
+    private ContentIndex contentIndex;
+    private SymbolTable symbolTable;
+    private ParseOptions memberOptions;
+
+    /**
+     * Creates a new instance of ParseOptions which asks for everything.
+     */
+    public ParseOptions() {
+    }
+
+    /**
+     * Creates a new instance of ParseOptions which asks for the same as
+     * <code>options</code>.
+     *
+     * @param options options to copy
+     */
+    public ParseOptions(ParseOptions options) {
+        nonpublicUnitsRead = options.nonpublicUnitsRead;
+        fieldsRead = options.fieldsRead;
+        associationsRead = options.associationsRead;
+        enumValuesRead = options.enumValuesRead;
+        methodsRead = options.methodsRead;
+        argumentsRead = options.argumentsRead;
+        staticRead = options.staticRead;
+        finalRead = options.finalRead;
+        accessTypesRead = EnumSet.copyOf(options.accessTypesRead);
+        membersDeferred = options.membersDeferred;
+        contentIndex = options.contentIndex;
+        symbolTable = options.symbolTable;
+    }
+
+    /**
+     * Returns true if this asks for everything, that is if units read with
+     * these options are the same as units read without any options (their
+     * members may be deferred, but they are not skipped).
+     *
+     * @return true if nothing is skipped with these options
+     */
+    public boolean isFull() {
+        return nonpublicUnitsRead && fieldsRead && associationsRead &&
+               enumValuesRead && methodsRead && argumentsRead && staticRead &&
+               finalRead && accessTypesRead.size() == AccessType.values().length;
+    }
+
+    /**
+     * Returns true if these options ask for everything <code>options</code>
+     * ask for, so that units read with these options may be used wherever
+     * units read with <code>options</code> may. Deferral of members, the
+     * ContentIndex and the SymbolTable don't matter.
+     *
+     * @param options options to compare with; null asks for everything
+     * @return true if these options skip nothing that <code>options</code>
+     *         ask for
+     */
+    public boolean covers(ParseOptions options) {
+        int mask = getReadMask(options);
+        return (getReadMask(this) & mask) == mask;
+    }
+
+    /**
+     * Returns what <code>options</code> ask for as a bit mask, one bit per
+     * flag and access type, to be stored with units read with them.
+     *
+     * @param options options or null, which asks for everything
+     * @return bits of parts of units which are read
+     */
+    static int getReadMask(ParseOptions options) {
+        if(options == null)
+            return FULL_MASK;
+        int mask = 0;
+        boolean[] flags = {options.nonpublicUnitsRead, options.fieldsRead, 
+                           options.associationsRead, options.enumValuesRead, 
+                           options.methodsRead, options.argumentsRead, 
+                           options.staticRead, options.finalRead};
+        for(int i = 0; i < flags.length; i++) {
+            if(flags[i])
+                mask |= 1 << i;
+        }
+        for(AccessType accessType : options.accessTypesRead)
+            mask |= 1 << (FLAG_COUNT + accessType.ordinal());
+        return mask;
+    }
+
+    /**
+     * Returns options which ask for parts of units given by a mask returned
+     * by getReadMask().
+     *
+     * @param mask bits of parts of units which are read
+     * @return new options asking for those parts
+     */
+    static ParseOptions fromReadMask(int mask) {
+        ParseOptions options = new ParseOptions();
+        options.nonpublicUnitsRead = (mask & 1) != 0;
+        options.fieldsRead = (mask & 1 << 1) != 0;
+        options.associationsRead = (mask & 1 << 2) != 0;
+        options.enumValuesRead = (mask & 1 << 3) != 0;
+        options.methodsRead = (mask & 1 << 4) != 0;
+        options.argumentsRead = (mask & 1 << 5) != 0;
+        options.staticRead = (mask & 1 << 6) != 0;
+        options.finalRead = (mask & 1 << 7) != 0;
+        for(AccessType accessType : AccessType.values()) {
+            if((mask & 1 << (FLAG_COUNT + accessType.ordinal())) == 0)
+                options.accessTypesRead.remove(accessType);
+        }
+        return options;
+    }
+
+    /**
+     * Returns true if a class/interface/enum should be read.
+     *
+     * @param isPublic true if it is public
+     * @return true if it should be read
+     */
+    public boolean isUnitRead(boolean isPublic) {
+        return isPublic || nonpublicUnitsRead;
+    }
+
+    /**
+     * Returns true if any fields (apart from enum values) should be read.
+     *
+     * @return true if any fields should be read
+     */
+    public boolean isAnyFieldRead() {
+        return fieldsRead || associationsRead;
+    }
+
+    /**
+     * Returns true if a field having given modifiers should be read. A
+     * field is read if it will be shown on the diagram or if it is not
+     * static and "has a" relationships are read.
+     *
+     * @param accessType access type of the field
+     * @param isStatic true if the field is static
+     * @param isFinal true if the field is final
+     * @return true if the field should be read
+     */
+    public boolean isFieldRead(AccessType accessType, boolean isStatic, boolean isFinal) {
+        if(associationsRead && !isStatic)
+            return true;
+        return fieldsRead && accessTypesRead.contains(accessType) &&
+               (!isStatic || staticRead) && (!isFinal || finalRead);
+    }
+
+    /**
+     * Returns true if a method having given modifiers should be read.
+     *
+     * @param accessType access type of the method
+     * @param isStatic true if the method is static
+     * @return true if the method should be read
+     */
+    public boolean isMethodRead(AccessType accessType, boolean isStatic) {
+        return methodsRead && accessTypesRead.contains(accessType) &&
+               (!isStatic || staticRead);
+    }
+
+    /**
+     * Returns true if classes/interfaces/enums which are not public should
+     * be read.
+     *
+     * @return true if nonpublic units should be read
+     */
+    public boolean isNonpublicUnitsRead() {
+        return nonpublicUnitsRead;
+    }
+
+    /**
+     * Sets whether classes/interfaces/enums which are not public should be
+     * read.
+     *
+     * @param nonpublicUnitsRead true if nonpublic units should be read
+     */
+    public void setNonpublicUnitsRead(boolean nonpublicUnitsRead) {
+        this.nonpublicUnitsRead = nonpublicUnitsRead;
+        memberOptions = null;
+    }
+
+    /**
+     * Returns true if fields shown on the diagram should be read.
+     *
+     * @return true if fields should be read
+     */
+    public boolean isFieldsRead() {
+        return fieldsRead;
+    }
+
+    /**
+     * Sets whether fields shown on the diagram should be read.
+     *
+     * @param fieldsRead true if fields should be read
+     */
+    public void setFieldsRead(boolean fieldsRead) {
+        this.fieldsRead = fieldsRead;
+        memberOptions = null;
+    }
+
+    /**
+     * Returns true if all fields which are not static should be read,
+     * because "has a" relationships are created from them.
+     *
+     * @return true if fields needed for "has a" relationships should be read
+     */
+    public boolean isAssociationsRead() {
+        return associationsRead;
+    }
+
+    /**
+     * Sets whether all fields which are not static should be read.
+     *
+     * @param associationsRead true if fields needed for "has a"
+     *        relationships should be read
+     */
+    public void setAssociationsRead(boolean associationsRead) {
+        this.associationsRead = associationsRead;
+        memberOptions = null;
+    }
+
+    /**
+     * Returns true if enum values should be read.
+     *
+     * @return true if enum values should be read
+     */
+    public boolean isEnumValuesRead() {
+        return enumValuesRead;
+    }
+
+    /**
+     * Sets whether enum values should be read.
+     *
+     * @param enumValuesRead true if enum values should be read
+     */
+    public void setEnumValuesRead(boolean enumValuesRead) {
+        this.enumValuesRead = enumValuesRead;
+        memberOptions = null;
+    }
+
+    /**
+     * Returns true if methods should be read.
+     *
+     * @return true if methods should be read
+     */
+    public boolean isMethodsRead() {
+        return methodsRead;
+    }
+
+    /**
+     * Sets whether methods should be read.
+     *
+     * @param methodsRead true if methods should be read
+     */
+    public void setMethodsRead(boolean methodsRead) {
+        this.methodsRead = methodsRead;
+        memberOptions = null;
+    }
+
+    /**
+     * Returns true if methods' arguments should be read. If they are not,
+     * MethodInfo.getArguments() of read methods returns null.
+     *
+     * @return true if methods' arguments should be read
+     */
+    public boolean isArgumentsRead() {
+        return argumentsRead;
+    }
+
+    /**
+     * Sets whether methods' arguments should be read.
+     *
+     * @param argumentsRead true if methods' arguments should be read
+     */
+    public void setArgumentsRead(boolean argumentsRead) {
+        this.argumentsRead = argumentsRead;
+        memberOptions = null;
+    }
+
+    /**
+     * Returns true if static members should be read.
+     *
+     * @return true if static members should be read
+     */
+    public boolean isStaticRead() {
+        return staticRead;
+    }
+
+    /**
+     * Sets whether static members should be read.
+     *
+     * @param staticRead true if static members should be read
+     */
+    public void setStaticRead(boolean staticRead) {
+        this.staticRead = staticRead;
+        memberOptions = null;
+    }
+
+    /**
+     * Returns true if final fields should be read.
+     *
+     * @return true if final fields should be read
+     */
+    public boolean isFinalRead() {
+        return finalRead;
+    }
+
+    /**
+     * Sets whether final fields should be read.
+     *
+     * @param finalRead true if final fields should be read
+     */
+    public void setFinalRead(boolean finalRead) {
+        this.finalRead = finalRead;
+        memberOptions = null;
+    }
+
+    /**
+     * Returns true if members with given access type should be read.
+     *
+     * @param accessType access type of members
+     * @return true if members with that access type should be read
+     */
+    public boolean isAccessTypeRead(AccessType accessType) {
+        return accessTypesRead.contains(accessType);
+    }
+
+    /**
+     * Sets whether members with given access type should be read.
+     *
+     * @param accessType access type of members
+     * @param read true if members with that access type should be read
+     */
+    public void setAccessTypeRead(AccessType accessType, boolean read) {
+        if(read)
+            accessTypesRead.add(accessType);
+        else
+            accessTypesRead.remove(accessType);
+        memberOptions = null;
+    }
+
+    /**
+     * Returns options which ask for the same parts of units as these, but
+     * don't defer members and have neither a ContentIndex nor a SymbolTable.
+     * They are kept by units whose members are read later (see LazyUnitInfo),
+     * which must not keep the index and names of the whole retrieval 
+     * reachable. The same instance is returned until what these options ask
+     * for is changed.
+     *
+     * @return options to read deferred members with
+     */
+    public synchronized ParseOptions getMemberOptions() {
+        if(memberOptions == null) {
+            ParseOptions result = new ParseOptions(this);
+            result.membersDeferred = false;
+            result.contentIndex = null;
+            result.symbolTable = null;
+            memberOptions = result;
+        }
+        return memberOptions;
+    }
+
+    /**
+     * Returns true if members of classes/interfaces/enums should be read
+     * only when they are first needed (see LazyUnitInfo).
+     *
+     * @return true if members should be deferred
+     */
+    public boolean isMembersDeferred() {
+        return membersDeferred;
+    }
+
+    /**
+     * Sets whether members of classes/interfaces/enums should be read only
+     * when they are first needed. An inspector may ignore it for files
+     * whose units can't be read again later.
+     *
+     * @param membersDeferred true if members should be deferred
+     */
+    public void setMembersDeferred(boolean membersDeferred) {
+        this.membersDeferred = membersDeferred;
+    }
+
+    /**
+     * Returns index in which units read with these options are remembered
+     * by content they were read from.
+     *
+     * @return index of read units or null
+     */
+    public ContentIndex getContentIndex() {
+        return contentIndex;
+    }
+
+    /**
+     * Sets index in which units read with these options are remembered by
+     * content they were read from, so that identical classes found in 
+     * several files are parsed once. It doesn't change what is read.
+     *
+     * @param contentIndex index of read units or null
+     */
+    public void setContentIndex(ContentIndex contentIndex) {
+        this.contentIndex = contentIndex;
+    }
+
+    /**
+     * Returns table in which names of units read with these options are
+     * interned.
+     *
+     * @return table of names or null
+     */
+    public SymbolTable getSymbolTable() {
+        return symbolTable;
+    }
+
+    /**
+     * Sets table in which names of units read with these options are 
+     * interned, so that units read together share their names. It doesn't
+     * change what is read.
+     *
+     * @param symbolTable table of names or null; if it is null each unit
+     *        has a table of its own
+     */
+    public void setSymbolTable(SymbolTable symbolTable) {
+        this.symbolTable = symbolTable;
+    }
+}
@@ -0,0 +1,146 @@
+/*
+ * SymbolTable.java
+ *
+ * Created on 17 October 2026, 21:20
+ *
+ * Copyright 2026 Code2Uml contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.sourceforge.code2uml.unitdata;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Table of names of classes/interfaces/enums, their members and types. 
+ * intern() returns one String instance for all equal names, so a name such
+ * as "java.lang.String" which occurs in thousands of fields and methods is
+ * kept in memory once. Each qualified name is split into its package and 
+ * simple part, both of which are interned as well, so that getSimpleName()
+ * doesn't create a new String. <br/><br/>
+ *
+ * A table is created for each retrieval of units (see UnitsRetrieverImpl)
+ * and given to readers in ParseOptions, so names are shared by units read
+ * together and the table is garbage collected with them. Methods of this
+ * class may be called by many threads at the same time. Interned names are
+ * removed only by clear().
+ *
+ * @author Code2Uml contributors
+ */
+public class SymbolTable {
+    
+    private ConcurrentMap<String, Symbol> symbols = new ConcurrentHashMap<String, Symbol>();
+    
+    /**
+     * Creates a new, empty instance of SymbolTable.
+     */
+    public SymbolTable() {
+    }
+    
+    /**
+     * Returns the canonical instance of a name: a String equal to <code>
+     * name</code> which is returned for all equal names.
+     *
+     * @param name a name or null
+     * @return canonical instance of <code>name</code> or null if it is null
+     */
+    public String intern(String name) {
+        if(name == null)
+            return null;
+        return getSymbol(name).name;
+    }
+    
+    /**
+     * Returns the canonical instance of the package part of a qualified name,
+     * that is the part before its last dot (not counting dots inside type
+     * arguments).
+     *
+     * @param name a qualified name
+     * @return the package part or an empty String if the name has no package
+     */
+    public String getPackageName(String name) {
+        return getSymbol(name).packageName;
+    }
+    
+    /**
+     * Returns the canonical instance of the simple part of a qualified name,
+     * that is the part after its last dot (not counting dots inside type
+     * arguments).
+     *
+     * @param name a qualified name
+     * @return the simple part
+     */
+    public String getSimpleName(String name) {
+        return getSymbol(name).simpleName;
+    }
+    
+    /**
+     * Returns number of interned names, including package and simple parts.
+     *
+     * @return number of interned names
+     */
+    public int size() {
+        return symbols.size();
+    }
+    
+    /**
+     * Removes all names from this table. Names interned before remain valid
+     * Strings, but a name interned later is a new instance, not equal (==)
+     * to those interned before. Used by a retrieval whose units are no 
+     * longer kept on the heap, so their names don't have to be shared.
+     */
+    public void clear() {
+        symbols.clear();
+    }
+    
+    /**
+     * Returns the symbol of a name, creating it if necessary.
+     */
+    private Symbol getSymbol(String name) {
+        Symbol symbol = symbols.get(name);
+        if(symbol != null)
+            return symbol;
+        
+        int end = name.indexOf('<');
+        int idx = name.lastIndexOf('.', (end < 0)? name.length() - 1 : end);
+        Symbol created;
+        if(idx < 0) {
+            created = new Symbol(name, "", name);
+        } else {
+            // parts are interned before the name, so this never recurses on
+            // the same name
+            created = new Symbol(name, intern(name.substring(0, idx)), 
+                                 intern(name.substring(idx + 1)));
+        }
+        symbol = symbols.putIfAbsent(name, created);
+        return (symbol != null)? symbol : created;
+    }
+    
+    /**
+     * An interned name and its parts.
+     */
+    private static class Symbol {
+        
+        private final String name;
+        private final String packageName;
+        private final String simpleName;
+        
+        Symbol(String name, String packageName, String simpleName) {
+            this.name = name;
+            this.packageName = packageName;
+            this.simpleName = simpleName;
+        }
+    }
+}
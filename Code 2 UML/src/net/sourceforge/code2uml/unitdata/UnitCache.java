@@ -0,0 +1,109 @@
+/*
+ * UnitCache.java
+ *
+ * Created on 17 October 2026, 12:40
+ *
+ * Copyright 2026 Code2Uml contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.sourceforge.code2uml.unitdata;
+
+import java.util.Collection;
+
+/**
+ * Defines methods of a cache of classes/interfaces/enums read from files.
+ * Cache remembers all UnitInfos defined in a file together with a fingerprint
+ * of that file, so that it is able to tell if the file has changed since
+ * UnitInfos were stored. A UnitCache may outlive the process which has
+ * created it (for example it may store its contents on disk).
+ *
+ * @author Code2Uml contributors
+ */
+public interface UnitCache {
+
+    /**
+     * Returns all classes/interfaces/enums defined in specified file, if they
+     * are stored in this cache and that file has not changed since they were
+     * stored. Units which were stored without members are returned as 
+     * LazyUnitInfos, reading their members when they are needed.
+     *
+     * @param filePath path to the file
+     * @return objects representing all classes/interfaces/enums defined in
+     *         that file or null if there are no valid cached objects for it
+     */
+    public Collection<UnitInfo> get(String filePath);
+
+    /**
+     * Returns all classes/interfaces/enums defined in specified file, if they
+     * are stored in this cache, were read with options which ask for 
+     * everything <code>options</code> ask for (see ParseOptions.covers())
+     * and that file has not changed since they were stored.
+     *
+     * @param filePath path to the file
+     * @param options options with which units are needed; if it is null
+     *        complete units are needed
+     * @return objects representing all classes/interfaces/enums defined in
+     *         that file or null if there are no valid cached objects for it
+     */
+    public Collection<UnitInfo> get(String filePath, ParseOptions options);
+
+    /**
+     * Returns qualified names of all classes/interfaces/enums defined in
+     * specified file, if they are stored in this cache and that file has not
+     * changed since they were stored.
+     *
+     * @param filePath path to the file
+     * @return qualified names of all classes/interfaces/enums defined in that
+     *         file or null if there are no valid cached names for it
+     */
+    public Collection<String> getNames(String filePath);
+
+    /**
+     * Stores in this cache all classes/interfaces/enums defined in specified
+     * file, replacing anything stored for that file before. <code>units</code>
+     * must contain all units defined in that file, not only a part of them.
+     * <code>length</code> and <code>lastModified</code> must be taken before
+     * the file is read: if the file has changed since then, units may have
+     * been read from either version, so nothing is stored. Units whose
+     * members are deferred and not read yet (see LazyUnitInfo) may be stored
+     * without their members.
+     *
+     * @param filePath path to the file
+     * @param length size of the file before units were read from it
+     * @param lastModified time of last modification of the file before units
+     *        were read from it
+     * @param units objects representing all classes/interfaces/enums defined
+     *        in that file
+     */
+    public void put(String filePath, long length, long lastModified, Collection<UnitInfo> units);
+
+    /**
+     * Stores in this cache all classes/interfaces/enums defined in specified
+     * file which were read with <code>options</code>, as put(String, long,
+     * long, Collection) does. They are returned only for options which ask
+     * for no more.
+     *
+     * @param filePath path to the file
+     * @param length size of the file before units were read from it
+     * @param lastModified time of last modification of the file before units
+     *        were read from it
+     * @param options options with which units were read; null if they are
+     *        complete
+     * @param units objects representing all classes/interfaces/enums defined
+     *        in that file which <code>options</code> ask for
+     */
+    public void put(String filePath, long length, long lastModified, ParseOptions options, 
+                    Collection<UnitInfo> units);
+}
@@ -0,0 +1,720 @@
+/*
+ * UnitCacheImpl.java
+ *
+ * Created on 17 October 2026, 12:52
+ *
+ * Copyright 2026 Code2Uml contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.sourceforge.code2uml.unitdata;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * UnitCache which stores its contents in a directory on disk, one file per
+ * cached file. <br/><br/>
+ *
+ * Fingerprint of a file is its absolute path, size and time of last
+ * modification. For an archive (.jar, .war, .zip) name, CRC and size of each
+ * .class and nested .jar entry are also remembered: if the archive has been
+ * rebuilt but none of its classes and libraries has changed, cached units are
+ * still valid. Directories are not cached: their time of last modification
+ * does not change when files in their subdirectories do. <br/><br/>
+ *
+ * Units are stored in a compact binary format. Each distinct String (names of
+ * types are repeated many times) is written once per cache file and later
+ * referred to by its number. <br/><br/>
+ *
+ * Units read with ParseOptions which skip some of their parts are stored
+ * with a mask of those options (see ParseOptions.getReadMask()) and are
+ * returned only for options which ask for no more. <br/><br/>
+ *
+ * A LazyUnitInfo whose members have not been read is stored without them.
+ * It is read back as a LazyUnitInfo too, whose members are read from the
+ * cached file again when they are needed (see CachedUnitSource); the units
+ * read then replace the deferred ones in the cache.
+ *
+ * @author Code2Uml contributors
+ */
+class UnitCacheImpl implements UnitCache {
+
+    private static final int MAGIC = 0xC0DE2C4E;
+    private static final int VERSION = 4;
+
+    // flags of units
+    private static final int PUBLIC = 0x01;
+    private static final int CLASS = 0x02;
+    private static final int INTERFACE = 0x04;
+    private static final int ENUM = 0x08;
+    private static final int ABSTRACT = 0x10;
+    private static final int PARTIAL = 0x20;
+    private static final int DEFERRED = 0x40;
+
+    // flags of members
+    private static final int STATIC = 0x40;
+    private static final int FINAL = 0x80;
+
+    private static final AccessType[] accessTypes = AccessType.values();
+
+    private File directory;
+
+    /**
+     * Creates a new instance of UnitCacheImpl which stores its contents in
+     * <code>directory</code>. That directory is created when something is
+     * stored in the cache for the first time.
+     *
+     * @param directory directory to store cached units in
+     */
+    public UnitCacheImpl(File directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Returns all classes/interfaces/enums defined in specified file, if they
+     * are stored in this cache complete and that file has not changed since
+     * they were stored. Units stored without members are returned as 
+     * LazyUnitInfos.
+     *
+     * @param filePath path to the file
+     * @return objects representing all classes/interfaces/enums defined in
+     *         that file or null if there are no valid cached objects for it
+     */
+    public Collection<UnitInfo> get(String filePath) {
+        return get(filePath, null);
+    }
+
+    /**
+     * Returns all classes/interfaces/enums defined in specified file, if they
+     * are stored in this cache, they were read with options which cover 
+     * <code>options</code> and that file has not changed since they were
+     * stored. Units stored without members are returned as LazyUnitInfos.
+     *
+     * @param filePath path to the file
+     * @param options options with which units are needed; if it is null 
+     *        complete units are needed
+     * @return objects representing all classes/interfaces/enums defined in
+     *         that file or null if there are no valid cached objects for it
+     */
+    public Collection<UnitInfo> get(String filePath, ParseOptions options) {
+        File file = new File(filePath).getAbsoluteFile();
+        long length = file.length();
+        long lastModified = file.lastModified();
+        Collection<UnitInfo> result = null;
+        ParseOptions read = null;
+        boolean rebuilt = false;
+        DataInputStream in = open(file);
+        if(in == null)
+            return null;
+        try {
+            // both must be read, units follow them
+            long cachedLength = in.readLong();
+            long cachedLastModified = in.readLong();
+            boolean current = cachedLength == length && cachedLastModified == lastModified;
+            int mask = in.readInt();
+            int needed = ParseOptions.getReadMask(options);
+            if((mask & needed) != needed)
+                return null;
+            read = (mask == ParseOptions.FULL_MASK)? null : ParseOptions.fromReadMask(mask);
+            List<String> strings = new ArrayList<String>();
+            List<String> names = readStrings(in, strings);
+            result = readUnits(in, names, strings,
+                    new CachedUnitSource.CachedFile(this, filePath, length, lastModified, read));
+            if(!current) {
+                Map<String, long[]> entries = readEntries(in);
+                if(entries == null || !sameEntries(file, entries))
+                    return null;
+                rebuilt = true;
+            }
+        } catch(IOException ex) {
+            ex.printStackTrace();
+            return null;
+        } finally {
+            close(in);
+        }
+
+        // remember new size and time of last modification of rebuilt archive
+        if(rebuilt)
+            put(filePath, length, lastModified, read, result);
+        return result;
+    }
+
+    /**
+     * Returns qualified names of all classes/interfaces/enums defined in
+     * specified file, if they are stored in this cache and that file has not
+     * changed since they were stored. This is much faster than get(), because
+     * units themselves are not read. Names are not returned if units were 
+     * read without non-public ones.
+     *
+     * @param filePath path to the file
+     * @return qualified names of all classes/interfaces/enums defined in that
+     *         file or null if there are no valid cached names for it
+     */
+    public Collection<String> getNames(String filePath) {
+        File file = new File(filePath).getAbsoluteFile();
+        DataInputStream in = open(file);
+        if(in == null)
+            return null;
+        try {
+            if(in.readLong() != file.length() || in.readLong() != file.lastModified())
+                return null;
+            ParseOptions read = ParseOptions.fromReadMask(in.readInt());
+            if(!read.isNonpublicUnitsRead())
+                return null;
+            return readStrings(in, new ArrayList<String>());
+        } catch(IOException ex) {
+            ex.printStackTrace();
+            return null;
+        } finally {
+            close(in);
+        }
+    }
+
+    /**
+     * Opens the file in which units defined in <code>file</code> are cached
+     * and reads its header.
+     *
+     * @param file absolute path of a cached file
+     * @return stream positioned at size of the cached file or null if
+     *         <code>file</code> is not cached
+     */
+    private DataInputStream open(File file) {
+        File cacheFile = getCacheFile(file);
+        if(!cacheFile.isFile() || !file.isFile())
+            return null;
+        DataInputStream in = null;
+        boolean valid = false;
+        try {
+            in = new DataInputStream(new BufferedInputStream(new FileInputStream(cacheFile), 64 * 1024));
+            valid = in.readInt() == MAGIC && in.readInt() == VERSION &&
+                    in.readUTF().equals(file.getPath());
+        } catch(IOException ex) {
+            ex.printStackTrace();
+        } finally {
+            if(!valid) {
+                close(in);
+                in = null;
+            }
+        }
+        return in;
+    }
+
+    /**
+     * Closes <code>in</code>, if it is not null.
+     *
+     * @param in stream to close
+     */
+    private void close(InputStream in) {
+        if(in != null) {
+            try {
+                in.close();
+            } catch(IOException ex) {
+                ex.printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * Stores in this cache all classes/interfaces/enums defined in specified
+     * file, replacing anything stored for that file before. Nothing is
+     * stored if the file has changed since <code>length</code> and <code>
+     * lastModified</code> were taken. <br/><br/>
+     *
+     * Units are written to a new temporary file, which then atomically
+     * replaces the cache file. Retrievals running at the same time (also in
+     * other processes) therefore never see a partly written cache file, and
+     * the last one to finish wins.
+     * <br/><br/>
+     *
+     * A LazyUnitInfo whose members have not been read yet is stored without
+     * them: reading them only to write them here would parse every class
+     * twice and undo the deferral.
+     *
+     * @param filePath path to the file
+     * @param length size of the file before units were read from it
+     * @param lastModified time of last modification of the file before units
+     *        were read from it
+     * @param units objects representing all classes/interfaces/enums defined
+     *        in that file
+     */
+    public void put(String filePath, long length, long lastModified, Collection<UnitInfo> units) {
+        put(filePath, length, lastModified, null, units);
+    }
+
+    /**
+     * Stores in this cache all classes/interfaces/enums defined in specified
+     * file, read with given options, as put(String, long, long, Collection)
+     * does. They are returned by get() only for options which they cover.
+     *
+     * @param filePath path to the file
+     * @param length size of the file before units were read from it
+     * @param lastModified time of last modification of the file before units
+     *        were read from it
+     * @param options options with which units were read; null if they are
+     *        complete
+     * @param units objects representing all classes/interfaces/enums defined
+     *        in that file which the options ask for
+     */
+    public void put(String filePath, long length, long lastModified, ParseOptions options,
+                    Collection<UnitInfo> units) {
+        File file = new File(filePath).getAbsoluteFile();
+        if(!file.isFile() || !isUnchanged(file, length, lastModified))
+            return;
+        directory.mkdirs();
+        if(!directory.isDirectory())
+            return;
+
+        File cacheFile = getCacheFile(file);
+        File tempFile = null;
+        DataOutputStream out = null;
+        boolean written = false;
+        try {
+            tempFile = File.createTempFile(cacheFile.getName(), ".tmp", directory);
+            out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tempFile)));
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeUTF(file.getPath());
+            out.writeLong(length);
+            out.writeLong(lastModified);
+            out.writeInt(ParseOptions.getReadMask(options));
+            Map<String, Integer> strings = new HashMap<String, Integer>();
+            List<String> names = new ArrayList<String>(units.size());
+            for(UnitInfo unit : units)
+                names.add(unit.getName());
+            writeStrings(out, names, strings);
+            writeUnits(out, units, strings);
+            writeEntries(out, file);
+            out.close();
+            out = null;
+            // entries of an archive are listed only now
+            written = isUnchanged(file, length, lastModified);
+        } catch(IOException ex) {
+            ex.printStackTrace();
+        } finally {
+            if(out != null) {
+                try {
+                    out.close();
+                } catch(IOException ex) {
+                    ex.printStackTrace();
+                }
+            }
+        }
+
+        if(written) {
+            try {
+                Files.move(tempFile.toPath(), cacheFile.toPath(),
+                           StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+                return;
+            } catch(IOException ex) {
+                ex.printStackTrace();
+            }
+        }
+        if(tempFile != null)
+            tempFile.delete();
+    }
+
+    /**
+     * Checks if size and time of last modification of <code>file</code> are
+     * still the given ones.
+     *
+     * @param file a cached file
+     * @param length size of the file taken earlier
+     * @param lastModified time of last modification of the file taken earlier
+     * @return true if the file seems not to have changed
+     */
+    private boolean isUnchanged(File file, long length, long lastModified) {
+        return file.length() == length && file.lastModified() == lastModified;
+    }
+
+    /**
+     * Returns file in which units defined in <code>file</code> are cached.
+     *
+     * @param file absolute path of a cached file
+     * @return file containing cached units
+     */
+    private File getCacheFile(File file) {
+        return new File(directory, file.getName() + "-" +
+                Integer.toHexString(file.getPath().hashCode()) + ".units");
+    }
+
+    /**
+     * Checks if <code>file</code> is an archive whose entries should be
+     * remembered in its fingerprint.
+     *
+     * @param file file to check
+     * @return true if file is a .jar, .war or .zip archive
+     */
+    private boolean isArchive(File file) {
+        String name = file.getName().toLowerCase();
+        return name.endsWith(".jar") || name.endsWith(".war") || name.endsWith(".zip");
+    }
+
+    /**
+     * Writes name, CRC and size of each .class and .jar entry of <code>file</code>
+     * if it is an archive.
+     *
+     * @param out DataOutput to write to
+     * @param file cached file
+     * @throws IOException if an I/O error occurs
+     */
+    private void writeEntries(DataOutput out, File file) throws IOException {
+        if(!isArchive(file)) {
+            out.writeInt(-1);
+            return;
+        }
+        Map<String, long[]> entries = listEntries(file);
+        out.writeInt(entries.size());
+        for(Map.Entry<String, long[]> entry : entries.entrySet()) {
+            out.writeUTF(entry.getKey());
+            out.writeLong(entry.getValue()[0]);
+            out.writeLong(entry.getValue()[1]);
+        }
+    }
+
+    /**
+     * Reads entries written by writeEntries().
+     *
+     * @param in DataInput to read from
+     * @return map from entry name to its CRC and size or null if cached file
+     *         is not an archive
+     * @throws IOException if an I/O error occurs
+     */
+    private Map<String, long[]> readEntries(DataInput in) throws IOException {
+        int count = in.readInt();
+        if(count < 0)
+            return null;
+        Map<String, long[]> entries = new HashMap<String, long[]>();
+        for(int i = 0; i < count; i++) {
+            String name = in.readUTF();
+            entries.put(name, new long[] {in.readLong(), in.readLong()});
+        }
+        return entries;
+    }
+
+    /**
+     * Returns name, CRC and size of each .class and .jar entry of an archive.
+     *
+     * @param file archive
+     * @return map from entry name to its CRC and size
+     * @throws IOException if an I/O error occurs
+     */
+    private Map<String, long[]> listEntries(File file) throws IOException {
+        Map<String, long[]> entries = new HashMap<String, long[]>();
+        ZipFile zipFile = new ZipFile(file);
+        try {
+            Enumeration<? extends ZipEntry> e = zipFile.entries();
+            while(e.hasMoreElements()) {
+                ZipEntry entry = e.nextElement();
+                String name = entry.getName();
+                if(!entry.isDirectory() && (name.endsWith(".class") || name.endsWith(".jar")))
+                    entries.put(name, new long[] {entry.getCrc(), entry.getSize()});
+            }
+        } finally {
+            zipFile.close();
+        }
+        return entries;
+    }
+
+    /**
+     * Checks if .class and .jar entries of an archive are the same as <code>entries
+     * </code>.
+     *
+     * @param file archive
+     * @param entries remembered entries of that archive
+     * @return true if the archive contains exactly the same .class and .jar
+     *         entries
+     */
+    private boolean sameEntries(File file, Map<String, long[]> entries) {
+        try {
+            Map<String, long[]> current = listEntries(file);
+            if(current.size() != entries.size())
+                return false;
+            for(Map.Entry<String, long[]> entry : current.entrySet()) {
+                long[] cached = entries.get(entry.getKey());
+                if(cached == null || cached[0] != entry.getValue()[0] ||
+                   cached[1] != entry.getValue()[1])
+                    return false;
+            }
+            return true;
+        } catch(IOException ex) {
+            ex.printStackTrace();
+            return false;
+        }
+    }
+
+    /**
+     * Writes units to <code>out</code>. Their names are not written, they
+     * precede all units. Members of a LazyUnitInfo which have not been read
+     * are not written; its flags tell so.
+     *
+     * @param out DataOutput to write to
+     * @param units units to write
+     * @param strings Strings written so far, mapped to their numbers
+     * @throws IOException if an I/O error occurs
+     */
+    private void writeUnits(DataOutput out, Collection<UnitInfo> units, Map<String, Integer> strings) throws IOException {
+        for(UnitInfo unit : units) {
+            writeString(out, unit.getSimpleName(), strings);
+            int flags = 0;
+            if(unit.isPublic())
+                flags |= PUBLIC;
+            if(unit.isClass())
+                flags |= CLASS;
+            if(unit.isInterface())
+                flags |= INTERFACE;
+            if(unit.isEnum())
+                flags |= ENUM;
+            if(unit.isAbstract())
+                flags |= ABSTRACT;
+            if(unit.isPartial())
+                flags |= PARTIAL;
+            // deferred members are not read just to be cached
+            boolean deferred = unit instanceof LazyUnitInfo && !((LazyUnitInfo) unit).isLoaded();
+            if(deferred)
+                flags |= DEFERRED;
+            out.writeByte(flags);
+            writeString(out, unit.getOrigin(), strings);
+
+            writeStrings(out, unit.getSupertypes(), strings);
+            if(deferred)
+                continue;
+            writeStrings(out, unit.getEnumValues(), strings);
+
+            writeCount(out, unit.getFields().size());
+            for(FieldInfo field : unit.getFields()) {
+                writeString(out, field.getName(), strings);
+                writeString(out, field.getTypeName(), strings);
+                flags = 0;
+                if(field.isStatic())
+                    flags |= STATIC;
+                if(field.isFinal())
+                    flags |= FINAL;
+                out.writeByte(flags);
+                writeAccessType(out, field.getAccessType());
+            }
+
+            writeCount(out, unit.getMethods().size());
+            for(MethodInfo method : unit.getMethods()) {
+                writeString(out, method.getName(), strings);
+                writeString(out, method.getReturnTypeName(), strings);
+                flags = 0;
+                if(method.isStatic())
+                    flags |= STATIC;
+                if(method.isAbstract())
+                    flags |= ABSTRACT;
+                out.writeByte(flags);
+                writeAccessType(out, method.getAccessType());
+                writeStrings(out, method.getArguments(), strings);
+            }
+        }
+    }
+
+    /**
+     * Reads units written by writeUnits().
+     *
+     * @param in DataInput to read from
+     * @param names names of units, in the same order as units were written
+     * @param strings Strings read so far
+     * @param file cached file, from which members of units written without
+     *        them are read
+     * @return read units
+     * @throws IOException if an I/O error occurs
+     */
+    private Collection<UnitInfo> readUnits(DataInput in, List<String> names, List<String> strings,
+                                           CachedUnitSource.CachedFile file) throws IOException {
+        List<UnitInfo> units = new ArrayList<UnitInfo>(names.size());
+        // units of one file share their names
+        SymbolTable symbols = new SymbolTable();
+        for(String name : names) {
+            UnitInfoImpl unit = new UnitInfoImpl();
+            unit.setName(name);
+            unit.setSimpleName(readString(in, strings));
+            int flags = in.readUnsignedByte();
+            unit.setIsPublic((flags & PUBLIC) != 0);
+            unit.setIsClass((flags & CLASS) != 0);
+            unit.setIsInterface((flags & INTERFACE) != 0);
+            unit.setIsEnum((flags & ENUM) != 0);
+            unit.setIsAbstract((flags & ABSTRACT) != 0);
+            unit.setIsPartial((flags & PARTIAL) != 0);
+            unit.setOrigin(readString(in, strings));
+
+            for(String supertype : readStrings(in, strings))
+                unit.addSupertype(supertype);
+            if((flags & DEFERRED) != 0) {
+                units.add(new LazyUnitInfo(CompactUnitInfo.compact(unit, symbols),
+                        new CachedUnitSource(name, unit.getOrigin(), file)));
+                continue;
+            }
+            for(String enumValue : readStrings(in, strings))
+                unit.addEnumValue(enumValue);
+
+            int n = readCount(in);
+            for(int j = 0; j < n; j++) {
+                FieldInfoImpl field = new FieldInfoImpl();
+                field.setName(readString(in, strings));
+                field.setTypeName(readString(in, strings));
+                flags = in.readUnsignedByte();
+                field.setStatic((flags & STATIC) != 0);
+                field.setIsFinal((flags & FINAL) != 0);
+                field.setAccessType(readAccessType(in));
+                unit.addField(field);
+            }
+
+            n = readCount(in);
+            for(int j = 0; j < n; j++) {
+                MethodInfoImpl method = new MethodInfoImpl();
+                method.setName(readString(in, strings));
+                method.setReturnTypeName(readString(in, strings));
+                flags = in.readUnsignedByte();
+                method.setStatic((flags & STATIC) != 0);
+                method.setAbstract((flags & ABSTRACT) != 0);
+                method.setAccessType(readAccessType(in));
+                method.setArguments(readStrings(in, strings));
+                unit.addMethod(method);
+            }
+            units.add(CompactUnitInfo.compact(unit, symbols));
+        }
+        return units;
+    }
+
+    /**
+     * Writes a String. Its contents are written only the first time, later
+     * only its number is written. Null is written as number 0.
+     *
+     * @param out DataOutput to write to
+     * @param str String to write, may be null
+     * @param strings Strings written so far, mapped to their numbers
+     * @throws IOException if an I/O error occurs
+     */
+    private void writeString(DataOutput out, String str, Map<String, Integer> strings) throws IOException {
+        if(str == null) {
+            writeCount(out, 0);
+            return;
+        }
+        Integer number = strings.get(str);
+        if(number != null) {
+            writeCount(out, number);
+        } else {
+            number = strings.size() + 1;
+            strings.put(str, number);
+            writeCount(out, number);
+            out.writeUTF(str);
+        }
+    }
+
+    /**
+     * Reads a String written by writeString().
+     *
+     * @param in DataInput to read from
+     * @param strings Strings read so far; String with number n is at index n - 1
+     * @return read String, may be null
+     * @throws IOException if an I/O error occurs
+     */
+    private String readString(DataInput in, List<String> strings) throws IOException {
+        int number = readCount(in);
+        if(number == 0)
+            return null;
+        if(number == strings.size() + 1) {
+            String str = in.readUTF();
+            strings.add(str);
+            return str;
+        }
+        if(number > strings.size())
+            throw new IOException("corrupted cache file");
+        return strings.get(number - 1);
+    }
+
+    /**
+     * Writes a collection of Strings preceded by its size.
+     */
+    private void writeStrings(DataOutput out, Collection<String> c, Map<String, Integer> strings) throws IOException {
+        writeCount(out, c.size());
+        for(String str : c)
+            writeString(out, str, strings);
+    }
+
+    /**
+     * Reads a collection of Strings written by writeStrings().
+     */
+    private List<String> readStrings(DataInput in, List<String> strings) throws IOException {
+        int n = readCount(in);
+        List<String> result = new ArrayList<String>(n);
+        for(int i = 0; i < n; i++)
+            result.add(readString(in, strings));
+        return result;
+    }
+
+    /**
+     * Writes an AccessType as one byte, 0 meaning null.
+     */
+    private void writeAccessType(DataOutput out, AccessType accessType) throws IOException {
+        out.writeByte(accessType == null? 0 : accessType.ordinal() + 1);
+    }
+
+    /**
+     * Reads an AccessType written by writeAccessType().
+     */
+    private AccessType readAccessType(DataInput in) throws IOException {
+        int b = in.readUnsignedByte();
+        if(b > accessTypes.length)
+            throw new IOException("corrupted cache file");
+        return b == 0? null : accessTypes[b - 1];
+    }
+
+    /**
+     * Writes a non-negative int using 7 bits per byte, so small values (which
+     * are the most common) take one byte.
+     */
+    private void writeCount(DataOutput out, int value) throws IOException {
+        while((value & ~0x7F) != 0) {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    /**
+     * Reads an int written by writeCount().
+     */
+    private int readCount(DataInput in) throws IOException {
+        int value = 0;
+        for(int shift = 0; shift < 32; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (b & 0x7F) << shift;
+            if((b & 0x80) == 0)
+                return value;
+        }
+        throw new IOException("corrupted cache file");
+    }
+}
@@ -119,6 +119,19 @@ public interface UnitInfo {
      */
     public boolean isPartial();
     
+    /**
+     * Returns the library from which represented class/interface/enum was
+     * read, if it is not the inspected file itself: path of a .jar nested in
+     * the inspected archive, for example "BOOT-INF/lib/guava.jar". Paths
+     * of archives nested in each other are separated with "!/". For a class
+     * of the JDK read from jrt:/ it is the name of its module.
+     *
+     * @return path of the originating library within the inspected file or
+     *         null if represented class/interface/enum was read directly
+     *         from the inspected file
+     */
+    public String getOrigin();
+    
     /**
      * Merges two partial class definitions into one. This object's fields, methods
      * etc. sets become union of its values and corresponding arg's values; arg 
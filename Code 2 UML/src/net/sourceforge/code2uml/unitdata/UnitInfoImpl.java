@@ -21,10 +21,16 @@
 package net.sourceforge.code2uml.unitdata;
 
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashSet;
 
 /**
- * Represents a class, an interface or an enum.
+ * Represents a class, an interface or an enum. Its sets of members and
+ * supertypes are created when the first element is added, so a unit without
+ * fields (for example) doesn't carry an empty HashSet. Class file readers
+ * build units with CompactUnitBuilder instead; this class is used where a
+ * unit is put together from already decoded values, as UnitCacheImpl does
+ * before keeping its CompactUnitInfo copy.
  *
  * @author Mateusz Wenus
  */
@@ -32,16 +38,17 @@ public class UnitInfoImpl implements UnitInfo {
     
     private String simpleName;
     private String name;
-    private Collection<MethodInfo> methods = new HashSet<MethodInfo>();
-    private Collection<FieldInfo> fields = new HashSet<FieldInfo>();
-    private Collection<String> enumValues = new HashSet<String>();
-    private Collection<String> superTypes = new HashSet<String>();
+    private Collection<MethodInfo> methods;
+    private Collection<FieldInfo> fields;
+    private Collection<String> enumValues;
+    private Collection<String> superTypes;
     private boolean isPublic;
     private boolean isClass;
     private boolean isInterface;
     private boolean isEnum;
     private boolean isAbstract;
     private boolean isPartial;
+    private String origin;
     
     /**
      * Creates a new instance of UnitInfoImpl.
@@ -91,7 +98,7 @@ public class UnitInfoImpl implements UnitInfo {
      * @return methods defined in represented class/interface/enum
      */
     public Collection<MethodInfo> getMethods() {
-        return methods;
+        return (methods != null)? methods : Collections.<MethodInfo>emptySet();
     }
     
     /**
@@ -100,6 +107,8 @@ public class UnitInfoImpl implements UnitInfo {
      * @param method method to add
      */
     public void addMethod(MethodInfo method) {
+        if(methods == null)
+            methods = new HashSet<MethodInfo>();
         methods.add(method);
     }
     
@@ -109,7 +118,7 @@ public class UnitInfoImpl implements UnitInfo {
      * @return fields defined in represented class/interface/enum
      */
     public Collection<FieldInfo> getFields() {
-        return fields;
+        return (fields != null)? fields : Collections.<FieldInfo>emptySet();
     }
     
     /**
@@ -118,6 +127,8 @@ public class UnitInfoImpl implements UnitInfo {
      * @param field field to add
      */
     public void addField(FieldInfo field) {
+        if(fields == null)
+            fields = new HashSet<FieldInfo>();
         fields.add(field);
     }
     
@@ -128,7 +139,7 @@ public class UnitInfoImpl implements UnitInfo {
      *         this is not an enum
      */
     public Collection<String> getEnumValues() {
-        return enumValues;
+        return (enumValues != null)? enumValues : Collections.<String>emptySet();
     }
     
     /**
@@ -137,6 +148,8 @@ public class UnitInfoImpl implements UnitInfo {
      * @param enumValue enum value to add
      */
     public void addEnumValue(String enumValue) {
+        if(enumValues == null)
+            enumValues = new HashSet<String>();
         enumValues.add(enumValue);
     }
     
@@ -149,7 +162,7 @@ public class UnitInfoImpl implements UnitInfo {
      *         an empty collection if there are none
      */
     public Collection<String> getSupertypes() {
-        return superTypes;
+        return (superTypes != null)? superTypes : Collections.<String>emptySet();
     }
     
     /**
@@ -158,6 +171,8 @@ public class UnitInfoImpl implements UnitInfo {
      * @param supertypeName qualified name of supertype to add
      */
     public void addSupertype(String supertypeName) {
+        if(superTypes == null)
+            superTypes = new HashSet<String>();
         superTypes.add(supertypeName);
     }
     
@@ -272,6 +287,26 @@ public class UnitInfoImpl implements UnitInfo {
         this.isPartial = isPartial;
     }
     
+    /**
+     * Returns the library from which this class/interface/enum was read or
+     * null if it was read directly from the inspected file.
+     *
+     * @return path of the originating library within the inspected file
+     */
+    public String getOrigin() {
+        return origin;
+    }
+    
+    /**
+     * Sets the library from which this class/interface/enum was read.
+     *
+     * @param origin path of the originating library within the inspected
+     *        file or null
+     */
+    public void setOrigin(String origin) {
+        this.origin = origin;
+    }
+    
     /**
      * Merges two partial class definitions into one. This object's fields, methods
      * etc. sets become union of its values and corresponding arg's values; arg 
@@ -287,8 +322,11 @@ public class UnitInfoImpl implements UnitInfo {
         if(!arg.isPartial() || !this.name.equals(arg.getName()))
             throw new IllegalArgumentException();
         
-        methods.addAll(arg.getMethods());
-        fields.addAll(arg.getFields());
-        enumValues.addAll(arg.getEnumValues());
+        for(MethodInfo method : arg.getMethods())
+            addMethod(method);
+        for(FieldInfo field : arg.getFields())
+            addField(field);
+        for(String enumValue : arg.getEnumValues())
+            addEnumValue(enumValue);
     }
 }
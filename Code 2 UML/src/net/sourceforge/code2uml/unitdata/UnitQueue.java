@@ -0,0 +1,157 @@
+/*
+ * UnitQueue.java
+ *
+ * Created on 17 October 2026, 22:45
+ *
+ * Copyright 2026 Code2Uml contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.sourceforge.code2uml.unitdata;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * UnitSink which passes classes/interfaces/enums to another thread: units 
+ * put to it by UnitsRetriever are returned by its iterator in the same 
+ * order. The queue holds a limited number of units, so put() blocks when the
+ * consumer falls behind, and the iterator blocks until the next unit is put
+ * or the queue is closed. <br/><br/>
+ *
+ * The queue should be iterated once, by one thread. A consumer which stops
+ * before the end should call cancel(), so that the producer doesn't wait 
+ * for it forever.
+ *
+ * @author Code2Uml contributors
+ */
+public class UnitQueue implements UnitSink, Iterable<UnitInfo> {
+    
+    private static final int defaultCapacity = 1024;
+    
+    /**
+     * Put to the queue after the last unit.
+     */
+    private static final UnitInfo end = new UnitInfoImpl();
+    
+    private BlockingQueue<UnitInfo> queue;
+    private volatile boolean cancelled;
+    
+    /**
+     * Creates a new instance of UnitQueue which holds at most 1024 units.
+     */
+    public UnitQueue() {
+        this(defaultCapacity);
+    }
+    
+    /**
+     * Creates a new instance of UnitQueue which holds at most <code>capacity
+     * </code> units.
+     *
+     * @param capacity maximal number of units waiting in the queue
+     */
+    public UnitQueue(int capacity) {
+        queue = new ArrayBlockingQueue<UnitInfo>(capacity);
+    }
+    
+    /**
+     * Puts a class/interface/enum at the end of the queue, waiting if the
+     * queue is full.
+     *
+     * @param unit class/interface/enum read from a file
+     * @return false if the queue has been cancelled
+     * @throws InterruptedException if the thread is interrupted while waiting
+     */
+    public boolean put(UnitInfo unit) throws InterruptedException {
+        if(cancelled)
+            return false;
+        queue.put(unit);
+        return !cancelled;
+    }
+    
+    /**
+     * Marks the end of the queue.
+     */
+    public void close() {
+        if(cancelled)
+            return;
+        try {
+            queue.put(end);
+        } catch(InterruptedException ex) {
+            // the consumer would wait forever without the end marker
+            cancel();
+            queue.offer(end);
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    /**
+     * Tells the producer that no more units will be taken from the queue and
+     * discards those waiting in it.
+     */
+    public void cancel() {
+        cancelled = true;
+        queue.clear();
+    }
+    
+    /**
+     * Returns true if the queue has been cancelled.
+     *
+     * @return true if the queue has been cancelled
+     */
+    public boolean isCancelled() {
+        return cancelled;
+    }
+    
+    /**
+     * Returns an iterator over units put to the queue. Its hasNext() blocks
+     * until a unit is put or the queue is closed; if the thread is interrupted
+     * while waiting, the queue is cancelled and the iteration ends.
+     *
+     * @return an iterator over units put to the queue
+     */
+    public Iterator<UnitInfo> iterator() {
+        return new Iterator<UnitInfo>() {
+            // the end marker, once taken, stays here
+            private UnitInfo next;
+            
+            public boolean hasNext() {
+                if(next == null) {
+                    try {
+                        next = queue.take();
+                    } catch(InterruptedException ex) {
+                        cancel();
+                        next = end;
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                return next != end;
+            }
+            
+            public UnitInfo next() {
+                if(!hasNext())
+                    throw new NoSuchElementException();
+                UnitInfo unit = next;
+                next = null;
+                return unit;
+            }
+            
+            public void remove() {
+                throw new UnsupportedOperationException();
+            }
+        };
+    }
+}
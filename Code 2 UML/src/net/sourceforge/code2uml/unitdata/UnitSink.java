@@ -0,0 +1,47 @@
+/*
+ * UnitSink.java
+ *
+ * Created on 17 October 2026, 22:40
+ *
+ * Copyright 2026 Code2Uml contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.sourceforge.code2uml.unitdata;
+
+/**
+ * Receiver of classes/interfaces/enums read by UnitsRetriever, which gets
+ * them one by one while files are still being read. A sink controls the pace
+ * of reading: put() may block until the sink can take another unit, and it
+ * may refuse units, which stops reading.
+ *
+ * @author Code2Uml contributors
+ */
+public interface UnitSink {
+    
+    /**
+     * Takes a class/interface/enum. May block until the sink is ready for it.
+     *
+     * @param unit class/interface/enum read from a file
+     * @return true if more units should be put to the sink, false if reading
+     *         should stop
+     * @throws InterruptedException if the thread is interrupted while waiting
+     */
+    public boolean put(UnitInfo unit) throws InterruptedException;
+    
+    /**
+     * Tells the sink that no more units will be put to it.
+     */
+    public void close();
+}
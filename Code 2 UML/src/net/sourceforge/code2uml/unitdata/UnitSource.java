@@ -0,0 +1,39 @@
+/*
+ * UnitSource.java
+ *
+ * Created on 17 October 2026, 20:35
+ *
+ * Copyright 2026 Code2Uml contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.sourceforge.code2uml.unitdata;
+
+/**
+ * Place from which a class/interface/enum can be read again, used by
+ * LazyUnitInfo to read its members when they are first needed. It is 
+ * created by a FileInspector, which knows where the unit came from.
+ *
+ * @author Code2Uml contributors
+ */
+public interface UnitSource {
+    
+    /**
+     * Reads the class/interface/enum with all its members.
+     *
+     * @return the class/interface/enum or null if it can't be read any more
+     *         (for example its file has changed since it was inspected)
+     */
+    public UnitInfo read();
+}
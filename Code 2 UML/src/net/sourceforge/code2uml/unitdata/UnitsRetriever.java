@@ -66,6 +66,48 @@ public interface UnitsRetriever {
     public Collection<UnitInfo> retrieve(Collection<String> filePaths, 
                                          Collection<String> namesFilter);
     
+    /**
+     * Returns from given files objects representing classes/interfaces/enums 
+     * which qualified names are in <code>namesFilter</code>, as 
+     * retrieve(Collection, Collection) does. Only those parts of 
+     * classes/interfaces/enums which are needed according to <code>options
+     * </code> have to be read from files, but returned objects may contain
+     * more (for example if they were cached).
+     *
+     * @param filePaths paths to files to read
+     * @param namesFilter qualified names of classes/interfaces/enums that are
+     *        allowed to be returned; if it is null then all 
+     *        classes/interfaces/enums are returned
+     * @param options tells which parts of classes/interfaces/enums should be
+     *        read; if it is null everything is read
+     * @return objects representing classes/interfaces/enums defined in given 
+     *         files
+     */
+    public Collection<UnitInfo> retrieve(Collection<String> filePaths, 
+                                         Collection<String> namesFilter,
+                                         ParseOptions options);
+    
+    /**
+     * Reads classes/interfaces/enums from given files, as 
+     * retrieve(Collection, Collection, ParseOptions) does, and puts them to
+     * <code>sink</code> as soon as they are read instead of returning them
+     * at the end. No two units put to the sink have equal names; partial 
+     * definitions of classes are merged and put to the sink last. Blocks 
+     * while the sink blocks and stops reading if the sink refuses a unit. 
+     * Closes the sink at the end.
+     *
+     * @param filePaths paths to files to read
+     * @param namesFilter qualified names of classes/interfaces/enums that are
+     *        allowed to be put to the sink
+     * @param options tells which parts of classes/interfaces/enums should be
+     *        read; if it is null everything is read
+     * @param sink sink to put read units to
+     * @throws InterruptedException if the thread is interrupted while the
+     *         sink blocks
+     */
+    public void retrieve(Collection<String> filePaths, Collection<String> namesFilter,
+                         ParseOptions options, UnitSink sink) throws InterruptedException;
+    
     /**
      * Returns qualified names of classes/interfaces/enums defined in given 
      * files. Notifies its observers about progress of processing files using
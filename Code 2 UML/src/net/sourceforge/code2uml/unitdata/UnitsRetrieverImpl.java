@@ -20,42 +20,149 @@
 
 package net.sourceforge.code2uml.unitdata;
 
+import java.io.File;
+import java.io.IOException;
 import java.io.ObjectStreamClass;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Observable;
 import java.util.Observer;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 import net.sourceforge.code2uml.inspectors.FileInspector;
 import net.sourceforge.code2uml.inspectors.InspectorsFactory;
 import net.sourceforge.code2uml.inspectors.InspectorsFactoryImpl;
+import net.sourceforge.code2uml.inspectors.java.DescriptorCache;
+import net.sourceforge.code2uml.inspectors.java.NameCache;
+import net.sourceforge.code2uml.util.CacheStatistics;
+import net.sourceforge.code2uml.util.NamesFilter;
 import net.sourceforge.code2uml.util.ProgressData;
 
 /**
  * This class is responsible for getting information about classes/interfaces/enums
  * defined in given files. It allows adding Observers to it and notifies them
- * about progress of reading files.
+ * about progress of reading files. <br/><br/>
+ *
+ * By default several files are read at the same time, on an executor shared
+ * by all retrievers. A retriever should still be used by one thread at a time.
  *
  * @author Mateusz Wenus
  */
 class UnitsRetrieverImpl extends Observable implements UnitsRetriever, Observer {
     
+    /**
+     * Name of the directory in which units read from files are cached
+     * between executions of the program.
+     */
+    private static final String cacheDirectoryName = ".code2uml.cache";
+    
+    /**
+     * Default number of read units above which they are moved to a 
+     * MappedUnitStore.
+     */
+    private static final int defaultStoreThreshold = 100000;
+    
+    /**
+     * Executor used by retrievers which haven't been given another one,
+     * created when it is needed for the first time.
+     */
+    private static Executor defaultExecutor;
+    
     private InspectorsFactory factory = new InspectorsFactoryImpl();
-    private double progress = 0.0;
+    private UnitCache cache;
+    private Executor executor = getDefaultExecutor();
+    private volatile double progress = 0.0;
     
     /**
      * Counts classes/interfaces/enums (during execution of retrieve()) or
      * qualified names (during execution of retrieveNames()) that has beeen
      * read from files.
      */
-    private int readCount = 0;
+    private volatile int readCount = 0;
+    
+    /**
+     * Number of read units above which they are moved to a MappedUnitStore.
+     */
+    private int storeThreshold = defaultStoreThreshold;
     
     /**
      * Creates an instance of UnitsRetrieverImpl
      */
     public UnitsRetrieverImpl() {
+        this(new UnitCacheImpl(new File(cacheDirectoryName)));
+    }
+    
+    /**
+     * Creates an instance of UnitsRetrieverImpl which looks up units in
+     * <code>cache</code> before reading a file and stores there units read
+     * from files which were not found in it.
+     *
+     * @param cache cache of units read from files
+     */
+    UnitsRetrieverImpl(UnitCache cache) {
+        this.cache = cache;
+    }
+    
+    /**
+     * Sets number of units above which retrieve() moves read units off the 
+     * heap, to a MappedUnitStore, and returns that store. Units returned
+     * from a store are read from a memory-mapped file each time they are
+     * asked for something, so they are slower than units kept on the heap,
+     * but heap usage doesn't grow with number of units.
+     *
+     * @param storeThreshold number of units; Integer.MAX_VALUE means that
+     *        units are always kept on the heap
+     */
+    public void setStoreThreshold(int storeThreshold) {
+        this.storeThreshold = storeThreshold;
+    }
+    
+    /**
+     * Sets executor on which files are read when more than one file is
+     * given. Units of different files are merged as soon as they are read,
+     * but the result is the same as when files are read one after another:
+     * if more than one file defines a class, the first one of them wins.
+     *
+     * @param executor executor to read files on; if it is null, files are 
+     *        read one after another by the calling thread
+     */
+    public void setExecutor(Executor executor) {
+        this.executor = executor;
+    }
+    
+    /**
+     * Returns executor shared by retrievers which read files concurrently.
+     * Its threads are daemons, so they don't keep the program running.
+     *
+     * @return executor with as many threads as there are available processors
+     */
+    private static synchronized Executor getDefaultExecutor() {
+        if(defaultExecutor == null) {
+            defaultExecutor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(),
+                                                           new ThreadFactory() {
+                public Thread newThread(Runnable runnable) {
+                    Thread thread = new Thread(runnable, "UnitsRetriever");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+        }
+        return defaultExecutor;
     }
     
     /**
@@ -87,27 +194,62 @@ class UnitsRetrieverImpl extends Observable implements UnitsRetriever, Observer
      * @return objects representing classes/interfaces/enums defined in given files
      */
     public Collection<UnitInfo> retrieve(Collection<String> filePaths, Collection<String> namesFilter) {
+        return retrieve(filePaths, namesFilter, null);
+    }
+    
+    /**
+     * Returns from given files objects representing classes/interfaces/enums
+     * which qualified names are in <code>namesFilter</code>, reading only
+     * those of their parts which are needed according to <code>options</code>.
+     * Units are cached with the options they were read with; units found
+     * in the cache were read with options which ask for no less (see 
+     * ParseOptions.covers()) and are returned as they are, unless they are
+     * not needed at all. Units whose members are deferred are cached 
+     * without members, which are read from the file again when they are 
+     * needed (see UnitCacheImpl); units found in the cache may therefore be
+     * LazyUnitInfos even if members are not deferred. A class found
+     * in several files with the same content is parsed once (see 
+     * ContentIndex).
+     *
+     * @param filePaths paths of files to read
+     * @param namesFilter qualified names of classes/interfaces/enums that are
+     *        allowed to be returned; if it is null then all classes/interfaces/enums
+     *        are returned
+     * @param options tells which parts of classes/interfaces/enums should be
+     *        read; if it is null everything is read
+     * @return objects representing classes/interfaces/enums defined in given files
+     */
+    public Collection<UnitInfo> retrieve(Collection<String> filePaths, Collection<String> namesFilter,
+                                         ParseOptions options) {
+        if(options != null && options.isFull() && !options.isMembersDeferred())
+            options = null;
+        // a class found in several files is parsed once
+        ContentIndex index = new ContentIndex();
+        options = forRetrieval(options, index);
+        RetrievalStatistics statistics = new RetrievalStatistics(index);
+        // names are looked up once per unit, so a list would make it quadratic
+        NamesFilter filter = NamesFilter.of(namesFilter);
+        if(executor != null && filePaths.size() > 1) {
+            Collection<UnitInfo> units = retrieveConcurrently(filePaths, filter, options, statistics);
+            notifyDone(units.size(), statistics);
+            return units;
+        }
         Map<String, UnitInfo> resultMap = new HashMap<String, UnitInfo>();
+        MappedUnitStore store = null;
         progress = 0.0;
         readCount = 0;
         
         for(String filePath : filePaths) {
-            int idx = filePath.lastIndexOf('.');
-            FileInspector inspector = factory.getInspector(filePath.substring(idx + 1));
-            
-            if(inspector instanceof Observable)
-                ((Observable)inspector).addObserver(this);
-            
-            Collection<UnitInfo> units = inspector.inspect(filePath, namesFilter);
-            
+            Collection<UnitInfo> units = readFile(filePath, filter, options);
             if(units != null) {
                 for(UnitInfo unit : units) {
-                    
-                    boolean includeInResult = (namesFilter != null) &&
-                            (namesFilter.contains(unit.getName()));
-                    if(!includeInResult)
+                    if(!isIncluded(unit, filter, options))
                         continue;
                     
+                    if(store != null) {
+                        addToStore(store, unit, statistics);
+                        continue;
+                    }
                     UnitInfo existing = resultMap.get(unit.getName());
                     if(existing == null) {
                         resultMap.put(unit.getName(), unit);
@@ -118,16 +260,404 @@ class UnitsRetrieverImpl extends Observable implements UnitsRetriever, Observer
                 }
             }
             
+            if(store == null && resultMap.size() > storeThreshold) {
+                store = moveToStore(resultMap, statistics);
+                if(store != null)
+                    index.close();
+            }
+            if(store != null) {
+                // stored units don't share names, so the table of this 
+                // retrieval would only grow
+                options.getSymbolTable().clear();
+            }
+            
             progress += 100.0 / filePaths.size();
-            readCount = resultMap.size();
+            readCount = (store != null)? store.size() : resultMap.size();
             setChanged();
             notifyObservers(new ProgressData(progress, "found " + readCount + " units"));
             clearChanged();
         }
         
+        notifyDone(readCount, statistics);
+        if(store != null)
+            return store;
         return resultMap.values();
     }
     
+    /**
+     * Reads given files on the executor and returns classes/interfaces/enums
+     * defined in them, as retrieve(Collection, Collection, ParseOptions)
+     * does. Each task adds units of its file to a concurrent map, merging
+     * partial units, so units are not collected after all files are read.
+     * Read units are moved to a MappedUnitStore at the end, if there are too
+     * many of them.
+     *
+     * @param filePaths paths of files to read
+     * @param namesFilter qualified names of classes/interfaces/enums that are
+     *        allowed to be returned or null
+     * @param options tells which parts of classes/interfaces/enums should be
+     *        read or null
+     * @param statistics statistics of the retrieval
+     * @return objects representing classes/interfaces/enums defined in given files
+     */
+    private Collection<UnitInfo> retrieveConcurrently(Collection<String> filePaths, 
+            final NamesFilter namesFilter, final ParseOptions options, 
+            RetrievalStatistics statistics) {
+        // a file read twice at the same time would be cached twice at the same time
+        final List<String> paths = new ArrayList<String>(new LinkedHashSet<String>(filePaths));
+        final ConcurrentMap<String, Found> resultMap = new ConcurrentHashMap<String, Found>();
+        final AtomicInteger readFiles = new AtomicInteger();
+        progress = 0.0;
+        readCount = 0;
+        
+        List<Runnable> tasks = new ArrayList<Runnable>(paths.size());
+        for(int i = 0; i < paths.size(); i++) {
+            final int fileIndex = i;
+            tasks.add(new Runnable() {
+                public void run() {
+                    Collection<UnitInfo> units = readFile(paths.get(fileIndex), namesFilter, options);
+                    if(units != null) {
+                        for(UnitInfo unit : units) {
+                            if(isIncluded(unit, namesFilter, options))
+                                add(resultMap, new Found(unit, fileIndex));
+                        }
+                    }
+                    notifyProgress(100.0 * readFiles.incrementAndGet() / paths.size(), 
+                                   resultMap.size());
+                }
+            });
+        }
+        runAll(tasks);
+        
+        Map<String, UnitInfo> result = new HashMap<String, UnitInfo>();
+        for(Found found : resultMap.values())
+            result.put(found.unit.getName(), found.unit);
+        resultMap.clear();
+        if(result.size() > storeThreshold) {
+            MappedUnitStore store = moveToStore(result, statistics);
+            if(store != null)
+                return store;
+        }
+        return result.values();
+    }
+    
+    /**
+     * Adds a unit read from a file to units read so far. If there already is
+     * a unit with the same name, both are partial definitions of one class
+     * and they are merged; otherwise the unit read from the earlier file is
+     * kept, as when files are read one after another.
+     *
+     * @param resultMap units read so far by their names
+     * @param found unit to add
+     */
+    private static void add(ConcurrentMap<String, Found> resultMap, Found found) {
+        String name = found.unit.getName();
+        while(true) {
+            Found existing = resultMap.putIfAbsent(name, found);
+            if(existing == null)
+                return;
+            if(existing.unit.isPartial() && found.unit.isPartial()) {
+                synchronized(existing.unit) {
+                    existing.unit.merge(found.unit);
+                }
+                return;
+            }
+            if(existing.fileIndex <= found.fileIndex || resultMap.replace(name, existing, found))
+                return;
+        }
+    }
+    
+    /**
+     * Runs <code>tasks</code> on the executor and waits until all of them are
+     * done. If the thread is interrupted, tasks which haven't finished are
+     * cancelled and the thread's interrupt status is set again. If a task 
+     * throws an exception, it is thrown by this method once all tasks are
+     * done, as if tasks were run one after another by the calling thread
+     * (if more tasks throw, the first one's exception is thrown).
+     *
+     * @param tasks tasks to run
+     * @throws RuntimeException thrown by a task
+     * @throws Error thrown by a task
+     */
+    private void runAll(List<Runnable> tasks) {
+        List<FutureTask<Object>> futures = new ArrayList<FutureTask<Object>>(tasks.size());
+        for(Runnable task : tasks) {
+            FutureTask<Object> future = new FutureTask<Object>(task, null);
+            futures.add(future);
+            executor.execute(future);
+        }
+        Throwable failure = null;
+        try {
+            for(FutureTask<Object> future : futures) {
+                try {
+                    future.get();
+                } catch(ExecutionException ex) {
+                    if(failure == null)
+                        failure = ex.getCause();
+                }
+            }
+        } catch(InterruptedException ex) {
+            for(FutureTask<Object> future : futures)
+                future.cancel(true);
+            Thread.currentThread().interrupt();
+        }
+        if(failure instanceof RuntimeException)
+            throw (RuntimeException) failure;
+        if(failure instanceof Error)
+            throw (Error) failure;
+    }
+    
+    /**
+     * Notifies observers about progress of reading files. Called from 
+     * executor threads, so notifications are serialized.
+     *
+     * @param progress percentage of files which have been read
+     * @param count number of classes or qualified names found so far
+     */
+    private synchronized void notifyProgress(double progress, int count) {
+        if(progress < this.progress)
+            return;
+        this.progress = progress;
+        readCount = count;
+        setChanged();
+        notifyObservers(new ProgressData(progress, "found " + count + " units"));
+        clearChanged();
+    }
+    
+    /**
+     * Notifies observers that a retrieval is done. The message of the last
+     * ProgressData tells how many units were found and how well caches used
+     * by readers did during that retrieval.
+     *
+     * @param count number of found classes/interfaces/enums or their names
+     * @param statistics statistics of caches taken when the retrieval began
+     */
+    private synchronized void notifyDone(int count, RetrievalStatistics statistics) {
+        progress = 100.0;
+        readCount = count;
+        setChanged();
+        notifyObservers(new ProgressData(progress, "found " + count + " units" + statistics));
+        clearChanged();
+    }
+    
+    /**
+     * Reads classes/interfaces/enums from given files, as retrieve(Collection,
+     * Collection, ParseOptions) does, and puts them to <code>sink</code> 
+     * instead of returning them. Units of a file are put to the sink as soon
+     * as the file is read, so the sink may process them while next files 
+     * are read. A partial definition of a class is merged with other parts 
+     * read later, so partial classes are put to the sink after all files are
+     * read. The sink is closed at the end, even if reading fails. <br/><br/>
+     *
+     * The sink may block when it can't take more units; reading of files 
+     * waits then. If it refuses a unit, reading stops.
+     *
+     * @param filePaths paths of files to read
+     * @param namesFilter qualified names of classes/interfaces/enums that are
+     *        allowed to be put to the sink; if it is null then no 
+     *        classes/interfaces/enums are put to it
+     * @param options tells which parts of classes/interfaces/enums should be
+     *        read; if it is null everything is read
+     * @param sink sink to put read units to
+     * @throws InterruptedException if the thread is interrupted while the
+     *         sink blocks
+     */
+    public void retrieve(Collection<String> filePaths, Collection<String> namesFilter,
+                         ParseOptions options, UnitSink sink) throws InterruptedException {
+        if(options != null && options.isFull() && !options.isMembersDeferred())
+            options = null;
+        ContentIndex index = new ContentIndex();
+        options = forRetrieval(options, index);
+        RetrievalStatistics statistics = new RetrievalStatistics(index);
+        NamesFilter filter = NamesFilter.of(namesFilter);
+        Set<String> names = new HashSet<String>();
+        Map<String, UnitInfo> partials = new LinkedHashMap<String, UnitInfo>();
+        progress = 0.0;
+        readCount = 0;
+        
+        try {
+            for(String filePath : filePaths) {
+                Collection<UnitInfo> units = readFile(filePath, filter, options);
+                if(units != null) {
+                    for(UnitInfo unit : units) {
+                        if(!isIncluded(unit, filter, options))
+                            continue;
+                        
+                        if(names.add(unit.getName())) {
+                            if(unit.isPartial()) {
+                                partials.put(unit.getName(), unit);
+                            } else if(!sink.put(unit)) {
+                                return;
+                            }
+                        } else {
+                            UnitInfo existing = partials.get(unit.getName());
+                            if(existing != null && unit.isPartial())
+                                existing.merge(unit);
+                        }
+                    }
+                }
+
+                progress += 100.0 / filePaths.size();
+                readCount = names.size();
+                setChanged();
+                notifyObservers(new ProgressData(progress, "found " + readCount + " units"));
+                clearChanged();
+            }
+            
+            for(UnitInfo unit : partials.values()) {
+                if(!sink.put(unit))
+                    return;
+            }
+            notifyDone(names.size(), statistics);
+        } finally {
+            sink.close();
+        }
+    }
+    
+    /**
+     * Returns all classes/interfaces/enums defined in a file or, if only some
+     * of them are needed, those in <code>namesFilter</code>. Looks them up in
+     * the cache first and caches units which are read, if all of them are.
+     *
+     * @param filePath path of the file
+     * @param namesFilter qualified names of classes/interfaces/enums which
+     *        are needed or null
+     * @param options tells which parts of classes/interfaces/enums should be
+     *        read or null
+     * @return units defined in the file or null
+     */
+    private Collection<UnitInfo> readFile(String filePath, NamesFilter namesFilter, 
+                                          ParseOptions options) {
+        Collection<UnitInfo> units = cache.get(filePath, options);
+        if(units != null)
+            return units;
+        
+        FileInspector inspector = factory.getInspectorForPath(filePath);
+        // taken before the file is read, so that a change made while it is
+        // read is not cached as if it were the version units came from
+        File file = new File(filePath);
+        long length = file.length();
+        long lastModified = file.lastModified();
+
+        if(inspector instanceof Observable)
+            ((Observable)inspector).addObserver(this);
+
+        /*
+         * If all units of a file are going to be used, they are read
+         * and cached. Otherwise only those in namesFilter are read,
+         * which is much faster when a few classes are selected from
+         * a large .jar, but the result can't be cached. Units of
+         * which only some parts are read are cached with options,
+         * so they are used only for diagrams which need no more.
+         */
+        if(namesFilter == null || acceptsAll(namesFilter, inspector.glance(filePath))) {
+            units = (options == null)? inspector.inspect(filePath) :
+                                       inspector.inspect(filePath, null, options);
+            if(units != null)
+                cache.put(filePath, length, lastModified, options, units);
+        } else {
+            units = inspector.inspect(filePath, namesFilter, options);
+        }
+        return units;
+    }
+    
+    /**
+     * Returns options which ask for the same as <code>options</code>, make
+     * inspectors remember read units in <code>index</code> and intern names
+     * of read units in a new SymbolTable, which is dropped with those units.
+     *
+     * @param options tells which parts of classes/interfaces/enums should be
+     *        read or null
+     * @param index index of units read during one retrieval
+     * @return a copy of <code>options</code>
+     */
+    private static ParseOptions forRetrieval(ParseOptions options, ContentIndex index) {
+        ParseOptions result = (options == null)? new ParseOptions() : new ParseOptions(options);
+        result.setContentIndex(index);
+        result.setSymbolTable(new SymbolTable());
+        return result;
+    }
+    
+    /**
+     * Checks if a unit read from a file should be returned.
+     *
+     * @param unit class/interface/enum read from a file
+     * @param namesFilter qualified names of classes/interfaces/enums that
+     *        are allowed to be returned or null
+     * @param options tells which classes/interfaces/enums are needed or null
+     * @return true if <code>unit</code> should be returned
+     */
+    private static boolean isIncluded(UnitInfo unit, NamesFilter namesFilter, ParseOptions options) {
+        if(namesFilter == null || !namesFilter.accepts(unit.getName()))
+            return false;
+        return options == null || options.isUnitRead(unit.isPublic());
+    }
+    
+    /**
+     * Moves units from <code>resultMap</code> to a new MappedUnitStore.
+     * Units which can't be stored are left out (see addToStore()).
+     *
+     * @param resultMap read units by their names; it is cleared
+     * @param statistics statistics of the retrieval, which count units 
+     *        left out
+     * @return the store or null if it can't be created (units are left in
+     *         <code>resultMap</code> then)
+     */
+    private MappedUnitStore moveToStore(Map<String, UnitInfo> resultMap, 
+                                        RetrievalStatistics statistics) {
+        try {
+            MappedUnitStore store = new MappedUnitStore();
+            for(UnitInfo unit : resultMap.values())
+                addToStore(store, unit, statistics);
+            resultMap.clear();
+            return store;
+        } catch(IOException ex) {
+            ex.printStackTrace();
+            return null;
+        }
+    }
+    
+    /**
+     * Adds a unit to a MappedUnitStore. If the unit can't be stored, because
+     * it is a LazyUnitInfo whose members can't be read or because the store
+     * can't be written, it is left out and counted in <code>statistics
+     * </code>, so the last notification of the retrieval tells about it.
+     *
+     * @param store store to add the unit to
+     * @param unit class/interface/enum to add
+     * @param statistics statistics of the retrieval
+     */
+    private static void addToStore(MappedUnitStore store, UnitInfo unit, 
+                                   RetrievalStatistics statistics) {
+        try {
+            store.add(unit);
+        } catch(IllegalStateException ex) {
+            ex.printStackTrace();
+            statistics.unitLeftOut();
+        } catch(UncheckedIOException ex) {
+            ex.printStackTrace();
+            statistics.unitLeftOut();
+        }
+    }
+    
+    /**
+     * Checks if all <code>names</code> are accepted by <code>namesFilter</code>.
+     *
+     * @param namesFilter qualified names and rules of classes/interfaces/enums
+     * @param names qualified names of classes/interfaces/enums, may be null
+     * @return true if <code>names</code> is null or <code>namesFilter</code>
+     *         accepts all of them
+     */
+    private boolean acceptsAll(NamesFilter namesFilter, Collection<String> names) {
+        if(names == null)
+            return true;
+        for(String name : names) {
+            if(!namesFilter.accepts(name))
+                return false;
+        }
+        return true;
+    }
+    
     /**
      * Returns qualified names of classes/interfaces/enums defined in given
      * files. Notifies its observers about progress of processing files using
@@ -138,13 +668,22 @@ class UnitsRetrieverImpl extends Observable implements UnitsRetriever, Observer
      *         files
      */
     public Collection<String> retrieveNames(Collection<String> filePaths) {
+        RetrievalStatistics statistics = new RetrievalStatistics(null);
+        if(executor != null && filePaths.size() > 1) {
+            Collection<String> names = retrieveNamesConcurrently(filePaths);
+            notifyDone(names.size(), statistics);
+            return names;
+        }
         progress = 0.0;
         Set<String> result = new HashSet<String>();
         for(String filePath : filePaths) {
-            FileInspector inspector = factory.getInspector(filePath.substring(filePath.lastIndexOf('.') + 1));
-            if(inspector instanceof Observable)
-                ((Observable) inspector).addObserver(this);
-            Collection<String> names = inspector.glance(filePath);
+            Collection<String> names = cache.getNames(filePath);
+            if(names == null) {
+                FileInspector inspector = factory.getInspectorForPath(filePath);
+                if(inspector instanceof Observable)
+                    ((Observable) inspector).addObserver(this);
+                names = inspector.glance(filePath);
+            }
             if(names != null) {
                 for(String name : names) {
                     result.add(name);
@@ -157,6 +696,43 @@ class UnitsRetrieverImpl extends Observable implements UnitsRetriever, Observer
             notifyObservers(new ProgressData(progress, "found " + readCount + " units"));
             clearChanged();
         }
+        notifyDone(result.size(), statistics);
+        return result;
+    }
+    
+    /**
+     * Reads qualified names of classes/interfaces/enums defined in given 
+     * files on the executor, as retrieveNames() does.
+     *
+     * @param filePaths paths to files to read
+     * @return qualified names of classes/interfaces/enums defined in given
+     *         files
+     */
+    private Collection<String> retrieveNamesConcurrently(Collection<String> filePaths) {
+        final Set<String> result = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+        final AtomicInteger readFiles = new AtomicInteger();
+        final int fileCount = filePaths.size();
+        progress = 0.0;
+        readCount = 0;
+        
+        List<Runnable> tasks = new ArrayList<Runnable>(fileCount);
+        for(final String filePath : filePaths) {
+            tasks.add(new Runnable() {
+                public void run() {
+                    Collection<String> names = cache.getNames(filePath);
+                    if(names == null) {
+                        FileInspector inspector = factory.getInspectorForPath(filePath);
+                        if(inspector instanceof Observable)
+                            ((Observable) inspector).addObserver(UnitsRetrieverImpl.this);
+                        names = inspector.glance(filePath);
+                    }
+                    if(names != null)
+                        result.addAll(names);
+                    notifyProgress(100.0 * readFiles.incrementAndGet() / fileCount, result.size());
+                }
+            });
+        }
+        runAll(tasks);
         return result;
     }
     
@@ -171,9 +747,82 @@ class UnitsRetrieverImpl extends Observable implements UnitsRetriever, Observer
     public void update(Observable o, Object arg) {
         if(o instanceof FileInspector) {
             int count = (Integer) arg;
-            setChanged();
-            notifyObservers(new ProgressData(progress, "found " + (readCount + count) + " units"));
-            clearChanged();
+            synchronized(this) {
+                setChanged();
+                notifyObservers(new ProgressData(progress, "found " + (readCount + count) + " units"));
+                clearChanged();
+            }
+        }
+    }
+    
+    /**
+     * Statistics of caches used by readers during one retrieval: lookups in
+     * its ContentIndex and in the shared NameCache and DescriptorCache made
+     * since it was created. The shared caches count lookups of all 
+     * retrievals, so those running at the same time are counted together.
+     * Units which had to be left out of the result are counted too.
+     */
+    private static class RetrievalStatistics {
+        
+        private ContentIndex index;
+        private CacheStatistics names = NameCache.getShared().getStatistics().snapshot();
+        private CacheStatistics descriptors = DescriptorCache.getShared().getStatistics().snapshot();
+        private int leftOut;
+        
+        public RetrievalStatistics(ContentIndex index) {
+            this.index = index;
+        }
+        
+        /**
+         * Counts a unit which is left out of the result because it can't 
+         * be stored.
+         */
+        public synchronized void unitLeftOut() {
+            leftOut++;
+        }
+        
+        /**
+         * Returns a summary of the statistics, like " (name cache: 98.0% 
+         * hits, descriptor cache: 76.2% hits, duplicate classes: 12, units
+         * left out: 1)"; caches which were not used are left out.
+         */
+        public String toString() {
+            StringBuilder result = new StringBuilder();
+            append(result, "name cache", NameCache.getShared().getStatistics().since(names));
+            append(result, "descriptor cache", DescriptorCache.getShared().getStatistics().since(descriptors));
+            if(index != null && index.getStatistics().getHits() > 0)
+                result.append(result.length() == 0? " (" : ", ")
+                      .append("duplicate classes: ").append(index.getStatistics().getHits());
+            synchronized(this) {
+                if(leftOut > 0)
+                    result.append(result.length() == 0? " (" : ", ")
+                          .append("units left out: ").append(leftOut);
+            }
+            if(result.length() > 0)
+                result.append(')');
+            return result.toString();
+        }
+        
+        private static void append(StringBuilder result, String cache, CacheStatistics statistics) {
+            if(statistics.getHits() + statistics.getMisses() == 0)
+                return;
+            result.append(result.length() == 0? " (" : ", ").append(cache)
+                  .append(String.format(": %.1f%% hits", 100.0 * statistics.getHitRate()));
+        }
+    }
+    
+    /**
+     * A unit read from a file and position of that file on the list of 
+     * files to read.
+     */
+    private static class Found {
+        
+        private UnitInfo unit;
+        private int fileIndex;
+        
+        public Found(UnitInfo unit, int fileIndex) {
+            this.unit = unit;
+            this.fileIndex = fileIndex;
         }
     }
 }
@@ -43,6 +43,8 @@ public class UnitsWorker extends SwingWorker<Collection<UnitInfo>, Object> imple
     
     private Collection<String> filePaths;
     private Collection<String> namesFilter;
+    private ParseOptions options;
+    private UnitSink sink;
     private UnitsRetriever retriever;
     
     /**
@@ -71,6 +73,44 @@ public class UnitsWorker extends SwingWorker<Collection<UnitInfo>, Object> imple
         this.namesFilter = namesFilter;
     }
     
+    /**
+     * Creates a new instance of UnitsWorker which will read files from <code>
+     * filePaths</code> and return only those classes/interfaces/enums which
+     * have qualified names on <code>namesFilter</code>, reading only those of
+     * their parts which are needed according to <code>options</code>.
+     *
+     * @param filePaths paths to files to read from
+     * @param namesFilter qualified names of classes/interfaces/enums that
+     *        can be returned by this method
+     * @param options tells which parts of classes/interfaces/enums should be
+     *        read or null
+     */
+    public UnitsWorker(Collection<String> filePaths, Collection<String> namesFilter,
+                       ParseOptions options) {
+        this(filePaths, namesFilter);
+        this.options = options;
+    }
+    
+    /**
+     * Creates a new instance of UnitsWorker which will read files from <code>
+     * filePaths</code> and put classes/interfaces/enums which have qualified
+     * names on <code>namesFilter</code> to <code>sink</code> as soon as they
+     * are read (see UnitsRetriever.retrieve(Collection, Collection, 
+     * ParseOptions, UnitSink)). Its get() method returns null then.
+     *
+     * @param filePaths paths to files to read from
+     * @param namesFilter qualified names of classes/interfaces/enums that
+     *        can be put to the sink
+     * @param options tells which parts of classes/interfaces/enums should be
+     *        read or null
+     * @param sink sink to put read units to
+     */
+    public UnitsWorker(Collection<String> filePaths, Collection<String> namesFilter,
+                       ParseOptions options, UnitSink sink) {
+        this(filePaths, namesFilter, options);
+        this.sink = sink;
+    }
+    
     /**
      * Called when underlying UnitsRetriever notifies about progress of its job.
      * Should not be called malually.
@@ -89,10 +129,17 @@ public class UnitsWorker extends SwingWorker<Collection<UnitInfo>, Object> imple
      * the worker at construction time. Collection of those definitions may be read
      * using get() method once this worker is done.
      *
-     * @return UnitInfos representing classes/interfaces/enums defined in given files.
+     * @return UnitInfos representing classes/interfaces/enums defined in given files
+     *         or null if they are put to a sink
+     * @throws InterruptedException if the worker is cancelled while the sink
+     *         blocks
      */
-    protected Collection<UnitInfo> doInBackground() {
-        return retriever.retrieve(filePaths, namesFilter);
+    protected Collection<UnitInfo> doInBackground() throws InterruptedException {
+        if(sink != null) {
+            retriever.retrieve(filePaths, namesFilter, options, sink);
+            return null;
+        }
+        return retriever.retrieve(filePaths, namesFilter, options);
     }
     
 }
@@ -0,0 +1,174 @@
+/*
+ * CacheStatistics.java
+ *
+ * Created on 17 October 2026, 14:10
+ *
+ * Copyright 2026 Code2Uml contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.sourceforge.code2uml.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counts hits, misses, evictions and invalidations of a cache. A cache calls
+ * recordX() methods, anyone may read the counters. All methods are thread
+ * safe.
+ *
+ * @author Code2Uml contributors
+ */
+public class CacheStatistics {
+
+    private AtomicLong hits = new AtomicLong();
+    private AtomicLong misses = new AtomicLong();
+    private AtomicLong evictions = new AtomicLong();
+    private AtomicLong invalidations = new AtomicLong();
+
+    /**
+     * Creates a new instance of CacheStatistics with all counters equal 0.
+     */
+    public CacheStatistics() {
+    }
+
+    /**
+     * Records that a looked up value was found in the cache.
+     */
+    public void recordHit() {
+        hits.incrementAndGet();
+    }
+
+    /**
+     * Records that a looked up value was not found in the cache (or it was
+     * found but it was no longer valid).
+     */
+    public void recordMiss() {
+        misses.incrementAndGet();
+    }
+
+    /**
+     * Records that a value was removed from the cache to make room for
+     * another one.
+     */
+    public void recordEviction() {
+        evictions.incrementAndGet();
+    }
+
+    /**
+     * Records that a value was removed from the cache because it was no
+     * longer valid (for example the file it was read from has changed).
+     */
+    public void recordInvalidation() {
+        invalidations.incrementAndGet();
+    }
+
+    /**
+     * Returns number of lookups which found a valid value.
+     *
+     * @return number of hits
+     */
+    public long getHits() {
+        return hits.get();
+    }
+
+    /**
+     * Returns number of lookups which did not find a valid value.
+     *
+     * @return number of misses
+     */
+    public long getMisses() {
+        return misses.get();
+    }
+
+    /**
+     * Returns number of values removed to make room for other ones.
+     *
+     * @return number of evictions
+     */
+    public long getEvictions() {
+        return evictions.get();
+    }
+
+    /**
+     * Returns number of values removed because they were no longer valid.
+     *
+     * @return number of invalidations
+     */
+    public long getInvalidations() {
+        return invalidations.get();
+    }
+
+    /**
+     * Returns fraction of lookups which found a valid value.
+     *
+     * @return a double in range [0, 1]; 0 if there were no lookups
+     */
+    public double getHitRate() {
+        long h = hits.get();
+        long total = h + misses.get();
+        return total == 0? 0.0 : (double) h / total;
+    }
+
+    /**
+     * Returns a copy of current values of the counters, which doesn't change
+     * when this cache is used later.
+     *
+     * @return copy of these statistics
+     */
+    public CacheStatistics snapshot() {
+        CacheStatistics copy = new CacheStatistics();
+        copy.hits.set(getHits());
+        copy.misses.set(getMisses());
+        copy.evictions.set(getEvictions());
+        copy.invalidations.set(getInvalidations());
+        return copy;
+    }
+
+    /**
+     * Returns statistics of what has happened since <code>earlier</code> was
+     * taken (see snapshot()), that is the difference of counters.
+     *
+     * @param earlier snapshot of these statistics
+     * @return statistics of lookups made after <code>earlier</code>
+     */
+    public CacheStatistics since(CacheStatistics earlier) {
+        CacheStatistics result = new CacheStatistics();
+        result.hits.set(getHits() - earlier.getHits());
+        result.misses.set(getMisses() - earlier.getMisses());
+        result.evictions.set(getEvictions() - earlier.getEvictions());
+        result.invalidations.set(getInvalidations() - earlier.getInvalidations());
+        return result;
+    }
+
+    /**
+     * Sets all counters to 0.
+     */
+    public void reset() {
+        hits.set(0);
+        misses.set(0);
+        evictions.set(0);
+        invalidations.set(0);
+    }
+
+    /**
+     * Returns String representation of these statistics.
+     *
+     * @return String representation of these statistics
+     */
+    public String toString() {
+        return "hits: " + getHits() + ", misses: " + getMisses() +
+               ", evictions: " + getEvictions() + ", invalidations: " +
+               getInvalidations() + String.format(", hit rate: %.1f%%", 100.0 * getHitRate());
+    }
+}
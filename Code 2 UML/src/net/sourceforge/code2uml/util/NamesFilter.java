@@ -0,0 +1,234 @@
+/*
+ * NamesFilter.java
+ *
+ * Created on 17 October 2026, 18:30
+ *
+ * Copyright 2026 Code2Uml contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.sourceforge.code2uml.util;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Filter of qualified names of classes/interfaces/enums. It is made of
+ * names and rules: <br/>
+ * - "com.acme.Foo" - exactly that class <br/>
+ * - "com.acme.*" - all classes of package com.acme (including nested ones,
+ *   such as com.acme.Foo$Bar), but not of its subpackages <br/>
+ * - "com.acme.**" - all classes of package com.acme and its subpackages <br/>
+ * - any other pattern in which "*" stands for any part of a name without a
+ *   dot and "**" for any part of a name, for example "com.*.service.*Impl"
+ * <br/><br/>
+ *
+ * accepts() tells if a name is one of the names or matches one of the
+ * rules. Checking a name takes a hash lookup per enclosing package instead
+ * of a scan of all names; only patterns other than the two package rules are
+ * matched one by one. A NamesFilter is not a collection of the names it
+ * accepts: a rule stands for names which can't be listed, so it has no
+ * size() or iterator(). getNamesAndRules() returns what it was made of.
+ * <br/><br/>
+ *
+ * A NamesFilter is not thread safe while it is modified; once filled it may
+ * be read by many threads.
+ *
+ * @author Code2Uml contributors
+ */
+public class NamesFilter {
+
+    private Set<String> elements = new LinkedHashSet<String>();
+    private Set<String> names = new HashSet<String>();
+
+    /**
+     * Packages whose classes are accepted, from rules "package.*".
+     */
+    private Set<String> packages = new HashSet<String>();
+
+    /**
+     * Packages whose classes and subpackages are accepted, from rules
+     * "package.**".
+     */
+    private Set<String> trees = new HashSet<String>();
+
+    private List<Pattern> patterns = new ArrayList<Pattern>();
+    private boolean acceptsAll;
+
+    /**
+     * Creates a new, empty instance of NamesFilter, which accepts no names.
+     */
+    public NamesFilter() {
+    }
+
+    /**
+     * Creates a new instance of NamesFilter made of given names and rules.
+     *
+     * @param namesAndRules qualified names and rules
+     */
+    public NamesFilter(Collection<String> namesAndRules) {
+        addAll(namesAndRules);
+    }
+
+    /**
+     * Returns a NamesFilter made of given names and rules, or null if there
+     * are none, which means that all names are accepted.
+     *
+     * @param namesAndRules qualified names and rules or null
+     * @return a NamesFilter or null if <code>namesAndRules</code> is null
+     */
+    public static NamesFilter of(Collection<String> namesAndRules) {
+        if(namesAndRules == null)
+            return null;
+        return new NamesFilter(namesAndRules);
+    }
+
+    /**
+     * Checks if <code>nameOrRule</code> is a rule rather than a name.
+     *
+     * @param nameOrRule a qualified name or a rule
+     * @return true if it contains a wildcard
+     */
+    public static boolean isRule(String nameOrRule) {
+        return nameOrRule.indexOf('*') >= 0;
+    }
+
+    /**
+     * Adds a qualified name or a rule to this filter.
+     *
+     * @param nameOrRule a qualified name or a rule
+     * @return true if this filter did not have it
+     */
+    public boolean add(String nameOrRule) {
+        if(!elements.add(nameOrRule))
+            return false;
+        if(!isRule(nameOrRule)) {
+            names.add(nameOrRule);
+        } else if(nameOrRule.equals("**")) {
+            acceptsAll = true;
+        } else if(nameOrRule.endsWith(".**") && !isRule(prefix(nameOrRule, 3))) {
+            trees.add(prefix(nameOrRule, 3));
+        } else if(nameOrRule.endsWith(".*") && !isRule(prefix(nameOrRule, 2))) {
+            packages.add(prefix(nameOrRule, 2));
+        } else {
+            patterns.add(compile(nameOrRule));
+        }
+        return true;
+    }
+
+    /**
+     * Adds qualified names and rules to this filter.
+     *
+     * @param namesAndRules qualified names and rules
+     * @return true if this filter did not have some of them
+     */
+    public boolean addAll(Collection<String> namesAndRules) {
+        boolean changed = false;
+        for(String nameOrRule : namesAndRules)
+            changed |= add(nameOrRule);
+        return changed;
+    }
+
+    /**
+     * Checks if this filter accepts a qualified name: if it is one of its
+     * names or it matches one of its rules.
+     *
+     * @param name a qualified name
+     * @return true if this filter accepts <code>name</code>
+     */
+    public boolean accepts(String name) {
+        if(acceptsAll || names.contains(name))
+            return true;
+
+        int idx = name.lastIndexOf('.');
+        if(idx > 0) {
+            String pkg = name.substring(0, idx);
+            if(packages.contains(pkg))
+                return true;
+            if(!trees.isEmpty()) {
+                while(idx > 0) {
+                    if(trees.contains(pkg))
+                        return true;
+                    idx = pkg.lastIndexOf('.');
+                    if(idx > 0)
+                        pkg = pkg.substring(0, idx);
+                }
+            }
+        }
+
+        for(Pattern pattern : patterns) {
+            if(pattern.matcher(name).matches())
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * Returns names and rules this filter is made of, in the order they were
+     * added.
+     *
+     * @return unmodifiable set of names and rules of this filter
+     */
+    public Set<String> getNamesAndRules() {
+        return Collections.unmodifiableSet(elements);
+    }
+
+    /**
+     * Removes all names and rules from this filter, so that it accepts no
+     * names.
+     */
+    public void clear() {
+        elements.clear();
+        names.clear();
+        packages.clear();
+        trees.clear();
+        patterns.clear();
+        acceptsAll = false;
+    }
+
+    /**
+     * Returns rule without its last <code>n</code> characters.
+     */
+    private static String prefix(String rule, int n) {
+        return rule.substring(0, rule.length() - n);
+    }
+
+    /**
+     * Converts a rule to a regular expression.
+     */
+    private static Pattern compile(String rule) {
+        StringBuilder regex = new StringBuilder();
+        int start = 0;
+        for(int i = 0; i < rule.length(); i++) {
+            if(rule.charAt(i) != '*')
+                continue;
+            regex.append(Pattern.quote(rule.substring(start, i)));
+            if(i + 1 < rule.length() && rule.charAt(i + 1) == '*') {
+                regex.append(".*");
+                i++;
+            } else {
+                regex.append("[^.]*");
+            }
+            start = i + 1;
+        }
+        regex.append(Pattern.quote(rule.substring(start)));
+        return Pattern.compile(regex.toString());
+    }
+}
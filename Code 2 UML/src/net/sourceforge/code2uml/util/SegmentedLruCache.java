@@ -0,0 +1,156 @@
+/*
+ * SegmentedLruCache.java
+ *
+ * Created on 17 October 2026, 14:20
+ *
+ * Copyright 2026 Code2Uml contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.sourceforge.code2uml.util;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Size-bounded map which removes its least recently used entries when it
+ * gets full. It is split into segments, each guarded by its own lock, so
+ * that threads using different keys rarely wait for each other. All methods
+ * are thread safe. <br/><br/>
+ *
+ * The cache counts evictions in its statistics. Hits, misses and
+ * invalidations are recorded by its user, which knows whether a value found
+ * in the cache may still be used.
+ *
+ * @author Code2Uml contributors
+ */
+public class SegmentedLruCache<K, V> {
+
+    private static final int segmentsCount = 16;
+
+    private List<Segment> segments = new ArrayList<Segment>(segmentsCount);
+    private CacheStatistics statistics = new CacheStatistics();
+
+    /**
+     * Creates a new instance of SegmentedLruCache which holds at most
+     * (roughly) <code>capacity</code> entries.
+     *
+     * @param capacity maximal number of entries
+     */
+    public SegmentedLruCache(int capacity) {
+        int segmentCapacity = Math.max(1, capacity / segmentsCount);
+        for(int i = 0; i < segmentsCount; i++)
+            segments.add(new Segment(segmentCapacity));
+    }
+
+    /**
+     * Returns statistics of this cache.
+     *
+     * @return statistics of this cache
+     */
+    public CacheStatistics getStatistics() {
+        return statistics;
+    }
+
+    /**
+     * Returns value stored under given key and marks it as the most recently
+     * used one.
+     *
+     * @param key key of the value
+     * @return the value or null if there is none
+     */
+    public V get(K key) {
+        Segment segment = segmentFor(key);
+        synchronized(segment) {
+            return segment.get(key);
+        }
+    }
+
+    /**
+     * Stores a value under given key, replacing the previous one.
+     *
+     * @param key key of the value
+     * @param value value to store
+     */
+    public void put(K key, V value) {
+        Segment segment = segmentFor(key);
+        synchronized(segment) {
+            segment.put(key, value);
+        }
+    }
+
+    /**
+     * Removes value stored under given key, if it is still
+     * <code>value</code> (another thread may have replaced it).
+     *
+     * @param key key of the value
+     * @param value value to remove
+     * @return true if the value was removed
+     */
+    public boolean remove(K key, V value) {
+        Segment segment = segmentFor(key);
+        synchronized(segment) {
+            if(segment.get(key) != value)
+                return false;
+            segment.remove(key);
+            return true;
+        }
+    }
+
+    /**
+     * Removes all entries from this cache. Does not reset statistics.
+     */
+    public void clear() {
+        for(Segment segment : segments) {
+            synchronized(segment) {
+                segment.clear();
+            }
+        }
+    }
+
+    /**
+     * Returns segment in which given key is stored.
+     */
+    private Segment segmentFor(K key) {
+        int h = key.hashCode();
+        h ^= (h >>> 16);
+        return segments.get(h & (segmentsCount - 1));
+    }
+
+    /**
+     * Part of the cache: a LinkedHashMap in access order, which removes its
+     * least recently used entry when it grows above its capacity.
+     */
+    private class Segment extends LinkedHashMap<K, V> {
+
+        private static final long serialVersionUID = 1L;
+
+        private int capacity;
+
+        Segment(int capacity) {
+            super(16, 0.75f, true);
+            this.capacity = capacity;
+        }
+
+        protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+            if(size() > capacity) {
+                statistics.recordEviction();
+                return true;
+            }
+            return false;
+        }
+    }
+}
@@ -120,7 +120,7 @@ public class FilesPanel extends javax.swing.JPanel implements Observer {
         pathsListPane.setViewportView(pathsList);
 
         jLabel1.setBackground(java.awt.SystemColor.control);
-        jLabel1.setText("Use 'Add' button to add .jar or .class files from which you want to create UML class diagram.");
+        jLabel1.setText("Use 'Add' button to add .jar, .war or .class files or directories of .class files from which you want to create UML class diagram.");
         jLabel1.setVerticalAlignment(javax.swing.SwingConstants.BOTTOM);
 
         nextButton.setText("Next");
@@ -211,8 +211,9 @@ public class FilesPanel extends javax.swing.JPanel implements Observer {
     
     private void addButtonActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_addButtonActionPerformed
         JFileChooser fileChooser = new JFileChooser();
-        FileNameExtensionFilter filer = new FileNameExtensionFilter(".class and .jars", "class", "jar");
+        FileNameExtensionFilter filer = new FileNameExtensionFilter(".class, .jar and .war files", "class", "jar", "war");
         fileChooser.setFileFilter(filer);
+        fileChooser.setFileSelectionMode(JFileChooser.FILES_AND_DIRECTORIES);
         fileChooser.setMultiSelectionEnabled(true);
         int result = fileChooser.showOpenDialog(this);
         
@@ -27,6 +27,7 @@ import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Observable;
 import java.util.Observer;
@@ -37,14 +38,19 @@ import net.sourceforge.code2uml.controller.Controller;
 import net.sourceforge.code2uml.controller.ControllerFactory;
 import net.sourceforge.code2uml.graph.ConstructionHints;
 import net.sourceforge.code2uml.graph.EdgeType;
+import net.sourceforge.code2uml.unitdata.ParseOptions;
 import net.sourceforge.code2uml.unitdata.UnitInfo;
 
 /**
  * Represens the third tabbed pane in user interface. Must be added to a
  * JTabbedPane to work properly. Allows user choosing varoius diagram
- * generation options. After pressing next it gets UnitInfos chosen by
- * the user in the prevoius step and passes them to the controller to construct
- * a diagram from them.
+ * generation options. After pressing next it asks the controller to read
+ * UnitInfos chosen by the user in the prevoius step, only those of their
+ * parts which are needed with chosen options (see 
+ * ConstructionHints.getParseOptions()), and to construct a diagram from them
+ * while they are read. The UnitInfos are kept and used when the diagram is
+ * constructed again with options which need no more, so files are not read
+ * again then.
  *
  * @author Mateusz Wenus
  */
@@ -54,6 +60,13 @@ public class SettingsPanel extends javax.swing.JPanel implements Observer {
     private static final String settingsFileName = ".code2uml.settings";
     private Collection<UnitInfo> units;
     
+    /**
+     * Files, names and options with which <code>units</code> were read.
+     */
+    private Collection<String> unitsFiles;
+    private Collection<String> unitsNames;
+    private ParseOptions unitsOptions;
+    
     /**
      * Creates new form SettingsPanel.
      */
@@ -66,8 +79,8 @@ public class SettingsPanel extends javax.swing.JPanel implements Observer {
     
     /**
      * Enables button on this panel when controller finishes processing
-     * UnitInfos and creating UML diagram from them; shows this panel when
-     * controller finishes getting UnitInfos from files.
+     * UnitInfos and creating UML diagram from them; keeps UnitInfos read
+     * from files for the diagram.
      *
      * @param o observale whose state has changed
      * @param arg notification argument
@@ -79,7 +92,6 @@ public class SettingsPanel extends javax.swing.JPanel implements Observer {
                 setBGThreadWorking(false);
             }
             if((Integer)tab[0] == Controller.UNITS_RESULT) {
-                setAsSelected();
                 units = (Collection<UnitInfo>) tab[1];
             }
         }
@@ -592,8 +604,21 @@ public class SettingsPanel extends javax.swing.JPanel implements Observer {
         ConstructionHints hints = getHints();
         saveSettings(hints);
         JTabbedPane parent = (JTabbedPane) getParent();
+        FilesPanel filesPanel = (FilesPanel) parent.getComponentAt(parent.getSelectedIndex() - 2);
         UnitsPanel unitsPanel = (UnitsPanel) parent.getComponentAt(parent.getSelectedIndex() - 1);
-        controller.processUnits(units,jProgressBar, hints, getGraphics());
+        Collection<String> files = new ArrayList<String>(filesPanel.getSelectedFiles());
+        Collection<String> names = unitsPanel.getSelectedNames();
+        ParseOptions options = hints.getParseOptions();
+        if(units != null && files.equals(unitsFiles) && names.equals(unitsNames) 
+                && unitsOptions.covers(options)) {
+            controller.processUnits(units, jProgressBar, hints, getGraphics());
+        } else {
+            units = null;
+            unitsFiles = files;
+            unitsNames = names;
+            unitsOptions = options;
+            controller.processFiles(files, names, hints, getGraphics(), jProgressBar);
+        }
     }//GEN-LAST:event_nextButtonActionPerformed
     
     private void previousButtonActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_previousButtonActionPerformed
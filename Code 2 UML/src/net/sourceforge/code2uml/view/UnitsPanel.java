@@ -256,11 +256,10 @@ public class UnitsPanel extends javax.swing.JPanel implements Observer {
     }// </editor-fold>//GEN-END:initComponents
     
     private void nextButtonActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_nextButtonActionPerformed
-        setBGThreadWorking(true);
+        // units are read when the diagram is drawn, with options derived
+        // from its settings (see SettingsPanel)
         JTabbedPane parent = (JTabbedPane) getParent();
-        //parent.setSelectedIndex(parent.getSelectedIndex() + 1);
-        FilesPanel filesPanel = (FilesPanel) parent.getComponentAt(parent.getSelectedIndex() - 1);
-        controller.processFiles(filesPanel.getSelectedFiles(), getSelectedNames(), jProgressBar1);
+        parent.setSelectedIndex(parent.getSelectedIndex() + 1);
     }//GEN-LAST:event_nextButtonActionPerformed
     
     private void previousButtonActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_previousButtonActionPerformed
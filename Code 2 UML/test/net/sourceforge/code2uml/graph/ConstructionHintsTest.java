@@ -0,0 +1,122 @@
+/*
+ * ConstructionHintsTest.java
+ *
+ * Created on 18 October 2026, 12:10
+ *
+ * Copyright 2026 Code2Uml contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.sourceforge.code2uml.graph;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Collection;
+import net.sourceforge.code2uml.inspectors.java.ClassFileInspector;
+import net.sourceforge.code2uml.inspectors.java.DescriptorCache;
+import net.sourceforge.code2uml.unitdata.AccessType;
+import net.sourceforge.code2uml.unitdata.FieldInfo;
+import net.sourceforge.code2uml.unitdata.ParseOptions;
+import net.sourceforge.code2uml.unitdata.UnitInfo;
+import net.sourceforge.code2uml.util.CacheStatistics;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Tests of ConstructionHints.getParseOptions(): members hidden by hints
+ * must not be read, so their types are not decoded.
+ *
+ * @author Code2Uml contributors
+ */
+public class ConstructionHintsTest {
+
+    private File file;
+
+    @Before
+    public void setUp() throws IOException {
+        // ConstructionHints has private fields and public methods
+        file = File.createTempFile("Hints", ".class");
+        InputStream in = ConstructionHints.class.getResourceAsStream("ConstructionHints.class");
+        OutputStream out = new FileOutputStream(file);
+        byte[] buf = new byte[4096];
+        int n;
+        while((n = in.read(buf)) > 0)
+            out.write(buf, 0, n);
+        out.close();
+        in.close();
+    }
+
+    @After
+    public void tearDown() {
+        file.delete();
+    }
+
+    private UnitInfo read(ParseOptions options) {
+        Collection<UnitInfo> units = new ClassFileInspector().inspect(file.getPath(), null, options);
+        assertEquals(1, units.size());
+        return units.iterator().next();
+    }
+
+    /**
+     * Returns how many descriptors and signatures are looked up in the
+     * shared DescriptorCache while the file is read with
+     * <code>options</code>.
+     */
+    private long decodedTypes(ParseOptions options) {
+        CacheStatistics before = DescriptorCache.getShared().getStatistics().snapshot();
+        read(options);
+        CacheStatistics read = DescriptorCache.getShared().getStatistics().since(before);
+        return read.getHits() + read.getMisses();
+    }
+
+    @Test
+    public void readsEverythingShown() {
+        ConstructionHints hints = new ConstructionHints();
+        assertFalse(hints.getParseOptions().isAssociationsRead());
+        hints.setHasADrawn(true);
+        assertTrue(hints.getParseOptions().isFull());
+    }
+
+    @Test
+    public void skipsHiddenMembers() {
+        UnitInfo full = read(new ParseOptions());
+        assertFalse(full.getFields().isEmpty());
+        assertFalse(full.getMethods().isEmpty());
+
+        ConstructionHints hints = new ConstructionHints();
+        hints.setFieldsVisible(false);
+        hints.setMethodsVisible(false);
+        UnitInfo unit = read(hints.getParseOptions());
+        assertEquals(ConstructionHints.class.getName(), unit.getName());
+        assertTrue(unit.getFields().isEmpty());
+        assertTrue(unit.getMethods().isEmpty());
+        assertTrue(decodedTypes(hints.getParseOptions()) < decodedTypes(new ParseOptions()));
+    }
+
+    @Test
+    public void skipsHiddenAccessTypes() {
+        ConstructionHints hints = new ConstructionHints();
+        hints.setPrivateVisible(false);
+        UnitInfo unit = read(hints.getParseOptions());
+        for(FieldInfo field : unit.getFields())
+            assertFalse(field.getAccessType() == AccessType.PRIVATE);
+        assertFalse(unit.getMethods().isEmpty());
+        assertTrue(decodedTypes(hints.getParseOptions()) < decodedTypes(new ParseOptions()));
+    }
+}
@@ -0,0 +1,166 @@
+/*
+ * ConstantPoolReaderTest.java
+ *
+ * Created on 17 October 2026, 23:40
+ *
+ * Copyright 2026 Code2Uml contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.sourceforge.code2uml.inspectors.java;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Tests of ConstantPoolReader: entries of every tag, including those added
+ * after Java 6 (15-20), and the unused second slots of CONSTANT_Long_info
+ * and CONSTANT_Double_info.
+ *
+ * @author Code2Uml contributors
+ */
+public class ConstantPoolReaderTest {
+
+    private static final int COUNT = 18;
+
+    /**
+     * Returns a constant_pool with COUNT - 1 slots, followed by a marker
+     * short 0xCAFE.
+     */
+    private static byte[] pool() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeByte(ConstantPoolReader.CONSTANT_Utf8);        // 1
+        out.writeUTF("a");
+        out.writeByte(ConstantPoolReader.CONSTANT_Long);        // 2, 3
+        out.writeLong(0x0123456789ABCDEFL);
+        out.writeByte(ConstantPoolReader.CONSTANT_MethodHandle); // 4
+        out.writeByte(6);
+        out.writeShort(5);
+        out.writeByte(ConstantPoolReader.CONSTANT_Methodref);   // 5
+        out.writeShort(6);
+        out.writeShort(8);
+        out.writeByte(ConstantPoolReader.CONSTANT_Class);       // 6
+        out.writeShort(7);
+        out.writeByte(ConstantPoolReader.CONSTANT_Utf8);        // 7
+        out.writeUTF("p/Q");
+        out.writeByte(ConstantPoolReader.CONSTANT_NameAndType); // 8
+        out.writeShort(1);
+        out.writeShort(9);
+        out.writeByte(ConstantPoolReader.CONSTANT_Utf8);        // 9
+        out.writeUTF("()V");
+        out.writeByte(ConstantPoolReader.CONSTANT_MethodType);  // 10
+        out.writeShort(9);
+        out.writeByte(ConstantPoolReader.CONSTANT_Dynamic);     // 11
+        out.writeShort(0);
+        out.writeShort(8);
+        out.writeByte(ConstantPoolReader.CONSTANT_InvokeDynamic); // 12
+        out.writeShort(0);
+        out.writeShort(8);
+        out.writeByte(ConstantPoolReader.CONSTANT_Module);      // 13
+        out.writeShort(1);
+        out.writeByte(ConstantPoolReader.CONSTANT_Package);     // 14
+        out.writeShort(1);
+        out.writeByte(ConstantPoolReader.CONSTANT_Double);      // 15, 16
+        out.writeDouble(1.5);
+        out.writeByte(ConstantPoolReader.CONSTANT_Utf8);        // 17
+        out.writeUTF("end");
+        out.writeShort(0xCAFE);
+        out.close();
+        return bytes.toByteArray();
+    }
+
+    private static void checkPool(ConstantPool pool) throws IOException {
+        assertEquals(COUNT, pool.getCount());
+        int[] tags = {0, 1, 5, 0, 15, 10, 7, 1, 12, 1, 16, 17, 18, 19, 20, 6, 0, 1};
+        for(int i = 0; i < COUNT; i++)
+            assertEquals("tag of entry " + i, tags[i], pool.getTag(i));
+        assertEquals("a", pool.getUtf8(1));
+        assertEquals("()V", pool.getUtf8(9));
+        assertEquals("end", pool.getUtf8(17));
+        assertNull(pool.getUtf8(3));
+        assertEquals("p/Q", pool.getClassName(6));
+        assertEquals(9, pool.getShort(10));
+        assertEquals(1, pool.getShort(14));
+    }
+
+    @Test
+    public void readsBuffer() throws IOException {
+        ByteBufferInput in = new ByteBufferInput(ByteBuffer.wrap(pool()));
+        checkPool(new ConstantPoolReader().read(in, COUNT));
+        assertEquals(0xCAFE, in.readUnsignedShort());
+    }
+
+    @Test
+    public void readsStream() throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(pool()));
+        checkPool(new ConstantPoolReader().read(in, COUNT));
+        assertEquals(0xCAFE, in.readUnsignedShort());
+    }
+
+    @Test
+    public void reusesPool() throws IOException {
+        ConstantPoolReader reader = new ConstantPoolReader();
+        ConstantPool pool = reader.read(new ByteBufferInput(ByteBuffer.wrap(pool())), COUNT);
+        byte[] small = {ConstantPoolReader.CONSTANT_Utf8, 0, 1, 'b'};
+        assertSame(pool, reader.read(new ByteBufferInput(ByteBuffer.wrap(small)), 2, pool));
+        assertEquals(2, pool.getCount());
+        assertEquals("b", pool.getUtf8(1));
+        assertEquals(0, pool.getTag(2));
+        assertSame(pool, reader.read(new ByteBufferInput(ByteBuffer.wrap(pool())), COUNT, pool));
+        checkPool(pool);
+    }
+
+    @Test
+    public void skimsOffsets() throws IOException {
+        byte[] data = pool();
+        ByteBuffer buffer = ByteBuffer.allocate(data.length + 3);
+        buffer.position(3);
+        buffer.put(data);
+        buffer.position(3);
+        ByteBufferInput in = new ByteBufferInput(buffer);
+        int[] offsets = new ConstantPoolReader().skim(in, COUNT, new int[] {7, 7, 7, 7});
+        assertTrue(offsets.length >= COUNT);
+        assertEquals(4, offsets[1]);
+        assertEquals(0, offsets[3]);
+        assertEquals(0, offsets[16]);
+        assertEquals(7, buffer.getShort(offsets[6]));
+        assertEquals(ConstantPoolReader.CONSTANT_Utf8, buffer.get(offsets[17] - 1));
+        assertEquals(0xCAFE, in.readUnsignedShort());
+    }
+
+    @Test(expected = IOException.class)
+    public void rejectsUnknownTag() throws IOException {
+        byte[] data = {ConstantPoolReader.CONSTANT_Utf8, 0, 0, 2, 0, 0};
+        new ConstantPoolReader().read(new ByteBufferInput(ByteBuffer.wrap(data)), 3);
+    }
+
+    @Test(expected = IOException.class)
+    public void rejectsUnknownTagInStream() throws IOException {
+        byte[] data = {21, 0, 0};
+        new ConstantPoolReader().read(new DataInputStream(new ByteArrayInputStream(data)), 2);
+    }
+
+    @Test(expected = IOException.class)
+    public void rejectsTruncatedPool() throws IOException {
+        byte[] data = {ConstantPoolReader.CONSTANT_Utf8, 0, 5, 'a'};
+        new ConstantPoolReader().read(new ByteBufferInput(ByteBuffer.wrap(data)), 2);
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ * JarFileInspectorTest.java
+ *
+ * Created on 18 October 2026, 10:20
+ *
+ * Copyright 2026 Code2Uml contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.sourceforge.code2uml.inspectors.java;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+import net.sourceforge.code2uml.unitdata.UnitInfo;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Tests of JarFileInspector reading jars nested in a fat jar: only those in
+ * library directories are read.
+ *
+ * @author Code2Uml contributors
+ */
+public class JarFileInspectorTest {
+
+    private File file;
+
+    @Before
+    public void setUp() throws IOException {
+        file = File.createTempFile("fat", ".jar");
+    }
+
+    @After
+    public void tearDown() {
+        file.delete();
+    }
+
+    /**
+     * Returns name of the entry holding the .class file of <code>c</code>.
+     */
+    private static String entryName(Class<?> c) {
+        return c.getName().replace('.', '/') + ".class";
+    }
+
+    private static byte[] classFile(Class<?> c) throws IOException {
+        InputStream in = c.getResourceAsStream("/" + entryName(c));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buf = new byte[4096];
+        int n;
+        while((n = in.read(buf)) > 0)
+            out.write(buf, 0, n);
+        in.close();
+        return out.toByteArray();
+    }
+
+    private static byte[] jarOf(Class<?> c) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ZipOutputStream zip = new ZipOutputStream(bytes);
+        zip.putNextEntry(new ZipEntry(entryName(c)));
+        zip.write(classFile(c));
+        zip.closeEntry();
+        zip.close();
+        return bytes.toByteArray();
+    }
+
+    private static void putEntry(ZipOutputStream zip, String name, byte[] data) throws IOException {
+        zip.putNextEntry(new ZipEntry(name));
+        zip.write(data);
+        zip.closeEntry();
+    }
+
+    @Test
+    public void recognizesLibraries() {
+        assertTrue(JarFileInspector.isLibrary("BOOT-INF/lib/a.jar"));
+        assertTrue(JarFileInspector.isLibrary("WEB-INF/lib/a.jar"));
+        assertTrue(JarFileInspector.isLibrary("WEB-INF/lib-provided/a.jar"));
+        assertFalse(JarFileInspector.isLibrary("a.jar"));
+        assertFalse(JarFileInspector.isLibrary("lib/a.jar"));
+        assertFalse(JarFileInspector.isLibrary("BOOT-INF/lib/test/a.jar"));
+        assertFalse(JarFileInspector.isLibrary("BOOT-INF/classes/a.jar"));
+        assertFalse(JarFileInspector.isLibrary("BOOT-INF/lib/a.zip"));
+    }
+
+    @Test
+    public void readsOnlyLibraries() throws IOException {
+        ZipOutputStream zip = new ZipOutputStream(new FileOutputStream(file));
+        putEntry(zip, "BOOT-INF/classes/" + entryName(JarFileInspectorTest.class),
+                 classFile(JarFileInspectorTest.class));
+        putEntry(zip, "BOOT-INF/lib/library.jar", jarOf(MappedJarFileTest.class));
+        putEntry(zip, "BOOT-INF/classes/data/resource.jar", jarOf(TypeDecoderTest.class));
+        zip.close();
+
+        Map<String, String> origins = new HashMap<String, String>();
+        for(UnitInfo unit : new JarFileInspector().inspect(file.getPath()))
+            origins.put(unit.getName(), unit.getOrigin());
+        assertEquals(2, origins.size());
+        assertTrue(origins.containsKey(JarFileInspectorTest.class.getName()));
+        assertNull(origins.get(JarFileInspectorTest.class.getName()));
+        assertEquals("BOOT-INF/lib/library.jar", origins.get(MappedJarFileTest.class.getName()));
+    }
+}
@@ -0,0 +1,255 @@
+/*
+ * MappedJarFileTest.java
+ *
+ * Created on 17 October 2026, 23:50
+ *
+ * Copyright 2026 Code2Uml contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.sourceforge.code2uml.inspectors.java;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipOutputStream;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Tests of MappedJarFile: entries read from the central directory of a
+ * mapped archive must be the same as those read by ZipFile, and archives
+ * it doesn't support must be read by ZipFile instead.
+ *
+ * @author Code2Uml contributors
+ */
+public class MappedJarFileTest {
+
+    private File file;
+
+    @Before
+    public void setUp() throws IOException {
+        file = File.createTempFile("mapped", ".jar");
+    }
+
+    @After
+    public void tearDown() {
+        file.delete();
+    }
+
+    /**
+     * Returns n bytes of data which deflate well but not to nothing.
+     */
+    private static byte[] content(int n, int seed) {
+        byte[] data = new byte[n];
+        for(int i = 0; i < n; i++)
+            data[i] = (byte) ((i * seed) % 13 + i / 100);
+        return data;
+    }
+
+    private static void putEntry(ZipOutputStream zip, String name, byte[] data, boolean stored)
+            throws IOException {
+        ZipEntry entry = new ZipEntry(name);
+        if(stored) {
+            CRC32 crc = new CRC32();
+            crc.update(data);
+            entry.setMethod(ZipEntry.STORED);
+            entry.setSize(data.length);
+            entry.setCompressedSize(data.length);
+            entry.setCrc(crc.getValue());
+        }
+        zip.putNextEntry(entry);
+        zip.write(data);
+        zip.closeEntry();
+    }
+
+    private static byte[] nestedJar() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ZipOutputStream zip = new ZipOutputStream(bytes);
+        putEntry(zip, "q/Inner.class", content(300, 3), false);
+        putEntry(zip, "q/Stored.class", content(40, 5), true);
+        zip.close();
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Writes the test archive, preceded by <code>prefix</code> bytes of a
+     * launcher script.
+     */
+    private void writeJar(int prefix) throws IOException {
+        OutputStream out = new FileOutputStream(file);
+        for(int i = 0; i < prefix; i++)
+            out.write('#');
+        ZipOutputStream zip = new ZipOutputStream(out);
+        zip.setComment("comment");
+        putEntry(zip, "META-INF/MANIFEST.MF", "Manifest-Version: 1.0\n".getBytes("UTF-8"), false);
+        putEntry(zip, "p/", new byte[0], true);
+        putEntry(zip, "p/A.class", content(5000, 7), false);
+        putEntry(zip, "p/B.class", content(700, 11), true);
+        putEntry(zip, "p/\u017c\u00f3\u0142w.class", content(10, 2), false);
+        putEntry(zip, "lib/nested.jar", nestedJar(), true);
+        zip.close();
+    }
+
+    private static byte[] bytes(ByteBuffer buffer) {
+        byte[] result = new byte[buffer.remaining()];
+        buffer.duplicate().get(result);
+        return result;
+    }
+
+    private static byte[] bytes(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buf = new byte[4096];
+        int n;
+        while((n = in.read(buf)) > 0)
+            out.write(buf, 0, n);
+        in.close();
+        return out.toByteArray();
+    }
+
+    /**
+     * Checks that <code>jar</code> has the same entries, with the same
+     * contents, as the test archive read by ZipFile.
+     */
+    private void checkEntries(MappedJarFile jar) throws IOException {
+        ZipFile zipFile = new ZipFile(file);
+        try {
+            List<? extends ZipEntry> expected = Collections.list(zipFile.entries());
+            List<ZipEntry> entries = jar.getEntries();
+            assertEquals(expected.size(), entries.size());
+            for(int i = 0; i < entries.size(); i++) {
+                ZipEntry e = expected.get(i);
+                ZipEntry entry = entries.get(i);
+                assertEquals(e.getName(), entry.getName());
+                assertEquals(e.getName(), e.getSize(), entry.getSize());
+                assertEquals(e.getName(), e.getCrc(), entry.getCrc());
+                assertEquals(e.getName(), e.getMethod(), entry.getMethod());
+                assertEquals(e.isDirectory(), entry.isDirectory());
+                assertArrayEquals(e.getName(), bytes(zipFile.getInputStream(e)), bytes(jar.read(entry)));
+            }
+        } finally {
+            zipFile.close();
+        }
+    }
+
+    private static ZipEntry find(MappedJarFile jar, String name) {
+        for(ZipEntry entry : jar.getEntries()) {
+            if(entry.getName().equals(name))
+                return entry;
+        }
+        fail("no entry " + name);
+        return null;
+    }
+
+    @Test
+    public void readsCentralDirectory() throws IOException {
+        writeJar(0);
+        MappedJarFile jar = new MappedJarFile(file.getPath());
+        try {
+            assertTrue(jar.isMapped());
+            checkEntries(jar);
+        } finally {
+            jar.close();
+        }
+    }
+
+    @Test
+    public void readsArchiveAfterPrefix() throws IOException {
+        writeJar(1000);
+        MappedJarFile jar = new MappedJarFile(file.getPath());
+        try {
+            assertTrue(jar.isMapped());
+            checkEntries(jar);
+        } finally {
+            jar.close();
+        }
+    }
+
+    @Test
+    public void readsStoredPositions() throws IOException {
+        writeJar(100);
+        MappedJarFile jar = new MappedJarFile(file.getPath());
+        try {
+            for(String name : new String[] {"p/A.class", "p/B.class"}) {
+                ZipEntry entry = find(jar, name);
+                long position = jar.getStoredPosition(entry);
+                assertTrue(position > 100);
+                byte[] expected = bytes(jar.read(entry));
+                assertArrayEquals(name, expected, bytes(MappedJarFile.readStored(file, position, entry)));
+            }
+        } finally {
+            jar.close();
+        }
+    }
+
+    @Test
+    public void readsNestedArchive() throws IOException {
+        writeJar(10);
+        MappedJarFile jar = new MappedJarFile(file.getPath());
+        try {
+            MappedJarFile nested = jar.openNested(find(jar, "lib/nested.jar"));
+            assertEquals(file, nested.getFile());
+            ZipEntry inner = find(nested, "q/Inner.class");
+            assertArrayEquals(content(300, 3), bytes(nested.read(inner)));
+            ZipEntry stored = find(nested, "q/Stored.class");
+            assertArrayEquals(content(40, 5), bytes(nested.read(stored)));
+            long position = nested.getStoredPosition(stored);
+            assertArrayEquals(content(40, 5), bytes(MappedJarFile.readStored(file, position, stored)));
+            position = nested.getStoredPosition(inner);
+            assertArrayEquals(content(300, 3), bytes(MappedJarFile.readStored(file, position, inner)));
+        } finally {
+            jar.close();
+        }
+    }
+
+    @Test
+    public void fallsBackToZipFile() throws IOException {
+        // 0xFFFF entries make ZipOutputStream write a ZIP64 end record
+        ZipOutputStream zip = new ZipOutputStream(new FileOutputStream(file));
+        for(int i = 0; i < 0xFFFF; i++)
+            putEntry(zip, "e" + i, new byte[] {(byte) i}, true);
+        zip.close();
+
+        MappedJarFile jar = new MappedJarFile(file.getPath());
+        try {
+            assertFalse(jar.isMapped());
+            assertEquals(0xFFFF, jar.getEntries().size());
+            ZipEntry entry = jar.getEntries().get(300);
+            assertEquals("e300", entry.getName());
+            assertArrayEquals(new byte[] {(byte) 300}, bytes(jar.read(entry)));
+            assertEquals(-1, jar.getStoredPosition(entry));
+        } finally {
+            jar.close();
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void rejectsNonArchive() throws IOException {
+        OutputStream out = new FileOutputStream(file);
+        out.write(content(100, 1));
+        out.close();
+        new MappedJarFile(file.getPath());
+    }
+}
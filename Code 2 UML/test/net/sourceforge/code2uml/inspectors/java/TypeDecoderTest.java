@@ -0,0 +1,164 @@
+/*
+ * TypeDecoderTest.java
+ *
+ * Created on 17 October 2026, 23:45
+ *
+ * Copyright 2026 Code2Uml contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.sourceforge.code2uml.inspectors.java;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import net.sourceforge.code2uml.unitdata.SymbolTable;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Tests of TypeDecoder: it must decode descriptors and signatures exactly
+ * as DescriptorReader and SignatureReader, which it replaced, do.
+ *
+ * @author Code2Uml contributors
+ */
+public class TypeDecoderTest {
+
+    private static final String[] fieldDescriptors = {
+        "I", "Z", "J", "[D", "[[B", "Ljava/lang/String;", "[Ljava/util/Map$Entry;"
+    };
+
+    private static final String[] methodDescriptors = {
+        "()V", "(I)I", "(Ljava/lang/String;[IJ)[Ljava/lang/Object;",
+        "([[Ljava/util/List;DZ)Ljava/util/Map$Entry;", "(CSFB)V"
+    };
+
+    private static final String[] fieldSignatures = {
+        "Ljava/util/List<Ljava/lang/String;>;",
+        "Ljava/util/Map<TK;[TV;>;",
+        "Ljava/util/List<*>;",
+        "Ljava/util/List<+Ljava/lang/Number;>;",
+        "Ljava/util/Comparator<-TT;>;",
+        "Lp/Outer<TT;>.Inner<Ljava/lang/String;>;",
+        "[Ljava/util/Set<Ljava/util/List<[I>;>;",
+        "TT;"
+    };
+
+    private static final String[] methodSignatures = {
+        "<T:Ljava/lang/Object;>(Ljava/util/List<TT;>;)TT;",
+        "<K::Ljava/lang/Comparable<TK;>;V:Ljava/lang/Object;>(TK;[TV;I)Ljava/util/Map<TK;TV;>;",
+        "(Ljava/util/Collection<+TE;>;)Z",
+        "()V^Ljava/io/IOException;",
+        "<X:Ljava/lang/Throwable;>()V^TX;"
+    };
+
+    private TypeDecoder decoder;
+
+    @Before
+    public void setUp() {
+        decoder = new TypeDecoder(new SymbolTable(), new DescriptorCache(64));
+    }
+
+    /**
+     * Returns a ConstantPool whose entries 1..n are CONSTANT_Utf8_infos
+     * holding <code>strings</code>.
+     */
+    private static ConstantPool pool(String... strings) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        for(String str : strings) {
+            out.writeByte(ConstantPoolReader.CONSTANT_Utf8);
+            out.writeUTF(str);
+        }
+        out.close();
+        ByteBufferInput in = new ByteBufferInput(ByteBuffer.wrap(bytes.toByteArray()));
+        return new ConstantPoolReader().read(in, strings.length + 1);
+    }
+
+    /**
+     * Returns return type followed by arguments, as DescriptorReader and
+     * SignatureReader return them.
+     */
+    private static List<String> asList(DecodedType type) {
+        List<String> result = new ArrayList<String>();
+        result.add(type.getTypeName());
+        result.addAll(type.getArguments());
+        return result;
+    }
+
+    @Test
+    public void decodesFieldDescriptors() throws IOException {
+        ConstantPool pool = pool(fieldDescriptors);
+        for(int i = 0; i < fieldDescriptors.length; i++) {
+            String expected = new DescriptorReader().readFieldDescriptor(CharBuffer.wrap(fieldDescriptors[i]));
+            assertEquals(fieldDescriptors[i], expected, decoder.readFieldDescriptor(pool, i + 1));
+        }
+    }
+
+    @Test
+    public void decodesMethodDescriptors() throws IOException {
+        ConstantPool pool = pool(methodDescriptors);
+        for(int i = 0; i < methodDescriptors.length; i++) {
+            List<String> expected = new DescriptorReader().readMethodDescriptor(CharBuffer.wrap(methodDescriptors[i]));
+            assertEquals(methodDescriptors[i], expected, asList(decoder.readMethodDescriptor(pool, i + 1)));
+        }
+    }
+
+    @Test
+    public void decodesFieldSignatures() throws IOException {
+        ConstantPool pool = pool(fieldSignatures);
+        for(int i = 0; i < fieldSignatures.length; i++) {
+            String expected = new SignatureReader().readFieldTypeSignature(CharBuffer.wrap(fieldSignatures[i]));
+            assertEquals(fieldSignatures[i], expected, decoder.readFieldSignature(pool, i + 1));
+        }
+    }
+
+    @Test
+    public void decodesMethodSignatures() throws IOException {
+        ConstantPool pool = pool(methodSignatures);
+        for(int i = 0; i < methodSignatures.length; i++) {
+            List<String> expected = new SignatureReader().readMethodTypeSignature(CharBuffer.wrap(methodSignatures[i]));
+            assertEquals(methodSignatures[i], expected, asList(decoder.readMethodSignature(pool, i + 1)));
+        }
+    }
+
+    @Test
+    public void decodesClassNames() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeByte(ConstantPoolReader.CONSTANT_Utf8);
+        out.writeUTF("java/util/Map$Entry");
+        out.writeByte(ConstantPoolReader.CONSTANT_Class);
+        out.writeShort(1);
+        out.close();
+        ByteBufferInput in = new ByteBufferInput(ByteBuffer.wrap(bytes.toByteArray()));
+        ConstantPool pool = new ConstantPoolReader().read(in, 3);
+        assertEquals("java.util.Map$Entry", decoder.readClassName(pool, 2));
+        assertNull(decoder.readClassName(pool, 1));
+    }
+
+    @Test
+    public void cachedTypesAreTheSame() throws IOException {
+        ConstantPool pool = pool(methodDescriptors);
+        DecodedType first = decoder.readMethodDescriptor(pool, 3);
+        TypeDecoder other = new TypeDecoder(new SymbolTable(), new DescriptorCache(64));
+        assertEquals(asList(first), asList(other.readMethodDescriptor(pool, 3)));
+        assertSame(first, decoder.readMethodDescriptor(pool(methodDescriptors), 3));
+    }
+}
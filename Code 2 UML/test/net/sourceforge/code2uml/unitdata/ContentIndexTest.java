@@ -0,0 +1,171 @@
+/*
+ * ContentIndexTest.java
+ *
+ * Created on 18 October 2026, 00:10
+ *
+ * Copyright 2026 Code2Uml contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.sourceforge.code2uml.unitdata;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.Collection;
+import java.util.zip.CRC32;
+import net.sourceforge.code2uml.inspectors.java.ClassFileInspector;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Tests of ContentIndex: keys of the same content placed in different
+ * directories, and sharing of the first unit remembered under a key.
+ *
+ * @author Code2Uml contributors
+ */
+public class ContentIndexTest {
+
+    private static UnitInfo unit(String name) {
+        UnitInfoImpl unit = new UnitInfoImpl();
+        unit.setName(name);
+        return unit;
+    }
+
+    @Test
+    public void keyIgnoresDirectory() {
+        String key = ContentIndex.key(null, "p/A.class", 10, 0xABC);
+        assertEquals(key, ContentIndex.key(null, "lib/x/p/A.class", 10, 0xABC));
+        assertEquals(key, ContentIndex.key(null, "target" + File.separator + "A.class", 10, 0xABC));
+        assertEquals(key, ContentIndex.key(null, "A.class", 10, 0xABC));
+        assertFalse(key.equals(ContentIndex.key(null, "p/B.class", 10, 0xABC)));
+        assertFalse(key.equals(ContentIndex.key(null, "p/A.class", 11, 0xABC)));
+        assertFalse(key.equals(ContentIndex.key(null, "p/A.class", 10, 0xABD)));
+    }
+
+    @Test
+    public void keyIncludesOrigin() {
+        String key = ContentIndex.key("lib/a.jar", "p/A.class", 10, 0xABC);
+        assertEquals(key, ContentIndex.key("lib/a.jar", "q/A.class", 10, 0xABC));
+        assertFalse(key.equals(ContentIndex.key(null, "p/A.class", 10, 0xABC)));
+        assertFalse(key.equals(ContentIndex.key("lib/b.jar", "p/A.class", 10, 0xABC)));
+    }
+
+    @Test
+    public void checksumIsCrcOfRemainingBytes() {
+        byte[] data = {1, 2, 3, 4, 5};
+        CRC32 crc = new CRC32();
+        crc.update(data, 1, 3);
+        ByteBuffer buffer = ByteBuffer.wrap(data, 1, 3);
+        assertEquals(crc.getValue(), ContentIndex.checksum(buffer));
+        assertEquals(1, buffer.position());
+    }
+
+    @Test
+    public void sharesFirstUnit() {
+        ContentIndex index = new ContentIndex();
+        UnitInfo first = unit("p.A");
+        assertNull(index.get("k"));
+        assertSame(first, index.put("k", first));
+        assertSame(first, index.put("k", unit("p.A")));
+        assertSame(first, index.get("k"));
+        assertNull(index.put("l", null));
+        assertEquals(1, index.size());
+        assertEquals(1, index.getStatistics().getHits());
+        assertEquals(1, index.getStatistics().getMisses());
+    }
+
+    @Test
+    public void forgetsUnitsWhenClosed() {
+        ContentIndex index = new ContentIndex();
+        index.put("k", unit("p.A"));
+        index.close();
+        assertEquals(0, index.size());
+        assertNull(index.get("k"));
+        UnitInfo unit = unit("p.B");
+        assertSame(unit, index.put("k", unit));
+        assertNull(index.get("k"));
+    }
+
+    /**
+     * Returns contents of the .class file of this test.
+     */
+    private static byte[] classFile() throws IOException {
+        InputStream in = ContentIndexTest.class.getResourceAsStream("ContentIndexTest.class");
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buf = new byte[4096];
+        int n;
+        while((n = in.read(buf)) > 0)
+            out.write(buf, 0, n);
+        in.close();
+        return out.toByteArray();
+    }
+
+    private static File write(File directory, byte[] data) throws IOException {
+        directory.mkdir();
+        File file = new File(directory, "ContentIndexTest.class");
+        OutputStream out = new FileOutputStream(file);
+        out.write(data);
+        out.close();
+        return file;
+    }
+
+    private static UnitInfo inspect(File file, ParseOptions options) {
+        Collection<UnitInfo> units = new ClassFileInspector().inspect(file.getPath(), null, options);
+        assertEquals(1, units.size());
+        return units.iterator().next();
+    }
+
+    @Test
+    public void inspectorParsesSameContentOnce() throws IOException {
+        byte[] data = classFile();
+        File root = File.createTempFile("index", "");
+        root.delete();
+        root.mkdir();
+        File a = write(new File(root, "a"), data);
+        File b = write(new File(root, "b"), data);
+        try {
+            ContentIndex index = new ContentIndex();
+            ParseOptions options = new ParseOptions();
+            options.setContentIndex(index);
+            UnitInfo unit = inspect(a, options);
+            assertEquals(ContentIndexTest.class.getName(), unit.getName());
+            assertSame(unit, inspect(b, options));
+            assertEquals(1, index.size());
+            assertEquals(1, index.getStatistics().getHits());
+
+            // a unit with another name under the same key is not shared
+            index = new ContentIndex();
+            String key = ContentIndex.key(null, b.getPath(), data.length,
+                                          ContentIndex.checksum(ByteBuffer.wrap(data)));
+            UnitInfo other = unit("p.Other");
+            index.put(key, other);
+            options.setContentIndex(index);
+            unit = inspect(b, options);
+            assertNotSame(other, unit);
+            assertEquals(ContentIndexTest.class.getName(), unit.getName());
+            assertSame(other, index.get(key));
+        } finally {
+            a.delete();
+            b.delete();
+            a.getParentFile().delete();
+            b.getParentFile().delete();
+            root.delete();
+        }
+    }
+}
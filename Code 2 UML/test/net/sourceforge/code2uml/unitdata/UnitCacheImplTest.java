@@ -0,0 +1,342 @@
+/*
+ * UnitCacheImplTest.java
+ *
+ * Created on 17 October 2026, 23:55
+ *
+ * Copyright 2026 Code2Uml contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.sourceforge.code2uml.unitdata;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Tests of UnitCacheImpl: units must be read back as they were stored, and
+ * only while the cached file has not changed.
+ *
+ * @author Code2Uml contributors
+ */
+public class UnitCacheImplTest {
+
+    private File directory;
+    private File file;
+    private UnitCacheImpl cache;
+
+    @Before
+    public void setUp() throws IOException {
+        directory = File.createTempFile("units", "");
+        directory.delete();
+        file = File.createTempFile("cached", ".class");
+        write(file, 10);
+        cache = new UnitCacheImpl(directory);
+    }
+
+    @After
+    public void tearDown() {
+        file.delete();
+        File[] files = directory.listFiles();
+        if(files != null) {
+            for(File f : files)
+                f.delete();
+        }
+        directory.delete();
+    }
+
+    private static void write(File file, int n) throws IOException {
+        OutputStream out = new FileOutputStream(file);
+        for(int i = 0; i < n; i++)
+            out.write(i);
+        out.close();
+        file.setLastModified(1000000000000L + 1000L * n);
+    }
+
+    private static UnitInfo unit(String name) {
+        UnitInfoImpl unit = new UnitInfoImpl();
+        unit.setName(name);
+        unit.setSimpleName(name.substring(name.lastIndexOf('.') + 1));
+        unit.setIsPublic(true);
+        unit.setIsClass(true);
+        unit.setIsAbstract(true);
+        unit.setOrigin("lib/a.jar");
+        unit.addSupertype("java.lang.Object");
+        unit.addSupertype("java.io.Serializable");
+
+        FieldInfoImpl field = new FieldInfoImpl();
+        field.setName("count");
+        field.setTypeName("int");
+        field.setAccessType(AccessType.PRIVATE);
+        field.setStatic(true);
+        field.setIsFinal(true);
+        unit.addField(field);
+
+        MethodInfoImpl method = new MethodInfoImpl();
+        method.setName("get");
+        method.setReturnTypeName("java.util.List<java.lang.String>");
+        method.setAccessType(AccessType.PROTECTED);
+        method.setAbstract(true);
+        method.setArguments(Arrays.asList("int", "java.lang.String[]"));
+        unit.addMethod(method);
+
+        method = new MethodInfoImpl();
+        method.setName("<init>");
+        method.setReturnTypeName("void");
+        method.setAccessType(AccessType.PUBLIC);
+        method.setArguments(new ArrayList<String>());
+        unit.addMethod(method);
+        return unit;
+    }
+
+    private static UnitInfo enumUnit() {
+        UnitInfoImpl unit = new UnitInfoImpl();
+        unit.setName("p.Color");
+        unit.setSimpleName("Color");
+        unit.setIsEnum(true);
+        unit.setIsPartial(true);
+        unit.addSupertype("java.lang.Enum<p.Color>");
+        unit.addEnumValue("RED");
+        unit.addEnumValue("GREEN");
+        return unit;
+    }
+
+    private static void assertSameUnit(UnitInfo expected, UnitInfo unit) {
+        assertEquals(expected.getName(), unit.getName());
+        assertEquals(expected.getSimpleName(), unit.getSimpleName());
+        assertEquals(expected.getOrigin(), unit.getOrigin());
+        assertEquals(expected.isPublic(), unit.isPublic());
+        assertEquals(expected.isClass(), unit.isClass());
+        assertEquals(expected.isInterface(), unit.isInterface());
+        assertEquals(expected.isEnum(), unit.isEnum());
+        assertEquals(expected.isAbstract(), unit.isAbstract());
+        assertEquals(expected.isPartial(), unit.isPartial());
+        assertEquals(new HashSet<String>(expected.getSupertypes()),
+                     new HashSet<String>(unit.getSupertypes()));
+        assertEquals(new HashSet<String>(expected.getEnumValues()),
+                     new HashSet<String>(unit.getEnumValues()));
+
+        assertEquals(expected.getFields().size(), unit.getFields().size());
+        Map<String, FieldInfo> fields = new HashMap<String, FieldInfo>();
+        for(FieldInfo field : unit.getFields())
+            fields.put(field.getName(), field);
+        for(FieldInfo e : expected.getFields()) {
+            FieldInfo field = fields.get(e.getName());
+            assertNotNull(e.getName(), field);
+            assertEquals(e.getName(), field.getName());
+            assertEquals(e.getTypeName(), field.getTypeName());
+            assertEquals(e.getAccessType(), field.getAccessType());
+            assertEquals(e.isStatic(), field.isStatic());
+            assertEquals(e.isFinal(), field.isFinal());
+        }
+
+        assertEquals(expected.getMethods().size(), unit.getMethods().size());
+        Map<String, MethodInfo> methods = new HashMap<String, MethodInfo>();
+        for(MethodInfo method : unit.getMethods())
+            methods.put(method.getName(), method);
+        for(MethodInfo e : expected.getMethods()) {
+            MethodInfo method = methods.get(e.getName());
+            assertNotNull(e.getName(), method);
+            assertEquals(e.getName(), method.getName());
+            assertEquals(e.getReturnTypeName(), method.getReturnTypeName());
+            assertEquals(e.getAccessType(), method.getAccessType());
+            assertEquals(e.isStatic(), method.isStatic());
+            assertEquals(e.isAbstract(), method.isAbstract());
+            assertEquals(e.getArguments(), new ArrayList<String>(method.getArguments()));
+        }
+    }
+
+    private void put(Collection<UnitInfo> units) {
+        cache.put(file.getPath(), file.length(), file.lastModified(), units);
+    }
+
+    @Test
+    public void readsStoredUnits() {
+        List<UnitInfo> units = Arrays.asList(unit("p.A"), enumUnit(), unit("p.A$B"));
+        put(units);
+
+        assertEquals(Arrays.asList("p.A", "p.Color", "p.A$B"),
+                     new ArrayList<String>(cache.getNames(file.getPath())));
+        Collection<UnitInfo> cached = cache.get(file.getPath());
+        assertNotNull(cached);
+        assertEquals(units.size(), cached.size());
+        Iterator<UnitInfo> it = cached.iterator();
+        for(UnitInfo unit : units)
+            assertSameUnit(unit, it.next());
+    }
+
+    @Test
+    public void replacesStoredUnits() {
+        put(Collections.singletonList(unit("p.A")));
+        put(Collections.singletonList(unit("p.B")));
+        assertEquals(Collections.singletonList("p.B"),
+                     new ArrayList<String>(cache.getNames(file.getPath())));
+    }
+
+    @Test
+    public void missesUncachedFile() {
+        assertNull(cache.get(file.getPath()));
+        assertNull(cache.getNames(file.getPath()));
+    }
+
+    @Test
+    public void invalidatesChangedFile() throws IOException {
+        put(Collections.singletonList(unit("p.A")));
+        write(file, 11);
+        assertNull(cache.get(file.getPath()));
+        assertNull(cache.getNames(file.getPath()));
+
+        // the same size, but modified later
+        put(Collections.singletonList(unit("p.A")));
+        file.setLastModified(file.lastModified() + 5000);
+        assertNull(cache.get(file.getPath()));
+    }
+
+    @Test
+    public void ignoresStaleFingerprint() {
+        cache.put(file.getPath(), file.length() + 1, file.lastModified(),
+                  Collections.singletonList(unit("p.A")));
+        assertNull(cache.get(file.getPath()));
+        assertFalse(directory.isDirectory() && directory.list().length > 0);
+    }
+
+    @Test
+    public void returnsUnitsOnlyForCoveredOptions() {
+        ParseOptions options = new ParseOptions();
+        options.setMethodsRead(false);
+        options.setAccessTypeRead(AccessType.PRIVATE, false);
+        cache.put(file.getPath(), file.length(), file.lastModified(), options,
+                  Collections.singletonList(unit("p.A")));
+
+        assertNull(cache.get(file.getPath()));
+        assertNull(cache.get(file.getPath(), new ParseOptions()));
+        ParseOptions privateRead = new ParseOptions(options);
+        privateRead.setAccessTypeRead(AccessType.PRIVATE, true);
+        assertNull(cache.get(file.getPath(), privateRead));
+        assertNotNull(cache.get(file.getPath(), options));
+        ParseOptions fewer = new ParseOptions(options);
+        fewer.setFieldsRead(false);
+        assertNotNull(cache.get(file.getPath(), fewer));
+        assertNotNull(cache.getNames(file.getPath()));
+
+        // names of non-public units are missing
+        options.setNonpublicUnitsRead(false);
+        cache.put(file.getPath(), file.length(), file.lastModified(), options,
+                  Collections.singletonList(unit("p.A")));
+        assertNull(cache.getNames(file.getPath()));
+        assertNotNull(cache.get(file.getPath(), options));
+    }
+
+    @Test
+    public void storesDeferredUnitsWithoutMembers() {
+        final int[] reads = new int[1];
+        UnitSource source = new UnitSource() {
+            public UnitInfo read() {
+                reads[0]++;
+                return unit("p.A");
+            }
+        };
+        LazyUnitInfo lazy = new LazyUnitInfo(unit("p.A"), source);
+        List<UnitInfo> units = new ArrayList<UnitInfo>();
+        units.add(unit("p.B"));
+        units.add(lazy);
+        put(units);
+        assertEquals(0, reads[0]);
+        assertFalse(lazy.isLoaded());
+
+        List<UnitInfo> cached = new ArrayList<UnitInfo>(cache.get(file.getPath()));
+        assertEquals(2, cached.size());
+        assertSameUnit(unit("p.B"), cached.get(0));
+        assertTrue(cached.get(1) instanceof LazyUnitInfo);
+        LazyUnitInfo header = (LazyUnitInfo) cached.get(1);
+        assertFalse(header.isLoaded());
+        assertEquals("p.A", header.getName());
+        assertEquals("A", header.getSimpleName());
+        assertEquals("lib/a.jar", header.getOrigin());
+        assertTrue(header.isAbstract());
+        assertEquals(new HashSet<String>(unit("p.A").getSupertypes()),
+                     new HashSet<String>(header.getSupertypes()));
+        // members are read from the cached file, which is not a class file
+        try {
+            header.getMethods();
+            fail();
+        } catch(IllegalStateException ex) {
+        }
+
+        // once members are read, they are stored too
+        lazy.getMethods();
+        put(units);
+        assertEquals(1, reads[0]);
+        cached = new ArrayList<UnitInfo>(cache.get(file.getPath()));
+        assertFalse(cached.get(1) instanceof LazyUnitInfo);
+        assertSameUnit(unit("p.A"), cached.get(1));
+    }
+
+    @Test
+    public void keepsUnitsOfRebuiltArchive() throws IOException {
+        File jar = File.createTempFile("cached", ".jar");
+        try {
+            writeJar(jar, "first", 1);
+            cache.put(jar.getPath(), jar.length(), jar.lastModified(),
+                      Collections.singletonList(unit("p.A")));
+
+            // the same classes, but another comment, size and time
+            writeJar(jar, "second build", 2);
+            assertNotNull(cache.get(jar.getPath()));
+            assertNotNull(cache.getNames(jar.getPath()));
+
+            writeJar(jar, "second build", 3);
+            jar.setLastModified(jar.lastModified() + 1000);
+            writeJar(jar, "changed", 4, new byte[] {1, 2, 3});
+            assertNull(cache.get(jar.getPath()));
+        } finally {
+            jar.delete();
+            new File(directory, jar.getName() + "-" +
+                     Integer.toHexString(jar.getAbsolutePath().hashCode()) + ".units").delete();
+        }
+    }
+
+    private static void writeJar(File jar, String comment, int time) throws IOException {
+        writeJar(jar, comment, time, new byte[] {1, 2});
+    }
+
+    private static void writeJar(File jar, String comment, int time, byte[] data) throws IOException {
+        ZipOutputStream zip = new ZipOutputStream(new FileOutputStream(jar));
+        zip.setComment(comment);
+        zip.putNextEntry(new ZipEntry("p/A.class"));
+        zip.write(data);
+        zip.closeEntry();
+        zip.putNextEntry(new ZipEntry("readme.txt"));
+        zip.write(comment.getBytes("UTF-8"));
+        zip.closeEntry();
+        zip.close();
+        jar.setLastModified(1000000000000L + 1000L * time);
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ * UnitQueueTest.java
+ *
+ * Created on 18 October 2026, 12:40
+ *
+ * Copyright 2026 Code2Uml contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.sourceforge.code2uml.unitdata;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Tests of UnitQueue: units must be taken in the order they were put, and a
+ * cancelled queue must stop the producer.
+ *
+ * @author Code2Uml contributors
+ */
+public class UnitQueueTest {
+
+    private static UnitInfo unit(String name) {
+        UnitInfoImpl unit = new UnitInfoImpl();
+        unit.setName(name);
+        return unit;
+    }
+
+    /**
+     * Starts a thread which puts units named "u0" to "u<i>count</i> - 1" to
+     * the queue and closes it.
+     */
+    private static Thread produce(final UnitQueue queue, final int count) {
+        Thread producer = new Thread() {
+            public void run() {
+                try {
+                    for(int i = 0; i < count; i++) {
+                        if(!queue.put(unit("u" + i)))
+                            break;
+                    }
+                } catch(InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    queue.close();
+                }
+            }
+        };
+        producer.start();
+        return producer;
+    }
+
+    @Test(timeout = 10000)
+    public void takesUnitsInOrder() throws InterruptedException {
+        // a small queue, so the producer waits for the consumer
+        UnitQueue queue = new UnitQueue(4);
+        Thread producer = produce(queue, 100);
+        List<String> names = new ArrayList<String>();
+        for(UnitInfo unit : queue)
+            names.add(unit.getName());
+        producer.join();
+
+        assertEquals(100, names.size());
+        for(int i = 0; i < names.size(); i++)
+            assertEquals("u" + i, names.get(i));
+        assertFalse(queue.isCancelled());
+    }
+
+    @Test(timeout = 10000)
+    public void cancelStopsProducer() throws InterruptedException {
+        UnitQueue queue = new UnitQueue(4);
+        Thread producer = produce(queue, Integer.MAX_VALUE);
+        Iterator<UnitInfo> it = queue.iterator();
+        assertEquals("u0", it.next().getName());
+        queue.cancel();
+        producer.join();
+
+        assertTrue(queue.isCancelled());
+        assertFalse(queue.put(unit("late")));
+    }
+}
@@ -0,0 +1,230 @@
+/*
+ * UnitsRetrieverImplTest.java
+ *
+ * Created on 18 October 2026, 11:05
+ *
+ * Copyright 2026 Code2Uml contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.sourceforge.code2uml.unitdata;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import net.sourceforge.code2uml.inspectors.java.ClassFileInspector;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Tests of UnitsRetrieverImpl reading files through a UnitCacheImpl.
+ *
+ * @author Code2Uml contributors
+ */
+public class UnitsRetrieverImplTest {
+
+    private File directory;
+    private File file;
+    private UnitCacheImpl cache;
+
+    @Before
+    public void setUp() throws IOException {
+        directory = File.createTempFile("units", "");
+        directory.delete();
+        file = File.createTempFile("Retrieved", ".class");
+        copyClassFile(UnitInfoImpl.class, file);
+        cache = new UnitCacheImpl(directory);
+    }
+
+    @After
+    public void tearDown() {
+        file.delete();
+        File[] files = directory.listFiles();
+        if(files != null) {
+            for(File f : files)
+                f.delete();
+        }
+        directory.delete();
+    }
+
+    private static void copyClassFile(Class<?> c, File file) throws IOException {
+        InputStream in = c.getResourceAsStream("/" + c.getName().replace('.', '/') + ".class");
+        OutputStream out = new FileOutputStream(file);
+        byte[] buf = new byte[4096];
+        int n;
+        while((n = in.read(buf)) > 0)
+            out.write(buf, 0, n);
+        out.close();
+        in.close();
+    }
+
+    private UnitsRetrieverImpl retriever() {
+        UnitsRetrieverImpl retriever = new UnitsRetrieverImpl(cache);
+        retriever.setExecutor(null);
+        return retriever;
+    }
+
+    /**
+     * Returns a temporary file whose units are <code>units</code> in the
+     * cache.
+     */
+    private File cachedFile(UnitInfo... units) throws IOException {
+        File cached = File.createTempFile("Cached", ".class");
+        cached.deleteOnExit();
+        OutputStream out = new FileOutputStream(cached);
+        out.write(units.length);
+        out.close();
+        cache.put(cached.getPath(), cached.length(), cached.lastModified(), Arrays.asList(units));
+        return cached;
+    }
+
+    private static UnitInfo unit(String name, boolean partial, String enumValue) {
+        UnitInfoImpl unit = new UnitInfoImpl();
+        unit.setName(name);
+        unit.setSimpleName(name.substring(name.lastIndexOf('.') + 1));
+        unit.setIsPublic(true);
+        unit.setIsEnum(partial);
+        unit.setIsClass(!partial);
+        unit.setIsPartial(partial);
+        if(enumValue != null)
+            unit.addEnumValue(enumValue);
+        return unit;
+    }
+
+    /**
+     * UnitSink which records units put to it and refuses those after the
+     * first <code>limit</code>.
+     */
+    private static class RecordingSink implements UnitSink {
+
+        private List<UnitInfo> units = new ArrayList<UnitInfo>();
+        private int limit;
+        private int closeCount;
+
+        RecordingSink(int limit) {
+            this.limit = limit;
+        }
+
+        public boolean put(UnitInfo unit) {
+            units.add(unit);
+            return units.size() < limit;
+        }
+
+        public void close() {
+            closeCount++;
+        }
+
+        List<String> names() {
+            List<String> names = new ArrayList<String>();
+            for(UnitInfo unit : units)
+                names.add(unit.getName());
+            return names;
+        }
+    }
+
+    private static Set<String> methodNames(UnitInfo unit) {
+        Set<String> names = new HashSet<String>();
+        for(MethodInfo method : unit.getMethods())
+            names.add(method.getName());
+        return names;
+    }
+
+    @Test
+    public void cachesDeferredRetrieval() {
+        ParseOptions options = new ParseOptions();
+        options.setMembersDeferred(true);
+        List<String> paths = Collections.singletonList(file.getPath());
+        List<String> names = Collections.singletonList(UnitInfoImpl.class.getName());
+        Collection<UnitInfo> units = retriever().retrieve(paths, names, options);
+        assertEquals(1, units.size());
+        assertFalse(((LazyUnitInfo) units.iterator().next()).isLoaded());
+
+        File[] cacheFiles = directory.listFiles();
+        assertNotNull(cacheFiles);
+        assertEquals(1, cacheFiles.length);
+        assertTrue(cacheFiles[0].getName().endsWith(".units"));
+
+        // the next retrieval reads only the cache, members are read when needed
+        units = retriever().retrieve(paths, names, options);
+        assertEquals(1, units.size());
+        UnitInfo unit = units.iterator().next();
+        assertTrue(unit instanceof LazyUnitInfo);
+        assertFalse(((LazyUnitInfo) unit).isLoaded());
+        assertEquals(UnitInfoImpl.class.getName(), unit.getName());
+        UnitInfo expected = new ClassFileInspector().inspect(file.getPath()).iterator().next();
+        assertEquals(methodNames(expected), methodNames(unit));
+        assertEquals(expected.getFields().size(), unit.getFields().size());
+
+        // and stored in the cache, so the file is not read again
+        UnitInfo cached = cache.get(file.getPath()).iterator().next();
+        assertFalse(cached instanceof LazyUnitInfo);
+        assertEquals(methodNames(expected), methodNames(cached));
+    }
+
+    @Test
+    public void cachesUnitsWithTheirOptions() {
+        ParseOptions options = new ParseOptions();
+        options.setMethodsRead(false);
+        List<String> paths = Collections.singletonList(file.getPath());
+        List<String> names = Collections.singletonList(UnitInfoImpl.class.getName());
+        UnitInfo unit = retriever().retrieve(paths, names, options).iterator().next();
+        assertTrue(unit.getMethods().isEmpty());
+        assertNotNull(cache.get(file.getPath(), options));
+
+        // units without methods are not used when methods are needed
+        unit = retriever().retrieve(paths, names).iterator().next();
+        assertFalse(unit.getMethods().isEmpty());
+        assertNotNull(cache.get(file.getPath()));
+        // but complete units are used when they are not
+        assertTrue(cache.get(file.getPath(), options).iterator().next().getMethods().size() > 0);
+    }
+
+    @Test
+    public void streamsUnitsAsFilesAreRead() throws IOException, InterruptedException {
+        File first = cachedFile(unit("p.A", false, null), unit("p.Color", true, "RED"));
+        File second = cachedFile(unit("p.B", false, null), unit("p.Color", true, "GREEN"),
+                                 unit("p.Hidden", false, null));
+        RecordingSink sink = new RecordingSink(Integer.MAX_VALUE);
+        retriever().retrieve(Arrays.asList(first.getPath(), second.getPath()),
+                             Arrays.asList("p.A", "p.B", "p.Color"), null, sink);
+
+        // units of each file in order, partial ones merged at the end
+        assertEquals(Arrays.asList("p.A", "p.B", "p.Color"), sink.names());
+        assertEquals(new HashSet<String>(Arrays.asList("RED", "GREEN")),
+                     new HashSet<String>(sink.units.get(2).getEnumValues()));
+        assertEquals(1, sink.closeCount);
+    }
+
+    @Test
+    public void stopsWhenSinkRefuses() throws IOException, InterruptedException {
+        File first = cachedFile(unit("p.A", false, null), unit("p.B", false, null));
+        File second = cachedFile(unit("p.C", false, null));
+        RecordingSink sink = new RecordingSink(1);
+        retriever().retrieve(Arrays.asList(first.getPath(), second.getPath()),
+                             Arrays.asList("p.A", "p.B", "p.C"), null, sink);
+        assertEquals(Collections.singletonList("p.A"), sink.names());
+        assertEquals(1, sink.closeCount);
+    }
+}
@@ -0,0 +1,122 @@
+/*
+ * NamesFilterTest.java
+ *
+ * Created on 18 October 2026, 00:05
+ *
+ * Copyright 2026 Code2Uml contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.sourceforge.code2uml.util;
+
+import java.util.Arrays;
+import java.util.Collections;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Tests of NamesFilter: names, package rules and other patterns.
+ *
+ * @author Code2Uml contributors
+ */
+public class NamesFilterTest {
+
+    @Test
+    public void acceptsExactNames() {
+        NamesFilter filter = new NamesFilter(Arrays.asList("com.acme.Foo", "Bar"));
+        assertTrue(filter.accepts("com.acme.Foo"));
+        assertTrue(filter.accepts("Bar"));
+        assertFalse(filter.accepts("com.acme.Foo$Inner"));
+        assertFalse(filter.accepts("com.acme.Fo"));
+        assertFalse(filter.accepts("com.acme.Bar"));
+    }
+
+    @Test
+    public void acceptsPackage() {
+        NamesFilter filter = new NamesFilter(Collections.singletonList("com.acme.*"));
+        assertTrue(filter.accepts("com.acme.Foo"));
+        assertTrue(filter.accepts("com.acme.Foo$Bar"));
+        assertFalse(filter.accepts("com.acme.sub.Foo"));
+        assertFalse(filter.accepts("com.acmeX.Foo"));
+        assertFalse(filter.accepts("com.Foo"));
+        assertFalse(filter.accepts("Foo"));
+    }
+
+    @Test
+    public void acceptsPackageTree() {
+        NamesFilter filter = new NamesFilter(Collections.singletonList("com.acme.**"));
+        assertTrue(filter.accepts("com.acme.Foo"));
+        assertTrue(filter.accepts("com.acme.Foo$Bar"));
+        assertTrue(filter.accepts("com.acme.sub.deep.Foo"));
+        assertFalse(filter.accepts("com.acmeX.Foo"));
+        assertFalse(filter.accepts("com.Foo"));
+        assertFalse(filter.accepts("org.com.acme.Foo"));
+    }
+
+    @Test
+    public void acceptsPatterns() {
+        NamesFilter filter = new NamesFilter(Arrays.asList("com.*.service.*Impl", "org.**.Test*"));
+        assertTrue(filter.accepts("com.acme.service.UserImpl"));
+        assertTrue(filter.accepts("com.acme.service.Impl"));
+        assertFalse(filter.accepts("com.acme.web.service.UserImpl"));
+        assertFalse(filter.accepts("com.acme.service.sub.UserImpl"));
+        assertFalse(filter.accepts("com.acme.service.UserImplX"));
+        assertTrue(filter.accepts("org.a.b.TestFoo"));
+        assertTrue(filter.accepts("org.a.TestFoo$Inner"));
+        assertFalse(filter.accepts("org.TestFoo"));
+    }
+
+    @Test
+    public void quotesOtherCharacters() {
+        NamesFilter filter = new NamesFilter(Collections.singletonList("a$b.*"));
+        assertTrue(filter.accepts("a$b.C"));
+        assertFalse(filter.accepts("ab.C"));
+    }
+
+    @Test
+    public void acceptsAll() {
+        NamesFilter filter = new NamesFilter(Collections.singletonList("**"));
+        assertTrue(filter.accepts("Foo"));
+        assertTrue(filter.accepts("com.acme.Foo$Bar"));
+    }
+
+    @Test
+    public void remembersNamesAndRules() {
+        NamesFilter filter = new NamesFilter();
+        assertFalse(filter.accepts("Foo"));
+        assertTrue(filter.add("b.*"));
+        assertTrue(filter.add("a.A"));
+        assertFalse(filter.add("b.*"));
+        assertFalse(filter.addAll(Arrays.asList("a.A", "b.*")));
+        assertEquals(Arrays.asList("b.*", "a.A"), Arrays.asList(filter.getNamesAndRules().toArray()));
+        assertTrue(NamesFilter.isRule("b.*"));
+        assertFalse(NamesFilter.isRule("a.A"));
+    }
+
+    @Test
+    public void clearRemovesEverything() {
+        NamesFilter filter = new NamesFilter(Arrays.asList("a.A", "b.*", "c.**", "d.*Impl", "**"));
+        filter.clear();
+        assertTrue(filter.getNamesAndRules().isEmpty());
+        for(String name : new String[] {"a.A", "b.B", "c.d.C", "d.XImpl", "Foo"})
+            assertFalse(name, filter.accepts(name));
+    }
+
+    @Test
+    public void nullMeansAllNames() {
+        assertNull(NamesFilter.of(null));
+        NamesFilter filter = NamesFilter.of(Collections.singletonList("a.*"));
+        assertTrue(filter.accepts("a.A"));
+    }
+}